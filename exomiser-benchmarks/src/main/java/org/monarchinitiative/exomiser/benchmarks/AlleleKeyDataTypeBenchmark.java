@@ -0,0 +1,110 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.h2.mvstore.WriteBuffer;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.AlleleKeyDataType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+
+/**
+ * Measures the serialisation, de-serialisation and comparison of {@link AlleleKey} by the {@link AlleleKeyDataType},
+ * which are performed for every key read from or compared against in the MVStore B-tree.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlleleKeyDataTypeBenchmark {
+
+    private static final int NUM_KEYS = 1000;
+
+    private final AlleleKeyDataType dataType = AlleleKeyDataType.INSTANCE;
+
+    private final List<AlleleKey> alleleKeys = new ArrayList<>(NUM_KEYS);
+    private final WriteBuffer writeBuffer = new WriteBuffer();
+    private ByteBuffer serialisedKeys;
+
+    @Setup
+    public void setUp() {
+        SyntheticGenome genome = SyntheticGenome.of(200, 42);
+        SyntheticVariantGenerator variantGenerator = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), 42);
+        for (VariantContext variantContext : variantGenerator.generate(NUM_KEYS)) {
+            alleleKeys.add(AlleleKey.newBuilder()
+                    .setChr(Integer.parseInt(variantContext.getContig()))
+                    .setPosition(variantContext.getStart())
+                    .setRef(variantContext.getReference().getBaseString())
+                    .setAlt(variantContext.getAlternateAllele(0).getBaseString())
+                    .build());
+        }
+        WriteBuffer buffer = new WriteBuffer();
+        for (AlleleKey alleleKey : alleleKeys) {
+            dataType.write(buffer, alleleKey);
+        }
+        ByteBuffer byteBuffer = buffer.getBuffer();
+        byteBuffer.flip();
+        serialisedKeys = byteBuffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_KEYS)
+    public WriteBuffer write() {
+        writeBuffer.clear();
+        for (AlleleKey alleleKey : alleleKeys) {
+            dataType.write(writeBuffer, alleleKey);
+        }
+        return writeBuffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_KEYS)
+    public void read(Blackhole blackhole) {
+        ByteBuffer buffer = serialisedKeys.duplicate();
+        for (int i = 0; i < NUM_KEYS; i++) {
+            blackhole.consume(dataType.read(buffer));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_KEYS)
+    public int compare() {
+        int result = 0;
+        AlleleKey previous = alleleKeys.get(NUM_KEYS - 1);
+        for (AlleleKey alleleKey : alleleKeys) {
+            result += dataType.compare(previous, alleleKey);
+            previous = alleleKey;
+        }
+        return result;
+    }
+}
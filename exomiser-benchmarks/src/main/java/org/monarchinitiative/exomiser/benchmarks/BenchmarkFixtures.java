@@ -0,0 +1,114 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.pedigree.*;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.monarchinitiative.exomiser.core.filters.FilterResult;
+import org.monarchinitiative.exomiser.core.filters.FilterType;
+import org.monarchinitiative.exomiser.core.model.AllelePosition;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.VariantAnnotation;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Shared set-up for benchmarks which need annotated, filtered genes from a family.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class BenchmarkFixtures {
+
+    public static final String PROBAND = "Cain";
+    public static final List<String> TRIO_SAMPLE_NAMES = ImmutableList.of(PROBAND, "Eve", "Adam");
+
+    private BenchmarkFixtures() {
+        //static utility class - not instantiable
+    }
+
+    /**
+     * @return an affected son and his unaffected parents, with sample names matching {@link #TRIO_SAMPLE_NAMES}.
+     */
+    public static Pedigree trioPedigree() {
+        PedPerson proband = new PedPerson("Family", PROBAND, "Adam", "Eve", Sex.MALE, Disease.AFFECTED, new ArrayList<>());
+        PedPerson mother = new PedPerson("Family", "Eve", "0", "0", Sex.FEMALE, Disease.UNAFFECTED, new ArrayList<>());
+        PedPerson father = new PedPerson("Family", "Adam", "0", "0", Sex.MALE, Disease.UNAFFECTED, new ArrayList<>());
+        PedFileContents pedFileContents = new PedFileContents(ImmutableList.of(), ImmutableList.of(proband, mother, father));
+        try {
+            return new Pedigree("Family", new PedigreeExtractor("Family", pedFileContents).run());
+        } catch (PedParseException e) {
+            throw new IllegalStateException("Unable to build trio pedigree", e);
+        }
+    }
+
+    /**
+     * @return the unannotated first allele of the record, trimmed in the same way as the {@link VariantEvaluation}
+     * created from it so that it can be used to key the variant data stores.
+     */
+    public static Variant toVariant(VariantContext variantContext) {
+        AllelePosition allelePosition = AllelePosition.trim(variantContext.getStart(), variantContext.getReference()
+                .getBaseString(), variantContext.getAlternateAllele(0).getBaseString());
+        return VariantAnnotation.builder()
+                .genomeAssembly(SyntheticGenome.GENOME_ASSEMBLY)
+                .chromosome(Integer.parseInt(variantContext.getContig()))
+                .chromosomeName(variantContext.getContig())
+                .position(allelePosition.getPos())
+                .ref(allelePosition.getRef())
+                .alt(allelePosition.getAlt())
+                .build();
+    }
+
+    /**
+     * @return annotated variants which have passed all the filters.
+     */
+    public static List<VariantEvaluation> passedVariantEvaluations(SyntheticGenome genome, List<VariantContext> variantContexts) {
+        List<VariantEvaluation> variantEvaluations = genome.buildVariantFactory()
+                .createVariantEvaluations(variantContexts.stream())
+                .collect(toList());
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            variantEvaluation.addFilterResult(FilterResult.pass(FilterType.VARIANT_EFFECT_FILTER));
+            variantEvaluation.addFilterResult(FilterResult.pass(FilterType.FREQUENCY_FILTER));
+        }
+        return variantEvaluations;
+    }
+
+    /**
+     * Groups the variants into genes, in the order the genes are first seen. Variants outside of genes are not
+     * included.
+     */
+    public static List<Gene> groupIntoGenes(List<VariantEvaluation> variantEvaluations) {
+        Map<String, Gene> genes = new LinkedHashMap<>();
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            if (variantEvaluation.getGeneId().isEmpty()) {
+                continue;
+            }
+            Gene gene = genes.computeIfAbsent(variantEvaluation.getGeneSymbol(), geneSymbol -> new Gene(geneSymbol, Integer
+                    .parseInt(variantEvaluation.getGeneId())));
+            gene.addVariant(variantEvaluation);
+        }
+        return new ArrayList<>(genes.values());
+    }
+}
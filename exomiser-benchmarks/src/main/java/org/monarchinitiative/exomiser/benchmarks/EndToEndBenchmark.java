@@ -0,0 +1,317 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
+import htsjdk.tribble.readers.TabixReader;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.mvstore.MVStore;
+import org.monarchinitiative.exomiser.core.Exomiser;
+import org.monarchinitiative.exomiser.core.analysis.Analysis;
+import org.monarchinitiative.exomiser.core.analysis.AnalysisBuilder;
+import org.monarchinitiative.exomiser.core.analysis.AnalysisFactory;
+import org.monarchinitiative.exomiser.core.analysis.AnalysisMode;
+import org.monarchinitiative.exomiser.core.analysis.AnalysisResults;
+import org.monarchinitiative.exomiser.core.genome.*;
+import org.monarchinitiative.exomiser.core.genome.dao.*;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatchService;
+import org.monarchinitiative.exomiser.core.phenotype.dao.HumanPhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.MousePhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.ZebraFishPhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.service.OntologyService;
+import org.monarchinitiative.exomiser.core.phenotype.service.OntologyServiceImpl;
+import org.monarchinitiative.exomiser.core.prioritisers.HiPhiveOptions;
+import org.monarchinitiative.exomiser.core.prioritisers.PriorityFactory;
+import org.monarchinitiative.exomiser.core.prioritisers.PriorityFactoryImpl;
+import org.monarchinitiative.exomiser.core.prioritisers.dao.DefaultDiseaseDao;
+import org.monarchinitiative.exomiser.core.prioritisers.service.ModelServiceImpl;
+import org.monarchinitiative.exomiser.core.prioritisers.service.PriorityService;
+import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs complete analyses, from reading the VCF to scoring the genes, over a {@link SyntheticWorkload} and reports the
+ * throughput, peak heap use and time spent in each analysis step. Everything is wired up directly from the synthetic
+ * data files, so this runs offline without the Spring configuration or the production data.
+ * <p>
+ * Run from the command line with, for example:
+ * <pre>
+ * java -cp exomiser-benchmarks/target/benchmarks.jar org.monarchinitiative.exomiser.benchmarks.EndToEndBenchmark --workload=TRIO --variants=30000 --genes=2000 --iterations=5
+ * </pre>
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class EndToEndBenchmark implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndToEndBenchmark.class);
+
+    // the effects removed by the variant effect filter in the example exome analyses
+    private static final Set<VariantEffect> NON_EXONIC_VARIANT_EFFECTS = EnumSet.of(
+            VariantEffect.FIVE_PRIME_UTR_EXON_VARIANT,
+            VariantEffect.FIVE_PRIME_UTR_INTRON_VARIANT,
+            VariantEffect.THREE_PRIME_UTR_EXON_VARIANT,
+            VariantEffect.THREE_PRIME_UTR_INTRON_VARIANT,
+            VariantEffect.NON_CODING_TRANSCRIPT_EXON_VARIANT,
+            VariantEffect.UPSTREAM_GENE_VARIANT,
+            VariantEffect.INTERGENIC_VARIANT,
+            VariantEffect.REGULATORY_REGION_VARIANT,
+            VariantEffect.CODING_TRANSCRIPT_INTRON_VARIANT,
+            VariantEffect.NON_CODING_TRANSCRIPT_INTRON_VARIANT,
+            VariantEffect.DOWNSTREAM_GENE_VARIANT
+    );
+
+    private static final Set<PathogenicitySource> PATHOGENICITY_SOURCES = EnumSet.of(
+            PathogenicitySource.POLYPHEN,
+            PathogenicitySource.MUTATION_TASTER,
+            PathogenicitySource.SIFT,
+            PathogenicitySource.CADD,
+            PathogenicitySource.REMM
+    );
+
+    private final SyntheticWorkload workload;
+    private final MVStore mvStore;
+    private final List<TabixDataSource> tabixDataSources = new ArrayList<>();
+    private final HikariDataSource genomeDataSource;
+    private final HikariDataSource phenotypeDataSource;
+    private final Exomiser exomiser;
+
+    public EndToEndBenchmark(SyntheticWorkload workload) throws IOException {
+        this.workload = workload;
+        Path directory = workload.getDirectory();
+
+        this.mvStore = new MVStore.Builder()
+                .fileName(directory.resolve(SyntheticWorkload.VARIANT_STORE_FILE_NAME).toAbsolutePath().toString())
+                .readOnly()
+                .open();
+        VariantDataService variantDataService = VariantDataServiceImpl.builder()
+                .defaultFrequencyDao(new DefaultFrequencyDaoMvStoreProto(mvStore))
+                .pathogenicityDao(new DefaultPathogenicityDaoMvStoreProto(mvStore))
+                .localFrequencyDao(new LocalFrequencyDao(openTabixDataSource(directory.resolve(SyntheticWorkload.LOCAL_FREQUENCY_FILE_NAME))))
+                .caddDao(new CaddDao(openTabixDataSource(directory.resolve(SyntheticWorkload.CADD_INDEL_FILE_NAME)), openTabixDataSource(directory
+                        .resolve(SyntheticWorkload.CADD_SNV_FILE_NAME))))
+                .remmDao(new RemmDao(openTabixDataSource(directory.resolve(SyntheticWorkload.REMM_FILE_NAME))))
+                .build();
+
+        this.genomeDataSource = openDataSource(directory.resolve(SyntheticWorkload.GENOME_DB_NAME), "synthetic-genome");
+        SyntheticGenome genome = workload.getGenome();
+        GenomeDataService genomeDataService = new GenomeDataServiceImpl(new GeneFactory(genome.getJannovarData()), new RegulatoryFeatureDao(genomeDataSource), new TadDao(genomeDataSource));
+        GenomeAnalysisService genomeAnalysisService = new GenomeAnalysisServiceImpl(SyntheticGenome.GENOME_ASSEMBLY, genomeDataService, variantDataService, genome
+                .buildVariantFactory());
+
+        this.phenotypeDataSource = openDataSource(directory.resolve(SyntheticWorkload.PHENOTYPE_DB_NAME), "synthetic-phenotype");
+        OntologyService ontologyService = new OntologyServiceImpl(new HumanPhenotypeOntologyDao(phenotypeDataSource), new MousePhenotypeOntologyDao(phenotypeDataSource), new ZebraFishPhenotypeOntologyDao(phenotypeDataSource));
+        PriorityService priorityService = new PriorityService(new ModelServiceImpl(phenotypeDataSource), new PhenotypeMatchService(ontologyService), new DefaultDiseaseDao(phenotypeDataSource));
+        // there is no synthetic PPI network or Phenix data, so the HiPhive PPI and Phenix prioritisers are not run
+        PriorityFactory priorityFactory = new PriorityFactoryImpl(priorityService, DataMatrix.EMPTY, directory);
+
+        this.exomiser = new Exomiser(new AnalysisFactory(new GenomeAnalysisServiceProvider(genomeAnalysisService), priorityFactory));
+    }
+
+    private TabixDataSource openTabixDataSource(Path tabixFile) throws IOException {
+        TabixDataSource tabixDataSource = new TabixReaderAdaptor(new TabixReader(tabixFile.toAbsolutePath().toString()));
+        tabixDataSources.add(tabixDataSource);
+        return tabixDataSource;
+    }
+
+    private static HikariDataSource openDataSource(Path dbFile, String poolName) {
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName("org.h2.Driver");
+        config.setJdbcUrl(SyntheticDataWriter.h2JdbcUrl(dbFile) + ";IFEXISTS=TRUE;ACCESS_MODE_DATA=r");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(3);
+        config.setPoolName(poolName);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Builds the analysis run by the benchmark - the same filters and prioritisers as the example exome analysis,
+     * with HiPhive restricted to the human disease models.
+     */
+    public Analysis buildAnalysis(AnalysisMode analysisMode) {
+        Set<FrequencySource> frequencySources = EnumSet.copyOf(FrequencySource.ALL_EXTERNAL_FREQ_SOURCES);
+        frequencySources.add(FrequencySource.LOCAL);
+        AnalysisBuilder analysisBuilder = exomiser.getAnalysisBuilder()
+                .genomeAssembly(SyntheticGenome.GENOME_ASSEMBLY)
+                .vcfPath(workload.getVcfPath())
+                .probandSampleName(workload.getProbandSampleName())
+                .hpoIds(workload.getHpoIds())
+                .modeOfInheritance(ModeOfInheritance.AUTOSOMAL_RECESSIVE)
+                .analysisMode(analysisMode)
+                .frequencySources(frequencySources)
+                .pathogenicitySources(PATHOGENICITY_SOURCES);
+        if (workload.getPedPath() != null) {
+            analysisBuilder.pedPath(workload.getPedPath());
+        }
+        return analysisBuilder
+                .addVariantEffectFilter(NON_EXONIC_VARIANT_EFFECTS)
+                .addFrequencyFilter(1.0f)
+                .addPathogenicityFilter(true)
+                .addInheritanceFilter()
+                .addOmimPrioritiser()
+                .addHiPhivePrioritiser(HiPhiveOptions.builder().runParams("human").build())
+                .build();
+    }
+
+    /**
+     * Runs the analysis the given number of times, after running the warm-up analyses which are not measured.
+     */
+    public EndToEndReport run(int warmupIterations, int iterations, AnalysisMode analysisMode) {
+        Analysis analysis = buildAnalysis(analysisMode);
+        for (int i = 0; i < warmupIterations; i++) {
+            logger.info("Warm-up analysis {} of {}", i + 1, warmupIterations);
+            exomiser.run(analysis).close();
+        }
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        try {
+            long totalNanos = 0;
+            long peakHeapBytes = 0;
+            for (int i = 0; i < iterations; i++) {
+                logger.info("Measured analysis {} of {}", i + 1, iterations);
+                System.gc();
+                resetPeakHeapUsage();
+                long start = System.nanoTime();
+                try (AnalysisResults analysisResults = exomiser.run(analysis)) {
+                    totalNanos += System.nanoTime() - start;
+                    peakHeapBytes = Math.max(peakHeapBytes, peakHeapUsage());
+                    logger.info("Analysed {} variants in {} genes", analysisResults.getVariantEvaluations()
+                            .size(), analysisResults.getGenes().size());
+                }
+            }
+            return new EndToEndReport(workload, iterations, totalNanos, peakHeapBytes, meanStepMillis(meterRegistry, iterations));
+        } finally {
+            Metrics.removeRegistry(meterRegistry);
+        }
+    }
+
+    private static void resetPeakHeapUsage() {
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP) {
+                memoryPool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * The pools do not necessarily peak at the same time, so this is an upper bound on the peak heap use.
+     */
+    private static long peakHeapUsage() {
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP) {
+                peakHeapBytes += memoryPool.getPeakUsage().getUsed();
+            }
+        }
+        return peakHeapBytes;
+    }
+
+    private static Map<String, Double> meanStepMillis(SimpleMeterRegistry meterRegistry, int iterations) {
+        Map<String, Double> meanStepMillis = new TreeMap<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            if (meter instanceof Timer && ExomiserMetrics.ANALYSIS_STEP.equals(meter.getId().getName())) {
+                Timer timer = (Timer) meter;
+                String step = tagValue(timer.getId(), "type") + ":" + tagValue(timer.getId(), "step");
+                meanStepMillis.merge(step, timer.totalTime(TimeUnit.MILLISECONDS) / Math.max(1, iterations), Double::sum);
+            }
+        }
+        return meanStepMillis;
+    }
+
+    private static String tagValue(Meter.Id id, String key) {
+        for (Tag tag : id.getTags()) {
+            if (tag.getKey().equals(key)) {
+                return tag.getValue();
+            }
+        }
+        return "";
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (TabixDataSource tabixDataSource : tabixDataSources) {
+            tabixDataSource.close();
+        }
+        genomeDataSource.close();
+        phenotypeDataSource.close();
+        mvStore.close();
+    }
+
+    /**
+     * Creates a workload and runs the benchmark against it. Arguments are given as --name=value pairs for any of
+     * workload (EXOME, GENOME or TRIO), variants, genes, iterations, warmup, mode (FULL, SPARSE or PASS_ONLY), seed and
+     * dir. The workload is written to a temporary directory unless dir is given.
+     */
+    public static void main(String[] args) throws IOException, SQLException {
+        Map<String, String> options = parseOptions(args);
+        WorkloadType workloadType = WorkloadType.valueOf(options.getOrDefault("workload", WorkloadType.EXOME.name())
+                .toUpperCase(Locale.ROOT));
+        int numVariants = Integer.parseInt(options.getOrDefault("variants", Integer.toString(workloadType.getDefaultNumVariants())));
+        int numGenes = Integer.parseInt(options.getOrDefault("genes", "2000"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+        int warmupIterations = Integer.parseInt(options.getOrDefault("warmup", "1"));
+        AnalysisMode analysisMode = AnalysisMode.valueOf(options.getOrDefault("mode", AnalysisMode.PASS_ONLY.name())
+                .toUpperCase(Locale.ROOT));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Path directory = options.containsKey("dir") ? Paths.get(options.get("dir")) : Files.createTempDirectory("exomiser-workload");
+
+        SyntheticWorkload workload = SyntheticWorkload.create(workloadType, numVariants, numGenes, directory, seed);
+        try (EndToEndBenchmark benchmark = new EndToEndBenchmark(workload)) {
+            EndToEndReport report = benchmark.run(warmupIterations, iterations, analysisMode);
+            logger.info("End-to-end benchmark results for {} analysis:{}{}", analysisMode, System.lineSeparator(), report.format());
+        }
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected an argument of the form --name=value but got '" + arg + "'");
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
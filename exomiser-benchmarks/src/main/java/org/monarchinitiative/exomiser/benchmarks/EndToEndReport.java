@@ -0,0 +1,115 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The measurements taken by an {@link EndToEndBenchmark} over a number of analyses of the same workload.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class EndToEndReport {
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private final SyntheticWorkload workload;
+    private final int iterations;
+    private final long totalNanos;
+    private final long peakHeapBytes;
+    private final Map<String, Double> meanStepMillis;
+
+    /**
+     * @param workload       the workload analysed
+     * @param iterations     number of measured analyses
+     * @param totalNanos     time taken to run all the measured analyses
+     * @param peakHeapBytes  highest heap use seen during any one of the analyses
+     * @param meanStepMillis mean time per analysis spent in each type of analysis step
+     */
+    public EndToEndReport(SyntheticWorkload workload, int iterations, long totalNanos, long peakHeapBytes, Map<String, Double> meanStepMillis) {
+        this.workload = workload;
+        this.iterations = iterations;
+        this.totalNanos = totalNanos;
+        this.peakHeapBytes = peakHeapBytes;
+        this.meanStepMillis = ImmutableMap.copyOf(meanStepMillis);
+    }
+
+    public SyntheticWorkload getWorkload() {
+        return workload;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getMeanAnalysisMillis() {
+        return iterations == 0 ? 0 : (double) totalNanos / TimeUnit.MILLISECONDS.toNanos(1) / iterations;
+    }
+
+    public double getVariantsPerSecond() {
+        if (totalNanos == 0) {
+            return 0;
+        }
+        return (double) workload.getNumVariants() * iterations / totalNanos * TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    /**
+     * @return mean time per analysis, in milliseconds, spent in each type of step keyed by the step type and name
+     * e.g. variant-filter:FREQUENCY_FILTER
+     */
+    public Map<String, Double> getMeanStepMillis() {
+        return meanStepMillis;
+    }
+
+    /**
+     * @return a plain-text summary suitable for logging or comparing between commits.
+     */
+    public String format() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(String.format(Locale.ROOT, "Workload: %s %d variants in %d genes, %d iterations%n", workload.getWorkloadType(), workload
+                .getNumVariants(), workload.getGenome().getGenes().size(), iterations));
+        stringBuilder.append(String.format(Locale.ROOT, "Mean analysis time: %.1f ms%n", getMeanAnalysisMillis()));
+        stringBuilder.append(String.format(Locale.ROOT, "Throughput: %.1f variants/s%n", getVariantsPerSecond()));
+        stringBuilder.append(String.format(Locale.ROOT, "Peak heap: %d MB%n", peakHeapBytes / BYTES_PER_MB));
+        stringBuilder.append(String.format(Locale.ROOT, "%-48s %12s%n", "Step", "Mean (ms)"));
+        meanStepMillis.forEach((step, millis) -> stringBuilder.append(String.format(Locale.ROOT, "%-48s %12.1f%n", step, millis)));
+        return stringBuilder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "EndToEndReport{" +
+                "workload=" + workload.getWorkloadType() +
+                ", iterations=" + iterations +
+                ", meanAnalysisMillis=" + getMeanAnalysisMillis() +
+                ", variantsPerSecond=" + getVariantsPerSecond() +
+                ", peakHeapBytes=" + peakHeapBytes +
+                '}';
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.monarchinitiative.exomiser.core.genome.dao.DefaultFrequencyDaoMvStoreProto;
+import org.monarchinitiative.exomiser.core.genome.dao.FrequencyDao;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.MvStoreUtil;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import static org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+
+/**
+ * Measures allele frequency lookups from an in-memory {@link MVStore} through the
+ * {@link DefaultFrequencyDaoMvStoreProto}. Half of the generated alleles are stored, so lookups of the other half are
+ * misses, as is the case for the rare variants Exomiser is most interested in.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrequencyDaoBenchmark {
+
+    private static final int NUM_LOOKUPS = 1000;
+
+    @Param({"100000"})
+    public int numStoredAlleles;
+
+    private MVStore mvStore;
+    private FrequencyDao frequencyDao;
+
+    private final List<Variant> knownVariants = new ArrayList<>();
+    private final List<Variant> novelVariants = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        SyntheticGenome genome = SyntheticGenome.of(1000, 42);
+        SyntheticVariantGenerator variantGenerator = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), 42);
+        List<VariantContext> variantContexts = variantGenerator.generate(numStoredAlleles + NUM_LOOKUPS);
+
+        mvStore = new MVStore.Builder().open();
+        MVMap<AlleleKey, AlleleProperties> alleles = mvStore.openMap("alleles", MvStoreUtil.alleleMapBuilder());
+        for (int i = 0; i < variantContexts.size(); i++) {
+            Variant variant = BenchmarkFixtures.toVariant(variantContexts.get(i));
+            // every other allele is left out of the store until the misses are accounted for
+            if (i % 2 == 0 || i / 2 >= NUM_LOOKUPS) {
+                alleles.put(MvStoreUtil.generateAlleleKey(variant), alleleProperties(i));
+                if (knownVariants.size() < NUM_LOOKUPS) {
+                    knownVariants.add(variant);
+                }
+            } else {
+                novelVariants.add(variant);
+            }
+        }
+        frequencyDao = new DefaultFrequencyDaoMvStoreProto(mvStore);
+    }
+
+    private static AlleleProperties alleleProperties(int i) {
+        return AlleleProperties.newBuilder()
+                .setRsId("rs" + i)
+                .putProperties("KG", 0.04f)
+                .putProperties("ESP_AA", 0.003f)
+                .putProperties("EXAC_NFE", 0.12f)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mvStore.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LOOKUPS)
+    public void getFrequencyDataKnownAlleles(Blackhole blackhole) {
+        for (Variant variant : knownVariants) {
+            blackhole.consume(frequencyDao.getFrequencyData(variant));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LOOKUPS)
+    public void getFrequencyDataNovelAlleles(Blackhole blackhole) {
+        for (Variant variant : novelVariants) {
+            blackhole.consume(frequencyDao.getFrequencyData(variant));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.monarchinitiative.exomiser.core.analysis.util.InheritanceModeAnalyser;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the inheritance mode analysis of genes from a trio. Under {@link ModeOfInheritance#AUTOSOMAL_RECESSIVE}
+ * every pair of heterozygous variants in a gene is checked for compound heterozygosity, so the cost grows with the
+ * square of the number of variants per gene.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InheritanceModeAnalyserBenchmark {
+
+    private static final int NUM_GENES = 20;
+
+    @Param({"5", "20", "50"})
+    public int variantsPerGene;
+
+    @Param({"AUTOSOMAL_RECESSIVE", "AUTOSOMAL_DOMINANT"})
+    public ModeOfInheritance modeOfInheritance;
+
+    private List<Gene> genes;
+    private InheritanceModeAnalyser inheritanceModeAnalyser;
+
+    @Setup
+    public void setUp() {
+        SyntheticGenome genome = SyntheticGenome.of(NUM_GENES, 42);
+        SyntheticVariantGenerator variantGenerator = new SyntheticVariantGenerator(genome, BenchmarkFixtures.TRIO_SAMPLE_NAMES, 42);
+        List<VariantContext> variantContexts = variantGenerator.generate(NUM_GENES * variantsPerGene);
+        genes = BenchmarkFixtures.groupIntoGenes(BenchmarkFixtures.passedVariantEvaluations(genome, variantContexts));
+        inheritanceModeAnalyser = new InheritanceModeAnalyser(modeOfInheritance, BenchmarkFixtures.trioPedigree());
+    }
+
+    /**
+     * Time taken to analyse all the genes.
+     */
+    @Benchmark
+    public int analyseInheritanceModes() {
+        int numCompatible = 0;
+        for (Gene gene : genes) {
+            if (inheritanceModeAnalyser.analyseInheritanceModes(gene)) {
+                numCompatible++;
+            }
+        }
+        return numCompatible;
+    }
+}
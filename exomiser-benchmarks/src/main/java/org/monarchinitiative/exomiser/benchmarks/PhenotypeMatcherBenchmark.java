@@ -0,0 +1,82 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import org.monarchinitiative.exomiser.core.phenotype.*;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneDiseaseModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the phenotype matching of disease models against a set of query HPO terms, as performed by the
+ * phenotype-based prioritisers for every model in the database.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhenotypeMatcherBenchmark {
+
+    private static final int NUM_MODELS = 1000;
+
+    @Param({"5", "20"})
+    public int numQueryTerms;
+
+    @Param({"50"})
+    public int matchesPerQueryTerm;
+
+    private List<GeneDiseaseModel> models;
+    private PhenotypeMatcher phenotypeMatcher;
+    private ModelScorer<GeneDiseaseModel> modelScorer;
+
+    @Setup
+    public void setUp() {
+        SyntheticPhenotypes phenotypes = SyntheticPhenotypes.of(2000, 42);
+        SyntheticGenome genome = SyntheticGenome.of(NUM_MODELS, 42);
+        models = phenotypes.buildDiseaseModels(genome.getGenes(), 15);
+        List<PhenotypeTerm> queryTerms = phenotypes.randomTerms(numQueryTerms);
+        phenotypeMatcher = new CrossSpeciesPhenotypeMatcher(Organism.HUMAN, phenotypes.buildHpHpMatches(queryTerms, matchesPerQueryTerm));
+        modelScorer = PhenodigmModelScorer.forSameSpecies(phenotypeMatcher);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_MODELS)
+    public void matchPhenotypeIds(Blackhole blackhole) {
+        for (GeneDiseaseModel model : models) {
+            blackhole.consume(phenotypeMatcher.matchPhenotypeIds(model.getPhenotypeIds()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_MODELS)
+    public void scoreModels(Blackhole blackhole) {
+        for (GeneDiseaseModel model : models) {
+            blackhole.consume(modelScorer.scoreModel(model));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.monarchinitiative.exomiser.core.analysis.Analysis;
+import org.monarchinitiative.exomiser.core.analysis.AnalysisResults;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.writers.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing the results of an analysis to a String using each of the {@link ResultsWriter}.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultsWriterBenchmark {
+
+    @Param({"HTML", "VCF", "TSV_GENE", "TSV_VARIANT", "PHENOGRID"})
+    public OutputFormat outputFormat;
+
+    @Param({"5000"})
+    public int numVariants;
+
+    private final Analysis analysis = Analysis.builder().build();
+    private AnalysisResults analysisResults;
+    private OutputSettings outputSettings;
+    private ResultsWriter resultsWriter;
+
+    @Setup
+    public void setUp() {
+        SyntheticGenome genome = SyntheticGenome.of(500, 42);
+        SyntheticVariantGenerator variantGenerator = new SyntheticVariantGenerator(genome, BenchmarkFixtures.TRIO_SAMPLE_NAMES, 42);
+        List<VariantContext> variantContexts = variantGenerator.generate(numVariants);
+        List<VariantEvaluation> variantEvaluations = BenchmarkFixtures.passedVariantEvaluations(genome, variantContexts);
+        List<Gene> genes = BenchmarkFixtures.groupIntoGenes(variantEvaluations);
+
+        Random random = new Random(42);
+        for (Gene gene : genes) {
+            gene.setPriorityScore(random.nextFloat());
+            gene.setVariantScore(random.nextFloat());
+            gene.setCombinedScore(random.nextFloat());
+        }
+        genes.sort(null);
+
+        analysisResults = AnalysisResults.builder()
+                .probandSampleName(BenchmarkFixtures.PROBAND)
+                .sampleNames(BenchmarkFixtures.TRIO_SAMPLE_NAMES)
+                .vcfHeader(variantGenerator.buildVcfHeader())
+                .pedigree(BenchmarkFixtures.trioPedigree())
+                .variantEvaluations(variantEvaluations)
+                .genes(genes)
+                .build();
+
+        outputSettings = OutputSettings.builder()
+                .outputFormats(EnumSet.of(outputFormat))
+                .build();
+
+        ResultsWriterFactory resultsWriterFactory = new ResultsWriterFactory(new ThymeleafConfig().coreTemplateEngine());
+        resultsWriter = resultsWriterFactory.getResultsWriter(outputFormat);
+    }
+
+    @Benchmark
+    public String writeString() {
+        return resultsWriter.writeString(analysis, analysisResults, outputSettings);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.MvStoreUtil;
+import org.monarchinitiative.exomiser.core.model.AllelePosition;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneDiseaseModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import static org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+
+/**
+ * Writes small, self-consistent versions of the data files Exomiser reads during an analysis - the MVStore of allele
+ * frequencies and pathogenicity scores, the genome and phenotype H2 databases and the CADD, REMM and local frequency
+ * tabix files. The variant data covers the variants of a synthetic VCF so that lookups hit and miss in roughly the
+ * proportions seen with real data, the phenotype data covers the genes of the {@link SyntheticGenome}.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SyntheticDataWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataWriter.class);
+
+    // proportion of the variants which are present in the MVStore, the rest being novel
+    static final double KNOWN_VARIANT_FRACTION = 0.5;
+    // proportion of the known variants too common to pass a 1% frequency filter
+    static final double COMMON_VARIANT_FRACTION = 0.2;
+    static final double LOCAL_FREQUENCY_FRACTION = 0.1;
+    static final int MATCHES_PER_PHENOTYPE = 20;
+
+    private static final String[] FREQUENCY_KEYS = {"KG", "ESP_EA", "EXAC_NFE", "GNOMAD_E_NFE", "GNOMAD_G_NFE"};
+    private static final String[] REGULATORY_FEATURE_TYPES = {"Enhancer", "Promoter", "CTCF Binding Site", "Open chromatin"};
+    private static final int REGULATORY_FEATURE_LENGTH = 2_000;
+
+    private final SyntheticGenome genome;
+    private final SyntheticPhenotypes phenotypes;
+    private final Random random;
+
+    public SyntheticDataWriter(SyntheticGenome genome, SyntheticPhenotypes phenotypes, long seed) {
+        this.genome = genome;
+        this.phenotypes = phenotypes;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @param dbFile path to an H2 database file, without the .mv.db extension
+     * @return the JDBC URL used to create and read the H2 databases, with the same settings as the exomiser-core tests.
+     */
+    public static String h2JdbcUrl(Path dbFile) {
+        return String.format("jdbc:h2:file:%s;MODE=PostgreSQL;DATABASE_TO_UPPER=FALSE", dbFile.toAbsolutePath());
+    }
+
+    /**
+     * Writes an MVStore "alleles" map with frequencies for {@value #KNOWN_VARIANT_FRACTION} of the variants and
+     * SIFT, PolyPhen and MutationTaster scores for the known SNVs.
+     */
+    public void writeVariantStore(Path mvStoreFile, List<VariantContext> variantContexts) {
+        MVStore mvStore = new MVStore.Builder()
+                .fileName(mvStoreFile.toAbsolutePath().toString())
+                .compress()
+                .open();
+        MVMap<AlleleKey, AlleleProperties> alleles = mvStore.openMap("alleles", MvStoreUtil.alleleMapBuilder());
+        int rsId = 1;
+        for (VariantContext variantContext : variantContexts) {
+            if (random.nextDouble() >= KNOWN_VARIANT_FRACTION) {
+                continue;
+            }
+            Variant variant = BenchmarkFixtures.toVariant(variantContext);
+            AlleleProperties.Builder alleleProperties = AlleleProperties.newBuilder().setRsId("rs" + rsId++);
+            float frequency = randomFrequencyPercentage();
+            for (String frequencyKey : FREQUENCY_KEYS) {
+                if (random.nextBoolean()) {
+                    alleleProperties.putProperties(frequencyKey, frequency);
+                }
+            }
+            if (AllelePosition.isSnv(variant.getRef(), variant.getAlt())) {
+                alleleProperties.putProperties("SIFT", random.nextFloat());
+                alleleProperties.putProperties("POLYPHEN", random.nextFloat());
+                alleleProperties.putProperties("MUT_TASTER", random.nextFloat());
+            }
+            alleles.put(MvStoreUtil.generateAlleleKey(variant), alleleProperties.build());
+        }
+        mvStore.commit();
+        mvStore.close();
+        logger.info("Wrote {} alleles to {}", rsId - 1, mvStoreFile);
+    }
+
+    private float randomFrequencyPercentage() {
+        if (random.nextDouble() < COMMON_VARIANT_FRACTION) {
+            return 1f + 49f * random.nextFloat();
+        }
+        return 0.001f + 0.5f * random.nextFloat();
+    }
+
+    /**
+     * Writes a LOCAL frequency file with entries for {@value #LOCAL_FREQUENCY_FRACTION} of the variants.
+     */
+    public void writeLocalFrequencies(Path tabixFile, List<VariantContext> variantContexts) throws IOException {
+        try (TabixFileWriter writer = new TabixFileWriter(tabixFile)) {
+            for (VariantContext variantContext : variantContexts) {
+                if (random.nextDouble() < LOCAL_FREQUENCY_FRACTION) {
+                    Variant variant = BenchmarkFixtures.toVariant(variantContext);
+                    writeVariantLine(writer, variant, String.format(Locale.ROOT, "%.3f", randomFrequencyPercentage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes CADD scores for every variant, the SNVs and indels being written to separate files as they are by CADD.
+     */
+    public void writeCaddScores(Path snvTabixFile, Path indelTabixFile, List<VariantContext> variantContexts) throws IOException {
+        try (TabixFileWriter snvWriter = new TabixFileWriter(snvTabixFile);
+             TabixFileWriter indelWriter = new TabixFileWriter(indelTabixFile)) {
+            snvWriter.writeHeader("Chrom\tPos\tRef\tAlt\tRawScore\tPHRED");
+            indelWriter.writeHeader("Chrom\tPos\tRef\tAlt\tRawScore\tPHRED");
+            for (VariantContext variantContext : variantContexts) {
+                Variant variant = BenchmarkFixtures.toVariant(variantContext);
+                float phred = 40f * random.nextFloat();
+                String scores = String.format(Locale.ROOT, "%.6f\t%.3f", phred / 10f - 1f, phred);
+                if (AllelePosition.isSnv(variant.getRef(), variant.getAlt())) {
+                    writeVariantLine(snvWriter, variant, scores);
+                } else {
+                    writeVariantLine(indelWriter, variant, scores);
+                }
+            }
+        }
+    }
+
+    private static void writeVariantLine(TabixFileWriter writer, Variant variant, String values) throws IOException {
+        String chr = variant.getChromosomeName();
+        int pos = variant.getPosition();
+        writer.writeLine(chr, pos, String.join("\t", chr, Integer.toString(pos), variant.getRef(), variant.getAlt(), values));
+    }
+
+    /**
+     * Writes a REMM score for the position of each variant.
+     */
+    public void writeRemmScores(Path tabixFile, List<VariantContext> variantContexts) throws IOException {
+        try (TabixFileWriter writer = new TabixFileWriter(tabixFile)) {
+            int previousPosition = 0;
+            String previousChr = "";
+            for (VariantContext variantContext : variantContexts) {
+                Variant variant = BenchmarkFixtures.toVariant(variantContext);
+                String chr = variant.getChromosomeName();
+                int pos = variant.getPosition();
+                // REMM has a single score per position
+                if (pos != previousPosition || !chr.equals(previousChr)) {
+                    writer.writeLine(chr, pos, String.format(Locale.ROOT, "%s\t%d\t%.3f", chr, pos, random.nextFloat()));
+                }
+                previousChr = chr;
+                previousPosition = pos;
+            }
+        }
+    }
+
+    /**
+     * Writes a genome database with a TAD around each gene and an alternating set of regulatory features upstream of
+     * each gene.
+     */
+    public void writeGenomeDatabase(Path dbFile) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(h2JdbcUrl(dbFile), "sa", "")) {
+            runScript(connection, "/sql/create_synthetic_genome_schema.sql");
+            try (PreparedStatement insertTad = connection.prepareStatement("INSERT INTO TAD (CHROMOSOME, START, \"end\", ENTREZID, SYMBOL) VALUES (?, ?, ?, ?, ?)");
+                 PreparedStatement insertRegulatoryRegion = connection.prepareStatement("INSERT INTO REGULATORY_REGIONS (CHROMOSOME, START, \"end\", FEATURE_TYPE) VALUES (?, ?, ?, ?)")) {
+                int halfSpacing = SyntheticGenome.GENE_SPACING / 2;
+                for (int i = 0; i < genome.getGenes().size(); i++) {
+                    SyntheticGene gene = genome.getGenes().get(i);
+                    insertTad.setInt(1, gene.getChr());
+                    insertTad.setInt(2, gene.getStart() - halfSpacing);
+                    insertTad.setInt(3, gene.getStart() + halfSpacing - 1);
+                    insertTad.setInt(4, gene.getEntrezId());
+                    insertTad.setString(5, gene.getGeneSymbol());
+                    insertTad.addBatch();
+
+                    int featureEnd = gene.getStart() - REGULATORY_FEATURE_LENGTH;
+                    insertRegulatoryRegion.setInt(1, gene.getChr());
+                    insertRegulatoryRegion.setInt(2, featureEnd - REGULATORY_FEATURE_LENGTH);
+                    insertRegulatoryRegion.setInt(3, featureEnd);
+                    insertRegulatoryRegion.setString(4, REGULATORY_FEATURE_TYPES[i % REGULATORY_FEATURE_TYPES.length]);
+                    insertRegulatoryRegion.addBatch();
+                }
+                insertTad.executeBatch();
+                insertRegulatoryRegion.executeBatch();
+            }
+        }
+        logger.info("Wrote genome database {}", dbFile);
+    }
+
+    /**
+     * Writes a phenotype database containing the HPO terms, the HP-HP mappings between them and the given disease
+     * models. The mouse and fish tables are created, but left empty.
+     */
+    public void writePhenotypeDatabase(Path dbFile, List<GeneDiseaseModel> diseaseModels) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(h2JdbcUrl(dbFile), "sa", "")) {
+            runScript(connection, "/sql/create_synthetic_phenotype_schema.sql");
+            insertHpoTerms(connection);
+            insertHpHpMappings(connection);
+            insertDiseases(connection, diseaseModels);
+        }
+        logger.info("Wrote phenotype database {}", dbFile);
+    }
+
+    private static void runScript(Connection connection, String classpathResource) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:" + classpathResource + "'");
+        }
+    }
+
+    private void insertHpoTerms(Connection connection) throws SQLException {
+        try (PreparedStatement insertHpo = connection.prepareStatement("INSERT INTO hpo (lcname, id, prefname) VALUES (?, ?, ?)")) {
+            for (PhenotypeTerm term : phenotypes.getTerms()) {
+                insertHpo.setString(1, term.getLabel().toLowerCase(Locale.ROOT));
+                insertHpo.setString(2, term.getId());
+                insertHpo.setString(3, term.getLabel());
+                insertHpo.addBatch();
+            }
+            insertHpo.executeBatch();
+        }
+    }
+
+    private void insertHpHpMappings(Connection connection) throws SQLException {
+        Map<PhenotypeTerm, Set<PhenotypeMatch>> hpHpMatches = phenotypes.buildHpHpMatches(phenotypes.getTerms(), MATCHES_PER_PHENOTYPE);
+        try (PreparedStatement insertMapping = connection.prepareStatement("INSERT INTO hp_hp_mappings (mapping_id, hp_id, hp_term, hp_id_hit, hp_hit_term, simj, ic, score, lcs_id, lcs_term) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int mappingId = 1;
+            for (Set<PhenotypeMatch> matches : hpHpMatches.values()) {
+                for (PhenotypeMatch match : matches) {
+                    insertMapping.setInt(1, mappingId++);
+                    insertMapping.setString(2, match.getQueryPhenotypeId());
+                    insertMapping.setString(3, match.getQueryPhenotype().getLabel());
+                    insertMapping.setString(4, match.getMatchPhenotypeId());
+                    insertMapping.setString(5, match.getMatchPhenotype().getLabel());
+                    insertMapping.setDouble(6, match.getSimJ());
+                    insertMapping.setDouble(7, match.getIc());
+                    insertMapping.setDouble(8, match.getScore());
+                    insertMapping.setString(9, match.getLcs().getId());
+                    insertMapping.setString(10, match.getLcs().getLabel());
+                    insertMapping.addBatch();
+                }
+            }
+            insertMapping.executeBatch();
+        }
+    }
+
+    private void insertDiseases(Connection connection, List<GeneDiseaseModel> diseaseModels) throws SQLException {
+        try (PreparedStatement insertDisease = connection.prepareStatement("INSERT INTO disease (disease_id, omim_gene_id, diseasename, gene_id, type, inheritance) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement insertDiseaseHp = connection.prepareStatement("INSERT INTO disease_hp (disease_id, hp_id) VALUES (?, ?)");
+             PreparedStatement insertEntrez2Sym = connection.prepareStatement("INSERT INTO entrez2sym (entrezID, symbol) VALUES (?, ?)")) {
+            for (GeneDiseaseModel diseaseModel : diseaseModels) {
+                insertDisease.setString(1, diseaseModel.getDiseaseId());
+                insertDisease.setString(2, "OMIM:" + diseaseModel.getEntrezGeneId());
+                insertDisease.setString(3, diseaseModel.getDiseaseTerm());
+                insertDisease.setInt(4, diseaseModel.getEntrezGeneId());
+                insertDisease.setString(5, "D");
+                insertDisease.setString(6, random.nextBoolean() ? "D" : "R");
+                insertDisease.addBatch();
+
+                insertDiseaseHp.setString(1, diseaseModel.getDiseaseId());
+                insertDiseaseHp.setString(2, String.join(",", diseaseModel.getPhenotypeIds()));
+                insertDiseaseHp.addBatch();
+
+                insertEntrez2Sym.setInt(1, diseaseModel.getEntrezGeneId());
+                insertEntrez2Sym.setString(2, diseaseModel.getHumanGeneSymbol());
+                insertEntrez2Sym.addBatch();
+            }
+            insertDisease.executeBatch();
+            insertDiseaseHp.executeBatch();
+            insertEntrez2Sym.executeBatch();
+        }
+    }
+}
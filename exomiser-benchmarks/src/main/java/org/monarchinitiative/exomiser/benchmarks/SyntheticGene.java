@@ -0,0 +1,164 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.hgnc.AltGeneIDType;
+import de.charite.compbio.jannovar.reference.GenomeInterval;
+import de.charite.compbio.jannovar.reference.PositionType;
+import de.charite.compbio.jannovar.reference.Strand;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import de.charite.compbio.jannovar.reference.TranscriptModelBuilder;
+import org.monarchinitiative.exomiser.core.model.Gene;
+
+/**
+ * A single-transcript, forward-strand gene of a {@link SyntheticGenome}. The exons are all the same length and are
+ * separated by introns of the same length. All coordinates are one-based and inclusive.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SyntheticGene {
+
+    private final String geneSymbol;
+    private final int entrezId;
+    private final int chr;
+    private final int[] exonStarts;
+    private final int exonLength;
+    private final int cdsStartOffset;
+    private final int cdsEndOffset;
+    // the spliced mRNA sequence
+    private final String sequence;
+
+    SyntheticGene(String geneSymbol, int entrezId, int chr, int[] exonStarts, int exonLength, int cdsStartOffset, int cdsEndOffset, String sequence) {
+        this.geneSymbol = geneSymbol;
+        this.entrezId = entrezId;
+        this.chr = chr;
+        this.exonStarts = exonStarts;
+        this.exonLength = exonLength;
+        this.cdsStartOffset = cdsStartOffset;
+        this.cdsEndOffset = cdsEndOffset;
+        this.sequence = sequence;
+    }
+
+    public String getGeneSymbol() {
+        return geneSymbol;
+    }
+
+    public int getEntrezId() {
+        return entrezId;
+    }
+
+    public int getChr() {
+        return chr;
+    }
+
+    public int getStart() {
+        return exonStarts[0];
+    }
+
+    public int getEnd() {
+        return exonStarts[exonStarts.length - 1] + exonLength - 1;
+    }
+
+    public int getNumExons() {
+        return exonStarts.length;
+    }
+
+    /**
+     * @return the genomic position of the base at the given offset in the spliced transcript.
+     */
+    public int exonicPosition(int transcriptOffset) {
+        int exon = transcriptOffset / exonLength;
+        return exonStarts[exon] + transcriptOffset % exonLength;
+    }
+
+    /**
+     * @return the genomic position of the base at the given offset into the intron following the given exon.
+     */
+    public int intronicPosition(int exon, int intronOffset) {
+        return exonStarts[exon] + exonLength + intronOffset;
+    }
+
+    public int getIntronLength() {
+        return exonStarts.length > 1 ? exonStarts[1] - exonStarts[0] - exonLength : 0;
+    }
+
+    public int getTranscriptLength() {
+        return sequence.length();
+    }
+
+    public int getCdsStartOffset() {
+        return cdsStartOffset;
+    }
+
+    public int getCdsEndOffset() {
+        return cdsEndOffset;
+    }
+
+    /**
+     * @return the reference base at a genomic position, or 'N' if the position is not in an exon of this gene.
+     */
+    public char exonicBase(int pos) {
+        for (int i = 0; i < exonStarts.length; i++) {
+            int exonStart = exonStarts[i];
+            if (pos >= exonStart && pos < exonStart + exonLength) {
+                return sequence.charAt(i * exonLength + pos - exonStart);
+            }
+        }
+        return 'N';
+    }
+
+    public Gene toGene() {
+        return new Gene(geneSymbol, entrezId);
+    }
+
+    TranscriptModel toTranscriptModel(ReferenceDictionary refDict) {
+        TranscriptModelBuilder builder = new TranscriptModelBuilder();
+        builder.setGeneSymbol(geneSymbol);
+        builder.setGeneID(String.valueOf(entrezId));
+        builder.setAccession("uc" + geneSymbol.toLowerCase() + ".1");
+        builder.setStrand(Strand.FWD);
+        builder.setSequence(sequence);
+        builder.setTXRegion(zeroBasedInterval(refDict, getStart(), getEnd()));
+        builder.setCDSRegion(zeroBasedInterval(refDict, exonicPosition(cdsStartOffset), exonicPosition(cdsEndOffset)));
+        for (int exonStart : exonStarts) {
+            builder.addExonRegion(zeroBasedInterval(refDict, exonStart, exonStart + exonLength - 1));
+        }
+        builder.getAltGeneIDs().put(AltGeneIDType.ENTREZ_ID.toString(), String.valueOf(entrezId));
+        builder.getAltGeneIDs().put(AltGeneIDType.HGNC_SYMBOL.toString(), geneSymbol);
+        return builder.build();
+    }
+
+    private GenomeInterval zeroBasedInterval(ReferenceDictionary refDict, int oneBasedStart, int oneBasedEnd) {
+        return new GenomeInterval(refDict, Strand.FWD, chr, oneBasedStart - 1, oneBasedEnd, PositionType.ZERO_BASED);
+    }
+
+    @Override
+    public String toString() {
+        return "SyntheticGene{" +
+                "geneSymbol='" + geneSymbol + '\'' +
+                ", entrezId=" + entrezId +
+                ", chr=" + chr +
+                ", start=" + getStart() +
+                ", end=" + getEnd() +
+                '}';
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.reference.HG19RefDictBuilder;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import org.monarchinitiative.exomiser.core.genome.GenomeAssembly;
+import org.monarchinitiative.exomiser.core.genome.JannovarVariantAnnotator;
+import org.monarchinitiative.exomiser.core.genome.VariantAnnotator;
+import org.monarchinitiative.exomiser.core.genome.VariantFactory;
+import org.monarchinitiative.exomiser.core.genome.VariantFactoryImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A small, reproducible, made-up hg19 genome of evenly spaced genes distributed across the autosomes. Each gene has a
+ * single coding transcript so that variants can be placed in coding, intronic or intergenic sequence and annotated by
+ * Jannovar without needing the real transcript data.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SyntheticGenome {
+
+    public static final GenomeAssembly GENOME_ASSEMBLY = GenomeAssembly.HG19;
+
+    static final int NUM_AUTOSOMES = 22;
+    static final int FIRST_GENE_START = 1_000_001;
+    static final int GENE_SPACING = 100_000;
+    static final int NUM_EXONS = 5;
+    static final int EXON_LENGTH = 150;
+    static final int INTRON_LENGTH = 1_000;
+    static final int UTR_LENGTH = 30;
+
+    private static final ReferenceDictionary REF_DICT = HG19RefDictBuilder.build();
+
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+    private static final String[] STOP_CODONS = {"TAA", "TAG", "TGA"};
+
+    private final List<SyntheticGene> genes;
+    private final JannovarData jannovarData;
+
+    private SyntheticGenome(List<SyntheticGene> genes) {
+        this.genes = ImmutableList.copyOf(genes);
+        ImmutableList.Builder<TranscriptModel> transcriptModels = ImmutableList.builder();
+        for (SyntheticGene gene : genes) {
+            transcriptModels.add(gene.toTranscriptModel(REF_DICT));
+        }
+        this.jannovarData = new JannovarData(REF_DICT, transcriptModels.build());
+    }
+
+    /**
+     * Creates a new genome with the given number of genes. Genomes created using the same arguments are identical.
+     */
+    public static SyntheticGenome of(int numGenes, long seed) {
+        Random random = new Random(seed);
+        List<SyntheticGene> genes = new ArrayList<>(numGenes);
+        for (int i = 0; i < numGenes; i++) {
+            int chr = 1 + i % NUM_AUTOSOMES;
+            int geneStart = FIRST_GENE_START + (i / NUM_AUTOSOMES) * GENE_SPACING;
+            int[] exonStarts = new int[NUM_EXONS];
+            for (int exon = 0; exon < NUM_EXONS; exon++) {
+                exonStarts[exon] = geneStart + exon * (EXON_LENGTH + INTRON_LENGTH);
+            }
+            int transcriptLength = NUM_EXONS * EXON_LENGTH;
+            int cdsEndOffset = transcriptLength - UTR_LENGTH - 1;
+            String sequence = randomTranscriptSequence(random, transcriptLength, UTR_LENGTH, cdsEndOffset);
+            genes.add(new SyntheticGene("SYN" + (i + 1), 100_000 + i, chr, exonStarts, EXON_LENGTH, UTR_LENGTH, cdsEndOffset, sequence));
+        }
+        return new SyntheticGenome(genes);
+    }
+
+    /**
+     * An mRNA sequence with an open reading frame between the cds start and end offsets - i.e. a start codon, followed
+     * by sense codons and terminated by a single stop codon.
+     */
+    private static String randomTranscriptSequence(Random random, int length, int cdsStartOffset, int cdsEndOffset) {
+        StringBuilder sequence = new StringBuilder(length);
+        appendRandomBases(random, sequence, cdsStartOffset);
+        sequence.append("ATG");
+        int numSenseCodons = (cdsEndOffset - cdsStartOffset + 1) / 3 - 2;
+        for (int i = 0; i < numSenseCodons; i++) {
+            sequence.append(randomSenseCodon(random));
+        }
+        sequence.append(STOP_CODONS[random.nextInt(STOP_CODONS.length)]);
+        appendRandomBases(random, sequence, length - sequence.length());
+        return sequence.toString();
+    }
+
+    private static String randomSenseCodon(Random random) {
+        while (true) {
+            String codon = new String(new char[]{randomBase(random), randomBase(random), randomBase(random)});
+            if (!isStopCodon(codon)) {
+                return codon;
+            }
+        }
+    }
+
+    private static boolean isStopCodon(String codon) {
+        for (String stopCodon : STOP_CODONS) {
+            if (stopCodon.equals(codon)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendRandomBases(Random random, StringBuilder sequence, int numBases) {
+        for (int i = 0; i < numBases; i++) {
+            sequence.append(randomBase(random));
+        }
+    }
+
+    static char randomBase(Random random) {
+        return BASES[random.nextInt(BASES.length)];
+    }
+
+    /**
+     * @return the reference base at the given position. Exonic bases match the transcript sequence, all other bases
+     * are a fixed function of the position.
+     */
+    public char referenceBase(int chr, int pos) {
+        // genes are laid out on a fixed grid so the only candidate can be found directly
+        if (chr >= 1 && chr <= NUM_AUTOSOMES && pos >= FIRST_GENE_START) {
+            int geneIndex = ((pos - FIRST_GENE_START) / GENE_SPACING) * NUM_AUTOSOMES + chr - 1;
+            if (geneIndex < genes.size()) {
+                char exonicBase = genes.get(geneIndex).exonicBase(pos);
+                if (exonicBase != 'N') {
+                    return exonicBase;
+                }
+            }
+        }
+        return BASES[Math.floorMod(pos * 31 + chr, BASES.length)];
+    }
+
+    /**
+     * @return the first position on the chromosome after all the genes, useful for placing intergenic variants.
+     */
+    public int getIntergenicStart() {
+        int numGenesPerChromosome = (genes.size() + NUM_AUTOSOMES - 1) / NUM_AUTOSOMES;
+        return FIRST_GENE_START + numGenesPerChromosome * GENE_SPACING;
+    }
+
+    public List<SyntheticGene> getGenes() {
+        return genes;
+    }
+
+    public JannovarData getJannovarData() {
+        return jannovarData;
+    }
+
+    public VariantAnnotator buildVariantAnnotator() {
+        return new JannovarVariantAnnotator(GENOME_ASSEMBLY, jannovarData);
+    }
+
+    public VariantFactory buildVariantFactory() {
+        return new VariantFactoryImpl(buildVariantAnnotator());
+    }
+}
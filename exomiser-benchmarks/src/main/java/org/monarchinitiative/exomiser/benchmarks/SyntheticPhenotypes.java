@@ -0,0 +1,123 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneDiseaseModel;
+
+import java.util.*;
+
+/**
+ * Reproducible, made-up HPO terms, HP-HP phenotype matches and disease models. The matches have plausible IC, simJ
+ * and scores and each query term matches itself best, as is the case in the real HP-HP mappings.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SyntheticPhenotypes {
+
+    private static final PhenotypeTerm PHENOTYPIC_ABNORMALITY = PhenotypeTerm.of("HP:0000118", "Phenotypic abnormality");
+
+    private final List<PhenotypeTerm> terms;
+    private final Random random;
+
+    private SyntheticPhenotypes(List<PhenotypeTerm> terms, Random random) {
+        this.terms = terms;
+        this.random = random;
+    }
+
+    public static SyntheticPhenotypes of(int numTerms, long seed) {
+        ImmutableList.Builder<PhenotypeTerm> terms = ImmutableList.builder();
+        for (int i = 1; i <= numTerms; i++) {
+            terms.add(PhenotypeTerm.of(String.format("HP:%07d", 1_000_000 + i), "Synthetic phenotype " + i));
+        }
+        return new SyntheticPhenotypes(terms.build(), new Random(seed));
+    }
+
+    public List<PhenotypeTerm> getTerms() {
+        return terms;
+    }
+
+    /**
+     * @return the requested number of distinct terms, in a random order.
+     */
+    public List<PhenotypeTerm> randomTerms(int numTerms) {
+        List<PhenotypeTerm> shuffled = new ArrayList<>(terms);
+        Collections.shuffle(shuffled, random);
+        return new ArrayList<>(shuffled.subList(0, Math.min(numTerms, shuffled.size())));
+    }
+
+    public List<String> randomTermIds(int numTerms) {
+        List<String> termIds = new ArrayList<>(numTerms);
+        for (PhenotypeTerm term : randomTerms(numTerms)) {
+            termIds.add(term.getId());
+        }
+        return termIds;
+    }
+
+    /**
+     * @return the HP-HP matches for each of the query terms to itself and to the given number of other terms.
+     */
+    public Map<PhenotypeTerm, Set<PhenotypeMatch>> buildHpHpMatches(List<PhenotypeTerm> queryTerms, int matchesPerTerm) {
+        Map<PhenotypeTerm, Set<PhenotypeMatch>> phenotypeMatches = new LinkedHashMap<>();
+        for (PhenotypeTerm queryTerm : queryTerms) {
+            Set<PhenotypeMatch> matches = new LinkedHashSet<>();
+            double queryIc = 4 + 4 * random.nextDouble();
+            matches.add(phenotypeMatch(queryTerm, queryTerm, queryTerm, 1.0, queryIc));
+            for (PhenotypeTerm matchTerm : randomTerms(matchesPerTerm)) {
+                if (!matchTerm.equals(queryTerm)) {
+                    double simJ = 0.2 + 0.6 * random.nextDouble();
+                    double ic = 1 + (queryIc - 1) * random.nextDouble();
+                    matches.add(phenotypeMatch(queryTerm, matchTerm, PHENOTYPIC_ABNORMALITY, simJ, ic));
+                }
+            }
+            phenotypeMatches.put(queryTerm, matches);
+        }
+        return phenotypeMatches;
+    }
+
+    private PhenotypeMatch phenotypeMatch(PhenotypeTerm query, PhenotypeTerm match, PhenotypeTerm lcs, double simJ, double ic) {
+        return PhenotypeMatch.builder()
+                .query(query)
+                .match(match)
+                .lcs(lcs)
+                .simj(simJ)
+                .ic(ic)
+                .score(Math.sqrt(simJ * ic))
+                .build();
+    }
+
+    /**
+     * @return one disease model per gene annotated with the given number of random phenotypes.
+     */
+    public List<GeneDiseaseModel> buildDiseaseModels(List<SyntheticGene> genes, int phenotypesPerModel) {
+        List<GeneDiseaseModel> models = new ArrayList<>(genes.size());
+        for (SyntheticGene gene : genes) {
+            String diseaseId = String.format("OMIM:%06d", 600_000 + gene.getEntrezId() % 100_000);
+            String modelId = diseaseId + "_" + gene.getEntrezId();
+            models.add(new GeneDiseaseModel(modelId, Organism.HUMAN, gene.getEntrezId(), gene.getGeneSymbol(), diseaseId, "Synthetic disease of " + gene
+                    .getGeneSymbol(), randomTermIds(phenotypesPerModel)));
+        }
+        return models;
+    }
+}
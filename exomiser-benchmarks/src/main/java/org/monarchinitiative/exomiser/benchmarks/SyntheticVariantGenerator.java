@@ -0,0 +1,223 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFFormatHeaderLine;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLine;
+import htsjdk.variant.vcf.VCFHeaderLineType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Generates reproducible, sorted, bi-allelic {@link VariantContext} records against a {@link SyntheticGenome}. The
+ * records are a mix of coding SNVs, coding indels, intronic and intergenic SNVs, in the proportions given by a
+ * {@link VariantMix}, so that the annotation, filtering and inheritance code all have something to do. The first sample is taken to be the proband and always carries the
+ * alternate allele, any other samples are given randomly inherited genotypes.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SyntheticVariantGenerator {
+
+    // keeps intronic variants away from the splice regions
+    private static final int SPLICE_REGION_LENGTH = 10;
+    private static final int MAX_INDEL_LENGTH = 3;
+    private static final int INTERGENIC_REGION_LENGTH = 10_000_000;
+
+    private final SyntheticGenome genome;
+    private final List<String> sampleNames;
+    private final VariantMix variantMix;
+    private final Random random;
+
+    /**
+     * Creates a generator of variants with the {@link VariantMix#EXOME} mix.
+     */
+    public SyntheticVariantGenerator(SyntheticGenome genome, List<String> sampleNames, long seed) {
+        this(genome, sampleNames, VariantMix.EXOME, seed);
+    }
+
+    public SyntheticVariantGenerator(SyntheticGenome genome, List<String> sampleNames, VariantMix variantMix, long seed) {
+        if (sampleNames.isEmpty()) {
+            throw new IllegalArgumentException("At least one sample name is required");
+        }
+        this.genome = genome;
+        this.sampleNames = ImmutableList.copyOf(sampleNames);
+        this.variantMix = variantMix;
+        this.random = new Random(seed);
+    }
+
+    public List<String> getSampleNames() {
+        return sampleNames;
+    }
+
+    public VariantMix getVariantMix() {
+        return variantMix;
+    }
+
+    /**
+     * @return a header declaring the samples, GT field and autosomes used by the generated records.
+     */
+    public VCFHeader buildVcfHeader() {
+        Set<VCFHeaderLine> headerLines = new HashSet<>();
+        headerLines.add(new VCFFormatHeaderLine(VCFConstants.GENOTYPE_KEY, 1, VCFHeaderLineType.String, "Genotype"));
+        VCFHeader vcfHeader = new VCFHeader(headerLines, sampleNames);
+        vcfHeader.setSequenceDictionary(autosomeSequenceDictionary());
+        return vcfHeader;
+    }
+
+    private SAMSequenceDictionary autosomeSequenceDictionary() {
+        ReferenceDictionary refDict = genome.getJannovarData().getRefDict();
+        List<SAMSequenceRecord> sequenceRecords = new ArrayList<>(SyntheticGenome.NUM_AUTOSOMES);
+        for (int chr = 1; chr <= SyntheticGenome.NUM_AUTOSOMES; chr++) {
+            sequenceRecords.add(new SAMSequenceRecord(Integer.toString(chr), refDict.getContigIDToLength().get(chr)));
+        }
+        return new SAMSequenceDictionary(sequenceRecords);
+    }
+
+    /**
+     * @return the requested number of records, sorted by chromosome and position with no two records at the same
+     * position.
+     */
+    public List<VariantContext> generate(int numVariants) {
+        TreeMap<Long, VariantContext> sortedVariants = new TreeMap<>();
+        while (sortedVariants.size() < numVariants) {
+            VariantContext variantContext = nextVariantContext();
+            long sortKey = variantContext.getStart() + 1_000_000_000L * Integer.parseInt(variantContext.getContig());
+            sortedVariants.putIfAbsent(sortKey, variantContext);
+        }
+        return new ArrayList<>(sortedVariants.values());
+    }
+
+    private VariantContext nextVariantContext() {
+        double variantClass = random.nextDouble();
+        double codingSnvLimit = variantMix.getCodingSnvFraction();
+        double codingIndelLimit = codingSnvLimit + variantMix.getCodingIndelFraction();
+        double intronicLimit = codingIndelLimit + variantMix.getIntronicFraction();
+        if (variantClass < codingSnvLimit) {
+            SyntheticGene gene = randomGene();
+            return snv(gene.getChr(), gene.exonicPosition(randomCodingOffset(gene)));
+        }
+        if (variantClass < codingIndelLimit) {
+            SyntheticGene gene = randomGene();
+            return indel(gene.getChr(), gene.exonicPosition(randomCodingOffset(gene)));
+        }
+        if (variantClass < intronicLimit) {
+            SyntheticGene gene = randomGene();
+            int intron = random.nextInt(gene.getNumExons() - 1);
+            int intronOffset = SPLICE_REGION_LENGTH + random.nextInt(gene.getIntronLength() - 2 * SPLICE_REGION_LENGTH);
+            return snv(gene.getChr(), gene.intronicPosition(intron, intronOffset));
+        }
+        int chr = 1 + random.nextInt(SyntheticGenome.NUM_AUTOSOMES);
+        return snv(chr, genome.getIntergenicStart() + random.nextInt(INTERGENIC_REGION_LENGTH));
+    }
+
+    private SyntheticGene randomGene() {
+        List<SyntheticGene> genes = genome.getGenes();
+        return genes.get(random.nextInt(genes.size()));
+    }
+
+    private int randomCodingOffset(SyntheticGene gene) {
+        // leave room for deletions to stay within the CDS
+        int cdsLength = gene.getCdsEndOffset() - gene.getCdsStartOffset() - MAX_INDEL_LENGTH;
+        return gene.getCdsStartOffset() + 3 + random.nextInt(cdsLength - 3);
+    }
+
+    private VariantContext snv(int chr, int pos) {
+        char refBase = genome.referenceBase(chr, pos);
+        char altBase = refBase;
+        while (altBase == refBase) {
+            altBase = SyntheticGenome.randomBase(random);
+        }
+        return buildVariantContext(chr, pos, String.valueOf(refBase), String.valueOf(altBase));
+    }
+
+    private VariantContext indel(int chr, int pos) {
+        int length = 1 + random.nextInt(MAX_INDEL_LENGTH);
+        StringBuilder longAllele = new StringBuilder().append(genome.referenceBase(chr, pos));
+        String shortAllele = longAllele.toString();
+        if (random.nextBoolean()) {
+            // deletion - the deleted bases come from the reference
+            for (int i = 1; i <= length; i++) {
+                longAllele.append(genome.referenceBase(chr, pos + i));
+            }
+            return buildVariantContext(chr, pos, longAllele.toString(), shortAllele);
+        }
+        for (int i = 0; i < length; i++) {
+            longAllele.append(SyntheticGenome.randomBase(random));
+        }
+        return buildVariantContext(chr, pos, shortAllele, longAllele.toString());
+    }
+
+    private VariantContext buildVariantContext(int chr, int pos, String ref, String alt) {
+        Allele refAllele = Allele.create(ref, true);
+        Allele altAllele = Allele.create(alt);
+        List<Genotype> genotypes = new ArrayList<>(sampleNames.size());
+        genotypes.add(probandGenotype(sampleNames.get(0), refAllele, altAllele));
+        for (int i = 1; i < sampleNames.size(); i++) {
+            genotypes.add(relativeGenotype(sampleNames.get(i), refAllele, altAllele));
+        }
+        return new VariantContextBuilder()
+                .loc(Integer.toString(chr), pos, pos + ref.length() - 1)
+                .alleles(Arrays.asList(refAllele, altAllele))
+                .genotypes(genotypes)
+                // QUAL between 10 and 30
+                .log10PError(-(1 + 2 * random.nextDouble()))
+                .make();
+    }
+
+    private Genotype probandGenotype(String sampleName, Allele ref, Allele alt) {
+        return random.nextDouble() < 0.75 ? genotype(sampleName, ref, alt) : genotype(sampleName, alt, alt);
+    }
+
+    private Genotype relativeGenotype(String sampleName, Allele ref, Allele alt) {
+        double value = random.nextDouble();
+        if (value < 0.5) {
+            return genotype(sampleName, ref, ref);
+        }
+        if (value < 0.9) {
+            return genotype(sampleName, ref, alt);
+        }
+        return genotype(sampleName, alt, alt);
+    }
+
+    private Genotype genotype(String sampleName, Allele first, Allele second) {
+        return new GenotypeBuilder(sampleName)
+                .noAttributes()
+                .alleles(Arrays.asList(first, second))
+                .make();
+    }
+}
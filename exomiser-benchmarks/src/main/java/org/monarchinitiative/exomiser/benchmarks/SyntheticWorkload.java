@@ -0,0 +1,203 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.htsjdk.VariantContextWriterConstructionHelper;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneDiseaseModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A complete, self-consistent set of synthetic inputs for running a full analysis offline - a VCF, and for trios a PED
+ * file, a set of HPO terms and the variant, genome and phenotype data files for the genes and variants in the VCF.
+ * Workloads created with the same arguments are identical, so results are comparable between runs and commits.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SyntheticWorkload {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticWorkload.class);
+
+    public static final String VARIANT_STORE_FILE_NAME = "variants.mv.db";
+    // H2 database names, without the .mv.db extension
+    public static final String GENOME_DB_NAME = "genome";
+    public static final String PHENOTYPE_DB_NAME = "phenotype";
+    public static final String LOCAL_FREQUENCY_FILE_NAME = "local_frequency.tsv.gz";
+    public static final String CADD_SNV_FILE_NAME = "cadd_snvs.tsv.gz";
+    public static final String CADD_INDEL_FILE_NAME = "cadd_indels.tsv.gz";
+    public static final String REMM_FILE_NAME = "remm.tsv.gz";
+    public static final String HPO_TERMS_FILE_NAME = "hpo_terms.txt";
+
+    static final int NUM_PHENOTYPES = 1_000;
+    static final int PHENOTYPES_PER_DISEASE = 8;
+    static final int NUM_QUERY_PHENOTYPES = 5;
+
+    private final WorkloadType workloadType;
+    private final SyntheticGenome genome;
+    private final int numVariants;
+    private final Path directory;
+    private final Path vcfPath;
+    private final Path pedPath;
+    private final List<String> hpoIds;
+
+    private SyntheticWorkload(WorkloadType workloadType, SyntheticGenome genome, int numVariants, Path directory, Path vcfPath, Path pedPath, List<String> hpoIds) {
+        this.workloadType = workloadType;
+        this.genome = genome;
+        this.numVariants = numVariants;
+        this.directory = directory;
+        this.vcfPath = vcfPath;
+        this.pedPath = pedPath;
+        this.hpoIds = ImmutableList.copyOf(hpoIds);
+    }
+
+    /**
+     * Generates and writes a new workload to the directory, which should be empty.
+     *
+     * @param workloadType the type of sample to create
+     * @param numVariants  number of variants in the VCF
+     * @param numGenes     number of genes in the synthetic genome
+     * @param directory    where the input and data files are written
+     * @param seed         seed for all the random choices made
+     */
+    public static SyntheticWorkload create(WorkloadType workloadType, int numVariants, int numGenes, Path directory, long seed) throws IOException, SQLException {
+        logger.info("Creating {} workload of {} variants in {} genes in {}", workloadType, numVariants, numGenes, directory);
+        Instant start = Instant.now();
+        Files.createDirectories(directory);
+
+        SyntheticGenome genome = SyntheticGenome.of(numGenes, seed);
+        SyntheticPhenotypes phenotypes = SyntheticPhenotypes.of(NUM_PHENOTYPES, seed);
+        SyntheticVariantGenerator variantGenerator = new SyntheticVariantGenerator(genome, workloadType.getSampleNames(), workloadType
+                .getVariantMix(), seed);
+        List<VariantContext> variantContexts = variantGenerator.generate(numVariants);
+
+        Path vcfPath = directory.resolve(workloadType.name().toLowerCase() + ".vcf");
+        try (VariantContextWriter writer = VariantContextWriterConstructionHelper.openVariantContextWriter(variantGenerator.buildVcfHeader(), vcfPath
+                .toString(), Collections.emptyList(), false)) {
+            variantContexts.forEach(writer::add);
+        }
+
+        Path pedPath = null;
+        if (workloadType == WorkloadType.TRIO) {
+            pedPath = directory.resolve("trio.ped");
+            writeTrioPedFile(pedPath);
+        }
+
+        List<GeneDiseaseModel> diseaseModels = phenotypes.buildDiseaseModels(genome.getGenes(), PHENOTYPES_PER_DISEASE);
+        List<String> hpoIds = queryPhenotypes(diseaseModels, phenotypes, new Random(seed));
+        Files.write(directory.resolve(HPO_TERMS_FILE_NAME), hpoIds, StandardCharsets.UTF_8);
+
+        SyntheticDataWriter dataWriter = new SyntheticDataWriter(genome, phenotypes, seed);
+        dataWriter.writeVariantStore(directory.resolve(VARIANT_STORE_FILE_NAME), variantContexts);
+        dataWriter.writeLocalFrequencies(directory.resolve(LOCAL_FREQUENCY_FILE_NAME), variantContexts);
+        dataWriter.writeCaddScores(directory.resolve(CADD_SNV_FILE_NAME), directory.resolve(CADD_INDEL_FILE_NAME), variantContexts);
+        dataWriter.writeRemmScores(directory.resolve(REMM_FILE_NAME), variantContexts);
+        dataWriter.writeGenomeDatabase(directory.resolve(GENOME_DB_NAME));
+        dataWriter.writePhenotypeDatabase(directory.resolve(PHENOTYPE_DB_NAME), diseaseModels);
+
+        logger.info("Created {} workload - {} ms", workloadType, Duration.between(start, Instant.now()).toMillis());
+        return new SyntheticWorkload(workloadType, genome, numVariants, directory, vcfPath, pedPath, hpoIds);
+    }
+
+    private static void writeTrioPedFile(Path pedPath) throws IOException {
+        List<String> sampleNames = BenchmarkFixtures.TRIO_SAMPLE_NAMES;
+        // columns are family, individual, father, mother, sex (1 = male, 2 = female) and status (1 = unaffected, 2 = affected)
+        List<String> lines = Arrays.asList(
+                String.join("\t", "Family", sampleNames.get(0), sampleNames.get(2), sampleNames.get(1), "1", "2"),
+                String.join("\t", "Family", sampleNames.get(1), "0", "0", "2", "1"),
+                String.join("\t", "Family", sampleNames.get(2), "0", "0", "1", "1")
+        );
+        Files.write(pedPath, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The patient phenotypes are mostly taken from one of the diseases, so that there is a clear candidate gene, with
+     * the rest chosen at random.
+     */
+    private static List<String> queryPhenotypes(List<GeneDiseaseModel> diseaseModels, SyntheticPhenotypes phenotypes, Random random) {
+        GeneDiseaseModel candidate = diseaseModels.get(random.nextInt(diseaseModels.size()));
+        List<String> diseasePhenotypes = candidate.getPhenotypeIds();
+        ImmutableList.Builder<String> hpoIds = ImmutableList.builder();
+        hpoIds.addAll(diseasePhenotypes.subList(0, Math.min(NUM_QUERY_PHENOTYPES - 1, diseasePhenotypes.size())));
+        hpoIds.addAll(phenotypes.randomTermIds(1));
+        return hpoIds.build();
+    }
+
+    public WorkloadType getWorkloadType() {
+        return workloadType;
+    }
+
+    public SyntheticGenome getGenome() {
+        return genome;
+    }
+
+    public int getNumVariants() {
+        return numVariants;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Path getVcfPath() {
+        return vcfPath;
+    }
+
+    /**
+     * @return the path of the PED file for multi-sample workloads or null for single sample workloads.
+     */
+    public Path getPedPath() {
+        return pedPath;
+    }
+
+    public List<String> getHpoIds() {
+        return hpoIds;
+    }
+
+    public String getProbandSampleName() {
+        return workloadType.getSampleNames().get(0);
+    }
+
+    @Override
+    public String toString() {
+        return "SyntheticWorkload{" +
+                "workloadType=" + workloadType +
+                ", numGenes=" + genome.getGenes().size() +
+                ", numVariants=" + numVariants +
+                ", directory=" + directory +
+                ", hpoIds=" + hpoIds +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.tribble.SimpleFeature;
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.tabix.TabixFormat;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Writes tab-separated lines with the chromosome and position in the first two columns to a bgzipped file and creates
+ * the accompanying .tbi index, as would be done by running bgzip and then tabix -s 1 -b 2 -e 2. The lines must be
+ * added in chromosome and position order.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class TabixFileWriter implements Closeable {
+
+    private static final TabixFormat CHROMOSOME_POSITION_FORMAT = new TabixFormat(TabixFormat.GENERIC_FLAGS, 1, 2, 2, '#', 0);
+
+    private final Path tabixFile;
+    private final BlockCompressedOutputStream outputStream;
+    private final TabixIndexCreator indexCreator;
+
+    TabixFileWriter(Path tabixFile) {
+        this.tabixFile = tabixFile;
+        this.outputStream = new BlockCompressedOutputStream(tabixFile.toFile());
+        this.indexCreator = new TabixIndexCreator(CHROMOSOME_POSITION_FORMAT);
+    }
+
+    /**
+     * Writes a comment line which is not indexed. These should only be written before the first data line.
+     */
+    void writeHeader(String header) throws IOException {
+        write("#" + header);
+    }
+
+    void writeLine(String chr, int pos, String line) throws IOException {
+        indexCreator.addFeature(new SimpleFeature(chr, pos, pos), outputStream.getFilePointer());
+        write(line);
+    }
+
+    private void write(String line) throws IOException {
+        outputStream.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() throws IOException {
+        Index index = indexCreator.finalizeIndex(outputStream.getFilePointer());
+        outputStream.close();
+        index.writeBasedOnFeatureFile(tabixFile.toFile());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.monarchinitiative.exomiser.core.genome.VariantAnnotator;
+import org.monarchinitiative.exomiser.core.genome.VariantFactory;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Measures the cost of annotating variants with Jannovar, both directly through the {@link VariantAnnotator} and when
+ * creating {@link VariantEvaluation} from VCF records with the {@link VariantFactory}.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantAnnotationBenchmark {
+
+    private static final int NUM_VARIANTS = 1000;
+
+    @Param({"200"})
+    public int numGenes;
+
+    private List<VariantContext> variantContexts;
+    private VariantAnnotator variantAnnotator;
+    private VariantFactory variantFactory;
+
+    @Setup
+    public void setUp() {
+        SyntheticGenome genome = SyntheticGenome.of(numGenes, 42);
+        SyntheticVariantGenerator variantGenerator = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), 42);
+        variantContexts = variantGenerator.generate(NUM_VARIANTS);
+        variantAnnotator = genome.buildVariantAnnotator();
+        variantFactory = genome.buildVariantFactory();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VARIANTS)
+    public void annotateAlleles(Blackhole blackhole) {
+        for (VariantContext variantContext : variantContexts) {
+            String ref = variantContext.getReference().getBaseString();
+            String alt = variantContext.getAlternateAllele(0).getBaseString();
+            blackhole.consume(variantAnnotator.annotate(variantContext.getContig(), variantContext.getStart(), ref, alt));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VARIANTS)
+    public List<VariantEvaluation> createVariantEvaluations() {
+        return variantFactory.createVariantEvaluations(variantContexts.stream()).collect(toList());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+/**
+ * Proportions of coding SNVs, coding indels, intronic and intergenic variants generated by a
+ * {@link SyntheticVariantGenerator}. The {@link #EXOME} mix is dominated by coding variants, as would be expected from a
+ * capture kit, whereas the {@link #GENOME} mix is dominated by non-coding variants with only around 2% in coding
+ * sequence.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public final class VariantMix {
+
+    public static final VariantMix EXOME = VariantMix.of(0.6, 0.1, 0.2);
+    public static final VariantMix GENOME = VariantMix.of(0.018, 0.002, 0.45);
+
+    private final double codingSnvFraction;
+    private final double codingIndelFraction;
+    private final double intronicFraction;
+
+    private VariantMix(double codingSnvFraction, double codingIndelFraction, double intronicFraction) {
+        this.codingSnvFraction = codingSnvFraction;
+        this.codingIndelFraction = codingIndelFraction;
+        this.intronicFraction = intronicFraction;
+    }
+
+    /**
+     * @return a new mix with the given fractions, any remainder being intergenic.
+     * @throws IllegalArgumentException if a fraction is negative or the fractions sum to more than one.
+     */
+    public static VariantMix of(double codingSnvFraction, double codingIndelFraction, double intronicFraction) {
+        if (codingSnvFraction < 0 || codingIndelFraction < 0 || intronicFraction < 0) {
+            throw new IllegalArgumentException("Variant fractions cannot be negative");
+        }
+        if (codingSnvFraction + codingIndelFraction + intronicFraction > 1) {
+            throw new IllegalArgumentException("Variant fractions cannot sum to more than 1");
+        }
+        return new VariantMix(codingSnvFraction, codingIndelFraction, intronicFraction);
+    }
+
+    public double getCodingSnvFraction() {
+        return codingSnvFraction;
+    }
+
+    public double getCodingIndelFraction() {
+        return codingIndelFraction;
+    }
+
+    public double getIntronicFraction() {
+        return intronicFraction;
+    }
+
+    public double getIntergenicFraction() {
+        return Math.max(0, 1 - codingSnvFraction - codingIndelFraction - intronicFraction);
+    }
+
+    @Override
+    public String toString() {
+        return "VariantMix{" +
+                "codingSnvFraction=" + codingSnvFraction +
+                ", codingIndelFraction=" + codingIndelFraction +
+                ", intronicFraction=" + intronicFraction +
+                ", intergenicFraction=" + getIntergenicFraction() +
+                '}';
+    }
+}
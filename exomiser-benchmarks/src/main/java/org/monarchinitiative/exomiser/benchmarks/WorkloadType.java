@@ -0,0 +1,70 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * The shapes of input generated for an end-to-end benchmark - single sample exomes and genomes and a multi-sample trio
+ * exome.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public enum WorkloadType {
+
+    EXOME(VariantMix.EXOME, ImmutableList.of(BenchmarkFixtures.PROBAND), 30_000),
+    GENOME(VariantMix.GENOME, ImmutableList.of(BenchmarkFixtures.PROBAND), 500_000),
+    TRIO(VariantMix.EXOME, BenchmarkFixtures.TRIO_SAMPLE_NAMES, 30_000);
+
+    private final VariantMix variantMix;
+    private final List<String> sampleNames;
+    private final int defaultNumVariants;
+
+    WorkloadType(VariantMix variantMix, List<String> sampleNames, int defaultNumVariants) {
+        this.variantMix = variantMix;
+        this.sampleNames = sampleNames;
+        this.defaultNumVariants = defaultNumVariants;
+    }
+
+    public VariantMix getVariantMix() {
+        return variantMix;
+    }
+
+    /**
+     * @return the names of the samples in the VCF, the first being the proband.
+     */
+    public List<String> getSampleNames() {
+        return sampleNames;
+    }
+
+    public boolean isMultiSample() {
+        return sampleNames.size() > 1;
+    }
+
+    /**
+     * @return a number of variants representative of this type of sample, although real genomes have several million.
+     */
+    public int getDefaultNumVariants() {
+        return defaultNumVariants;
+    }
+}
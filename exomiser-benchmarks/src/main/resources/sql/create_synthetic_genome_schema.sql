@@ -0,0 +1,19 @@
+-- Genome database tables read by the TadDao and RegulatoryFeatureDao, as found in the exomiser-data-genome schema.
+DROP TABLE IF EXISTS TAD;
+
+CREATE TABLE TAD (
+  CHROMOSOME SMALLINT NOT NULL,
+  START      INTEGER  NOT NULL,
+  "end"      INTEGER  NOT NULL,
+  ENTREZID   INTEGER  NOT NULL,
+  SYMBOL     VARCHAR(24)
+);
+
+DROP TABLE IF EXISTS REGULATORY_REGIONS;
+
+CREATE TABLE REGULATORY_REGIONS (
+  CHROMOSOME   SMALLINT,
+  START        INTEGER,
+  "end"        INTEGER,
+  FEATURE_TYPE VARCHAR(200)
+);
@@ -0,0 +1,133 @@
+-- Phenotype database tables read by the ontology DAOs, ModelServiceImpl and DefaultDiseaseDao, as found in the
+-- exomiser-data-phenotype schema. The mouse and fish tables are left empty by the synthetic data.
+DROP TABLE IF EXISTS hpo;
+
+CREATE TABLE hpo (
+  lcname   VARCHAR(256) PRIMARY KEY,
+  id       CHAR(10),
+  prefname VARCHAR(256)
+);
+
+DROP TABLE IF EXISTS hp_hp_mappings;
+
+CREATE TABLE hp_hp_mappings (
+  mapping_id  INTEGER,
+  hp_id       CHARACTER VARYING(10),
+  hp_term     CHARACTER VARYING(200),
+  hp_id_hit   CHARACTER VARYING(10),
+  hp_hit_term CHARACTER VARYING(200),
+  simj        DOUBLE PRECISION,
+  ic          DOUBLE PRECISION,
+  score       DOUBLE PRECISION,
+  lcs_id      CHARACTER VARYING(20),
+  lcs_term    CHARACTER VARYING(150)
+);
+
+DROP TABLE IF EXISTS hp_mp_mappings;
+
+CREATE TABLE hp_mp_mappings (
+  mapping_id INTEGER,
+  hp_id      CHARACTER VARYING(10),
+  hp_term    CHARACTER VARYING(200),
+  mp_id      CHARACTER VARYING(10),
+  mp_term    CHARACTER VARYING(200),
+  simj       DOUBLE PRECISION,
+  ic         DOUBLE PRECISION,
+  score      DOUBLE PRECISION,
+  lcs_id     CHARACTER VARYING(20),
+  lcs_term   CHARACTER VARYING(150)
+);
+
+DROP TABLE IF EXISTS hp_zp_mappings;
+
+CREATE TABLE hp_zp_mappings (
+  mapping_id INTEGER,
+  hp_id      CHARACTER VARYING(10),
+  hp_term    CHARACTER VARYING(200),
+  zp_id      CHARACTER VARYING(10),
+  zp_term    CHARACTER VARYING(200),
+  simj       DOUBLE PRECISION,
+  ic         DOUBLE PRECISION,
+  score      DOUBLE PRECISION,
+  lcs_id     CHARACTER VARYING(40),
+  lcs_term   CHARACTER VARYING(150)
+);
+
+DROP TABLE IF EXISTS mp;
+
+CREATE TABLE mp (
+  mp_id   CHAR(10),
+  mp_term VARCHAR(256)
+);
+
+DROP TABLE IF EXISTS zp;
+
+CREATE TABLE zp (
+  zp_id   CHAR(10),
+  zp_term VARCHAR(256)
+);
+
+DROP TABLE IF EXISTS human2mouse_orthologs;
+
+CREATE TABLE human2mouse_orthologs (
+  mgi_gene_id       CHARACTER VARYING(20),
+  mgi_gene_symbol   CHARACTER VARYING(100),
+  human_gene_symbol CHARACTER VARYING(40),
+  entrez_id         INTEGER
+);
+
+DROP TABLE IF EXISTS human2fish_orthologs;
+
+CREATE TABLE human2fish_orthologs (
+  zfin_gene_id      CHARACTER VARYING(40),
+  zfin_gene_symbol  CHARACTER VARYING(100),
+  human_gene_symbol CHARACTER VARYING(40),
+  entrez_id         CHARACTER VARYING(20)
+);
+
+DROP TABLE IF EXISTS mgi_mp;
+
+CREATE TABLE mgi_mp (
+  mgi_gene_id     CHARACTER VARYING(20),
+  mgi_gene_symbol CHARACTER VARYING(200),
+  mouse_model_id  INTEGER,
+  mp_id           CHARACTER VARYING(3000)
+);
+
+DROP TABLE IF EXISTS zfin_zp;
+
+CREATE TABLE zfin_zp (
+  zfin_gene_id     CHARACTER VARYING(40),
+  zfin_gene_symbol CHARACTER VARYING(200),
+  zfin_model_id    INTEGER,
+  zp_id            CHARACTER VARYING(3000)
+);
+
+DROP TABLE IF EXISTS disease;
+
+CREATE TABLE disease (
+  disease_id   VARCHAR(20) NOT NULL,
+  omim_gene_id VARCHAR(20),
+  diseasename  CHARACTER VARYING(2056),
+  gene_id      INTEGER     NOT NULL,
+  type         CHARACTER(1),
+  inheritance  CHARACTER(2)
+);
+
+DROP TABLE IF EXISTS disease_hp;
+
+CREATE TABLE disease_hp (
+  disease_id CHARACTER VARYING(20),
+  hp_id      CHARACTER VARYING(3000)
+);
+
+DROP TABLE IF EXISTS entrez2sym;
+
+CREATE TABLE entrez2sym (
+  entrezID INTEGER PRIMARY KEY,
+  symbol   VARCHAR(100)
+);
+
+CREATE INDEX hp_id2 ON hp_hp_mappings (hp_id);
+CREATE INDEX disease1 ON disease (gene_id, disease_id);
+CREATE INDEX disease_id_3 ON disease_hp (disease_id);
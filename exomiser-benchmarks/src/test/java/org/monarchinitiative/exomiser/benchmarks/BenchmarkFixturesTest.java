@@ -0,0 +1,75 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import de.charite.compbio.jannovar.pedigree.Pedigree;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.model.FilterStatus;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class BenchmarkFixturesTest {
+
+    private final SyntheticGenome genome = SyntheticGenome.of(10, 42);
+    private final List<VariantContext> variantContexts = new SyntheticVariantGenerator(genome, BenchmarkFixtures.TRIO_SAMPLE_NAMES, 42)
+            .generate(200);
+
+    @Test
+    public void testTrioPedigree() {
+        Pedigree pedigree = BenchmarkFixtures.trioPedigree();
+        assertThat(pedigree.getMembers().size(), equalTo(3));
+        assertThat(new HashSet<>(pedigree.getNames()), equalTo(new HashSet<>(BenchmarkFixtures.TRIO_SAMPLE_NAMES)));
+    }
+
+    @Test
+    public void testPassedVariantEvaluations() {
+        List<VariantEvaluation> variantEvaluations = BenchmarkFixtures.passedVariantEvaluations(genome, variantContexts);
+        assertThat(variantEvaluations.size(), equalTo(200));
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            assertThat(variantEvaluation.getFilterStatus(), equalTo(FilterStatus.PASSED));
+        }
+    }
+
+    @Test
+    public void testGroupIntoGenes() {
+        List<VariantEvaluation> variantEvaluations = BenchmarkFixtures.passedVariantEvaluations(genome, variantContexts);
+        List<Gene> genes = BenchmarkFixtures.groupIntoGenes(variantEvaluations);
+        assertThat(genes.size(), equalTo(10));
+
+        for (Gene gene : genes) {
+            assertThat(gene.getGeneSymbol().startsWith("SYN"), is(true));
+            for (VariantEvaluation variantEvaluation : gene.getVariantEvaluations()) {
+                assertThat(variantEvaluation.getGeneSymbol(), equalTo(gene.getGeneSymbol()));
+            }
+        }
+    }
+}
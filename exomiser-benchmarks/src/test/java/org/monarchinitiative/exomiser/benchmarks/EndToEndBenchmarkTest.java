@@ -0,0 +1,77 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.monarchinitiative.exomiser.core.analysis.AnalysisMode;
+
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class EndToEndBenchmarkTest {
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private EndToEndReport runBenchmark(WorkloadType workloadType, AnalysisMode analysisMode) throws Exception {
+        SyntheticWorkload workload = SyntheticWorkload.create(workloadType, 500, 50, temporaryFolder.newFolder().toPath(), 42);
+        try (EndToEndBenchmark instance = new EndToEndBenchmark(workload)) {
+            return instance.run(0, 1, analysisMode);
+        }
+    }
+
+    @Test
+    public void testRunExomeWorkload() throws Exception {
+        EndToEndReport report = runBenchmark(WorkloadType.EXOME, AnalysisMode.PASS_ONLY);
+        assertThat(report.getIterations(), equalTo(1));
+        assertThat(report.getVariantsPerSecond() > 0, is(true));
+        assertThat(report.getPeakHeapBytes() > 0, is(true));
+        assertThat(report.getMeanStepMillis().isEmpty(), is(false));
+        assertThat(report.getMeanStepMillis().containsKey("prioritiser:HIPHIVE_PRIORITY"), is(true));
+    }
+
+    @Test
+    public void testRunTrioWorkload() throws Exception {
+        EndToEndReport report = runBenchmark(WorkloadType.TRIO, AnalysisMode.FULL);
+        assertThat(report.getMeanStepMillis().containsKey("inheritance-mode:AUTOSOMAL_RECESSIVE"), is(true));
+        assertThat(report.getVariantsPerSecond() > 0, is(true));
+    }
+
+    @Test
+    public void testParseOptions() {
+        Map<String, String> options = EndToEndBenchmark.parseOptions(new String[]{"--workload=TRIO", "--variants=1000"});
+        assertThat(options.get("workload"), equalTo("TRIO"));
+        assertThat(options.get("variants"), equalTo("1000"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseOptionsRejectsMalformedArgument() {
+        EndToEndBenchmark.parseOptions(new String[]{"TRIO"});
+    }
+}
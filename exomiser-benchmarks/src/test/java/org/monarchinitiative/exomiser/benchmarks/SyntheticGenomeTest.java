@@ -0,0 +1,106 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.genome.VariantAnnotator;
+import org.monarchinitiative.exomiser.core.model.VariantAnnotation;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SyntheticGenomeTest {
+
+    private final SyntheticGenome instance = SyntheticGenome.of(50, 42);
+
+    @Test
+    public void testGenesAreLaidOutAcrossAutosomes() {
+        assertThat(instance.getGenes().size(), equalTo(50));
+        SyntheticGene first = instance.getGenes().get(0);
+        assertThat(first.getGeneSymbol(), equalTo("SYN1"));
+        assertThat(first.getChr(), equalTo(1));
+        assertThat(first.getStart(), equalTo(SyntheticGenome.FIRST_GENE_START));
+
+        SyntheticGene twentyThird = instance.getGenes().get(22);
+        assertThat(twentyThird.getChr(), equalTo(1));
+        assertThat(twentyThird.getStart(), equalTo(SyntheticGenome.FIRST_GENE_START + SyntheticGenome.GENE_SPACING));
+    }
+
+    @Test
+    public void testSameSeedProducesSameGenome() {
+        SyntheticGenome other = SyntheticGenome.of(50, 42);
+        SyntheticGene gene = instance.getGenes().get(10);
+        for (int pos = gene.getStart(); pos <= gene.getEnd(); pos++) {
+            assertThat(other.referenceBase(gene.getChr(), pos), equalTo(instance.referenceBase(gene.getChr(), pos)));
+        }
+    }
+
+    @Test
+    public void testReferenceBaseMatchesTranscriptSequence() {
+        SyntheticGene gene = instance.getGenes().get(3);
+        int startCodonPos = gene.exonicPosition(gene.getCdsStartOffset());
+        String startCodon = "" + instance.referenceBase(gene.getChr(), startCodonPos)
+                + instance.referenceBase(gene.getChr(), startCodonPos + 1)
+                + instance.referenceBase(gene.getChr(), startCodonPos + 2);
+        assertThat(startCodon, equalTo("ATG"));
+    }
+
+    @Test
+    public void testJannovarDataContainsAllTranscripts() {
+        assertThat(instance.getJannovarData().getTmByAccession().size(), equalTo(50));
+    }
+
+    @Test
+    public void testAnnotateStartLoss() {
+        VariantAnnotator variantAnnotator = instance.buildVariantAnnotator();
+        SyntheticGene gene = instance.getGenes().get(0);
+        int startCodonPos = gene.exonicPosition(gene.getCdsStartOffset());
+
+        VariantAnnotation annotation = variantAnnotator.annotate("1", startCodonPos, "A", "C");
+        assertThat(annotation.getGeneSymbol(), equalTo("SYN1"));
+        assertThat(annotation.getGeneId(), equalTo(String.valueOf(gene.getEntrezId())));
+        assertThat(annotation.getVariantEffect(), equalTo(VariantEffect.START_LOST));
+    }
+
+    @Test
+    public void testAnnotateIntronicVariant() {
+        VariantAnnotator variantAnnotator = instance.buildVariantAnnotator();
+        SyntheticGene gene = instance.getGenes().get(0);
+        int pos = gene.intronicPosition(1, 500);
+        String ref = String.valueOf(instance.referenceBase(gene.getChr(), pos));
+
+        VariantAnnotation annotation = variantAnnotator.annotate("1", pos, ref, ref.equals("A") ? "C" : "A");
+        assertThat(annotation.getGeneSymbol(), equalTo("SYN1"));
+        assertThat(annotation.getVariantEffect(), equalTo(VariantEffect.CODING_TRANSCRIPT_INTRON_VARIANT));
+    }
+
+    @Test
+    public void testIntergenicStartIsAfterLastGene() {
+        for (SyntheticGene gene : instance.getGenes()) {
+            assertThat(gene.getEnd() < instance.getIntergenicStart(), is(true));
+        }
+    }
+}
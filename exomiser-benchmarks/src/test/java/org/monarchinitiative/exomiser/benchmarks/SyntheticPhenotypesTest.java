@@ -0,0 +1,81 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneDiseaseModel;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SyntheticPhenotypesTest {
+
+    private final SyntheticPhenotypes instance = SyntheticPhenotypes.of(100, 42);
+
+    @Test
+    public void testTerms() {
+        List<PhenotypeTerm> terms = instance.getTerms();
+        assertThat(terms.size(), equalTo(100));
+        assertThat(terms.get(0).getId(), equalTo("HP:1000001"));
+    }
+
+    @Test
+    public void testRandomTermIdsAreDistinct() {
+        List<String> termIds = instance.randomTermIds(20);
+        assertThat(termIds.size(), equalTo(20));
+        assertThat(new HashSet<>(termIds).size(), equalTo(20));
+    }
+
+    @Test
+    public void testQueryTermsBestMatchIsSelf() {
+        List<PhenotypeTerm> queryTerms = instance.randomTerms(5);
+        Map<PhenotypeTerm, Set<PhenotypeMatch>> matches = instance.buildHpHpMatches(queryTerms, 10);
+        assertThat(matches.keySet().size(), equalTo(5));
+        for (Map.Entry<PhenotypeTerm, Set<PhenotypeMatch>> entry : matches.entrySet()) {
+            PhenotypeMatch bestMatch = entry.getValue().stream()
+                    .max((a, b) -> Double.compare(a.getScore(), b.getScore()))
+                    .orElseThrow(IllegalStateException::new);
+            assertThat(bestMatch.getMatchPhenotype(), equalTo(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testDiseaseModels() {
+        SyntheticGenome genome = SyntheticGenome.of(10, 42);
+        List<GeneDiseaseModel> models = instance.buildDiseaseModels(genome.getGenes(), 15);
+        assertThat(models.size(), equalTo(10));
+        for (GeneDiseaseModel model : models) {
+            assertThat(model.getPhenotypeIds().size(), equalTo(15));
+            assertThat(model.getHumanGeneSymbol().startsWith("SYN"), is(true));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeader;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SyntheticVariantGeneratorTest {
+
+    private final SyntheticGenome genome = SyntheticGenome.of(100, 42);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoSampleNamesThrowsException() {
+        new SyntheticVariantGenerator(genome, Collections.emptyList(), 42);
+    }
+
+    @Test
+    public void testGeneratesRequestedNumberOfVariants() {
+        SyntheticVariantGenerator instance = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), 42);
+        assertThat(instance.generate(1000).size(), equalTo(1000));
+    }
+
+    @Test
+    public void testVariantsAreSortedByChromosomeAndPosition() {
+        SyntheticVariantGenerator instance = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), 42);
+        List<VariantContext> variantContexts = instance.generate(1000);
+        for (int i = 1; i < variantContexts.size(); i++) {
+            VariantContext previous = variantContexts.get(i - 1);
+            VariantContext current = variantContexts.get(i);
+            int previousChr = Integer.parseInt(previous.getContig());
+            int currentChr = Integer.parseInt(current.getContig());
+            assertThat(previousChr < currentChr || (previousChr == currentChr && previous.getStart() < current.getStart()), is(true));
+        }
+    }
+
+    @Test
+    public void testSameSeedProducesSameVariants() {
+        List<VariantContext> first = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), 42).generate(100);
+        List<VariantContext> second = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), 42).generate(100);
+        for (int i = 0; i < first.size(); i++) {
+            assertThat(first.get(i).toStringDecodeGenotypes(), equalTo(second.get(i).toStringDecodeGenotypes()));
+        }
+    }
+
+    @Test
+    public void testReferenceAllelesMatchGenome() {
+        SyntheticVariantGenerator instance = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), 42);
+        for (VariantContext variantContext : instance.generate(1000)) {
+            int chr = Integer.parseInt(variantContext.getContig());
+            String ref = variantContext.getReference().getBaseString();
+            for (int i = 0; i < ref.length(); i++) {
+                assertThat(ref.charAt(i), equalTo(genome.referenceBase(chr, variantContext.getStart() + i)));
+            }
+        }
+    }
+
+    @Test
+    public void testProbandAlwaysHasAltAllele() {
+        List<String> sampleNames = Arrays.asList("Cain", "Eve", "Adam");
+        SyntheticVariantGenerator instance = new SyntheticVariantGenerator(genome, sampleNames, 42);
+        for (VariantContext variantContext : instance.generate(1000)) {
+            assertThat(variantContext.getSampleNamesOrderedByName().size(), equalTo(3));
+            Genotype proband = variantContext.getGenotype("Cain");
+            assertThat(proband.isHet() || proband.isHomVar(), is(true));
+        }
+    }
+
+    @Test
+    public void testVcfHeaderContainsSamples() {
+        List<String> sampleNames = Arrays.asList("Cain", "Eve", "Adam");
+        SyntheticVariantGenerator instance = new SyntheticVariantGenerator(genome, sampleNames, 42);
+        VCFHeader vcfHeader = instance.buildVcfHeader();
+        assertThat(vcfHeader.getGenotypeSamples(), equalTo(sampleNames));
+        assertThat(vcfHeader.hasGenotypingData(), is(true));
+    }
+
+    @Test
+    public void testVcfHeaderContainsAutosomes() {
+        SyntheticVariantGenerator instance = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), 42);
+        VCFHeader vcfHeader = instance.buildVcfHeader();
+        assertThat(vcfHeader.getSequenceDictionary().size(), equalTo(SyntheticGenome.NUM_AUTOSOMES));
+        assertThat(vcfHeader.getSequenceDictionary().getSequence("1").getSequenceLength(), equalTo(249250621));
+    }
+
+    @Test
+    public void testDefaultVariantMixIsExome() {
+        SyntheticVariantGenerator instance = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), 42);
+        assertThat(instance.getVariantMix(), equalTo(VariantMix.EXOME));
+    }
+
+    @Test
+    public void testGenomeMixHasFewerVariantsInGenes() {
+        int numVariants = 2000;
+        List<VariantContext> exomeVariants = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), VariantMix.EXOME, 42)
+                .generate(numVariants);
+        List<VariantContext> genomeVariants = new SyntheticVariantGenerator(genome, Collections.singletonList("Cain"), VariantMix.GENOME, 42)
+                .generate(numVariants);
+        assertThat(countGenicVariants(genomeVariants) < countGenicVariants(exomeVariants), is(true));
+    }
+
+    private long countGenicVariants(List<VariantContext> variantContexts) {
+        return variantContexts.stream()
+                .filter(variantContext -> variantContext.getStart() < genome.getIntergenicStart())
+                .count();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import htsjdk.tribble.readers.TabixReader;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFFileReader;
+import org.h2.mvstore.MVStore;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.MvStoreUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SyntheticWorkloadTest {
+
+    private static final int NUM_VARIANTS = 500;
+    private static final int NUM_GENES = 50;
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static SyntheticWorkload createWorkload(WorkloadType workloadType) throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        return SyntheticWorkload.create(workloadType, NUM_VARIANTS, NUM_GENES, directory, 42);
+    }
+
+    @Test
+    public void testVcfContainsVariantsForSample() throws Exception {
+        SyntheticWorkload instance = createWorkload(WorkloadType.EXOME);
+        assertThat(Files.exists(instance.getVcfPath()), is(true));
+        assertThat(instance.getPedPath(), nullValue());
+        try (VCFFileReader vcfFileReader = new VCFFileReader(instance.getVcfPath().toFile(), false)) {
+            assertThat(vcfFileReader.getFileHeader().getGenotypeSamples(), equalTo(WorkloadType.EXOME.getSampleNames()));
+            int numRecords = 0;
+            for (VariantContext variantContext : vcfFileReader) {
+                numRecords++;
+            }
+            assertThat(numRecords, equalTo(NUM_VARIANTS));
+        }
+    }
+
+    @Test
+    public void testTrioWorkloadHasPedFile() throws Exception {
+        SyntheticWorkload instance = createWorkload(WorkloadType.TRIO);
+        assertThat(instance.getPedPath(), notNullValue());
+        List<String> pedLines = Files.readAllLines(instance.getPedPath());
+        assertThat(pedLines.size(), equalTo(3));
+        assertThat(pedLines.get(0), equalTo("Family\tCain\tAdam\tEve\t1\t2"));
+        assertThat(instance.getProbandSampleName(), equalTo(BenchmarkFixtures.PROBAND));
+    }
+
+    @Test
+    public void testHpoIdsAreWrittenAndKnown() throws Exception {
+        SyntheticWorkload instance = createWorkload(WorkloadType.EXOME);
+        assertThat(instance.getHpoIds().size(), equalTo(SyntheticWorkload.NUM_QUERY_PHENOTYPES));
+        assertThat(Files.readAllLines(instance.getDirectory().resolve(SyntheticWorkload.HPO_TERMS_FILE_NAME)), equalTo(instance
+                .getHpoIds()));
+        String phenotypeUrl = SyntheticDataWriter.h2JdbcUrl(instance.getDirectory().resolve(SyntheticWorkload.PHENOTYPE_DB_NAME));
+        try (Connection connection = DriverManager.getConnection(phenotypeUrl, "sa", "");
+             Statement statement = connection.createStatement()) {
+            for (String hpoId : instance.getHpoIds()) {
+                try (ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM hp_hp_mappings WHERE hp_id = '" + hpoId + "'")) {
+                    resultSet.next();
+                    assertThat(resultSet.getInt(1) > 0, is(true));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPhenotypeDatabaseHasDiseasePerGene() throws Exception {
+        SyntheticWorkload instance = createWorkload(WorkloadType.EXOME);
+        String phenotypeUrl = SyntheticDataWriter.h2JdbcUrl(instance.getDirectory().resolve(SyntheticWorkload.PHENOTYPE_DB_NAME));
+        try (Connection connection = DriverManager.getConnection(phenotypeUrl, "sa", "");
+             Statement statement = connection.createStatement()) {
+            assertThat(count(statement, "SELECT count(*) FROM disease"), equalTo(NUM_GENES));
+            assertThat(count(statement, "SELECT count(*) FROM entrez2sym"), equalTo(NUM_GENES));
+            assertThat(count(statement, "SELECT count(*) FROM hpo"), equalTo(SyntheticWorkload.NUM_PHENOTYPES));
+        }
+    }
+
+    @Test
+    public void testGenomeDatabaseHasTadPerGene() throws Exception {
+        SyntheticWorkload instance = createWorkload(WorkloadType.EXOME);
+        String genomeUrl = SyntheticDataWriter.h2JdbcUrl(instance.getDirectory().resolve(SyntheticWorkload.GENOME_DB_NAME));
+        try (Connection connection = DriverManager.getConnection(genomeUrl, "sa", "");
+             Statement statement = connection.createStatement()) {
+            assertThat(count(statement, "SELECT count(*) FROM TAD"), equalTo(NUM_GENES));
+            assertThat(count(statement, "SELECT count(*) FROM REGULATORY_REGIONS"), equalTo(NUM_GENES));
+        }
+    }
+
+    private static int count(Statement statement, String query) throws Exception {
+        try (ResultSet resultSet = statement.executeQuery(query)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    @Test
+    public void testVariantStoreContainsKnownAlleles() throws Exception {
+        SyntheticWorkload instance = createWorkload(WorkloadType.EXOME);
+        MVStore mvStore = new MVStore.Builder()
+                .fileName(instance.getDirectory().resolve(SyntheticWorkload.VARIANT_STORE_FILE_NAME).toString())
+                .readOnly()
+                .open();
+        try {
+            int numAlleles = mvStore.openMap("alleles", MvStoreUtil.alleleMapBuilder()).size();
+            assertThat(numAlleles > 0 && numAlleles < NUM_VARIANTS, is(true));
+        } finally {
+            mvStore.close();
+        }
+    }
+
+    @Test
+    public void testTabixFilesAreIndexed() throws Exception {
+        SyntheticWorkload instance = createWorkload(WorkloadType.EXOME);
+        Path directory = instance.getDirectory();
+        for (String tabixFileName : new String[]{SyntheticWorkload.LOCAL_FREQUENCY_FILE_NAME, SyntheticWorkload.CADD_SNV_FILE_NAME,
+                SyntheticWorkload.CADD_INDEL_FILE_NAME, SyntheticWorkload.REMM_FILE_NAME}) {
+            assertThat(tabixFileName, Files.exists(directory.resolve(tabixFileName + ".tbi")), is(true));
+        }
+    }
+
+    @Test
+    public void testEveryVariantHasARemmScore() throws Exception {
+        SyntheticWorkload instance = createWorkload(WorkloadType.EXOME);
+        TabixReader tabixReader = new TabixReader(instance.getDirectory().resolve(SyntheticWorkload.REMM_FILE_NAME).toString());
+        try (VCFFileReader vcfFileReader = new VCFFileReader(instance.getVcfPath().toFile(), false)) {
+            for (VariantContext variantContext : vcfFileReader) {
+                String query = variantContext.getContig() + ":" + variantContext.getStart() + "-" + variantContext.getStart();
+                assertThat(query, tabixReader.query(query).next(), notNullValue());
+            }
+        } finally {
+            tabixReader.close();
+        }
+    }
+}
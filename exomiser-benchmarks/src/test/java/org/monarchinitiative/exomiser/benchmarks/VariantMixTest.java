@@ -0,0 +1,66 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.benchmarks;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantMixTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testRemainderIsIntergenic() {
+        VariantMix instance = VariantMix.of(0.5, 0.1, 0.2);
+        assertThat(instance.getCodingSnvFraction(), equalTo(0.5));
+        assertThat(instance.getCodingIndelFraction(), equalTo(0.1));
+        assertThat(instance.getIntronicFraction(), equalTo(0.2));
+        assertThat(Math.abs(instance.getIntergenicFraction() - 0.2) < DELTA, equalTo(true));
+    }
+
+    @Test
+    public void testAllCoding() {
+        VariantMix instance = VariantMix.of(0.9, 0.1, 0);
+        assertThat(instance.getIntergenicFraction() < DELTA, equalTo(true));
+    }
+
+    @Test
+    public void testGenomeIsMostlyNonCoding() {
+        VariantMix genome = VariantMix.GENOME;
+        assertThat(genome.getCodingSnvFraction() + genome.getCodingIndelFraction() < 0.05, equalTo(true));
+        assertThat(genome.getIntergenicFraction() > genome.getIntronicFraction(), equalTo(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeFractionThrowsException() {
+        VariantMix.of(-0.1, 0.1, 0.2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFractionsSummingToMoreThanOneThrowsException() {
+        VariantMix.of(0.6, 0.3, 0.2);
+    }
+}
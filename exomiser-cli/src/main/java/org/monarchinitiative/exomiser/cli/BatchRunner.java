@@ -0,0 +1,124 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs a batch of jobs, such as analysis scripts or settings files, on a fixed number of threads. Each job is isolated
+ * from the others, so the failure of one job, whether from an {@link Exception} or an {@link Error}, is logged and the
+ * rest of the batch carries on.
+ *
+ * Running several analyses at once will use more RAM as the variants of each analysis are held in memory at the same
+ * time, so the number of threads defaults to 1.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class BatchRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchRunner.class);
+
+    private final int threads;
+
+    /**
+     * @param threads number of jobs to run concurrently. Values less than 1 will run the jobs one at a time.
+     */
+    public BatchRunner(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Runs the job for each of the items provided, blocking until they have all completed.
+     *
+     * @param items the input for each job
+     * @param job   the job to run for each item
+     * @return the items whose jobs failed, in the order in which they were supplied
+     */
+    public <T> List<T> run(List<T> items, Consumer<T> job) {
+        logger.info("Running {} jobs using {} thread(s)", items.size(), threads);
+        Instant start = Instant.now();
+        List<T> failed = threads == 1 ? runSequentially(items, job) : runConcurrently(items, job);
+        long ms = Duration.between(start, Instant.now()).toMillis();
+        logger.info("Finished {} jobs in {} ms - {} succeeded, {} failed", items.size(), ms, items.size() - failed.size(), failed.size());
+        if (!failed.isEmpty()) {
+            logger.error("Failed jobs: {}", failed);
+        }
+        return failed;
+    }
+
+    private <T> List<T> runSequentially(List<T> items, Consumer<T> job) {
+        List<T> failed = new ArrayList<>();
+        for (T item : items) {
+            try {
+                job.accept(item);
+            } catch (Exception | Error e) {
+                // errors are also caught here to match the concurrent jobs, where they are wrapped in an ExecutionException
+                logger.error("Job {} failed", item, e);
+                failed.add(item);
+            }
+        }
+        return failed;
+    }
+
+    private <T> List<T> runConcurrently(List<T> items, Consumer<T> job) {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(executorService.submit(() -> job.accept(item)));
+            }
+            List<T> failed = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                T item = items.get(i);
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    logger.error("Job {} failed", item, e.getCause());
+                    failed.add(item);
+                } catch (InterruptedException e) {
+                    logger.error("Interrupted while waiting for job {}", item);
+                    Thread.currentThread().interrupt();
+                    futures.forEach(future -> future.cancel(true));
+                    failed.addAll(items.subList(i, items.size()));
+                    break;
+                }
+            }
+            return failed;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
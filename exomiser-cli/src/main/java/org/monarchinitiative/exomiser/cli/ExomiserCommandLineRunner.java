@@ -20,9 +20,15 @@
 
 package org.monarchinitiative.exomiser.cli;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.commons.cli.*;
 import org.monarchinitiative.exomiser.core.Exomiser;
 import org.monarchinitiative.exomiser.core.analysis.*;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserEvents;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
 import org.monarchinitiative.exomiser.core.writers.OutputFormat;
 import org.monarchinitiative.exomiser.core.writers.OutputSettings;
 import org.monarchinitiative.exomiser.core.writers.ResultsWriter;
@@ -32,12 +38,17 @@
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
@@ -59,10 +70,20 @@ public class ExomiserCommandLineRunner implements CommandLineRunner {
     private Exomiser exomiser;
     @Autowired
     private ResultsWriterFactory resultsWriterFactory;
+    @Autowired(required = false)
+    private CacheManager cacheManager;
 
     @Value("buildVersion")
     private String buildVersion;
 
+    //number of analyses from a batch file to run at the same time
+    @Value("${exomiser.batch-threads:1}")
+    private int batchThreads = 1;
+
+    //logs a table of the step, filter and data access timings once all the analyses have finished
+    @Value("${exomiser.metrics-summary:true}")
+    private boolean metricsSummary = true;
+
     @Override
     public void run(String... strings) {
         logger.info("Exomiser running...");
@@ -74,36 +95,65 @@ public void run(String... strings) {
         if (commandLine.hasOption("help")) {
             printHelpAndExit();
         }
-        runAnalyses(commandLine);
+        if (!metricsSummary) {
+            runAnalyses(commandLine);
+            return;
+        }
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        try {
+            runAnalyses(commandLine);
+        } finally {
+            bindCacheMetrics(meterRegistry);
+            logger.info("Metrics summary:{}{}", System.lineSeparator(), MetricsSummary.format(meterRegistry));
+            Metrics.removeRegistry(meterRegistry);
+        }
+    }
+
+    /**
+     * Caffeine caches only report their statistics when spring.cache.caffeine.spec includes recordStats. These are
+     * bound at the end of the run as the caches are created on first use.
+     */
+    @SuppressWarnings("unchecked")
+    private void bindCacheMetrics(SimpleMeterRegistry meterRegistry) {
+        if (cacheManager == null) {
+            return;
+        }
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Object nativeCache = cacheManager.getCache(cacheName).getNativeCache();
+            if (nativeCache instanceof Cache) {
+                CaffeineCacheMetrics.monitor(meterRegistry, (Cache<Object, Object>) nativeCache, cacheName);
+            }
+        }
     }
 
     private void runAnalyses(CommandLine commandLine) {
         if (commandLine.hasOption("analysis")) {
             Path analysisScript = Paths.get(commandLine.getOptionValue("analysis"));
-            runAnalysisFromScript(analysisScript);
+            List<Path> reprioritisationScripts = getReprioritisationScripts(commandLine);
+            runAnalysisFromScript(analysisScript, reprioritisationScripts);
         } else if (commandLine.hasOption("analysis-batch")) {
             Path analysisBatchFile = Paths.get(commandLine.getOptionValue("analysis-batch"));
             List<Path> analysisScripts = new BatchFileReader().readPathsFromBatchFile(analysisBatchFile);
             logger.info("Running {} analyses from analysis batch file.", analysisScripts.size());
-            //this *can* be run in parallel using parallelStream() at the expense of RAM in order to hold all the variants in memory.
-            //like this:
-            //analysisScripts.parallelStream().forEach(this::runAnalysisFromScript);
-            //HOWEVER there may be threading issues so this needs investigation.
-            analysisScripts.forEach(analysis ->{
+            //these can be run in parallel at the expense of RAM in order to hold all the variants for each analysis in memory.
+            List<Path> failed = new BatchRunner(batchThreads).run(analysisScripts, analysis -> {
                 logger.info("Running analysis: {}", analysis);
                 runAnalysisFromScript(analysis);
             });
+            checkBatchSucceeded(analysisBatchFile, analysisScripts, failed);
         }
         //check the args for a batch file first as this option is otherwise ignored
         else if (commandLine.hasOption("batch-file")) {
             Path batchFilePath = Paths.get(commandLine.getOptionValue("batch-file"));
             List<Path> settingsFiles = new BatchFileReader().readPathsFromBatchFile(batchFilePath);
             logger.info("Running {} analyses from settings batch file.", settingsFiles.size());
-            for (Path settingsFile : settingsFiles) {
+            List<Path> failed = new BatchRunner(batchThreads).run(settingsFiles, settingsFile -> {
                 logger.info("Running settings: {}", settingsFile);
                 Settings settings = commandLineOptionsParser.parseSettingsFile(settingsFile);
                 runAnalysisFromSettings(settings);
-            }
+            });
+            checkBatchSucceeded(batchFilePath, settingsFiles, failed);
         } else {
             //make a single SettingsBuilder
             Settings settings = commandLineOptionsParser.parseCommandLine(commandLine);
@@ -111,6 +161,26 @@ else if (commandLine.hasOption("batch-file")) {
         }
     }
 
+    /**
+     * The whole batch is run before reporting any failures so that one bad job does not prevent the others from
+     * running. The failed jobs have already been logged by the {@link BatchRunner}, throwing here ensures the
+     * application still exits with a non-zero status.
+     */
+    private void checkBatchSucceeded(Path batchFile, List<Path> jobs, List<Path> failed) {
+        if (!failed.isEmpty()) {
+            throw new BatchFailedException(String.format("%d of %d analyses from batch file %s failed: %s", failed.size(), jobs.size(), batchFile, failed));
+        }
+    }
+
+    private List<Path> getReprioritisationScripts(CommandLine commandLine) {
+        if (!commandLine.hasOption("reprioritise")) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(commandLine.getOptionValues("reprioritise"))
+                .map(Paths::get)
+                .collect(toList());
+    }
+
     private CommandLine parseCommandLineOptions(String[] args) {
         CommandLineParser parser = new DefaultParser();
         try {
@@ -132,28 +202,53 @@ private void printHelpAndExit() {
     }
 
     private void runAnalysisFromScript(Path analysisScript) {
+        runAnalysisFromScript(analysisScript, Collections.emptyList());
+    }
+
+    private void runAnalysisFromScript(Path analysisScript, List<Path> reprioritisationScripts) {
         Analysis analysis = analysisParser.parseAnalysis(analysisScript);
         OutputSettings outputSettings = analysisParser.parseOutputSettings(analysisScript);
-        runAnalysisAndWriteResults(analysis, outputSettings);
+        //the re-prioritised results share the variants of the original results, so these are closed last
+        try (AnalysisResults analysisResults = runAnalysisAndWriteResults(analysis, outputSettings)) {
+            //the genes are re-scored in place, so the results of each re-prioritisation are written before running the next
+            for (Path reprioritisationScript : reprioritisationScripts) {
+                logger.info("Re-prioritising results using analysis: {}", reprioritisationScript);
+                Analysis reprioritisation = analysisParser.parseAnalysis(reprioritisationScript);
+                OutputSettings reprioritisationOutputSettings = analysisParser.parseOutputSettings(reprioritisationScript);
+                AnalysisResults reprioritisedResults = exomiser.reprioritise(analysisResults, reprioritisation);
+                writeResults(reprioritisation, reprioritisedResults, reprioritisationOutputSettings);
+            }
+        }
     }
 
     private void runAnalysisFromSettings(Settings settings) {
         if (settings.isValid()) {
             Analysis analysis = settingsParser.parse(settings);
-            runAnalysisAndWriteResults(analysis, settings);
+            runAnalysisAndWriteResults(analysis, settings).close();
         }
     }
 
-    private void runAnalysisAndWriteResults(Analysis analysis, OutputSettings outputSettings) {
+    private AnalysisResults runAnalysisAndWriteResults(Analysis analysis, OutputSettings outputSettings) {
         AnalysisResults analysisResults = exomiser.run(analysis);
-        writeResults(analysis, analysisResults, outputSettings);
+        try {
+            writeResults(analysis, analysisResults, outputSettings);
+        } catch (RuntimeException | Error e) {
+            analysisResults.close();
+            throw e;
+        }
+        return analysisResults;
     }
 
     private void writeResults(Analysis analysis, AnalysisResults analysisResults, OutputSettings outputSettings) {
         logger.info("Writing results");
         for (OutputFormat outFormat : outputSettings.getOutputFormats()) {
             ResultsWriter resultsWriter = resultsWriterFactory.getResultsWriter(outFormat);
-            resultsWriter.writeFile(analysis, analysisResults, outputSettings);
+            ExomiserEvents.Span writeSpan = ExomiserEvents.resultsWriteStarted(analysisResults.getProbandSampleName(), String
+                    .valueOf(analysis.getGenomeAssembly()), outFormat.name());
+            Metrics.timer(ExomiserMetrics.RESULTS_WRITE, "format", outFormat.name())
+                    .record(() -> resultsWriter.writeFile(analysis, analysisResults, outputSettings));
+            ExomiserEvents.resultsWriteFinished(writeSpan, analysisResults.getGenes().size(), analysisResults.getVariantEvaluations()
+                    .size());
         }
     }
 
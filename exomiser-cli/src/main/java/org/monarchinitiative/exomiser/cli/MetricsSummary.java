@@ -0,0 +1,114 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.cli;
+
+import io.micrometer.core.instrument.*;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Formats the metrics recorded during a run as a plain-text table for the log.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class MetricsSummary {
+
+    private static final String TIMER_ROW = "%-28s %-48s %10s %12s %10s %10s%n";
+    private static final String VALUE_ROW = "%-28s %-48s %10s%n";
+
+    private MetricsSummary() {
+        //static utility class
+    }
+
+    /**
+     * @param meterRegistry registry holding the meters to summarise
+     * @return a table of the timers, followed by the counters and gauges, in the registry.
+     */
+    static String format(MeterRegistry meterRegistry) {
+        List<Meter> meters = meterRegistry.getMeters().stream()
+                .sorted(Comparator.comparing((Meter meter) -> meter.getId().getName())
+                        .thenComparing(meter -> formatTags(meter.getId())))
+                .collect(Collectors.toList());
+
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(String.format(TIMER_ROW, "Timer", "Tags", "Count", "Total (ms)", "Mean (ms)", "Max (ms)"));
+        for (Meter meter : meters) {
+            if (meter instanceof Timer) {
+                Timer timer = (Timer) meter;
+                // the filter timers are pre-registered for every filter type
+                if (timer.count() > 0) {
+                    stringBuilder.append(String.format(TIMER_ROW, timer.getId().getName(), formatTags(timer.getId()), timer
+                            .count(), formatMillis(timer.totalTime(TimeUnit.MILLISECONDS)), formatMillis(timer.mean(TimeUnit.MILLISECONDS)), formatMillis(timer
+                            .max(TimeUnit.MILLISECONDS))));
+                }
+            }
+        }
+        stringBuilder.append(String.format(VALUE_ROW, "Counter/Gauge", "Tags", "Value"));
+        for (Meter meter : meters) {
+            if (meter instanceof Counter) {
+                appendValue(stringBuilder, meter, ((Counter) meter).count());
+            } else if (meter instanceof FunctionCounter) {
+                appendValue(stringBuilder, meter, ((FunctionCounter) meter).count());
+            } else if (meter instanceof Gauge) {
+                appendValue(stringBuilder, meter, ((Gauge) meter).value());
+            }
+        }
+        stringBuilder.append(formatVariantThroughput(meterRegistry));
+        return stringBuilder.toString();
+    }
+
+    private static void appendValue(StringBuilder stringBuilder, Meter meter, double value) {
+        stringBuilder.append(String.format(VALUE_ROW, meter.getId().getName(), formatTags(meter.getId()), formatValue(value)));
+    }
+
+    private static String formatVariantThroughput(MeterRegistry meterRegistry) {
+        Counter loaded = meterRegistry.find(ExomiserMetrics.VARIANTS_LOADED).counter();
+        Timer variantLoad = meterRegistry.find(ExomiserMetrics.ANALYSIS_STEP)
+                .tags("type", ExomiserMetrics.STEP_VARIANT_LOAD)
+                .timer();
+        if (loaded == null || variantLoad == null || variantLoad.totalTime(TimeUnit.SECONDS) <= 0) {
+            return "";
+        }
+        double variantsPerSecond = loaded.count() / variantLoad.totalTime(TimeUnit.SECONDS);
+        return String.format("Loaded and filtered %s variants/s%n", formatValue(variantsPerSecond));
+    }
+
+    private static String formatTags(Meter.Id id) {
+        return id.getTags().stream()
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    private static String formatMillis(double millis) {
+        return String.format("%.3f", millis);
+    }
+
+    private static String formatValue(double value) {
+        if (value == Math.rint(value)) {
+            return String.format("%d", (long) value);
+        }
+        return String.format("%.3f", value);
+    }
+}
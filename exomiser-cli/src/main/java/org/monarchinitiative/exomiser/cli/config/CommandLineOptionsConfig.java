@@ -133,6 +133,12 @@ public Options options() {
                 .desc("Path to analysis batch file. This should be in plain text file with the path to a single analysis script file in yaml format on each line.")
                 .longOpt("analysis-batch")
                 .build());
+        options.addOption(Option.builder()
+                .argName("file")
+                .hasArgs()
+                .desc("Path to one or more analysis script files used to re-prioritise the results of the --analysis. Only the hpoIds and prioritisers of these are run, using the genes and variants already filtered by the main analysis. Results are written using the outputOptions of each script.")
+                .longOpt("reprioritise")
+                .build());
         
         for (OptionMarshaller optionMarshaller : desiredOptionMarshallers()) {
             Option option = optionMarshaller.getOption();
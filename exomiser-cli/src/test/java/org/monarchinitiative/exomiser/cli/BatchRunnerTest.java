@@ -0,0 +1,127 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.cli;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class BatchRunnerTest {
+
+    private final List<String> jobs = Arrays.asList("sample1", "sample2", "sample3", "sample4", "sample5");
+
+    @Test
+    public void testThreadsLessThanOneRunsSequentially() {
+        assertThat(new BatchRunner(0).getThreads(), equalTo(1));
+        assertThat(new BatchRunner(-1).getThreads(), equalTo(1));
+        assertThat(new BatchRunner(4).getThreads(), equalTo(4));
+    }
+
+    @Test
+    public void testRunSequentiallyRunsAllJobsInOrder() {
+        List<String> completed = new ArrayList<>();
+        List<String> failed = new BatchRunner(1).run(jobs, completed::add);
+        assertThat(completed, equalTo(jobs));
+        assertThat(failed, equalTo(Collections.emptyList()));
+    }
+
+    @Test
+    public void testRunConcurrentlyRunsAllJobs() {
+        Set<String> completed = ConcurrentHashMap.newKeySet();
+        List<String> failed = new BatchRunner(3).run(jobs, completed::add);
+        assertThat(completed, equalTo(new HashSet<>(jobs)));
+        assertThat(failed, equalTo(Collections.emptyList()));
+    }
+
+    @Test
+    public void testRunConcurrentlyRunsJobsAtTheSameTime() {
+        //each job will wait for the other to start, so this will only finish if both are running at once
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        List<String> failed = new BatchRunner(2).run(Arrays.asList("sample1", "sample2"), job -> {
+            bothStarted.countDown();
+            try {
+                if (!bothStarted.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Jobs not run concurrently");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(failed, equalTo(Collections.emptyList()));
+    }
+
+    @Test
+    public void testFailedJobsDoNotStopTheBatchSequential() {
+        AtomicInteger completed = new AtomicInteger();
+        List<String> failed = new BatchRunner(1).run(jobs, failOddSamples(completed));
+        assertThat(failed, equalTo(Arrays.asList("sample1", "sample3", "sample5")));
+        assertThat(completed.get(), equalTo(2));
+    }
+
+    @Test
+    public void testFailedJobsDoNotStopTheBatchConcurrent() {
+        AtomicInteger completed = new AtomicInteger();
+        List<String> failed = new BatchRunner(3).run(jobs, failOddSamples(completed));
+        assertThat(failed, equalTo(Arrays.asList("sample1", "sample3", "sample5")));
+        assertThat(completed.get(), equalTo(2));
+    }
+
+    @Test
+    public void testJobErrorsAreCapturedSequential() {
+        List<String> failed = new BatchRunner(1).run(jobs, errorOnSample3());
+        assertThat(failed, equalTo(Collections.singletonList("sample3")));
+    }
+
+    @Test
+    public void testJobErrorsAreCapturedConcurrent() {
+        List<String> failed = new BatchRunner(3).run(jobs, errorOnSample3());
+        assertThat(failed, equalTo(Collections.singletonList("sample3")));
+    }
+
+    private Consumer<String> errorOnSample3() {
+        return job -> {
+            if ("sample3".equals(job)) {
+                throw new AssertionError("Unable to run " + job);
+            }
+        };
+    }
+
+    private Consumer<String> failOddSamples(AtomicInteger completed) {
+        return job -> {
+            int sampleNumber = Integer.parseInt(job.substring("sample".length()));
+            if (sampleNumber % 2 == 1) {
+                throw new IllegalArgumentException("Unable to run " + job);
+            }
+            completed.incrementAndGet();
+        };
+    }
+}
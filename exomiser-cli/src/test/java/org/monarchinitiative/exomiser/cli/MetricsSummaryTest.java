@@ -0,0 +1,81 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.cli;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class MetricsSummaryTest {
+
+    @Test
+    public void testFormatIncludesTimersAndCounters() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        meterRegistry.timer(ExomiserMetrics.ANALYSIS_STEP, "type", ExomiserMetrics.STEP_PRIORITISER, "step", "HIPHIVE_PRIORITY")
+                .record(1500, TimeUnit.MILLISECONDS);
+        meterRegistry.counter(ExomiserMetrics.VARIANTS_LOADED).increment(2000);
+
+        String summary = MetricsSummary.format(meterRegistry);
+
+        assertThat(summary, containsString(ExomiserMetrics.ANALYSIS_STEP));
+        assertThat(summary, containsString("step=HIPHIVE_PRIORITY,type=prioritiser"));
+        assertThat(summary, containsString("1500.000"));
+        assertThat(summary, containsString(ExomiserMetrics.VARIANTS_LOADED));
+        assertThat(summary, containsString("2000"));
+    }
+
+    @Test
+    public void testFormatOmitsUnusedTimers() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        meterRegistry.timer(ExomiserMetrics.FILTER, "filter", "QUALITY_FILTER", "result", "pass");
+
+        String summary = MetricsSummary.format(meterRegistry);
+
+        assertThat(summary, not(containsString("QUALITY_FILTER")));
+    }
+
+    @Test
+    public void testFormatIncludesVariantThroughput() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        meterRegistry.timer(ExomiserMetrics.ANALYSIS_STEP, "type", ExomiserMetrics.STEP_VARIANT_LOAD, "step", ExomiserMetrics.STEP_VARIANT_LOAD)
+                .record(2, TimeUnit.SECONDS);
+        meterRegistry.counter(ExomiserMetrics.VARIANTS_LOADED).increment(2000);
+
+        String summary = MetricsSummary.format(meterRegistry);
+
+        assertThat(summary, containsString("Loaded and filtered 1000 variants/s"));
+    }
+
+    @Test
+    public void testFormatEmptyRegistry() {
+        String summary = MetricsSummary.format(new SimpleMeterRegistry());
+        assertThat(summary, not(containsString("variants/s")));
+    }
+}
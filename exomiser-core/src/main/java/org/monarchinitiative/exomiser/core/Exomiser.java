@@ -32,37 +32,138 @@
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * This is the main entry point for analysing data using the Exomiser. An {@link Analysis}
  * should be build using either a {@link Settings} and the {@link SettingsParser} or with an {@link AnalysisParser}
  * or programmtically using the {@link AnalysisBuilder}
+ * <p>
+ * Analyses started with {@link #runAsync(Analysis, AnalysisListener)} share a bounded pool of daemon threads owned by
+ * this instance. The pool is shut down by {@link #close()}, which Spring calls when the application context is closed.
  *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
 @Component
-public class Exomiser {
+public class Exomiser implements AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(Exomiser.class);
 
+    private static final int MAX_ASYNC_ANALYSES = Runtime.getRuntime().availableProcessors();
+
     private final AnalysisFactory analysisFactory;
+    private final AnalysisReprioritiser analysisReprioritiser = new AnalysisReprioritiser();
+
+    //threads are only started when an analysis is submitted and stop again after being idle for a minute
+    private final ThreadPoolExecutor asyncAnalysisExecutor;
 
     @Autowired
     public Exomiser(AnalysisFactory analysisFactory) {
         this.analysisFactory = analysisFactory;
+        this.asyncAnalysisExecutor = new ThreadPoolExecutor(MAX_ASYNC_ANALYSES, MAX_ASYNC_ANALYSES, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new AnalysisThreadFactory());
+        this.asyncAnalysisExecutor.allowCoreThreadTimeOut(true);
     }
 
     public AnalysisBuilder getAnalysisBuilder() {
         return analysisFactory.getAnalysisBuilder();
     }
 
+    /**
+     * Runs the analysis. The results should be closed once they are no longer needed, as SPARSE analyses may hold
+     * failed variants in a temporary file.
+     */
     public AnalysisResults run(Analysis analysis) {
-        //TODO: This might be better returning a Mono.just(analysisRunner.run(analysis)) and running the job on an async queue, or a CompletableFuture
-        //or maybe better keep this and add a runAsync(Analysis) method.
+        try (AnalysisRunner analysisRunner = getAnalysisRunner(analysis)) {
+            return analysisRunner.run(analysis);
+        }
+    }
+
+    /**
+     * Runs the analysis on the shared analysis thread pool, returning immediately. At most one analysis per available
+     * processor is run at once, any others wait in turn.
+     *
+     * @throws RejectedExecutionException if this instance has been closed
+     * @see #runAsync(Analysis, AnalysisListener, Executor)
+     */
+    public CompletableFuture<AnalysisResults> runAsync(Analysis analysis, AnalysisListener listener) {
+        return runAsync(analysis, listener, asyncAnalysisExecutor);
+    }
+
+    /**
+     * Runs the analysis using the executor provided, returning immediately. Calling {@code cancel} on the returned
+     * future will stop the analysis at the next analysis step, or within a few thousand variants if they are being
+     * read. The analysis thread is not interrupted as this can close the files being shared with other analyses. If the
+     * future is cancelled after the analysis has finished, but before it could complete the future, the results are
+     * closed.
+     *
+     * @param analysis the analysis to run
+     * @param listener receives progress events from the running analysis
+     * @param executor runs the analysis
+     * @return a future which will complete with the results of the analysis
+     */
+    public CompletableFuture<AnalysisResults> runAsync(Analysis analysis, AnalysisListener listener, Executor executor) {
+        CompletableFuture<AnalysisResults> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try (AnalysisRunner analysisRunner = getAnalysisRunner(analysis)) {
+                AnalysisResults analysisResults = analysisRunner.run(analysis, listener, future::isCancelled);
+                if (!future.complete(analysisResults)) {
+                    //nobody can get these results now, so remove any variants written to disk
+                    analysisResults.close();
+                }
+            } catch (AnalysisCancelledException e) {
+                logger.info("Analysis cancelled");
+                future.cancel(false);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Re-runs only the prioritisers of the analysis over the genes of a previously run analysis and re-scores them,
+     * without reading or filtering the variants again. Useful for trying out alternative sets of HPO ids for a case.
+     *
+     * @param analysisResults results of a previously run analysis - the genes of which will be re-scored
+     * @param analysis        supplies the new HPO ids and prioritisers
+     * @return the re-ranked results
+     * @see AnalysisReprioritiser
+     */
+    public AnalysisResults reprioritise(AnalysisResults analysisResults, Analysis analysis) {
+        return analysisReprioritiser.reprioritise(analysisResults, analysis);
+    }
+
+    /**
+     * Shuts down the thread pool used by {@link #runAsync(Analysis, AnalysisListener)}. Analyses which have already
+     * been submitted will still be run, but no new ones will be accepted. Calling this more than once has no further
+     * effect.
+     */
+    @Override
+    public void close() {
+        asyncAnalysisExecutor.shutdown();
+    }
+
+    private AnalysisRunner getAnalysisRunner(Analysis analysis) {
         GenomeAssembly genomeAssembly = analysis.getGenomeAssembly();
         AnalysisMode analysisMode = analysis.getAnalysisMode();
         logger.info("Running analysis using {} assembly with mode: {}", genomeAssembly, analysisMode);
-        AnalysisRunner analysisRunner = analysisFactory.getAnalysisRunner(genomeAssembly, analysisMode);
-        return analysisRunner.run(analysis);
+        return analysisFactory.getAnalysisRunner(genomeAssembly, analysisMode);
+    }
+
+    private static class AnalysisThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "exomiser-analysis-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 
 }
@@ -24,6 +24,8 @@
 import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
 import de.charite.compbio.jannovar.pedigree.Pedigree;
 import htsjdk.variant.vcf.VCFHeader;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.monarchinitiative.exomiser.core.analysis.util.*;
 import org.monarchinitiative.exomiser.core.filters.GeneFilter;
 import org.monarchinitiative.exomiser.core.filters.GeneFilterRunner;
@@ -31,6 +33,8 @@
 import org.monarchinitiative.exomiser.core.filters.VariantFilterRunner;
 import org.monarchinitiative.exomiser.core.genome.GenomeAnalysisService;
 import org.monarchinitiative.exomiser.core.genome.VcfFiles;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserEvents;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.model.RegulatoryFeature;
 import org.monarchinitiative.exomiser.core.model.TopologicalDomain;
@@ -40,13 +44,17 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -62,22 +70,99 @@ abstract class AbstractAnalysisRunner implements AnalysisRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractAnalysisRunner.class);
 
+    //how often to report progress and check for cancellation while reading the variants
+    private static final int VARIANT_PROGRESS_INTERVAL = 10000;
+
     //arguably this shouldn't even be exposed here...
     private final GenomeAnalysisService genomeAnalysisService;
 
     protected final VariantFilterRunner variantFilterRunner;
     private final GeneFilterRunner geneFilterRunner;
 
+    private final GeneStepExecutor geneStepExecutor;
+
+    private AnalysisCheckpointer analysisCheckpointer = null;
+    private long memoryLimitBytes = 0;
+
     public AbstractAnalysisRunner(GenomeAnalysisService genomeAnalysisService, VariantFilterRunner variantFilterRunner, GeneFilterRunner geneFilterRunner) {
+        this(genomeAnalysisService, variantFilterRunner, geneFilterRunner, 0);
+    }
+
+    /**
+     * @param geneThreads maximum number of threads used to run the gene-level analysis steps. Values less than 1 will
+     *                    use the number of available processors.
+     */
+    public AbstractAnalysisRunner(GenomeAnalysisService genomeAnalysisService, VariantFilterRunner variantFilterRunner, GeneFilterRunner geneFilterRunner, int geneThreads) {
         this.genomeAnalysisService = genomeAnalysisService;
 
         this.variantFilterRunner = variantFilterRunner;
         this.geneFilterRunner = geneFilterRunner;
+        this.geneStepExecutor = new GeneStepExecutor(geneThreads);
+    }
+
+    /**
+     * Enables writing a checkpoint after each group of analysis steps, and optionally resuming from these.
+     */
+    void setAnalysisCheckpointer(AnalysisCheckpointer analysisCheckpointer) {
+        this.analysisCheckpointer = analysisCheckpointer;
+    }
+
+    /**
+     * Sets the maximum estimated memory footprint of each analysis. Analyses exceeding this are stopped with an
+     * {@link AnalysisMemoryLimitExceededException}. Values less than 1 do not limit the analyses.
+     *
+     * @param memoryLimitBytes maximum estimated footprint of an analysis in bytes
+     */
+    void setMemoryLimit(long memoryLimitBytes) {
+        this.memoryLimitBytes = memoryLimitBytes;
+    }
+
+    boolean hasMemoryLimit() {
+        return memoryLimitBytes > 0;
     }
 
     @Override
     public AnalysisResults run(Analysis analysis) {
+        return run(analysis, AnalysisListener.NONE, () -> false);
+    }
+
+    /**
+     * Shuts down the threads used to run the gene-level analysis steps.
+     */
+    @Override
+    public void close() {
+        geneStepExecutor.close();
+    }
+
+    @Override
+    public AnalysisResults run(Analysis analysis, AnalysisListener listener, BooleanSupplier cancellationRequested) {
+        Timer.Sample analysisSample = ExomiserMetrics.analysisStarted();
+        ExomiserEvents.Span analysisSpan = ExomiserEvents.analysisStarted(analysis.getProbandSampleName(), String.valueOf(analysis
+                .getGenomeAssembly()), analysis.getAnalysisMode().name(), String.valueOf(analysis.getVcfPath()));
+        String outcome = "failed";
+        AnalysisResults analysisResults = null;
+        try {
+            analysisResults = runAnalysis(analysis, listener, cancellationRequested);
+            outcome = "completed";
+            return analysisResults;
+        } catch (AnalysisCancelledException e) {
+            outcome = "cancelled";
+            throw e;
+        } catch (AnalysisMemoryLimitExceededException e) {
+            outcome = "memory-limit";
+            throw e;
+        } finally {
+            ExomiserMetrics.analysisFinished(analysisSample, analysis.getAnalysisMode().name(), outcome);
+            int numGenes = analysisResults == null ? 0 : analysisResults.getGenes().size();
+            int numVariants = analysisResults == null ? 0 : analysisResults.getVariantEvaluations().size();
+            ExomiserEvents.analysisFinished(analysisSpan, outcome, numGenes, numVariants);
+        }
+    }
+
+    private AnalysisResults runAnalysis(Analysis analysis, AnalysisListener listener, BooleanSupplier cancellationRequested) {
+        checkNotCancelled(cancellationRequested);
         logger.info("Starting analysis");
+        listener.analysisStarted(analysis);
         logger.info("Using genome assembly {}", analysis.getGenomeAssembly());
 
         Path vcfPath = analysis.getVcfPath();
@@ -89,6 +174,7 @@ public AnalysisResults run(Analysis analysis) {
 
         String probandSampleName = SampleNameChecker.getProbandSampleName(analysis.getProbandSampleName(), sampleNames);
         int probandSampleId = SampleNameChecker.getProbandSampleId(probandSampleName, sampleNames);
+        ExomiserEvents.setAnalysisSample(probandSampleName);
 
         Pedigree pedigree = new PedigreeFactory().createPedigreeForSampleData(pedigreeFilePath, sampleNames);
         ModeOfInheritance modeOfInheritance = analysis.getModeOfInheritance();
@@ -101,66 +187,139 @@ public AnalysisResults run(Analysis analysis) {
         List<VariantEvaluation> variantEvaluations = new ArrayList<>();
 //        some kind of multi-map with ordered duplicate keys would allow for easy grouping of steps for running the groups together.
         List<List<AnalysisStep>> analysisStepGroups = analysis.getAnalysisStepsGroupedByFunction();
-        boolean variantsLoaded = false;
-        for (List<AnalysisStep> analysisGroup : analysisStepGroups) {
-            //this is admittedly pretty confusing code and I'm sorry. It's easiest to follow if you turn on debugging.
-            //The analysis steps are run in groups of VARIANT_FILTER, GENE_ONLY_DEPENDENT or INHERITANCE_MODE_DEPENDENT
-            AnalysisStep firstStep = analysisGroup.get(0);
-            logger.debug("Running {} group: {}", firstStep.getType(), analysisGroup);
-            if (firstStep.isVariantFilter() && !variantsLoaded) {
-                //variants take up 99% of all the memory in an analysis - this scales approximately linearly with the sample size
-                //so for whole genomes this is best run as a stream to filter out the unwanted variants with as many filters as possible in one go
-                variantEvaluations = loadAndFilterVariants(vcfPath, allGenes, analysisGroup, analysis);
-                //this is done here as there are GeneFilter steps which may require Variants in the genes, or the InheritanceModeDependent steps which definitely need them...
+        Optional<SpilledVariantStore> spilledVariantStore = createSpilledVariantStore(vcfHeader);
+        try {
+            AnalysisMemoryMonitor memoryMonitor = new AnalysisMemoryMonitor(memoryLimitBytes, spilledVariantStore, allGenes.values());
+            boolean variantsLoaded = false;
+            int completedGroups = 0;
+            Optional<Path> checkpointPath = analysisCheckpointer == null ? Optional.empty() : analysisCheckpointer.checkpointPath(analysis);
+            if (checkpointPath.isPresent()) {
+                List<VariantEvaluation> restoredVariants = new ArrayList<>();
+                Predicate<VariantEvaluation> retainInMemory = retainInMemory(spilledVariantStore, allGenes);
+                Optional<AnalysisCheckpointer.Checkpoint> checkpoint = analysisCheckpointer.restoreCheckpoint(checkpointPath.get(), vcfHeader, allGenes, variantEvaluation -> {
+                    if (retainInMemory.test(variantEvaluation)) {
+                        restoredVariants.add(variantEvaluation);
+                    }
+                });
+                if (checkpoint.isPresent()) {
+                    completedGroups = checkpoint.get().getCompletedGroups();
+                    variantsLoaded = checkpoint.get().isVariantsLoaded();
+                    variantEvaluations = restoredVariants;
+                    assignVariantsToGenes(variantEvaluations, allGenes);
+                    rerunCompletedPrioritisers(analysisStepGroups.subList(0, completedGroups), hpoIds, new ArrayList<>(allGenes.values()));
+                    memoryMonitor.check("restoring checkpoint", variantEvaluations);
+                }
+            }
+            for (int groupIndex = completedGroups; groupIndex < analysisStepGroups.size(); groupIndex++) {
+                List<AnalysisStep> analysisGroup = analysisStepGroups.get(groupIndex);
+                checkNotCancelled(cancellationRequested);
+                //this is admittedly pretty confusing code and I'm sorry. It's easiest to follow if you turn on debugging.
+                //The analysis steps are run in groups of VARIANT_FILTER, GENE_ONLY_DEPENDENT or INHERITANCE_MODE_DEPENDENT
+                AnalysisStep firstStep = analysisGroup.get(0);
+                logger.debug("Running {} group: {}", firstStep.getType(), analysisGroup);
+                if (firstStep.isVariantFilter() && !variantsLoaded) {
+                    //variants take up 99% of all the memory in an analysis - this scales approximately linearly with the sample size
+                    //so for whole genomes this is best run as a stream to filter out the unwanted variants with as many filters as possible in one go
+                    analysisGroup.forEach(listener::stepStarted);
+                    Timer.Sample loadSample = Timer.start(Metrics.globalRegistry);
+                    ExomiserEvents.Span loadSpan = ExomiserEvents.stepStarted(ExomiserMetrics.STEP_VARIANT_LOAD, ExomiserMetrics.STEP_VARIANT_LOAD);
+                    variantEvaluations = loadAndFilterVariants(vcfPath, allGenes, analysisGroup, analysis, spilledVariantStore, memoryMonitor, listener, cancellationRequested);
+                    loadSample.stop(ExomiserMetrics.stepTimer(ExomiserMetrics.STEP_VARIANT_LOAD, ExomiserMetrics.STEP_VARIANT_LOAD));
+                    ExomiserEvents.stepFinished(loadSpan, variantEvaluations.size());
+                    //this is done here as there are GeneFilter steps which may require Variants in the genes, or the InheritanceModeDependent steps which definitely need them...
+                    assignVariantsToGenes(variantEvaluations, allGenes);
+                    variantsLoaded = true;
+                    analysisGroup.forEach(listener::stepCompleted);
+                } else {
+                    runSteps(analysisGroup, hpoIds, new ArrayList<>(allGenes.values()), pedigree, modeOfInheritance, listener, cancellationRequested);
+                }
+                memoryMonitor.check(firstStep.getType() + " steps", variantEvaluations);
+                if (checkpointPath.isPresent()) {
+                    List<VariantEvaluation> allVariants = spilledVariantStore.isPresent() ? spilledVariantStore.get().withSpilledVariants(variantEvaluations) : variantEvaluations;
+                    analysisCheckpointer.writeCheckpoint(checkpointPath.get(), vcfHeader, new AnalysisCheckpointer.Checkpoint(groupIndex + 1, variantsLoaded), allGenes
+                            .values(), allVariants);
+                }
+            }
+            //maybe only the non-variant dependent steps have been run in which case we need to load the variants although
+            //the results might be a bit meaningless.
+            //See issue #129 This is an excellent place to put the output of a gene phenotype score only run.
+            //i.e. stream in the variants, annotate them (assign a gene symbol) then write out that variant with the calculated GENE_PHENO_SCORE (prioritiser scores).
+            //this would fit well with a lot of people's pipelines where they only want the phenotype score as they are using VEP or ANNOVAR for variant analysis.
+            if (!variantsLoaded) {
+                VariantLogger variantLogger = new VariantLogger(listener, cancellationRequested, memoryMonitor);
+                try(Stream<VariantEvaluation> variantStream = loadVariants(vcfPath, analysis)) {
+                    variantEvaluations = variantStream
+                            .peek(variantLogger.logLoadedAndPassedVariants())
+                            .peek(variantLogger.countPassedVariant())
+                            .peek(memoryMonitor.countRetainedVariant())
+                            .collect(toList());
+                }
+                variantLogger.logResults();
                 assignVariantsToGenes(variantEvaluations, allGenes);
-                variantsLoaded = true;
-            } else {
-                runSteps(analysisGroup, hpoIds, new ArrayList<>(allGenes.values()), pedigree, modeOfInheritance);
             }
-        }
-        //maybe only the non-variant dependent steps have been run in which case we need to load the variants although
-        //the results might be a bit meaningless.
-        //See issue #129 This is an excellent place to put the output of a gene phenotype score only run.
-        //i.e. stream in the variants, annotate them (assign a gene symbol) then write out that variant with the calculated GENE_PHENO_SCORE (prioritiser scores).
-        //this would fit well with a lot of people's pipelines where they only want the phenotype score as they are using VEP or ANNOVAR for variant analysis.
-        if (!variantsLoaded) {
-            try(Stream<VariantEvaluation> variantStream = loadVariants(vcfPath)) {
-                variantEvaluations = variantStream.collect(toList());
+
+            checkNotCancelled(cancellationRequested);
+            logger.info("Scoring genes");
+            GeneScorer geneScorer = new RawScoreGeneScorer(probandSampleId, modeOfInheritance, pedigree);
+            ExomiserEvents.Span scoringSpan = ExomiserEvents.stepStarted(ExomiserMetrics.STEP_GENE_SCORING, ExomiserMetrics.STEP_GENE_SCORING);
+            List<Gene> genes = ExomiserMetrics.stepTimer(ExomiserMetrics.STEP_GENE_SCORING, ExomiserMetrics.STEP_GENE_SCORING)
+                    .record(() -> geneScorer.scoreGenes(getGenesWithVariants(allGenes).collect(toList())));
+            ExomiserEvents.stepFinished(scoringSpan, genes.size());
+            memoryMonitor.check("scoring genes", variantEvaluations);
+            List<VariantEvaluation> variants = getFinalVariantList(variantEvaluations);
+            if (spilledVariantStore.isPresent()) {
+                variants = spilledVariantStore.get().withSpilledVariants(variants);
             }
-            assignVariantsToGenes(variantEvaluations, allGenes);
+            logger.info("Analysed {} genes containing {} filtered variants", genes.size(), variants.size());
+
+            logger.info("Creating analysis results from VCF and PED files: {}, {}", vcfPath, pedigreeFilePath);
+            AnalysisResults analysisResults = AnalysisResults.builder()
+                    .vcfPath(vcfPath)
+                    .pedPath(pedigreeFilePath)
+                    .vcfHeader(vcfHeader)
+                    .probandSampleName(probandSampleName)
+                    .sampleNames(sampleNames)
+                    .pedigree(pedigree)
+                    .genes(genes)
+                    .variantEvaluations(variants)
+                    .memoryFootprint(memoryMonitor.getPeakFootprint())
+                    .variantStore(spilledVariantStore.isPresent() ? spilledVariantStore.get() : () -> {})
+                    .build();
+
+            Duration duration = Duration.between(timeStart, Instant.now());
+            long ms = duration.toMillis();
+            logger.info("Finished analysis in {}m {}s {}ms ({} ms)", (ms / 1000) / 60 % 60, ms / 1000 % 60, ms % 1000, ms);
+            listener.analysisCompleted(analysisResults);
+            return analysisResults;
+        } catch (RuntimeException | Error e) {
+            //the results own the store once they have been returned, until then it has to be closed here
+            spilledVariantStore.ifPresent(AbstractAnalysisRunner::closeQuietly);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(SpilledVariantStore spilledVariantStore) {
+        try {
+            spilledVariantStore.close();
+        } catch (IOException e) {
+            logger.error("Unable to close spilled variant store", e);
         }
+    }
 
-        logger.info("Scoring genes");
-        GeneScorer geneScorer = new RawScoreGeneScorer(probandSampleId, modeOfInheritance, pedigree);
-        List<Gene> genes = geneScorer.scoreGenes(getGenesWithVariants(allGenes).collect(toList()));
-        List<VariantEvaluation> variants = getFinalVariantList(variantEvaluations);
-        logger.info("Analysed {} genes containing {} filtered variants", genes.size(), variants.size());
-
-        logger.info("Creating analysis results from VCF and PED files: {}, {}", vcfPath, pedigreeFilePath);
-        AnalysisResults analysisResults = AnalysisResults.builder()
-                .vcfPath(vcfPath)
-                .pedPath(pedigreeFilePath)
-                .vcfHeader(vcfHeader)
-                .probandSampleName(probandSampleName)
-                .sampleNames(sampleNames)
-                .pedigree(pedigree)
-                .genes(genes)
-                .variantEvaluations(variants)
-                .build();
-
-        Duration duration = Duration.between(timeStart, Instant.now());
-        long ms = duration.toMillis();
-        logger.info("Finished analysis in {}m {}s {}ms ({} ms)", (ms / 1000) / 60 % 60, ms / 1000 % 60, ms % 1000, ms);
-        return analysisResults;
+    private void checkNotCancelled(BooleanSupplier cancellationRequested) {
+        if (cancellationRequested.getAsBoolean()) {
+            logger.info("Analysis cancelled");
+            throw new AnalysisCancelledException("Analysis cancelled");
+        }
     }
 
-    private List<VariantEvaluation> loadAndFilterVariants(Path vcfPath, Map<String, Gene> allGenes, List<AnalysisStep> analysisGroup, Analysis analysis) {
+    private List<VariantEvaluation> loadAndFilterVariants(Path vcfPath, Map<String, Gene> allGenes, List<AnalysisStep> analysisGroup, Analysis analysis, Optional<SpilledVariantStore> spilledVariantStore, AnalysisMemoryMonitor memoryMonitor, AnalysisListener listener, BooleanSupplier cancellationRequested) {
         GeneReassigner geneReassigner = createNonCodingVariantGeneReassigner(analysis, allGenes);
         List<VariantFilter> variantFilters = getVariantFilterSteps(analysisGroup);
 
         List<VariantEvaluation> filteredVariants;
-        VariantLogger variantLogger = new VariantLogger();
-        try (Stream<VariantEvaluation> variantStream = loadVariants(vcfPath)) {
+        VariantLogger variantLogger = new VariantLogger(listener, cancellationRequested, memoryMonitor);
+        try (Stream<VariantEvaluation> variantStream = loadVariants(vcfPath, analysis)) {
             filteredVariants = variantStream
                     .peek(variantLogger.logLoadedAndPassedVariants())
                     .map(reassignNonCodingVariantToBestGeneInJannovarAnnotations(geneReassigner))
@@ -168,12 +327,23 @@ private List<VariantEvaluation> loadAndFilterVariants(Path vcfPath, Map<String,
                     .filter(isAssociatedWithKnownGene(allGenes))
                     .filter(runVariantFilters(variantFilters))
                     .peek(variantLogger.countPassedVariant())
+                    .filter(retainInMemory(spilledVariantStore, allGenes))
+                    .peek(memoryMonitor.countRetainedVariant())
                     .collect(toList());
         }
         variantLogger.logResults();
+        spilledVariantStore.ifPresent(store -> logger.info("{} failed variants stored on disk", store.size()));
         return filteredVariants;
     }
 
+    private Predicate<VariantEvaluation> retainInMemory(Optional<SpilledVariantStore> spilledVariantStore, Map<String, Gene> allGenes) {
+        if (!spilledVariantStore.isPresent()) {
+            return variantEvaluation -> true;
+        }
+        SpilledVariantStore store = spilledVariantStore.get();
+        return variantEvaluation -> store.retainInMemory(variantEvaluation, allGenes.get(variantEvaluation.getGeneSymbol()));
+    }
+
     private GeneReassigner createNonCodingVariantGeneReassigner(Analysis analysis, Map<String, Gene> allGenes) {
         ChromosomalRegionIndex<TopologicalDomain> tadIndex = genomeAnalysisService.getTopologicallyAssociatedDomainIndex();
         PriorityType mainPriorityType = analysis.getMainPrioritiserType();
@@ -228,10 +398,25 @@ private Function<VariantEvaluation, VariantEvaluation> reassignNonCodingVariantT
      */
     abstract Predicate<VariantEvaluation> runVariantFilters(List<VariantFilter> variantFilters);
 
-    private Stream<VariantEvaluation> loadVariants(Path vcfPath) {
+    /**
+     * Allows the concrete runner to move variants which failed the initial variant filters out of memory as they are
+     * loaded. This is only safe where failed variants are not run through any further steps. By default all the variants
+     * are held in memory.
+     *
+     * @param vcfHeader header of the VCF file being analysed
+     * @return a store for the failed variants, or empty if these should all be held in memory.
+     */
+    Optional<SpilledVariantStore> createSpilledVariantStore(VCFHeader vcfHeader) {
+        return Optional.empty();
+    }
+
+    private Stream<VariantEvaluation> loadVariants(Path vcfPath, Analysis analysis) {
         ChromosomalRegionIndex<RegulatoryFeature> regulatoryRegionIndex = genomeAnalysisService.getRegulatoryRegionIndex();
+        //variants from a snapshot may hold data from more sources than the analysis asked for
+        RequestedVariantDataSources requestedVariantDataSources = new RequestedVariantDataSources(analysis.getAnalysisSteps());
         //WARNING!!! THIS IS NOT THREADSAFE DO NOT USE PARALLEL STREAMS
         return genomeAnalysisService.createVariantEvaluations(vcfPath)
+                .map(requestedVariantDataSources::removeUnrequestedData)
                 .map(setRegulatoryRegionVariantEffect(regulatoryRegionIndex));
     }
 
@@ -272,6 +457,14 @@ protected Stream<Gene> getGenesWithVariants(Map<String, Gene> allGenes) {
 
     abstract List<VariantEvaluation> getFinalVariantList(List<VariantEvaluation> variants);
 
+    /**
+     * @param gene a gene about to have a variant filter run over its variants
+     * @return the variants of the gene which the variant filter should be run over
+     */
+    protected List<VariantEvaluation> getVariantsToFilter(Gene gene) {
+        return gene.getVariantEvaluations();
+    }
+
     /**
      * @return a map of genes indexed by gene symbol.
      */
@@ -281,15 +474,25 @@ private Map<String, Gene> makeKnownGenes() {
                 .collect(toConcurrentMap(Gene::getGeneSymbol, Function.identity()));
     }
 
+    /**
+     * Runs the non-variant loading steps over the genes. The gene-level parts of each step are run concurrently using
+     * the {@link GeneStepExecutor}, one step at a time, so that each step sees the results of the previous one. Within a
+     * step a {@link Gene} and its {@link VariantEvaluation} are only ever touched by a single thread, so the filters
+     * must not hold any per-analysis state. Prioritisers are run over the whole list of genes as they either manage
+     * their own threads or are cheap enough to run on one thread once their data has been fetched in bulk.
+     */
     //might this be a nascent class waiting to get out here?
-    private void runSteps(List<AnalysisStep> analysisSteps, List<String> hpoIds, List<Gene> genes, Pedigree pedigree, ModeOfInheritance modeOfInheritance) {
+    private void runSteps(List<AnalysisStep> analysisSteps, List<String> hpoIds, List<Gene> genes, Pedigree pedigree, ModeOfInheritance modeOfInheritance, AnalysisListener listener, BooleanSupplier cancellationRequested) {
         boolean inheritanceModesCalculated = false;
         for (AnalysisStep analysisStep : analysisSteps) {
+            checkNotCancelled(cancellationRequested);
             if (!inheritanceModesCalculated && analysisStep.isInheritanceModeDependent()) {
                 analyseGeneCompatibilityWithInheritanceMode(genes, pedigree, modeOfInheritance);
                 inheritanceModesCalculated = true;
             }
+            listener.stepStarted(analysisStep);
             runStep(analysisStep, hpoIds, genes);
+            listener.stepCompleted(analysisStep);
         }
     }
 
@@ -297,46 +500,101 @@ private void runStep(AnalysisStep analysisStep, List<String> hpoIds, List<Gene>
         if (analysisStep.isVariantFilter()) {
             VariantFilter filter = (VariantFilter) analysisStep;
             logger.info("Running VariantFilter: {}", filter);
-            for (Gene gene : genes) {
-                variantFilterRunner.run(filter, gene.getVariantEvaluations());
-            }
+            recordStep(ExomiserMetrics.STEP_VARIANT_FILTER, filter.getFilterType().name(), genes.size(),
+                    () -> geneStepExecutor.forEach(genes, gene -> variantFilterRunner.run(filter, getVariantsToFilter(gene))));
             return;
 
         }
         if (GeneFilter.class.isInstance(analysisStep)) {
             GeneFilter filter = (GeneFilter) analysisStep;
             logger.info("Running GeneFilter: {}", filter);
-            geneFilterRunner.run(filter, genes);
+            recordStep(ExomiserMetrics.STEP_GENE_FILTER, filter.getFilterType().name(), genes.size(),
+                    () -> geneStepExecutor.forEach(genes, gene -> geneFilterRunner.run(filter, Collections.singletonList(gene))));
             return;
         }
 
         if (Prioritiser.class.isInstance(analysisStep)) {
             Prioritiser prioritiser = (Prioritiser) analysisStep;
             logger.info("Running Prioritiser: {}", prioritiser);
-            prioritiser.prioritizeGenes(hpoIds, genes);
+            recordStep(ExomiserMetrics.STEP_PRIORITISER, prioritiser.getPriorityType().name(), genes.size(),
+                    () -> prioritiser.prioritizeGenes(hpoIds, genes));
+        }
+    }
+
+    /**
+     * Runs a step, recording it as both a Micrometer timer and a Flight Recorder event.
+     */
+    private void recordStep(String stepType, String stepName, int numItems, Runnable step) {
+        ExomiserEvents.Span span = ExomiserEvents.stepStarted(stepType, stepName);
+        try {
+            ExomiserMetrics.stepTimer(stepType, stepName).record(step);
+        } finally {
+            ExomiserEvents.stepFinished(span, numItems);
+        }
+    }
+
+    /**
+     * The priority results are not stored in a checkpoint, so the prioritisers of the groups completed before the
+     * checkpoint are run again in their original order. The gene filter results which depended on them are restored
+     * from the checkpoint.
+     */
+    private void rerunCompletedPrioritisers(List<List<AnalysisStep>> completedGroups, List<String> hpoIds, List<Gene> genes) {
+        for (List<AnalysisStep> analysisGroup : completedGroups) {
+            for (AnalysisStep analysisStep : analysisGroup) {
+                if (Prioritiser.class.isInstance(analysisStep)) {
+                    runStep(analysisStep, hpoIds, genes);
+                }
+            }
         }
     }
 
     private void analyseGeneCompatibilityWithInheritanceMode(List<Gene> genes, Pedigree pedigree, ModeOfInheritance modeOfInheritance) {
-        InheritanceModeAnalyser inheritanceModeAnalyser = new InheritanceModeAnalyser(modeOfInheritance, pedigree);
+        //the Jannovar mendelian annotator makes no guarantees about thread-safety, so each thread gets its own analyser
+        ThreadLocal<InheritanceModeAnalyser> inheritanceModeAnalyser = ThreadLocal.withInitial(() -> new InheritanceModeAnalyser(modeOfInheritance, pedigree));
         logger.info("Checking compatibility with {} inheritance mode for genes which passed filters", modeOfInheritance);
-        inheritanceModeAnalyser.analyseInheritanceModes(genes);
+        recordStep(ExomiserMetrics.STEP_INHERITANCE_MODE, modeOfInheritance.name(), genes.size(),
+                () -> geneStepExecutor.forEach(genes, gene -> inheritanceModeAnalyser.get().analyseInheritanceModes(gene)));
         //could add the OmimPrioritiser in here too - it requires the InheritanceModes in order to run correctly, as does the GeneScorer
     }
 
     /**
-     * Utility class for logging numbers of processed and passed variants.
+     * Utility class for logging numbers of processed and passed variants. This also reports the progress to the
+     * {@link AnalysisListener}, checks whether the analysis has been cancelled or is over its memory limit and records a
+     * Flight Recorder event for every chunk of {@link #VARIANT_PROGRESS_INTERVAL} variants.
      */
     private class VariantLogger {
+        private final AnalysisListener listener;
+        private final BooleanSupplier cancellationRequested;
+        private final AnalysisMemoryMonitor memoryMonitor;
+
         private AtomicInteger loaded = new AtomicInteger();
         private AtomicInteger passed = new AtomicInteger();
 
+        private ExomiserEvents.Span chunkSpan = null;
+        private int chunkStartPassed = 0;
+
+        private VariantLogger(AnalysisListener listener, BooleanSupplier cancellationRequested, AnalysisMemoryMonitor memoryMonitor) {
+            this.listener = listener;
+            this.cancellationRequested = cancellationRequested;
+            this.memoryMonitor = memoryMonitor;
+        }
+
         private Consumer<VariantEvaluation> logLoadedAndPassedVariants() {
             return variantEvaluation -> {
                 loaded.incrementAndGet();
+                if (chunkSpan == null) {
+                    chunkSpan = ExomiserEvents.variantChunkStarted(loaded.get());
+                    chunkStartPassed = passed.get();
+                }
                 if (loaded.get() % 100000 == 0) {
                     logger.info("Loaded {} variants - {} passed variant filters...", loaded.get(), passed.get());
                 }
+                if (loaded.get() % VARIANT_PROGRESS_INTERVAL == 0) {
+                    finishChunk(VARIANT_PROGRESS_INTERVAL);
+                    checkNotCancelled(cancellationRequested);
+                    memoryMonitor.checkVariantLoad();
+                    listener.variantsRead(loaded.get(), passed.get());
+                }
             };
         }
 
@@ -348,8 +606,18 @@ private Consumer<VariantEvaluation> countPassedVariant() {
             };
         }
 
+        private void finishChunk(int chunkSize) {
+            if (chunkSpan != null) {
+                ExomiserEvents.variantChunkFinished(chunkSpan, chunkSize, passed.get() - chunkStartPassed);
+                chunkSpan = null;
+            }
+        }
+
         void logResults() {
+            finishChunk(loaded.get() % VARIANT_PROGRESS_INTERVAL);
             logger.info("Loaded {} variants - {} passed variant filters", loaded.get(), passed.get());
+            ExomiserMetrics.recordVariantsLoaded(loaded.get(), passed.get());
+            listener.variantsRead(loaded.get(), passed.get());
         }
     }
 }
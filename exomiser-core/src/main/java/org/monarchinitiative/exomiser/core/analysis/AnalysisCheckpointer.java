@@ -0,0 +1,266 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
+import htsjdk.variant.vcf.VCFHeader;
+import org.monarchinitiative.exomiser.core.filters.FilterResult;
+import org.monarchinitiative.exomiser.core.filters.FilterType;
+import org.monarchinitiative.exomiser.core.genome.VariantEvaluationCodec;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Writes the state of an analysis to disk after each group of analysis steps has been run so that an analysis which
+ * failed part of the way through can be resumed from the last completed group. Checkpoints are identified by the
+ * checksums of the VCF and PED files, the analysis itself and the version of the data it was run against so a
+ * checkpoint is only ever resumed for exactly the same analysis.
+ * <p>
+ * The checkpoint holds all of the loaded variants and the filter results and inheritance modes of the genes. The
+ * {@link org.monarchinitiative.exomiser.core.prioritisers.PriorityResult} are not stored as these are specific to each
+ * prioritiser, so the prioritisers of the completed groups are re-run on resuming an analysis. Checkpoints are
+ * written to a temporary file which replaces the previous checkpoint only once it is complete. They are kept once an
+ * analysis has finished so that the results can be re-written should writing them out fail.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class AnalysisCheckpointer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisCheckpointer.class);
+
+    private static final int MAGIC_NUMBER = 0x45584350;
+    // increment this whenever the checkpoint or VariantEvaluationCodec format changes
+    private static final int FORMAT_VERSION = 1;
+    private static final String CHECKPOINT_FILE_EXTENSION = ".checkpoint";
+
+    private final Path checkpointDirectory;
+    private final String dataVersion;
+    private final boolean resume;
+
+    /**
+     * @param checkpointDirectory directory the checkpoint files are written to
+     * @param dataVersion         identifier for the versions of the data the analyses are run against
+     * @param resume              whether existing checkpoints should be used to resume analyses
+     */
+    AnalysisCheckpointer(Path checkpointDirectory, String dataVersion, boolean resume) {
+        this.checkpointDirectory = checkpointDirectory;
+        this.dataVersion = dataVersion;
+        this.resume = resume;
+    }
+
+    /**
+     * @return the path of the checkpoint for this analysis, or empty if the input files could not be read.
+     */
+    Optional<Path> checkpointPath(Analysis analysis) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        try {
+            hashFile(hasher, analysis.getVcfPath());
+            if (analysis.getPedPath() != null) {
+                hashFile(hasher, analysis.getPedPath());
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to checksum input files - analysis will not be checkpointed", e);
+            return Optional.empty();
+        }
+        hasher.putString(analysis.toString(), StandardCharsets.UTF_8);
+        hasher.putString(dataVersion, StandardCharsets.UTF_8);
+        hasher.putInt(FORMAT_VERSION);
+        return Optional.of(checkpointDirectory.resolve(hasher.hash() + CHECKPOINT_FILE_EXTENSION));
+    }
+
+    private static void hashFile(Hasher hasher, Path file) throws IOException {
+        try (OutputStream out = Funnels.asOutputStream(hasher)) {
+            Files.copy(file, out);
+        }
+    }
+
+    /**
+     * Restores the gene filter results and inheritance modes from the checkpoint, if there is one and resuming is
+     * enabled, then passes each of the stored variants to the consumer.
+     *
+     * @return the checkpoint or empty if the analysis should be run from the start
+     */
+    Optional<Checkpoint> restoreCheckpoint(Path checkpointPath, VCFHeader vcfHeader, Map<String, Gene> allGenes, Consumer<VariantEvaluation> variantConsumer) {
+        if (!resume || !Files.exists(checkpointPath)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointPath)))) {
+            if (in.readInt() != MAGIC_NUMBER || in.readInt() != FORMAT_VERSION) {
+                logger.warn("Ignoring incompatible checkpoint {}", checkpointPath);
+                return Optional.empty();
+            }
+            Checkpoint checkpoint = new Checkpoint(in.readInt(), in.readBoolean());
+            logger.info("Resuming analysis from checkpoint {} after {} completed step groups", checkpointPath, checkpoint
+                    .getCompletedGroups());
+            int numGenes = in.readInt();
+            for (int i = 0; i < numGenes; i++) {
+                readGeneState(in, allGenes);
+            }
+            VariantEvaluationCodec codec = new VariantEvaluationCodec(vcfHeader);
+            int numVariants = in.readInt();
+            for (int i = 0; i < numVariants; i++) {
+                variantConsumer.accept(codec.decode(in));
+            }
+            logger.info("Restored {} genes and {} variants from checkpoint", numGenes, numVariants);
+            return Optional.of(checkpoint);
+        } catch (IOException e) {
+            // the genes may already have been altered, so there's no way to safely carry on from here
+            throw new UncheckedIOException("Unable to read checkpoint " + checkpointPath, e);
+        }
+    }
+
+    /**
+     * Writes the current state of the analysis. Any failure to do so is logged rather than failing the analysis.
+     */
+    void writeCheckpoint(Path checkpointPath, VCFHeader vcfHeader, Checkpoint checkpoint, Collection<Gene> genes, List<VariantEvaluation> variantEvaluations) {
+        Path tempFile = null;
+        try {
+            Files.createDirectories(checkpointDirectory);
+            tempFile = Files.createTempFile(checkpointDirectory, "exomiser-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC_NUMBER);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(checkpoint.getCompletedGroups());
+                out.writeBoolean(checkpoint.isVariantsLoaded());
+
+                List<Gene> genesWithState = new ArrayList<>();
+                for (Gene gene : genes) {
+                    if (hasState(gene)) {
+                        genesWithState.add(gene);
+                    }
+                }
+                out.writeInt(genesWithState.size());
+                for (Gene gene : genesWithState) {
+                    writeGeneState(out, gene);
+                }
+
+                VariantEvaluationCodec codec = new VariantEvaluationCodec(vcfHeader);
+                out.writeInt(variantEvaluations.size());
+                for (VariantEvaluation variantEvaluation : variantEvaluations) {
+                    codec.encode(variantEvaluation, out);
+                }
+            }
+            Files.move(tempFile, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote checkpoint {} after {} completed step groups", checkpointPath, checkpoint.getCompletedGroups());
+        } catch (IOException e) {
+            logger.warn("Unable to write checkpoint {}", checkpointPath, e);
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Unable to delete {}", file, e);
+        }
+    }
+
+    private static boolean hasState(Gene gene) {
+        return !gene.getPassedFilterTypes().isEmpty() || !gene.getFailedFilterTypes().isEmpty() || !gene.getInheritanceModes().isEmpty();
+    }
+
+    private static void writeGeneState(DataOutput out, Gene gene) throws IOException {
+        out.writeUTF(gene.getGeneSymbol());
+        writeEnumNames(out, gene.getPassedFilterTypes());
+        writeEnumNames(out, gene.getFailedFilterTypes());
+        writeEnumNames(out, gene.getInheritanceModes());
+    }
+
+    private static void readGeneState(DataInput in, Map<String, Gene> allGenes) throws IOException {
+        String geneSymbol = in.readUTF();
+        List<String> passedFilterTypes = readEnumNames(in);
+        List<String> failedFilterTypes = readEnumNames(in);
+        List<String> inheritanceModes = readEnumNames(in);
+        Gene gene = allGenes.get(geneSymbol);
+        if (gene == null) {
+            logger.warn("Gene {} from checkpoint not found in known genes", geneSymbol);
+            return;
+        }
+        for (String filterType : passedFilterTypes) {
+            gene.addFilterResult(FilterResult.pass(FilterType.valueOf(filterType)));
+        }
+        for (String filterType : failedFilterTypes) {
+            gene.addFilterResult(FilterResult.fail(FilterType.valueOf(filterType)));
+        }
+        if (!inheritanceModes.isEmpty()) {
+            Set<ModeOfInheritance> modes = EnumSet.noneOf(ModeOfInheritance.class);
+            for (String mode : inheritanceModes) {
+                modes.add(ModeOfInheritance.valueOf(mode));
+            }
+            gene.setInheritanceModes(modes);
+        }
+    }
+
+    private static void writeEnumNames(DataOutput out, Collection<? extends Enum<?>> values) throws IOException {
+        out.writeInt(values.size());
+        for (Enum<?> value : values) {
+            out.writeUTF(value.name());
+        }
+    }
+
+    private static List<String> readEnumNames(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<String> names = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            names.add(in.readUTF());
+        }
+        return names;
+    }
+
+    /**
+     * Progress of an analysis at the point the checkpoint was written.
+     */
+    static class Checkpoint {
+
+        private final int completedGroups;
+        private final boolean variantsLoaded;
+
+        Checkpoint(int completedGroups, boolean variantsLoaded) {
+            this.completedGroups = completedGroups;
+            this.variantsLoaded = variantsLoaded;
+        }
+
+        int getCompletedGroups() {
+            return completedGroups;
+        }
+
+        boolean isVariantsLoaded() {
+            return variantsLoaded;
+        }
+    }
+}
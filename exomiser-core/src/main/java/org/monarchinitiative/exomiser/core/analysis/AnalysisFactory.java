@@ -28,8 +28,11 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Paths;
+
 /**
  * High-level factory for creating an {@link Analysis} and {@link AnalysisRunner}. This is
  * pretty much all that's needed to run an analysis with.
@@ -49,27 +52,111 @@ public class AnalysisFactory {
 
     private final PriorityFactory priorityFactory;
 
+    private int analysisThreads = 0;
+    private int maxFailedVariantsInMemory = 0;
+    private long analysisMemoryLimitMb = 0;
+
+    private String checkpointDirectory = "";
+    private String checkpointDataVersion = "";
+    private boolean checkpointResume = false;
+
     @Autowired
     public AnalysisFactory(GenomeAnalysisServiceProvider genomeAnalysisServiceProvider, PriorityFactory priorityFactory) {
         this.genomeAnalysisServiceProvider = genomeAnalysisServiceProvider;
         this.priorityFactory = priorityFactory;
     }
 
+    /**
+     * Sets the maximum number of threads used by each analysis to run the gene-level filters and inheritance mode
+     * analysis. Values less than 1 will use the number of available processors.
+     *
+     * @param analysisThreads maximum number of threads for each analysis
+     */
+    @Value("${exomiser.analysis-threads:0}")
+    public void setAnalysisThreads(int analysisThreads) {
+        this.analysisThreads = analysisThreads;
+    }
+
+    /**
+     * Sets the number of variants failing the initial variant filters which a SPARSE analysis will hold in memory. Any
+     * further failed variants are written to a temporary file and read back in when the results are written. Values
+     * less than 1 will hold all the variants in memory.
+     *
+     * @param maxFailedVariantsInMemory maximum number of failed variants held in memory by each SPARSE analysis
+     */
+    @Value("${exomiser.sparse-max-failed-variants-in-memory:0}")
+    public void setMaxFailedVariantsInMemory(int maxFailedVariantsInMemory) {
+        this.maxFailedVariantsInMemory = maxFailedVariantsInMemory;
+    }
+
+    /**
+     * Sets the maximum estimated memory footprint of each analysis. A SPARSE analysis nearing this limit will write any
+     * further failed variants to a temporary file, and any analysis exceeding it is stopped with an
+     * {@link AnalysisMemoryLimitExceededException}. Values less than 1, the default, do not limit the analyses.
+     *
+     * @param analysisMemoryLimitMb maximum estimated memory footprint of each analysis in megabytes
+     */
+    @Value("${exomiser.analysis-memory-limit-mb:0}")
+    public void setAnalysisMemoryLimitMb(long analysisMemoryLimitMb) {
+        this.analysisMemoryLimitMb = analysisMemoryLimitMb;
+    }
+
+    /**
+     * Sets the directory to which a checkpoint of each analysis is written after every group of analysis steps. An
+     * empty value, the default, disables checkpointing.
+     *
+     * @param checkpointDirectory path of the checkpoint directory
+     */
+    @Value("${exomiser.checkpoint-directory:}")
+    public void setCheckpointDirectory(String checkpointDirectory) {
+        this.checkpointDirectory = checkpointDirectory;
+    }
+
+    /**
+     * Sets the identifier of the data the analyses are run against. Checkpoints are only resumed by analyses run
+     * against the same data.
+     *
+     * @param checkpointDataVersion versions of the genome and phenotype data in use
+     */
+    @Value("${exomiser.hg19.data-version:}_${exomiser.hg19.transcript-source:ucsc}_${exomiser.hg38.data-version:}_${exomiser.hg38.transcript-source:ucsc}_${exomiser.phenotype.data-version:}")
+    public void setCheckpointDataVersion(String checkpointDataVersion) {
+        this.checkpointDataVersion = checkpointDataVersion;
+    }
+
+    /**
+     * Sets whether an analysis with a matching checkpoint should skip the analysis steps it has already completed.
+     *
+     * @param checkpointResume true to resume analyses from their checkpoints
+     */
+    @Value("${exomiser.checkpoint-resume:false}")
+    public void setCheckpointResume(boolean checkpointResume) {
+        this.checkpointResume = checkpointResume;
+    }
+
     public AnalysisRunner getAnalysisRunner(GenomeAssembly genomeAssembly, AnalysisMode analysisMode) {
         //This class primarily exists as an external interface for the Exomiser class to be able to create and run analyses
         //without having to expose too much of the Analysis package implementation. e.g. the AnalysisRunner implementations
         // below are package-private.
         GenomeAnalysisService genomeAnalysisService = genomeAnalysisServiceProvider.get(genomeAssembly);
 
+        AbstractAnalysisRunner analysisRunner = createAnalysisRunner(genomeAnalysisService, analysisMode);
+        analysisRunner.setMemoryLimit(analysisMemoryLimitMb * 1024 * 1024);
+        if (!checkpointDirectory.isEmpty()) {
+            analysisRunner.setAnalysisCheckpointer(new AnalysisCheckpointer(Paths.get(checkpointDirectory), checkpointDataVersion, checkpointResume));
+        }
+        return analysisRunner;
+    }
+
+    private AbstractAnalysisRunner createAnalysisRunner(GenomeAnalysisService genomeAnalysisService, AnalysisMode analysisMode) {
         switch (analysisMode) {
             case FULL:
-                return new SimpleAnalysisRunner(genomeAnalysisService);
+                return new SimpleAnalysisRunner(genomeAnalysisService, analysisThreads);
             case SPARSE:
-                return new SparseAnalysisRunner(genomeAnalysisService);
+                return new SparseAnalysisRunner(genomeAnalysisService, analysisThreads, maxFailedVariantsInMemory);
             case PASS_ONLY:
             default:
                 //this guy takes up the least RAM
-                return new PassOnlyAnalysisRunner(genomeAnalysisService);
+                return new PassOnlyAnalysisRunner(genomeAnalysisService, analysisThreads);
         }
     }
 
@@ -0,0 +1,55 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+/**
+ * Receives progress events from an {@link AnalysisRunner}. All the methods have empty default implementations so
+ * implementations need only override the events they are interested in. Events are sent from the thread running the
+ * analysis so implementations should return quickly.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public interface AnalysisListener {
+
+    AnalysisListener NONE = new AnalysisListener() {
+    };
+
+    default void analysisStarted(Analysis analysis) {
+    }
+
+    /**
+     * Called periodically while the variants are being read and filtered, and once all the variants have been read.
+     *
+     * @param numRead   number of variants read from the VCF file so far
+     * @param numPassed number of variants read so far which passed the variant filters
+     */
+    default void variantsRead(int numRead, int numPassed) {
+    }
+
+    default void stepStarted(AnalysisStep analysisStep) {
+    }
+
+    default void stepCompleted(AnalysisStep analysisStep) {
+    }
+
+    default void analysisCompleted(AnalysisResults analysisResults) {
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+/**
+ * Thrown by an {@link AnalysisRunner} when the estimated memory footprint of the analysis it is running exceeds the
+ * configured limit.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class AnalysisMemoryLimitExceededException extends RuntimeException {
+
+    private final transient MemoryFootprint memoryFootprint;
+
+    public AnalysisMemoryLimitExceededException(String message, MemoryFootprint memoryFootprint) {
+        super(message);
+        this.memoryFootprint = memoryFootprint;
+    }
+
+    /**
+     * @return the estimated footprint which exceeded the limit.
+     */
+    public MemoryFootprint getMemoryFootprint() {
+        return memoryFootprint;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.monarchinitiative.exomiser.core.analysis.util.SpilledVariantStore;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of the estimated {@link MemoryFootprint} of a single analysis and enforces the memory limit, if there is
+ * one. When the estimate reaches {@link #LOWER_MEMORY_FRACTION} of the limit any {@link SpilledVariantStore} is told to
+ * write all further failed variants to disk. Should the estimate then reach the limit, the analysis is stopped with an
+ * {@link AnalysisMemoryLimitExceededException} rather than risk taking the whole JVM down with an OutOfMemoryError.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class AnalysisMemoryMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisMemoryMonitor.class);
+
+    static final double LOWER_MEMORY_FRACTION = 0.8;
+
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final long memoryLimitBytes;
+    private final Optional<SpilledVariantStore> spilledVariantStore;
+    private final Collection<Gene> genes;
+    private final MemoryFootprintEstimator estimator = new MemoryFootprintEstimator();
+
+    private int numVariantsInMemory = 0;
+    private boolean lowerMemoryMode = false;
+    private MemoryFootprint peakFootprint = MemoryFootprint.EMPTY;
+
+    /**
+     * @param memoryLimitBytes    the maximum estimated footprint of the analysis. Values less than 1 only report the
+     *                            footprint.
+     * @param spilledVariantStore any store of failed variants used by the analysis
+     * @param genes               all the genes of the analysis
+     */
+    AnalysisMemoryMonitor(long memoryLimitBytes, Optional<SpilledVariantStore> spilledVariantStore, Collection<Gene> genes) {
+        this.memoryLimitBytes = memoryLimitBytes;
+        this.spilledVariantStore = spilledVariantStore;
+        this.genes = genes;
+    }
+
+    /**
+     * @return a consumer to be called for every variant held in memory as the variants are loaded.
+     */
+    Consumer<VariantEvaluation> countRetainedVariant() {
+        return variantEvaluation -> {
+            numVariantsInMemory++;
+            estimator.addVariant(variantEvaluation);
+        };
+    }
+
+    /**
+     * Checks the footprint part way through loading the variants.
+     */
+    void checkVariantLoad() {
+        MemoryFootprint memoryFootprint = estimate();
+        logger.debug("Estimated memory footprint while loading variants: {}", memoryFootprint);
+        checkLimit("loading variants", memoryFootprint);
+    }
+
+    /**
+     * Checks the footprint once an analysis stage has completed.
+     *
+     * @param stage            name of the completed stage for logging
+     * @param variantsInMemory the variants currently held in memory
+     */
+    void check(String stage, List<VariantEvaluation> variantsInMemory) {
+        estimator.sampleIfEmpty(variantsInMemory);
+        numVariantsInMemory = variantsInMemory.size();
+        MemoryFootprint memoryFootprint = estimate();
+        logger.info("Estimated memory footprint after {}: {}", stage, memoryFootprint);
+        checkLimit(stage, memoryFootprint);
+    }
+
+    private MemoryFootprint estimate() {
+        long cacheBytes = spilledVariantStore.map(SpilledVariantStore::indexSizeInBytes).orElse(0L);
+        MemoryFootprint memoryFootprint = estimator.estimate(numVariantsInMemory, genes, cacheBytes);
+        if (memoryFootprint.getTotalBytes() > peakFootprint.getTotalBytes()) {
+            peakFootprint = memoryFootprint;
+        }
+        return memoryFootprint;
+    }
+
+    private void checkLimit(String stage, MemoryFootprint memoryFootprint) {
+        if (memoryLimitBytes <= 0) {
+            return;
+        }
+        long totalBytes = memoryFootprint.getTotalBytes();
+        if (totalBytes >= memoryLimitBytes) {
+            String message = String.format("Estimated memory footprint of %.1f MB while %s exceeds the analysis memory limit of %.1f MB", totalBytes / MB, stage, memoryLimitBytes / MB);
+            logger.error("{} - stopping analysis", message);
+            throw new AnalysisMemoryLimitExceededException(message, memoryFootprint);
+        }
+        if (!lowerMemoryMode && spilledVariantStore.isPresent() && totalBytes >= memoryLimitBytes * LOWER_MEMORY_FRACTION) {
+            logger.warn("Estimated memory footprint of {} MB is over {}% of the analysis memory limit of {} MB - writing all further failed variants to disk", String
+                    .format("%.1f", totalBytes / MB), (int) (LOWER_MEMORY_FRACTION * 100), String.format("%.1f", memoryLimitBytes / MB));
+            spilledVariantStore.get().spillFurtherFailedVariants();
+            lowerMemoryMode = true;
+        }
+    }
+
+    boolean isLowerMemoryMode() {
+        return lowerMemoryMode;
+    }
+
+    /**
+     * @return the largest footprint estimated so far.
+     */
+    MemoryFootprint getPeakFootprint() {
+        return peakFootprint;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.monarchinitiative.exomiser.core.analysis.util.GeneScorer;
+import org.monarchinitiative.exomiser.core.analysis.util.RawScoreGeneScorer;
+import org.monarchinitiative.exomiser.core.analysis.util.SampleNameChecker;
+import org.monarchinitiative.exomiser.core.filters.FilterType;
+import org.monarchinitiative.exomiser.core.filters.GeneFilter;
+import org.monarchinitiative.exomiser.core.filters.GeneFilterRunner;
+import org.monarchinitiative.exomiser.core.filters.SimpleGeneFilterRunner;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.prioritisers.Prioritiser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Re-runs only the prioritisers and gene scoring of an {@link Analysis} over the genes of an existing set of
+ * {@link AnalysisResults}. The variants are neither re-read nor re-filtered so this is cheap enough to use when trying
+ * alternative sets of HPO terms for a case which has already been analysed.
+ * <p>
+ * Only the {@link Prioritiser} steps, the filter steps which depend on the priority scores (i.e. the
+ * {@link org.monarchinitiative.exomiser.core.filters.PriorityScoreFilter}), HPO ids and mode of inheritance of the new
+ * analysis are used. The results of any phenotype-dependent filters from the original analysis are removed before
+ * these steps are run, while all other filter steps are ignored and their original results are kept. The mode of
+ * inheritance should therefore be the same as that used for the original analysis. The genes of the original results
+ * are re-scored in place.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class AnalysisReprioritiser {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisReprioritiser.class);
+
+    private static final Set<FilterType> PHENOTYPE_DEPENDENT_FILTER_TYPES = EnumSet.of(FilterType.PRIORITY_SCORE_FILTER);
+
+    private final GeneFilterRunner geneFilterRunner = new SimpleGeneFilterRunner();
+
+    /**
+     * @param analysisResults results of a previously run analysis
+     * @param analysis        analysis containing the new HPO ids and prioritisers
+     * @return new results containing the re-scored and re-ranked genes of the original results. These share any
+     * variant store of the original results, so closing either will close both.
+     */
+    public AnalysisResults reprioritise(AnalysisResults analysisResults, Analysis analysis) {
+        Instant timeStart = Instant.now();
+        List<String> hpoIds = analysis.getHpoIds();
+        List<AnalysisStep> reprioritisationSteps = getReprioritisationSteps(analysis);
+        List<Gene> genes = new ArrayList<>(analysisResults.getGenes());
+        logger.info("Re-prioritising {} genes using HPO ids {}", genes.size(), hpoIds);
+
+        genes.forEach(this::clearPhenotypeDependentResults);
+        for (AnalysisStep analysisStep : reprioritisationSteps) {
+            if (analysisStep instanceof Prioritiser) {
+                Prioritiser prioritiser = (Prioritiser) analysisStep;
+                logger.info("Running Prioritiser: {}", prioritiser);
+                prioritiser.prioritizeGenes(hpoIds, genes);
+            } else {
+                GeneFilter geneFilter = (GeneFilter) analysisStep;
+                logger.info("Running GeneFilter: {}", geneFilter);
+                geneFilterRunner.run(geneFilter, genes);
+            }
+        }
+
+        logger.info("Scoring genes");
+        int probandSampleId = SampleNameChecker.getProbandSampleId(analysisResults.getProbandSampleName(), analysisResults
+                .getSampleNames());
+        GeneScorer geneScorer = new RawScoreGeneScorer(probandSampleId, analysis.getModeOfInheritance(), analysisResults
+                .getPedigree());
+        List<Gene> scoredGenes = geneScorer.scoreGenes(genes);
+
+        long ms = Duration.between(timeStart, Instant.now()).toMillis();
+        logger.info("Finished re-prioritisation in {}ms", ms);
+        return AnalysisResults.builder()
+                .vcfPath(analysisResults.getVcfPath())
+                .pedPath(analysisResults.getPedPath())
+                .vcfHeader(analysisResults.getVcfHeader())
+                .probandSampleName(analysisResults.getProbandSampleName())
+                .sampleNames(analysisResults.getSampleNames())
+                .pedigree(analysisResults.getPedigree())
+                .genes(scoredGenes)
+                .variantEvaluations(analysisResults.getVariantEvaluations())
+                .memoryFootprint(analysisResults.getMemoryFootprint())
+                .variantStore(analysisResults.getVariantStore())
+                .build();
+    }
+
+    private void clearPhenotypeDependentResults(Gene gene) {
+        gene.clearPriorityResults();
+        PHENOTYPE_DEPENDENT_FILTER_TYPES.forEach(gene::removeFilterResult);
+        gene.clearVariantsContributingToGeneScore();
+    }
+
+    private List<AnalysisStep> getReprioritisationSteps(Analysis analysis) {
+        List<AnalysisStep> analysisSteps = analysis.getAnalysisSteps();
+        List<AnalysisStep> reprioritisationSteps = analysisSteps.stream()
+                .filter(this::isPhenotypeDependent)
+                .collect(toList());
+        if (reprioritisationSteps.size() < analysisSteps.size()) {
+            logger.info("Ignoring {} phenotype-independent steps - the original filter results will be kept", analysisSteps
+                    .size() - reprioritisationSteps.size());
+        }
+        return reprioritisationSteps;
+    }
+
+    private boolean isPhenotypeDependent(AnalysisStep analysisStep) {
+        if (analysisStep instanceof Prioritiser) {
+            return true;
+        }
+        return analysisStep instanceof GeneFilter && PHENOTYPE_DEPENDENT_FILTER_TYPES.contains(((GeneFilter) analysisStep)
+                .getFilterType());
+    }
+}
@@ -32,6 +32,9 @@
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
@@ -40,11 +43,12 @@
 import static java.util.stream.Collectors.toList;
 
 /**
- * The results of an Exomiser Analysis run.
+ * The results of an Exomiser Analysis run. The results of a SPARSE analysis may be backed by a temporary file of
+ * failed variants, so these should be closed once they have been written.
  * 
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
-public class AnalysisResults {
+public class AnalysisResults implements Closeable {
 
     private final Path vcfPath;
     private final Path pedPath;
@@ -61,6 +65,12 @@ public class AnalysisResults {
     @JsonIgnore
     private final List<VariantEvaluation> variantEvaluations;
 
+    @JsonIgnore
+    private final MemoryFootprint memoryFootprint;
+
+    @JsonIgnore
+    private final Closeable variantStore;
+
     public AnalysisResults(Builder builder) {
         this.vcfPath = builder.vcfPath;
         this.pedPath = builder.pedPath;
@@ -72,6 +82,8 @@ public AnalysisResults(Builder builder) {
 
         this.genes = builder.genes;
         this.variantEvaluations = builder.variantEvaluations;
+        this.memoryFootprint = builder.memoryFootprint;
+        this.variantStore = builder.variantStore;
     }
     
     public Path getVcfPath() {
@@ -109,6 +121,30 @@ public List<VariantEvaluation> getVariantEvaluations() {
         return variantEvaluations;
     }
 
+    /**
+     * @return the peak estimated memory footprint of the analysis which produced these results.
+     */
+    public MemoryFootprint getMemoryFootprint() {
+        return memoryFootprint;
+    }
+
+    Closeable getVariantStore() {
+        return variantStore;
+    }
+
+    /**
+     * Deletes any temporary file holding the variants of these results. The variants written to disk can no longer be
+     * read once this has been called. Calling this more than once has no further effect.
+     */
+    @Override
+    public void close() {
+        try {
+            variantStore.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close variant store for " + vcfPath, e);
+        }
+    }
+
     @JsonIgnore
     public List<VariantEvaluation> getUnAnnotatedVariantEvaluations() {
         return variantEvaluations.stream().filter(varEval -> !varEval.hasTranscriptAnnotations()).collect(toList());
@@ -154,6 +190,10 @@ public static class Builder {
         private List<VariantEvaluation> variantEvaluations = Collections.emptyList();
         private List<Gene> genes = Collections.emptyList();
 
+        private MemoryFootprint memoryFootprint = MemoryFootprint.EMPTY;
+
+        private Closeable variantStore = () -> {};
+
         public Builder probandSampleName(String probandSampleName) {
             this.probandSampleName = probandSampleName;
             return this;
@@ -193,6 +233,19 @@ public Builder genes(List<Gene> geneList) {
             return this;
         }
 
+        public Builder memoryFootprint(MemoryFootprint memoryFootprint) {
+            this.memoryFootprint = memoryFootprint;
+            return this;
+        }
+
+        /**
+         * @param variantStore store of any variants held outside of memory which is to be closed along with the results
+         */
+        public Builder variantStore(Closeable variantStore) {
+            this.variantStore = variantStore;
+            return this;
+        }
+
         public AnalysisResults build() {
             return new AnalysisResults(this);
         }
@@ -20,11 +20,42 @@
 
 package org.monarchinitiative.exomiser.core.analysis;
 
+import java.util.function.BooleanSupplier;
+
 /**
+ * Runs an {@link Analysis}. A runner may hold threads which are shared by all the analyses it runs, so it should be
+ * closed once it is no longer needed.
  *
  * @since 7.0.0
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
-public interface AnalysisRunner {
+public interface AnalysisRunner extends AutoCloseable {
     AnalysisResults run(Analysis analysis);
+
+    /**
+     * Runs the analysis, reporting progress to the listener. The cancellation check is polled between each analysis
+     * step and periodically while reading the variants. Once it returns true the analysis will stop with an
+     * {@link AnalysisCancelledException}.
+     *
+     * @param analysis              the analysis to run
+     * @param listener              receives progress events from the analysis
+     * @param cancellationRequested returns true once the analysis should be stopped
+     */
+    default AnalysisResults run(Analysis analysis, AnalysisListener listener, BooleanSupplier cancellationRequested) {
+        if (cancellationRequested.getAsBoolean()) {
+            throw new AnalysisCancelledException();
+        }
+        listener.analysisStarted(analysis);
+        AnalysisResults analysisResults = run(analysis);
+        listener.analysisCompleted(analysisResults);
+        return analysisResults;
+    }
+
+    /**
+     * Releases any threads held by the runner. The results of analyses already run are unaffected.
+     */
+    @Override
+    default void close() {
+        //nothing to release by default
+    }
 }
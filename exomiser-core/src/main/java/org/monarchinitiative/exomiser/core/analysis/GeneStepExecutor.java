@@ -0,0 +1,112 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.monarchinitiative.exomiser.core.metrics.ExomiserEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Runs a gene-level analysis step over a list of genes using a bounded pool of threads. Each item is handed to exactly
+ * one thread, so the action may freely mutate the item it is given (e.g. add filter results to a gene and its variants)
+ * but must not mutate any state shared between items. The list itself is never re-ordered, so the order of the results
+ * is the same as when the step is run on a single thread. All the work for a step will have completed, and be visible
+ * to the calling thread, once {@link #forEach(List, Consumer)} returns.
+ * <p>
+ * The pool of threads is started by the first step large enough to need it and is re-used by all later steps until the
+ * executor is closed. Closing the executor shuts the pool down - any later steps will run on the calling thread.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class GeneStepExecutor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneStepExecutor.class);
+
+    // below this there is little to be gained from the overhead of starting up a pool of threads
+    private static final int MIN_PARALLEL_ITEMS = 100;
+
+    private final int parallelism;
+
+    private ForkJoinPool forkJoinPool = null;
+    private boolean closed = false;
+
+    /**
+     * @param parallelism maximum number of threads to use. Values less than 1 will use the number of available processors.
+     */
+    GeneStepExecutor(int parallelism) {
+        this.parallelism = parallelism < 1 ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    <T> void forEach(List<T> items, Consumer<? super T> action) {
+        ForkJoinPool forkJoinPool = parallelism == 1 || items.size() < MIN_PARALLEL_ITEMS ? null : getForkJoinPool();
+        if (forkJoinPool == null) {
+            items.forEach(action);
+            return;
+        }
+        logger.debug("Running step over {} items using {} threads", items.size(), parallelism);
+        // label any events recorded by the worker threads with the analysis running on this thread
+        Consumer<? super T> workerAction = ExomiserEvents.withCurrentContext(action);
+        try {
+            forkJoinPool.submit(() -> items.parallelStream().forEach(workerAction)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running analysis step", e);
+        } catch (ExecutionException e) {
+            // re-throw the original exception so that callers see the same behaviour as when run on a single thread
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Unable to run analysis step", cause);
+        }
+    }
+
+    private synchronized ForkJoinPool getForkJoinPool() {
+        if (forkJoinPool == null && !closed) {
+            forkJoinPool = new ForkJoinPool(parallelism);
+        }
+        return forkJoinPool;
+    }
+
+    /**
+     * Shuts down the pool of threads, if one was started. Steps which are already running will complete.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+            forkJoinPool = null;
+        }
+    }
+}
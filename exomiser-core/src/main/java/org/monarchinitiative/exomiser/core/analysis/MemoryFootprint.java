@@ -0,0 +1,221 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import java.util.Objects;
+
+/**
+ * Estimate of the heap retained by the main data structures of an analysis. These are estimates made from the numbers
+ * of each type of object and the sizes of a sample of them, rather than measurements, so they are best used for
+ * comparing analyses and sizing the heap rather than as exact figures. All sizes are in bytes.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class MemoryFootprint {
+
+    public static final MemoryFootprint EMPTY = builder().build();
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private final int numVariants;
+    private final long variantBytes;
+    private final long variantContextBytes;
+    private final long annotationBytes;
+    private final int numGenes;
+    private final long geneBytes;
+    private final int numPriorityResults;
+    private final long priorityResultBytes;
+    private final long cacheBytes;
+
+    private MemoryFootprint(Builder builder) {
+        this.numVariants = builder.numVariants;
+        this.variantBytes = builder.variantBytes;
+        this.variantContextBytes = builder.variantContextBytes;
+        this.annotationBytes = builder.annotationBytes;
+        this.numGenes = builder.numGenes;
+        this.geneBytes = builder.geneBytes;
+        this.numPriorityResults = builder.numPriorityResults;
+        this.priorityResultBytes = builder.priorityResultBytes;
+        this.cacheBytes = builder.cacheBytes;
+    }
+
+    /**
+     * @return the number of VariantEvaluations held in memory
+     */
+    public int getNumVariants() {
+        return numVariants;
+    }
+
+    /**
+     * @return the VariantEvaluations, including their frequency and pathogenicity data
+     */
+    public long getVariantBytes() {
+        return variantBytes;
+    }
+
+    /**
+     * @return the htsjdk VariantContexts the VariantEvaluations were created from, including their genotypes
+     */
+    public long getVariantContextBytes() {
+        return variantContextBytes;
+    }
+
+    /**
+     * @return the transcript annotations of the VariantEvaluations
+     */
+    public long getAnnotationBytes() {
+        return annotationBytes;
+    }
+
+    public int getNumGenes() {
+        return numGenes;
+    }
+
+    /**
+     * @return the genes, including their filter results and lists of variants but not the variants themselves
+     */
+    public long getGeneBytes() {
+        return geneBytes;
+    }
+
+    public int getNumPriorityResults() {
+        return numPriorityResults;
+    }
+
+    public long getPriorityResultBytes() {
+        return priorityResultBytes;
+    }
+
+    /**
+     * @return the in-memory indexes of any variants written to disk
+     */
+    public long getCacheBytes() {
+        return cacheBytes;
+    }
+
+    public long getTotalBytes() {
+        return variantBytes + variantContextBytes + annotationBytes + geneBytes + priorityResultBytes + cacheBytes;
+    }
+
+    private static long toMb(long bytes) {
+        return bytes / BYTES_PER_MB;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MemoryFootprint that = (MemoryFootprint) o;
+        return numVariants == that.numVariants &&
+                variantBytes == that.variantBytes &&
+                variantContextBytes == that.variantContextBytes &&
+                annotationBytes == that.annotationBytes &&
+                numGenes == that.numGenes &&
+                geneBytes == that.geneBytes &&
+                numPriorityResults == that.numPriorityResults &&
+                priorityResultBytes == that.priorityResultBytes &&
+                cacheBytes == that.cacheBytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(numVariants, variantBytes, variantContextBytes, annotationBytes, numGenes, geneBytes, numPriorityResults, priorityResultBytes, cacheBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryFootprint{" +
+                "total=" + toMb(getTotalBytes()) + "MB" +
+                ", variants=" + numVariants + " (" + toMb(variantBytes) + "MB)" +
+                ", variantContexts=" + toMb(variantContextBytes) + "MB" +
+                ", annotations=" + toMb(annotationBytes) + "MB" +
+                ", genes=" + numGenes + " (" + toMb(geneBytes) + "MB)" +
+                ", priorityResults=" + numPriorityResults + " (" + toMb(priorityResultBytes) + "MB)" +
+                ", caches=" + toMb(cacheBytes) + "MB" +
+                '}';
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int numVariants = 0;
+        private long variantBytes = 0;
+        private long variantContextBytes = 0;
+        private long annotationBytes = 0;
+        private int numGenes = 0;
+        private long geneBytes = 0;
+        private int numPriorityResults = 0;
+        private long priorityResultBytes = 0;
+        private long cacheBytes = 0;
+
+        public Builder numVariants(int numVariants) {
+            this.numVariants = numVariants;
+            return this;
+        }
+
+        public Builder variantBytes(long variantBytes) {
+            this.variantBytes = variantBytes;
+            return this;
+        }
+
+        public Builder variantContextBytes(long variantContextBytes) {
+            this.variantContextBytes = variantContextBytes;
+            return this;
+        }
+
+        public Builder annotationBytes(long annotationBytes) {
+            this.annotationBytes = annotationBytes;
+            return this;
+        }
+
+        public Builder numGenes(int numGenes) {
+            this.numGenes = numGenes;
+            return this;
+        }
+
+        public Builder geneBytes(long geneBytes) {
+            this.geneBytes = geneBytes;
+            return this;
+        }
+
+        public Builder numPriorityResults(int numPriorityResults) {
+            this.numPriorityResults = numPriorityResults;
+            return this;
+        }
+
+        public Builder priorityResultBytes(long priorityResultBytes) {
+            this.priorityResultBytes = priorityResultBytes;
+            return this;
+        }
+
+        public Builder cacheBytes(long cacheBytes) {
+            this.cacheBytes = cacheBytes;
+            return this;
+        }
+
+        public MemoryFootprint build() {
+            return new MemoryFootprint(this);
+        }
+    }
+}
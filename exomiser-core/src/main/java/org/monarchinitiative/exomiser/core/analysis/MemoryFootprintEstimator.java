@@ -0,0 +1,223 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.TranscriptAnnotation;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.prioritisers.HiPhivePriorityResult;
+import org.monarchinitiative.exomiser.core.prioritisers.OMIMPriorityResult;
+import org.monarchinitiative.exomiser.core.prioritisers.PriorityResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the {@link MemoryFootprint} of an analysis. Every {@link #SAMPLE_INTERVAL}th variant added is sized by
+ * adding up the sizes of the objects it holds, and the average of these is multiplied up by the number of variants in
+ * memory. Genes are few enough for all of them to be sized each time.
+ * <p>
+ * The object sizes are those of a 64-bit JVM with compressed oops, which is the default for heaps of less than 32GB,
+ * and Strings are sized as for Java 8. Objects shared between variants, such as the VCF header, are not counted.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class MemoryFootprintEstimator {
+
+    static final int SAMPLE_INTERVAL = 100;
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+    private static final int STRING = 24;
+    private static final int ARRAY_LIST = 24;
+    private static final int HASH_MAP = 48;
+    private static final int HASH_MAP_ENTRY = 32;
+
+    // shallow sizes of the objects, from their fields
+    private static final int VARIANT_EVALUATION = 96;
+    private static final int FREQUENCY_DATA = 64;
+    private static final int FREQUENCY = 24;
+    private static final int PATHOGENICITY_DATA = 64;
+    private static final int PATHOGENICITY_SCORE = 24;
+    private static final int TRANSCRIPT_ANNOTATION = 40;
+    // VariantContext together with its CommonInfo and the empty filter set
+    private static final int VARIANT_CONTEXT = 112;
+    private static final int ALLELE = 24;
+    // a decoded htsjdk FastGenotype together with its allele list and the AD, DP, GQ and PL values
+    private static final int GENOTYPE = 160;
+    // Gene together with its empty filter sets, EnumMaps and variant list
+    private static final int GENE = 296;
+    private static final int PRIORITY_RESULT = 64;
+    private static final int GENE_MODEL_PHENOTYPE_MATCH = 64;
+
+    private long numAdded = 0;
+    private int numSampled = 0;
+    private long sampledVariantBytes = 0;
+    private long sampledVariantContextBytes = 0;
+    private long sampledAnnotationBytes = 0;
+
+    /**
+     * Registers a variant which is being held in memory. Only one in every {@link #SAMPLE_INTERVAL} is actually sized.
+     */
+    void addVariant(VariantEvaluation variantEvaluation) {
+        if (numAdded++ % SAMPLE_INTERVAL == 0) {
+            sampleVariant(variantEvaluation);
+        }
+    }
+
+    /**
+     * Samples the variants in the list should none have been added, e.g. where they were restored from a checkpoint.
+     */
+    void sampleIfEmpty(List<VariantEvaluation> variantEvaluations) {
+        if (numSampled == 0) {
+            for (int i = 0; i < variantEvaluations.size(); i += SAMPLE_INTERVAL) {
+                sampleVariant(variantEvaluations.get(i));
+            }
+        }
+    }
+
+    private void sampleVariant(VariantEvaluation variantEvaluation) {
+        numSampled++;
+        sampledVariantBytes += variantEvaluationBytes(variantEvaluation);
+        sampledVariantContextBytes += variantContextBytes(variantEvaluation.getVariantContext(), variantEvaluation.getNumberOfIndividuals());
+        sampledAnnotationBytes += annotationBytes(variantEvaluation.getTranscriptAnnotations());
+    }
+
+    /**
+     * @param numVariants number of variants held in memory
+     * @param genes       all the genes of the analysis
+     * @param cacheBytes  size of any other indexes or caches held by the analysis
+     */
+    MemoryFootprint estimate(int numVariants, Collection<Gene> genes, long cacheBytes) {
+        long geneBytes = 0;
+        int numPriorityResults = 0;
+        long priorityResultBytes = 0;
+        for (Gene gene : genes) {
+            geneBytes += geneBytes(gene);
+            Map<?, PriorityResult> priorityResults = gene.getPriorityResults();
+            numPriorityResults += priorityResults.size();
+            for (PriorityResult priorityResult : priorityResults.values()) {
+                priorityResultBytes += priorityResultBytes(priorityResult);
+            }
+        }
+        return MemoryFootprint.builder()
+                .numVariants(numVariants)
+                .variantBytes(extrapolate(sampledVariantBytes, numVariants))
+                .variantContextBytes(extrapolate(sampledVariantContextBytes, numVariants))
+                .annotationBytes(extrapolate(sampledAnnotationBytes, numVariants))
+                .numGenes(genes.size())
+                .geneBytes(geneBytes)
+                .numPriorityResults(numPriorityResults)
+                .priorityResultBytes(priorityResultBytes)
+                .cacheBytes(cacheBytes)
+                .build();
+    }
+
+    private long extrapolate(long sampledBytes, int numVariants) {
+        if (numSampled == 0) {
+            return 0;
+        }
+        return (long) ((double) sampledBytes / numSampled * numVariants);
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static long stringBytes(String string) {
+        if (string == null) {
+            return 0;
+        }
+        return STRING + align(ARRAY_HEADER + 2L * string.length());
+    }
+
+    private static long arrayListBytes(int size) {
+        return ARRAY_LIST + align(ARRAY_HEADER + (long) REFERENCE * size);
+    }
+
+    static long variantEvaluationBytes(VariantEvaluation variantEvaluation) {
+        long bytes = VARIANT_EVALUATION + stringBytes(variantEvaluation.getRef()) + stringBytes(variantEvaluation.getAlt());
+        FrequencyData frequencyData = variantEvaluation.getFrequencyData();
+        if (frequencyData != null && frequencyData != FrequencyData.empty()) {
+            bytes += FREQUENCY_DATA + (long) (HASH_MAP_ENTRY + FREQUENCY) * frequencyData.getKnownFrequencies().size();
+        }
+        PathogenicityData pathogenicityData = variantEvaluation.getPathogenicityData();
+        if (pathogenicityData != null && pathogenicityData != PathogenicityData.empty()) {
+            bytes += PATHOGENICITY_DATA + (long) (HASH_MAP_ENTRY + PATHOGENICITY_SCORE) * pathogenicityData.getPredictedPathogenicityScores().size();
+        }
+        return bytes;
+    }
+
+    static long variantContextBytes(VariantContext variantContext, int numSamples) {
+        if (variantContext == null) {
+            return 0;
+        }
+        long bytes = VARIANT_CONTEXT + stringBytes(variantContext.getID());
+        List<Allele> alleles = variantContext.getAlleles();
+        bytes += arrayListBytes(alleles.size());
+        for (Allele allele : alleles) {
+            bytes += ALLELE + align(ARRAY_HEADER + allele.getBases().length);
+        }
+        Map<String, Object> attributes = variantContext.getAttributes();
+        if (!attributes.isEmpty()) {
+            bytes += HASH_MAP + align(ARRAY_HEADER + (long) REFERENCE * attributes.size() * 2);
+            for (Object value : attributes.values()) {
+                bytes += HASH_MAP_ENTRY + stringBytes(String.valueOf(value));
+            }
+        }
+        bytes += arrayListBytes(numSamples) + (long) GENOTYPE * numSamples;
+        return bytes;
+    }
+
+    static long annotationBytes(List<TranscriptAnnotation> annotations) {
+        long bytes = arrayListBytes(annotations.size());
+        for (TranscriptAnnotation annotation : annotations) {
+            // the gene symbols are shared with the genes
+            bytes += TRANSCRIPT_ANNOTATION + stringBytes(annotation.getAccession()) + stringBytes(annotation.getHgvsGenomic())
+                    + stringBytes(annotation.getHgvsCdna()) + stringBytes(annotation.getHgvsProtein());
+        }
+        return bytes;
+    }
+
+    static long geneBytes(Gene gene) {
+        // the spilled variants are not in memory, but this avoids reading them back in to count them
+        return GENE + align((long) REFERENCE * gene.getNumberOfVariants());
+    }
+
+    static long priorityResultBytes(PriorityResult priorityResult) {
+        long bytes = PRIORITY_RESULT;
+        if (priorityResult instanceof HiPhivePriorityResult) {
+            HiPhivePriorityResult hiPhivePriorityResult = (HiPhivePriorityResult) priorityResult;
+            int numMatches = hiPhivePriorityResult.getPhenotypeEvidence().size() + hiPhivePriorityResult.getPpiEvidence().size();
+            bytes += 2 * arrayListBytes(0) + (long) (REFERENCE + GENE_MODEL_PHENOTYPE_MATCH) * numMatches;
+        } else if (priorityResult instanceof OMIMPriorityResult) {
+            // the diseases themselves are shared with the disease data
+            bytes += arrayListBytes(((OMIMPriorityResult) priorityResult).getAssociatedDiseases().size());
+        }
+        return bytes;
+    }
+}
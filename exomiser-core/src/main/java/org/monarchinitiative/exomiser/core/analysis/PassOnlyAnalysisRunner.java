@@ -49,6 +49,10 @@ class PassOnlyAnalysisRunner extends AbstractAnalysisRunner {
         super(genomeAnalysisService, new SparseVariantFilterRunner(), new SimpleGeneFilterRunner());
     }
 
+    PassOnlyAnalysisRunner(GenomeAnalysisService genomeAnalysisService, int geneThreads) {
+        super(genomeAnalysisService, new SparseVariantFilterRunner(), new SimpleGeneFilterRunner(), geneThreads);
+    }
+
     @Override
     protected Predicate<VariantEvaluation> isAssociatedWithKnownGene(Map<String, Gene> genes) {
         return variantEvaluation -> {
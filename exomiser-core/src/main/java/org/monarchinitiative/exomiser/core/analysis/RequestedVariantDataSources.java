@@ -0,0 +1,127 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.monarchinitiative.exomiser.core.filters.FrequencyDataProvider;
+import org.monarchinitiative.exomiser.core.filters.PathogenicityDataProvider;
+import org.monarchinitiative.exomiser.core.filters.VariantFilter;
+import org.monarchinitiative.exomiser.core.filters.VariantFilterDataProvider;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The frequency and pathogenicity sources requested by the data providing steps of an analysis. Variants read from a
+ * {@link org.monarchinitiative.exomiser.core.genome.SnapshotVariantFactory} snapshot can already hold data from every
+ * configured source, whereas freshly annotated variants only ever gain data from the sources requested by these steps.
+ * Data from any other source is removed as the variants are loaded so that the variant scores, and so the results of
+ * the analysis, are the same with or without a snapshot.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class RequestedVariantDataSources {
+
+    private final Set<FrequencySource> frequencySources = EnumSet.noneOf(FrequencySource.class);
+    private final Set<PathogenicitySource> pathogenicitySources = EnumSet.noneOf(PathogenicitySource.class);
+
+    RequestedVariantDataSources(List<AnalysisStep> analysisSteps) {
+        for (AnalysisStep analysisStep : analysisSteps) {
+            if (analysisStep instanceof VariantFilter) {
+                addSources((VariantFilter) analysisStep);
+            }
+        }
+    }
+
+    private void addSources(VariantFilter variantFilter) {
+        if (variantFilter instanceof FrequencyDataProvider) {
+            frequencySources.addAll(((FrequencyDataProvider) variantFilter).getFrequencySources());
+        }
+        if (variantFilter instanceof PathogenicityDataProvider) {
+            pathogenicitySources.addAll(((PathogenicityDataProvider) variantFilter).getPathogenicitySources());
+        }
+        if (variantFilter instanceof VariantFilterDataProvider) {
+            addSources(((VariantFilterDataProvider) variantFilter).getDecoratedFilter());
+        }
+    }
+
+    /**
+     * Removes any frequency or pathogenicity data from sources which were not requested by the analysis.
+     */
+    VariantEvaluation removeUnrequestedData(VariantEvaluation variantEvaluation) {
+        FrequencyData frequencyData = variantEvaluation.getFrequencyData();
+        if (!frequencyData.equals(FrequencyData.empty()) && !allFromRequestedFrequencySources(frequencyData.getKnownFrequencies())) {
+            variantEvaluation.setFrequencyData(requestedFrequencyData(frequencyData));
+        }
+        PathogenicityData pathogenicityData = variantEvaluation.getPathogenicityData();
+        if (!pathogenicityData.isEmpty() && !allFromRequestedPathogenicitySources(pathogenicityData.getPredictedPathogenicityScores())) {
+            variantEvaluation.setPathogenicityData(requestedPathogenicityData(pathogenicityData));
+        }
+        return variantEvaluation;
+    }
+
+    private FrequencyData requestedFrequencyData(FrequencyData frequencyData) {
+        if (frequencySources.isEmpty()) {
+            return FrequencyData.empty();
+        }
+        List<Frequency> requestedFrequencies = frequencyData.getKnownFrequencies().stream()
+                .filter(frequency -> frequencySources.contains(frequency.getSource()))
+                .collect(toList());
+        return FrequencyData.of(frequencyData.getRsId(), requestedFrequencies);
+    }
+
+    private PathogenicityData requestedPathogenicityData(PathogenicityData pathogenicityData) {
+        List<PathogenicityScore> requestedScores = pathogenicityData.getPredictedPathogenicityScores().stream()
+                .filter(pathogenicityScore -> pathogenicitySources.contains(pathogenicityScore.getSource()))
+                .collect(toList());
+        return requestedScores.isEmpty() ? PathogenicityData.empty() : PathogenicityData.of(requestedScores);
+    }
+
+    private boolean allFromRequestedFrequencySources(List<Frequency> frequencies) {
+        if (frequencySources.isEmpty()) {
+            return false;
+        }
+        for (Frequency frequency : frequencies) {
+            if (!frequencySources.contains(frequency.getSource())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean allFromRequestedPathogenicitySources(List<PathogenicityScore> pathogenicityScores) {
+        for (PathogenicityScore pathogenicityScore : pathogenicityScores) {
+            if (!pathogenicitySources.contains(pathogenicityScore.getSource())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -42,6 +42,10 @@ class SimpleAnalysisRunner extends AbstractAnalysisRunner {
         super(genomeAnalysisService, new SimpleVariantFilterRunner(), new SimpleGeneFilterRunner());
     }
 
+    SimpleAnalysisRunner(GenomeAnalysisService genomeAnalysisService, int geneThreads) {
+        super(genomeAnalysisService, new SimpleVariantFilterRunner(), new SimpleGeneFilterRunner(), geneThreads);
+    }
+
     @Override
     protected Predicate<VariantEvaluation> isAssociatedWithKnownGene(Map<String, Gene> genes) {
         return variantEvaluation -> genes.containsKey(variantEvaluation.getGeneSymbol());
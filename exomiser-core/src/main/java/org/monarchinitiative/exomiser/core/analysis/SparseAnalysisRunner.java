@@ -20,6 +20,8 @@
 
 package org.monarchinitiative.exomiser.core.analysis;
 
+import htsjdk.variant.vcf.VCFHeader;
+import org.monarchinitiative.exomiser.core.analysis.util.SpilledVariantStore;
 import org.monarchinitiative.exomiser.core.filters.SimpleGeneFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.SparseVariantFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.VariantFilter;
@@ -29,6 +31,7 @@
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Predicate;
 
 /**
@@ -39,8 +42,23 @@
  */
 class SparseAnalysisRunner extends AbstractAnalysisRunner {
 
+    private final int maxFailedVariantsInMemory;
+
     SparseAnalysisRunner(GenomeAnalysisService genomeAnalysisService) {
-        super(genomeAnalysisService, new SparseVariantFilterRunner(), new SimpleGeneFilterRunner());
+        this(genomeAnalysisService, 0, 0);
+    }
+
+    SparseAnalysisRunner(GenomeAnalysisService genomeAnalysisService, int geneThreads) {
+        this(genomeAnalysisService, geneThreads, 0);
+    }
+
+    /**
+     * @param maxFailedVariantsInMemory number of failed variants to hold in memory before writing any further failed
+     *                                  variants to a temporary file. Values less than 1 will hold all variants in memory.
+     */
+    SparseAnalysisRunner(GenomeAnalysisService genomeAnalysisService, int geneThreads, int maxFailedVariantsInMemory) {
+        super(genomeAnalysisService, new SparseVariantFilterRunner(), new SimpleGeneFilterRunner(), geneThreads);
+        this.maxFailedVariantsInMemory = maxFailedVariantsInMemory;
     }
 
     @Override
@@ -60,6 +78,26 @@ protected Predicate<VariantEvaluation> runVariantFilters(List<VariantFilter> var
         };
     }
 
+    //variants which fail a filter are not run through any further filters so these can safely be moved out of memory
+    @Override
+    Optional<SpilledVariantStore> createSpilledVariantStore(VCFHeader vcfHeader) {
+        if (maxFailedVariantsInMemory > 0) {
+            return Optional.of(new SpilledVariantStore(vcfHeader, maxFailedVariantsInMemory));
+        }
+        //nothing is written to disk unless the analysis nears its memory limit
+        if (hasMemoryLimit()) {
+            return Optional.of(new SpilledVariantStore(vcfHeader, Integer.MAX_VALUE));
+        }
+        return Optional.empty();
+    }
+
+    //variants which failed a filter are not run through any further filters, so there is no need to read back any
+    //failed variants which were written to disk
+    @Override
+    protected List<VariantEvaluation> getVariantsToFilter(Gene gene) {
+        return gene.getPassedVariantEvaluations();
+    }
+
     @Override
     protected List<VariantEvaluation> getFinalVariantList(List<VariantEvaluation> variants) {
         return variants;
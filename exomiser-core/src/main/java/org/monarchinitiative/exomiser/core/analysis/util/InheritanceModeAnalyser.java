@@ -86,14 +86,78 @@ public List<List<VariantEvaluation>> findCompatibleCompHetAlleles(List<VariantEv
         if (passedVariantEvaluations.size() <= 1) {
             return Collections.emptyList();
         }
+        //The compatibility of a pair only depends on the genotypes of the two alleles in each sample, so rather than
+        //asking Jannovar about every pair of alleles, which is O(n^2) for genes such as TTN, the alleles are grouped by
+        //their genotypes and Jannovar is only asked about each pair of groups. The pairs are returned in the same order
+        //as testing each allele against all of those following it in the list.
+        int numVariants = passedVariantEvaluations.size();
+        Map<GenotypeSignature, Integer> signatureGroups = new HashMap<>();
+        List<List<Integer>> groupMembers = new ArrayList<>();
+        int[] variantGroups = new int[numVariants];
+        //alleles of a multi-allelic site share the same VariantContext instance
+        Map<VariantContext, List<Integer>> variantContextMembers = new IdentityHashMap<>();
+        for (int i = 0; i < numVariants; i++) {
+            VariantContext variantContext = passedVariantEvaluations.get(i).getVariantContext();
+            GenotypeSignature signature = GenotypeSignature.of(variantContext);
+            Integer group = signatureGroups.get(signature);
+            if (group == null) {
+                group = groupMembers.size();
+                signatureGroups.put(signature, group);
+                groupMembers.add(new ArrayList<>());
+            }
+            groupMembers.get(group).add(i);
+            variantGroups[i] = group;
+            variantContextMembers.computeIfAbsent(variantContext, key -> new ArrayList<>()).add(i);
+        }
 
+        Boolean[] groupPairCompatibility = new Boolean[groupMembers.size() * groupMembers.size()];
+        Boolean[] multiAllelicCompatibility = new Boolean[groupMembers.size()];
         List<List<VariantEvaluation>> compatibleAllelePairs = new ArrayList<>();
-        //don't do all vs all otherwise we'll get the reciprocal pairs being tested so only check one side of the diagonal
-        for (int i = 0; i < passedVariantEvaluations.size(); i++) {
-            for (int j = i + 1; j < passedVariantEvaluations.size(); j++) {
-                VariantEvaluation ve1 = passedVariantEvaluations.get(i);
+        List<Integer> partnerIndices = new ArrayList<>();
+        for (int i = 0; i < numVariants; i++) {
+            VariantEvaluation ve1 = passedVariantEvaluations.get(i);
+            VariantContext variantContext1 = ve1.getVariantContext();
+            int group1 = variantGroups[i];
+            partnerIndices.clear();
+            //only check one side of the diagonal otherwise we'll get the reciprocal pairs
+            for (int group2 = 0; group2 < groupMembers.size(); group2++) {
+                List<Integer> members = groupMembers.get(group2);
+                if (members.get(members.size() - 1) <= i) {
+                    continue;
+                }
+                int pairIndex = group1 * groupMembers.size() + group2;
+                int position = Collections.binarySearch(members, i);
+                int firstFollowingMember = position >= 0 ? position + 1 : -position - 1;
+                for (int j : members.subList(firstFollowingMember, members.size())) {
+                    VariantEvaluation ve2 = passedVariantEvaluations.get(j);
+                    //identical alleles are never reported as a pair so are not used to test the group
+                    if (ve2.getVariantContext() == variantContext1 || ve1.equals(ve2)) {
+                        continue;
+                    }
+                    if (groupPairCompatibility[pairIndex] == null) {
+                        groupPairCompatibility[pairIndex] = isCompHetCompatible(ve1, ve2);
+                    }
+                    if (!groupPairCompatibility[pairIndex]) {
+                        break;
+                    }
+                    partnerIndices.add(j);
+                }
+            }
+            for (int j : variantContextMembers.get(variantContext1)) {
+                if (j <= i) {
+                    continue;
+                }
+                if (multiAllelicCompatibility[group1] == null) {
+                    multiAllelicCompatibility[group1] = isCompHetCompatible(ve1, passedVariantEvaluations.get(j));
+                }
+                if (multiAllelicCompatibility[group1]) {
+                    partnerIndices.add(j);
+                }
+            }
+            Collections.sort(partnerIndices);
+            for (int j : partnerIndices) {
                 VariantEvaluation ve2 = passedVariantEvaluations.get(j);
-                if (!ve1.equals(ve2) && isCompHetCompatible(ve1, ve2)) {
+                if (!ve1.equals(ve2)) {
                     compatibleAllelePairs.add(ImmutableList.of(ve1, ve2));
                 }
             }
@@ -141,7 +205,7 @@ private void checkInheritanceCompatibilityOfPassedVariants(Gene gene) {
                     .getGeneSymbol(), passedVariantEvaluations.size());
         }
 
-        Multimap<String, VariantEvaluation> geneVariants = mapVariantEvaluationsToVariantContextString(passedVariantEvaluations);
+        Multimap<SiteKey, VariantEvaluation> geneVariants = mapVariantEvaluationsToSite(passedVariantEvaluations);
         List<VariantContext> compatibleVariants = getCompatibleVariantContexts(passedVariantEvaluations);
 
         if (!compatibleVariants.isEmpty()) {
@@ -151,10 +215,10 @@ private void checkInheritanceCompatibilityOfPassedVariants(Gene gene) {
         }
     }
 
-    private Multimap<String, VariantEvaluation> mapVariantEvaluationsToVariantContextString(List<VariantEvaluation> passedVariantEvaluations) {
-        Multimap<String, VariantEvaluation> geneVariants = ArrayListMultimap.create();
+    private Multimap<SiteKey, VariantEvaluation> mapVariantEvaluationsToSite(List<VariantEvaluation> passedVariantEvaluations) {
+        Multimap<SiteKey, VariantEvaluation> geneVariants = ArrayListMultimap.create();
         for (VariantEvaluation variantEvaluation : passedVariantEvaluations) {
-            geneVariants.put(toKeyValue(variantEvaluation.getVariantContext()), variantEvaluation);
+            geneVariants.put(SiteKey.of(variantEvaluation.getVariantContext()), variantEvaluation);
         }
         return geneVariants;
     }
@@ -162,7 +226,8 @@ private Multimap<String, VariantEvaluation> mapVariantEvaluationsToVariantContex
     /**
      * A {@link VariantContext} cannot be used directly as a key in a Map or put into a Set as it does not override equals or hashCode.
      * Also simply using toString isn't an option as the compatible variants returned from the {@link #inheritanceAnnotator}
-     * are different instances and have had their genotype strings changed. This method solves these problems.
+     * are different instances and have had their genotype strings changed. This is only used to tell apart different
+     * records at the same site as it is expensive to build.
      */
     private String toKeyValue(VariantContext variantContext) {
         return variantContext.toStringWithoutGenotypes();
@@ -186,17 +251,32 @@ private List<VariantContext> getCompatibleVariantContexts(List<VariantEvaluation
         return Collections.emptyList();
     }
 
-    private void setVariantEvaluationInheritanceModes(Multimap<String, VariantEvaluation> geneVariants, List<VariantContext> compatibleVariants) {
+    private void setVariantEvaluationInheritanceModes(Multimap<SiteKey, VariantEvaluation> geneVariants, List<VariantContext> compatibleVariants) {
         compatibleVariants.forEach(variantContext -> {
-            //using toStringWithoutGenotypes as the genotype string gets changed and VariantContext does not override equals or hashcode so this cannot be used as a key
-            Collection<VariantEvaluation> variants = geneVariants.get(toKeyValue(variantContext));
+            //the genotype string gets changed and VariantContext does not override equals or hashcode so this cannot be used as a key
+            Collection<VariantEvaluation> variants = geneVariants.get(SiteKey.of(variantContext));
+            boolean singleRecordAtSite = isFromSingleVariantContext(variants);
             variants.forEach(variant -> {
-                variant.setInheritanceModes(compatibleModes);
-                logger.debug("{}: {}", variant.getInheritanceModes(), variant);
+                if (singleRecordAtSite || toKeyValue(variant.getVariantContext()).equals(toKeyValue(variantContext))) {
+                    variant.setInheritanceModes(compatibleModes);
+                    logger.debug("{}: {}", variant.getInheritanceModes(), variant);
+                }
             });
         });
     }
 
+    private boolean isFromSingleVariantContext(Collection<VariantEvaluation> variants) {
+        VariantContext first = null;
+        for (VariantEvaluation variant : variants) {
+            if (first == null) {
+                first = variant.getVariantContext();
+            } else if (variant.getVariantContext() != first) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private Genotype getIndividualGenotype(Allele alternateAllele, List<Allele> alleles) {
         if (alleles.size() != 2) {
             return Genotype.NOT_OBSERVED;
@@ -218,4 +298,89 @@ private Genotype getIndividualGenotype(Allele alternateAllele, List<Allele> alle
         }
     }
 
+    /**
+     * The contig, position and alleles of a {@link VariantContext}.
+     */
+    private static final class SiteKey {
+
+        private final String contig;
+        private final int start;
+        private final int end;
+        private final List<Allele> alleles;
+
+        private SiteKey(String contig, int start, int end, List<Allele> alleles) {
+            this.contig = contig;
+            this.start = start;
+            this.end = end;
+            this.alleles = alleles;
+        }
+
+        private static SiteKey of(VariantContext variantContext) {
+            return new SiteKey(variantContext.getContig(), variantContext.getStart(), variantContext.getEnd(), variantContext.getAlleles());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SiteKey siteKey = (SiteKey) o;
+            return start == siteKey.start &&
+                    end == siteKey.end &&
+                    Objects.equals(contig, siteKey.contig) &&
+                    Objects.equals(alleles, siteKey.alleles);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(contig, start, end, alleles);
+        }
+    }
+
+    /**
+     * The contig and the called allele indices and phasing of each sample genotype of a {@link VariantContext}. This
+     * captures everything Jannovar uses to decide the compatibility of a pair of alleles with comp-het inheritance.
+     */
+    private static final class GenotypeSignature {
+
+        private static final int NO_CALL = -1;
+        private static final int PHASED = -2;
+
+        private final String contig;
+        private final int[] genotypes;
+        private final int hash;
+
+        private GenotypeSignature(String contig, int[] genotypes) {
+            this.contig = contig;
+            this.genotypes = genotypes;
+            this.hash = 31 * contig.hashCode() + Arrays.hashCode(genotypes);
+        }
+
+        private static GenotypeSignature of(VariantContext variantContext) {
+            List<Integer> values = new ArrayList<>();
+            for (htsjdk.variant.variantcontext.Genotype genotype : variantContext.getGenotypes()) {
+                values.add(genotype.isPhased() ? PHASED : genotype.getPloidy());
+                for (Allele allele : genotype.getAlleles()) {
+                    values.add(allele.isNoCall() ? NO_CALL : variantContext.getAlleleIndex(allele));
+                }
+            }
+            int[] genotypes = new int[values.size()];
+            for (int i = 0; i < genotypes.length; i++) {
+                genotypes[i] = values.get(i);
+            }
+            return new GenotypeSignature(variantContext.getContig(), genotypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            GenotypeSignature that = (GenotypeSignature) o;
+            return hash == that.hash && contig.equals(that.contig) && Arrays.equals(genotypes, that.genotypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
@@ -0,0 +1,477 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis.util;
+
+import com.google.common.io.CountingOutputStream;
+import htsjdk.variant.vcf.VCFHeader;
+import org.monarchinitiative.exomiser.core.genome.VariantEvaluationCodec;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Keeps the memory used by a SPARSE analysis of a large VCF in check by writing the variants which failed the initial
+ * variant filters to a temporary file once more than a given number of them have been loaded. The failed variants are
+ * kept in the order they were read from the VCF, i.e. genomic order, and are read back in, one gene at a time, when
+ * {@link Gene#getVariantEvaluations()} is called or when accessing the list returned by
+ * {@link #withSpilledVariants(List)}. Callers only wanting the passed variants should use
+ * {@link Gene#getPassedVariantEvaluations()}, which never reads the stored variants.
+ * <p>
+ * Only failed variants are written out as these are not touched by any of the later analysis steps. The temporary file
+ * is deleted when {@link #close()} is called. This is done by the analysis runner should the analysis fail, otherwise
+ * the store is owned by the {@link org.monarchinitiative.exomiser.core.analysis.AnalysisResults} and is closed along
+ * with them.
+ * <p>
+ * Every call to {@link Gene#getVariantEvaluations()} for a gene with spilled variants reads and decodes them from disk
+ * again, apart from repeated calls for the same gene, for which the last variants read are re-used. Callers needing to
+ * iterate over the variants of all the genes more than once should therefore keep hold of the list for each gene
+ * rather than calling this repeatedly.
+ * <p>
+ * Variants must be added from a single thread, reads are synchronised.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SpilledVariantStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpilledVariantStore.class);
+
+    private final VariantEvaluationCodec codec;
+    private volatile int maxFailedVariantsInMemory;
+
+    private int numFailedVariantsInMemory = 0;
+
+    private Path file;
+    private CountingOutputStream countingOutputStream;
+    private DataOutputStream out;
+    private boolean closed = false;
+
+    //file offsets and genomic positions of all the records in the order they were written and the indices of these for
+    //each gene.
+    private long[] offsets = new long[1024];
+    private long[] positions = new long[1024];
+    private int numSpilled = 0;
+    private final Map<String, IntArray> geneRecordIndices = new HashMap<>();
+
+    //readers which have the file open, these are closed along with the store
+    private final Set<SpilledRecordReader> openReaders = new HashSet<>();
+
+    //the variants most recently read for a single gene
+    private String lastReadGeneSymbol;
+    private List<VariantEvaluation> lastReadVariantEvaluations = Collections.emptyList();
+
+    /**
+     * @param vcfHeader                 header of the VCF file the variants are read from
+     * @param maxFailedVariantsInMemory number of failed variants to keep in memory before writing any further failed
+     *                                  variants to disk
+     */
+    public SpilledVariantStore(VCFHeader vcfHeader, int maxFailedVariantsInMemory) {
+        this.codec = new VariantEvaluationCodec(vcfHeader);
+        this.maxFailedVariantsInMemory = maxFailedVariantsInMemory;
+    }
+
+    /**
+     * Decides whether the variant should be held in memory. Failed variants over the in-memory limit are written to
+     * disk and registered with the {@link Gene} they belong to, so they should not then be added to the gene.
+     *
+     * @param variantEvaluation a variant which has been through the initial variant filters
+     * @param gene              the gene the variant is assigned to
+     * @return true if the variant should be held in memory, false if it has been written to disk.
+     */
+    public boolean retainInMemory(VariantEvaluation variantEvaluation, Gene gene) {
+        if (variantEvaluation.passedFilters()) {
+            return true;
+        }
+        if (numFailedVariantsInMemory < maxFailedVariantsInMemory) {
+            numFailedVariantsInMemory++;
+            return true;
+        }
+        spill(variantEvaluation, gene);
+        return false;
+    }
+
+    private synchronized void spill(VariantEvaluation variantEvaluation, Gene gene) {
+        if (closed) {
+            throw new IllegalStateException("Unable to write variant " + variantEvaluation + " - spilled variant store has been closed");
+        }
+        String geneSymbol = gene.getGeneSymbol();
+        //adding the variant to the gene first ensures the gene filter results are added to the variant before it is written
+        gene.addSpilledVariant(variantEvaluation, () -> readVariantEvaluations(geneSymbol));
+        try {
+            if (out == null) {
+                openFile();
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            codec.encode(variantEvaluation, new DataOutputStream(bytes));
+            int recordIndex = numSpilled;
+            addRecord(countingOutputStream.getCount(), positionKey(variantEvaluation));
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+            geneRecordIndices.computeIfAbsent(geneSymbol, key -> new IntArray()).add(recordIndex);
+            if (geneSymbol.equals(lastReadGeneSymbol)) {
+                clearLastRead();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write variant " + variantEvaluation + " to " + file, e);
+        }
+    }
+
+    private void openFile() throws IOException {
+        file = Files.createTempFile("exomiser-spilled-variants-", ".bin");
+        logger.info("More than {} variants failed filtering - writing further failed variants to {}", maxFailedVariantsInMemory, file);
+        countingOutputStream = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out = new DataOutputStream(countingOutputStream);
+    }
+
+    private void addRecord(long offset, long position) {
+        if (numSpilled == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            positions = Arrays.copyOf(positions, positions.length * 2);
+        }
+        offsets[numSpilled] = offset;
+        positions[numSpilled] = position;
+        numSpilled++;
+    }
+
+    //orders variants by chromosome then position
+    private static long positionKey(VariantEvaluation variantEvaluation) {
+        return ((long) variantEvaluation.getChromosome() << 32) | (variantEvaluation.getPosition() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Lowers the in-memory limit to the number of failed variants currently held, so that all further failed variants
+     * are written to disk. Used when an analysis is close to its memory limit.
+     */
+    public void spillFurtherFailedVariants() {
+        maxFailedVariantsInMemory = numFailedVariantsInMemory;
+    }
+
+    /**
+     * @return the approximate number of bytes of memory used by the index of the records written to disk.
+     */
+    public synchronized long indexSizeInBytes() {
+        long bytes = 32L + 16L * offsets.length;
+        for (IntArray recordIndices : geneRecordIndices.values()) {
+            // map entry, IntArray and its int[]
+            bytes += 32 + 24 + 16 + 4L * recordIndices.values.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the number of variants written to disk.
+     */
+    public synchronized int size() {
+        return numSpilled;
+    }
+
+    /**
+     * Reads the variants written to disk for the gene. The variants of the last gene read are kept so that repeated
+     * calls for the same gene return the same {@link VariantEvaluation} instances without decoding them again.
+     *
+     * @param geneSymbol symbol of the gene
+     * @return a new list of the variants written to disk for the gene, in the order they were added.
+     */
+    public synchronized List<VariantEvaluation> readVariantEvaluations(String geneSymbol) {
+        if (geneSymbol.equals(lastReadGeneSymbol)) {
+            return new ArrayList<>(lastReadVariantEvaluations);
+        }
+        IntArray recordIndices = geneRecordIndices.get(geneSymbol);
+        if (recordIndices == null) {
+            return new ArrayList<>();
+        }
+        List<VariantEvaluation> variantEvaluations = new ArrayList<>(recordIndices.size);
+        try (RandomAccessFile randomAccessFile = openForReading()) {
+            for (int i = 0; i < recordIndices.size; i++) {
+                variantEvaluations.add(readRecord(randomAccessFile, recordIndices.values[i]));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read variants for gene " + geneSymbol + " from " + file, e);
+        }
+        lastReadGeneSymbol = geneSymbol;
+        lastReadVariantEvaluations = variantEvaluations;
+        return new ArrayList<>(variantEvaluations);
+    }
+
+    private void clearLastRead() {
+        lastReadGeneSymbol = null;
+        lastReadVariantEvaluations = Collections.emptyList();
+    }
+
+    private RandomAccessFile openForReading() throws IOException {
+        checkNotClosed();
+        out.flush();
+        return new RandomAccessFile(file.toFile(), "r");
+    }
+
+    private void checkNotClosed() throws IOException {
+        if (closed) {
+            throw new IOException("Spilled variant store has been closed");
+        }
+    }
+
+    private VariantEvaluation readRecord(RandomAccessFile randomAccessFile, int recordIndex) throws IOException {
+        randomAccessFile.seek(offsets[recordIndex]);
+        byte[] record = new byte[randomAccessFile.readInt()];
+        randomAccessFile.readFully(record);
+        return codec.decode(new DataInputStream(new ByteArrayInputStream(record)));
+    }
+
+    /**
+     * Returns an unmodifiable view of the variants held in memory merged with those which were written to disk, ordered
+     * by chromosome and position. Variants at the same position are returned with the in-memory ones first. The spilled
+     * variants are read back from disk as they are accessed, sequentially through a single open file, so no more memory
+     * is used than when iterating over the in-memory variants alone. The list keeps the file open until the store is
+     * closed.
+     * <p>
+     * Repeated calls to {@code get} with the same index return the same instance, but a spilled variant is decoded
+     * again, as a new instance, once another spilled variant has been read. Iterators decode their own instances.
+     *
+     * @param inMemoryVariants the variants which were retained in memory, in the order they were read
+     * @return a list of all the variants
+     */
+    public List<VariantEvaluation> withSpilledVariants(List<VariantEvaluation> inMemoryVariants) {
+        if (size() == 0) {
+            return inMemoryVariants;
+        }
+        return new SpilledVariantList(inMemoryVariants);
+    }
+
+    /**
+     * Closes and deletes the temporary file. The spilled variants can no longer be read after this has been called.
+     * Calling this more than once has no further effect.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        clearLastRead();
+        for (SpilledRecordReader openReader : new ArrayList<>(openReaders)) {
+            openReader.close();
+        }
+        if (out != null) {
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * @return the temporary file the variants are written to, or an empty optional if none have been written.
+     */
+    public synchronized Optional<Path> getFile() {
+        return Optional.ofNullable(file);
+    }
+
+    /**
+     * Reads the records in the order they were written through a single open file, skipping forward over any records
+     * not needed. The file is only re-opened should an earlier record be needed.
+     */
+    private class SpilledRecordReader implements Closeable {
+
+        private DataInputStream in;
+        //index and file offset of the record which will be read next
+        private int nextRecordIndex = 0;
+        private long nextRecordOffset = 0;
+
+        private VariantEvaluation read(int recordIndex) throws IOException {
+            synchronized (SpilledVariantStore.this) {
+                if (in == null || recordIndex < nextRecordIndex) {
+                    open();
+                }
+                skipFully(offsets[recordIndex] - nextRecordOffset);
+                byte[] record = new byte[in.readInt()];
+                in.readFully(record);
+                nextRecordIndex = recordIndex + 1;
+                nextRecordOffset = offsets[recordIndex] + Integer.BYTES + record.length;
+                return codec.decode(new DataInputStream(new ByteArrayInputStream(record)));
+            }
+        }
+
+        private void open() throws IOException {
+            close();
+            checkNotClosed();
+            out.flush();
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+            nextRecordIndex = 0;
+            nextRecordOffset = 0;
+            openReaders.add(this);
+        }
+
+        private void skipFully(long numBytes) throws IOException {
+            long remaining = numBytes;
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    throw new EOFException("Unable to skip to record in " + file);
+                }
+                remaining -= skipped;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (SpilledVariantStore.this) {
+                openReaders.remove(this);
+                if (in != null) {
+                    DataInputStream input = in;
+                    in = null;
+                    input.close();
+                }
+            }
+        }
+    }
+
+    private class SpilledVariantList extends AbstractList<VariantEvaluation> {
+
+        private final List<VariantEvaluation> inMemoryVariants;
+        private final int numSpilledVariants;
+        //the index in this list of each of the spilled records, in the order they were written
+        private final int[] spilledVariantIndices;
+
+        private final SpilledRecordReader spilledRecordReader = new SpilledRecordReader();
+        private int lastReadRecordIndex = -1;
+        private VariantEvaluation lastReadVariant;
+
+        private SpilledVariantList(List<VariantEvaluation> inMemoryVariants) {
+            this.inMemoryVariants = inMemoryVariants;
+            synchronized (SpilledVariantStore.this) {
+                this.numSpilledVariants = numSpilled;
+                this.spilledVariantIndices = mergeSpilledVariantIndices(inMemoryVariants, numSpilled);
+            }
+        }
+
+        private int[] mergeSpilledVariantIndices(List<VariantEvaluation> inMemoryVariants, int numSpilledVariants) {
+            int[] indices = new int[numSpilledVariants];
+            Iterator<VariantEvaluation> inMemoryIterator = inMemoryVariants.iterator();
+            VariantEvaluation nextInMemory = inMemoryIterator.hasNext() ? inMemoryIterator.next() : null;
+            int numInMemoryBefore = 0;
+            for (int recordIndex = 0; recordIndex < numSpilledVariants; recordIndex++) {
+                while (nextInMemory != null && positionKey(nextInMemory) <= positions[recordIndex]) {
+                    numInMemoryBefore++;
+                    nextInMemory = inMemoryIterator.hasNext() ? inMemoryIterator.next() : null;
+                }
+                indices[recordIndex] = numInMemoryBefore + recordIndex;
+            }
+            return indices;
+        }
+
+        @Override
+        public VariantEvaluation get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            int recordIndex = Arrays.binarySearch(spilledVariantIndices, index);
+            if (recordIndex >= 0) {
+                return readSpilledVariant(recordIndex);
+            }
+            //not a spilled variant, so the insertion point is the number of spilled variants before it
+            int numSpilledBefore = -recordIndex - 1;
+            return inMemoryVariants.get(index - numSpilledBefore);
+        }
+
+        private VariantEvaluation readSpilledVariant(int recordIndex) {
+            synchronized (SpilledVariantStore.this) {
+                if (recordIndex != lastReadRecordIndex) {
+                    try {
+                        lastReadVariant = spilledRecordReader.read(recordIndex);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Unable to read variant from " + file, e);
+                    }
+                    lastReadRecordIndex = recordIndex;
+                }
+                return lastReadVariant;
+            }
+        }
+
+        @Override
+        public int size() {
+            return inMemoryVariants.size() + numSpilledVariants;
+        }
+
+        @Override
+        public Iterator<VariantEvaluation> iterator() {
+            return new Iterator<VariantEvaluation>() {
+
+                private final Iterator<VariantEvaluation> inMemoryIterator = inMemoryVariants.iterator();
+                private final SpilledRecordReader iteratorRecordReader = new SpilledRecordReader();
+                private int index = 0;
+                private int nextRecordIndex = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size();
+                }
+
+                @Override
+                public VariantEvaluation next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    VariantEvaluation next;
+                    if (nextRecordIndex < numSpilledVariants && spilledVariantIndices[nextRecordIndex] == index) {
+                        next = readNextSpilledVariant();
+                    } else {
+                        next = inMemoryIterator.next();
+                    }
+                    index++;
+                    return next;
+                }
+
+                private VariantEvaluation readNextSpilledVariant() {
+                    try {
+                        VariantEvaluation variantEvaluation = iteratorRecordReader.read(nextRecordIndex++);
+                        if (nextRecordIndex == numSpilledVariants) {
+                            iteratorRecordReader.close();
+                        }
+                        return variantEvaluation;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Unable to read variant from " + file, e);
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Minimal growable int array - avoids boxing an Integer for each of the potentially millions of spilled variants.
+     */
+    private static class IntArray {
+        private int[] values = new int[8];
+        private int size = 0;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -22,15 +22,22 @@
 
 import org.monarchinitiative.exomiser.core.genome.VariantDataService;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
 
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * Decorator implementation to provide variant frequency data to to the variant
- * just before it is needed by the decorated VariantFilter.
+ * just before it is needed by the decorated VariantFilter. Variants which already have frequencies from sources other
+ * than those requested, such as those read from a
+ * {@link org.monarchinitiative.exomiser.core.genome.SnapshotVariantFactory} snapshot, keep only the requested sources.
  *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
@@ -48,14 +55,37 @@ public FrequencyDataProvider(VariantDataService variantDataService, Set<Frequenc
         }
     }
 
+    /**
+     * @return the sources of the data provided to the variants
+     */
+    public Set<FrequencySource> getFrequencySources() {
+        return Collections.unmodifiableSet(frequencySources);
+    }
+
     @Override
     public void provideVariantData(VariantEvaluation variantEvaluation) {
         //check there are no frequencies first - this may be genuine, or possibly the variant hasn't yet had the data added
         //this will cut down on trips to the database if multiple filters require frequency data.
-        if (variantEvaluation.getFrequencyData().getKnownFrequencies().isEmpty()) {
+        FrequencyData currentFrequencyData = variantEvaluation.getFrequencyData();
+        List<Frequency> knownFrequencies = currentFrequencyData.getKnownFrequencies();
+        if (knownFrequencies.isEmpty()) {
             FrequencyData frequencyData = variantDataService.getVariantFrequencyData(variantEvaluation, frequencySources);
             variantEvaluation.setFrequencyData(frequencyData);
+        } else if (!allFromRequestedSources(knownFrequencies)) {
+            List<Frequency> requestedFrequencies = knownFrequencies.stream()
+                    .filter(frequency -> frequencySources.contains(frequency.getSource()))
+                    .collect(toList());
+            variantEvaluation.setFrequencyData(FrequencyData.of(currentFrequencyData.getRsId(), requestedFrequencies));
+        }
+    }
+
+    private boolean allFromRequestedSources(List<Frequency> frequencies) {
+        for (Frequency frequency : frequencies) {
+            if (!frequencySources.contains(frequency.getSource())) {
+                return false;
+            }
         }
+        return true;
     }
 
 }
@@ -67,7 +67,8 @@ public FilterResult runFilter(Gene gene) {
     }
 
     private FilterResult addFilterResultToVariants(FilterResult filterResult, Gene gene) {
-        for (VariantEvaluation variant : gene.getVariantEvaluations()) {
+        //failed variants stored outside of memory keep the results they were stored with
+        for (VariantEvaluation variant : gene.getInMemoryVariantEvaluations()) {
             if (variant.isCompatibleWith(modeOfInheritance)) {
                 variant.addFilterResult(PASS);
             } else {
@@ -28,11 +28,16 @@
 import org.monarchinitiative.exomiser.core.genome.VariantDataService;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityScore;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
 
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
@@ -51,12 +56,39 @@ public PathogenicityDataProvider(VariantDataService variantDataService, Set<Path
         }
     }
 
+    /**
+     * @return the sources of the data provided to the variants
+     */
+    public Set<PathogenicitySource> getPathogenicitySources() {
+        return Collections.unmodifiableSet(pathogenicitySources);
+    }
+
     @Override
     public void provideVariantData(VariantEvaluation variantEvaluation) {
-        if (variantEvaluation.getPathogenicityData().isEmpty()) {
+        PathogenicityData currentPathData = variantEvaluation.getPathogenicityData();
+        if (currentPathData.isEmpty()) {
             PathogenicityData pathData = variantDataService.getVariantPathogenicityData(variantEvaluation, pathogenicitySources);
             variantEvaluation.setPathogenicityData(pathData);
+            return;
+        }
+        //variants read from a snapshot hold the scores from all the available sources, so only the requested ones are kept
+        List<PathogenicityScore> pathogenicityScores = currentPathData.getPredictedPathogenicityScores();
+        if (!allFromRequestedSources(pathogenicityScores)) {
+            List<PathogenicityScore> requestedScores = pathogenicityScores.stream()
+                    .filter(pathogenicityScore -> pathogenicitySources.contains(pathogenicityScore.getSource()))
+                    .collect(toList());
+            variantEvaluation.setPathogenicityData(requestedScores.isEmpty() ? PathogenicityData.empty() : PathogenicityData
+                    .of(requestedScores));
+        }
+    }
+
+    private boolean allFromRequestedSources(List<PathogenicityScore> pathogenicityScores) {
+        for (PathogenicityScore pathogenicityScore : pathogenicityScores) {
+            if (!pathogenicitySources.contains(pathogenicityScore.getSource())) {
+                return false;
+            }
         }
+        return true;
     }
 
 }
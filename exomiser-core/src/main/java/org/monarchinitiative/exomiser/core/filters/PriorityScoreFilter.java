@@ -88,7 +88,8 @@ public FilterResult runFilter(Gene gene) {
     }
 
     private FilterResult addFilterResultToVariants(FilterResult filterResult, Gene gene) {
-        for (VariantEvaluation variant : gene.getVariantEvaluations()) {
+        //failed variants stored outside of memory keep the results they were stored with
+        for (VariantEvaluation variant : gene.getInMemoryVariantEvaluations()) {
             variant.addFilterResult(filterResult);
         }
         return filterResult;
@@ -25,6 +25,7 @@
  */
 package org.monarchinitiative.exomiser.core.filters;
 
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,8 +71,10 @@ private void runAllFiltersOverGene(List<GeneFilter> filters, Gene gene) {
     }
 
     private FilterResult runFilterAndAddResult(Filter filter, Gene gene) {
+        long start = System.nanoTime();
         FilterResult filterResult = filter.runFilter(gene);
         if (filterResult.wasRun()) {
+            ExomiserMetrics.recordFilter(filterResult.getFilterType(), filterResult.passed(), System.nanoTime() - start);
             gene.addFilterResult(filterResult);
         }
         return filterResult;
@@ -25,6 +25,7 @@
  */
 package org.monarchinitiative.exomiser.core.filters;
 
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
 import org.monarchinitiative.exomiser.core.model.Filterable;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.slf4j.Logger;
@@ -81,7 +82,11 @@ public FilterResult run(Filter filter, VariantEvaluation variantEvaluation) {
     }
 
     protected FilterResult runFilterAndAddResult(Filter filter, Filterable filterable) {
+        long start = System.nanoTime();
         FilterResult filterResult = filter.runFilter(filterable);
+        if (filterResult.wasRun()) {
+            ExomiserMetrics.recordFilter(filterResult.getFilterType(), filterResult.passed(), System.nanoTime() - start);
+        }
         filterable.addFilterResult(filterResult);
         return filterResult;
     }
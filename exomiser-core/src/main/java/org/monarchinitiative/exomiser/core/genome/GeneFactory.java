@@ -25,6 +25,7 @@
  */
 package org.monarchinitiative.exomiser.core.genome;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
 import de.charite.compbio.jannovar.data.JannovarData;
 import de.charite.compbio.jannovar.reference.TranscriptModel;
@@ -35,6 +36,7 @@
 
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.util.stream.Collectors.toList;
 
@@ -50,10 +52,12 @@ public class GeneFactory {
 
     private final JannovarData jannovarData;
 
-    private Set<GeneIdentifier> geneIdentifiers;
+    // created once on first use, even when first requested by several concurrent analyses
+    private final Supplier<Set<GeneIdentifier>> geneIdentifiers;
 
     public GeneFactory(JannovarData jannovarData) {
         this.jannovarData = jannovarData;
+        this.geneIdentifiers = Suppliers.memoize(this::createKnownGeneIds);
     }
 
     /**
@@ -74,7 +78,7 @@ public List<Gene> createKnownGenes() {
      * @return an immutable set of {@link GeneIdentifier} objects.
      */
     public Set<GeneIdentifier> getGeneIdentifiers() {
-        return geneIdentifiers == null ? createKnownGeneIds() : geneIdentifiers;
+        return geneIdentifiers.get();
     }
 
     private Set<GeneIdentifier> createKnownGeneIds() {
@@ -101,8 +105,7 @@ private Set<GeneIdentifier> createKnownGeneIds() {
         }
         int geneIds = identifiers - noEntrezId;
         logger.info("Created {} gene identifiers ({} genes, {} without EntrezId)", identifiers, geneIds, noEntrezId);
-        geneIdentifiers = geneIdentifierBuilder.build();
-        return geneIdentifiers;
+        return geneIdentifierBuilder.build();
     }
 
     private Function<TranscriptModel, GeneIdentifier> toGeneIdentifier() {
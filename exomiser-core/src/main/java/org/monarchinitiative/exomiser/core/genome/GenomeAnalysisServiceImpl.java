@@ -27,6 +27,7 @@
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -84,6 +85,11 @@ public PathogenicityData getVariantPathogenicityData(Variant variant, Set<Pathog
         return variantDataService.getVariantPathogenicityData(variant, pathogenicitySources);
     }
 
+    @Override
+    public Stream<VariantEvaluation> createVariantEvaluations(Path vcfPath) {
+        return variantFactory.createVariantEvaluations(vcfPath);
+    }
+
     @Override
     public Stream<VariantEvaluation> createVariantEvaluations(Stream<VariantContext> variantContextStream) {
         return variantFactory.createVariantEvaluations(variantContextStream);
@@ -0,0 +1,297 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import com.google.common.hash.Hashing;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeader;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link VariantFactory} which keeps a binary snapshot of the annotated variants produced for each VCF file so that
+ * re-analysing the same file, for instance with a different set of phenotypes or filters, does not need to re-annotate
+ * every variant with Jannovar. Snapshots are keyed on the SHA-256 checksum of the VCF file and stored under a
+ * directory named for the data release, which should change whenever the transcript or variant data does.
+ * <p>
+ * When given a {@link VariantDataService}, the frequency and pathogenicity data for the supplied sources are also
+ * looked up for every variant as it is annotated and stored in the snapshot, so that re-analysing the file does not
+ * need to query the data sources either. These should be all the sources available, as the snapshot holds this
+ * superset of the data. The analysis runners remove the data from any sources not requested by an analysis as the
+ * variants are loaded, so that the results are the same as those of an analysis run without a snapshot. The sources
+ * are part of the snapshot key, so changing them will create a new snapshot. Note that this
+ * means data is looked up for all the variants when the snapshot is first written, rather than only those reaching the
+ * filters which need it.
+ * <p>
+ * A snapshot is only written once the variant stream has been completely consumed, so a failed or truncated analysis
+ * will not leave a partial snapshot behind.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SnapshotVariantFactory implements VariantFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotVariantFactory.class);
+
+    private static final int MAGIC_NUMBER = 0x45585653;
+    // increment this whenever the VariantEvaluationCodec format changes
+    private static final int FORMAT_VERSION = 2;
+    private static final String SNAPSHOT_FILE_EXTENSION = ".snapshot";
+
+    private final VariantFactory variantFactory;
+    private final Path snapshotDirectory;
+    private final String dataRelease;
+
+    private final VariantDataService variantDataService;
+    private final Set<FrequencySource> frequencySources;
+    private final Set<PathogenicitySource> pathogenicitySources;
+    // identifies the data sources held in the snapshot
+    private final String dataSources;
+
+    /**
+     * Creates a factory which only snapshots the annotated variants, without any frequency or pathogenicity data.
+     *
+     * @param variantFactory    the factory used to annotate variants not found in a snapshot
+     * @param snapshotDirectory root directory for the snapshot files
+     * @param dataRelease       identifier for the data the variants are annotated against e.g. 1711_hg19_ucsc
+     */
+    public SnapshotVariantFactory(VariantFactory variantFactory, Path snapshotDirectory, String dataRelease) {
+        this(variantFactory, snapshotDirectory, dataRelease, null, EnumSet.noneOf(FrequencySource.class), EnumSet.noneOf(PathogenicitySource.class));
+    }
+
+    /**
+     * @param variantFactory       the factory used to annotate variants not found in a snapshot
+     * @param snapshotDirectory    root directory for the snapshot files
+     * @param dataRelease          identifier for the data the variants are annotated against e.g. 1711_hg19_ucsc
+     * @param variantDataService   the service used to look up the frequency and pathogenicity data of the variants
+     * @param frequencySources     the frequency sources to store in the snapshot
+     * @param pathogenicitySources the pathogenicity sources to store in the snapshot
+     */
+    public SnapshotVariantFactory(VariantFactory variantFactory, Path snapshotDirectory, String dataRelease, VariantDataService variantDataService, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+        this.variantFactory = variantFactory;
+        this.snapshotDirectory = snapshotDirectory;
+        this.dataRelease = dataRelease;
+        this.frequencySources = frequencySources.isEmpty() ? EnumSet.noneOf(FrequencySource.class) : EnumSet.copyOf(frequencySources);
+        this.pathogenicitySources = pathogenicitySources.isEmpty() ? EnumSet.noneOf(PathogenicitySource.class) : EnumSet
+                .copyOf(pathogenicitySources);
+        if (variantDataService == null && !(this.frequencySources.isEmpty() && this.pathogenicitySources.isEmpty())) {
+            throw new IllegalArgumentException("A VariantDataService is required to snapshot frequency or pathogenicity data");
+        }
+        this.variantDataService = variantDataService;
+        this.dataSources = this.frequencySources + ";" + this.pathogenicitySources;
+    }
+
+    @Override
+    public Stream<VariantEvaluation> createVariantEvaluations(Path vcfPath) {
+        Path snapshotPath;
+        try {
+            snapshotPath = snapshotPath(vcfPath);
+        } catch (IOException e) {
+            logger.warn("Unable to checksum VCF file {} - variants will not be snapshot", vcfPath, e);
+            return variantFactory.createVariantEvaluations(vcfPath);
+        }
+        VCFHeader vcfHeader = VcfFiles.readVcfHeader(vcfPath);
+        if (Files.exists(snapshotPath)) {
+            try {
+                return readSnapshot(snapshotPath, vcfHeader);
+            } catch (IOException e) {
+                logger.warn("Unable to read snapshot {} - re-annotating variants", snapshotPath, e);
+            }
+        }
+        return writeSnapshot(variantFactory.createVariantEvaluations(vcfPath), snapshotPath, vcfHeader);
+    }
+
+    /**
+     * There is no file to identify the variants by, so these are always passed through to the wrapped factory.
+     */
+    @Override
+    public Stream<VariantEvaluation> createVariantEvaluations(Stream<VariantContext> variantContextStream) {
+        return variantFactory.createVariantEvaluations(variantContextStream);
+    }
+
+    Path snapshotPath(Path vcfPath) throws IOException {
+        String checksum = com.google.common.io.Files.asByteSource(vcfPath.toFile()).hash(Hashing.sha256()).toString();
+        String dataSourcesChecksum = Hashing.murmur3_32().hashString(dataSources, StandardCharsets.UTF_8).toString();
+        return snapshotDirectory.resolve(dataRelease).resolve(checksum + "_" + dataSourcesChecksum + SNAPSHOT_FILE_EXTENSION);
+    }
+
+    private void addVariantData(VariantEvaluation variantEvaluation) {
+        if (!frequencySources.isEmpty()) {
+            variantEvaluation.setFrequencyData(variantDataService.getVariantFrequencyData(variantEvaluation, frequencySources));
+        }
+        if (!pathogenicitySources.isEmpty()) {
+            variantEvaluation.setPathogenicityData(variantDataService.getVariantPathogenicityData(variantEvaluation, pathogenicitySources));
+        }
+    }
+
+    private Stream<VariantEvaluation> readSnapshot(Path snapshotPath, VCFHeader vcfHeader) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)));
+        try {
+            if (in.readInt() != MAGIC_NUMBER || in.readInt() != FORMAT_VERSION || !dataRelease.equals(in.readUTF()) || !dataSources
+                    .equals(in.readUTF())) {
+                throw new IOException("Incompatible snapshot format");
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        logger.info("Reading annotated variants from snapshot {}", snapshotPath);
+        VariantEvaluationCodec codec = new VariantEvaluationCodec(vcfHeader);
+        Spliterator<VariantEvaluation> spliterator = new Spliterators.AbstractSpliterator<VariantEvaluation>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super VariantEvaluation> action) {
+                try {
+                    if (!in.readBoolean()) {
+                        return false;
+                    }
+                    action.accept(codec.decode(in));
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to read variant from snapshot " + snapshotPath, e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> closeQuietly(in));
+    }
+
+    private Stream<VariantEvaluation> writeSnapshot(Stream<VariantEvaluation> variantEvaluations, Path snapshotPath, VCFHeader vcfHeader) {
+        SnapshotWriter snapshotWriter = new SnapshotWriter(snapshotPath, vcfHeader);
+        Spliterator<VariantEvaluation> source = variantEvaluations.spliterator();
+        Spliterator<VariantEvaluation> spliterator = new Spliterators.AbstractSpliterator<VariantEvaluation>(Long.MAX_VALUE, source
+                .characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED)) {
+            @Override
+            public boolean tryAdvance(Consumer<? super VariantEvaluation> action) {
+                // variants are written before they are passed on as the analysis will add scores and filter results to them
+                boolean advanced = source.tryAdvance(variantEvaluation -> {
+                    addVariantData(variantEvaluation);
+                    snapshotWriter.write(variantEvaluation);
+                    action.accept(variantEvaluation);
+                });
+                if (!advanced) {
+                    snapshotWriter.complete();
+                }
+                return advanced;
+            }
+        };
+        return StreamSupport.stream(spliterator, false)
+                .onClose(variantEvaluations::close)
+                .onClose(snapshotWriter::close);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("Error closing snapshot file", e);
+        }
+    }
+
+    /**
+     * Writes the variants to a temporary file next to the snapshot, which is only moved into place once all the
+     * variants have been written. Any failure to write simply abandons the snapshot rather than failing the analysis.
+     */
+    private class SnapshotWriter {
+
+        private final Path snapshotPath;
+        private final VariantEvaluationCodec codec;
+
+        private Path tempFile;
+        private DataOutputStream out;
+        private int count = 0;
+
+        private SnapshotWriter(Path snapshotPath, VCFHeader vcfHeader) {
+            this.snapshotPath = snapshotPath;
+            this.codec = new VariantEvaluationCodec(vcfHeader);
+            try {
+                Files.createDirectories(snapshotPath.getParent());
+                tempFile = Files.createTempFile(snapshotPath.getParent(), "exomiser-", ".tmp");
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)));
+                out.writeInt(MAGIC_NUMBER);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(dataRelease);
+                out.writeUTF(dataSources);
+            } catch (IOException e) {
+                abandon(e);
+            }
+        }
+
+        private void write(VariantEvaluation variantEvaluation) {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.writeBoolean(true);
+                codec.encode(variantEvaluation, out);
+                count++;
+            } catch (IOException e) {
+                abandon(e);
+            }
+        }
+
+        private void complete() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.writeBoolean(false);
+                out.close();
+                out = null;
+                Files.move(tempFile, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                tempFile = null;
+                logger.info("Wrote {} annotated variants to snapshot {}", count, snapshotPath);
+            } catch (IOException e) {
+                abandon(e);
+            }
+        }
+
+        private void abandon(IOException e) {
+            logger.warn("Unable to write variant snapshot {}", snapshotPath, e);
+            close();
+        }
+
+        private void close() {
+            if (out != null) {
+                closeQuietly(out);
+                out = null;
+            }
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    logger.debug("Unable to delete {}", tempFile, e);
+                }
+                tempFile = null;
+            }
+        }
+    }
+}
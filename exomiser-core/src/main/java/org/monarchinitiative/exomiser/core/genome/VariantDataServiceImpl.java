@@ -26,6 +26,8 @@
 import org.monarchinitiative.exomiser.core.genome.dao.FrequencyDao;
 import org.monarchinitiative.exomiser.core.genome.dao.PathogenicityDao;
 import org.monarchinitiative.exomiser.core.genome.dao.RemmDao;
+import org.monarchinitiative.exomiser.core.metrics.DataAccessRecorder;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
 import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
@@ -59,6 +61,12 @@ public class VariantDataServiceImpl implements VariantDataService {
     private CaddDao caddDao;
     private RemmDao remmDao;
 
+    private final DataAccessRecorder defaultFrequencyRecorder = ExomiserMetrics.dataAccessRecorder("frequency", "mvstore");
+    private final DataAccessRecorder localFrequencyRecorder = ExomiserMetrics.dataAccessRecorder("local-frequency", "tabix");
+    private final DataAccessRecorder pathogenicityRecorder = ExomiserMetrics.dataAccessRecorder("pathogenicity", "mvstore");
+    private final DataAccessRecorder caddRecorder = ExomiserMetrics.dataAccessRecorder("cadd", "tabix");
+    private final DataAccessRecorder remmRecorder = ExomiserMetrics.dataAccessRecorder("remm", "tabix");
+
     private VariantDataServiceImpl(Builder builder) {
         this.defaultFrequencyDao = builder.defaultFrequencyDao;
         this.localFrequencyDao = builder.localFrequencyDao;
@@ -71,11 +79,11 @@ private VariantDataServiceImpl(Builder builder) {
     @Override
     public FrequencyData getVariantFrequencyData(Variant variant, Set<FrequencySource> frequencySources) {
         List<Frequency> allFrequencies = new ArrayList<>();
-        FrequencyData allFrequencyData = defaultFrequencyDao.getFrequencyData(variant);
+        FrequencyData allFrequencyData = defaultFrequencyRecorder.record(() -> defaultFrequencyDao.getFrequencyData(variant), FrequencyData::isRepresentedInDatabase);
         allFrequencies.addAll(allFrequencyData.getKnownFrequencies());
 
         if (frequencySources.contains(FrequencySource.LOCAL)) {
-            FrequencyData localFrequencyData = localFrequencyDao.getFrequencyData(variant);
+            FrequencyData localFrequencyData = localFrequencyRecorder.record(() -> localFrequencyDao.getFrequencyData(variant), FrequencyData::hasKnownFrequency);
             allFrequencies.addAll(localFrequencyData.getKnownFrequencies());
         }
 
@@ -103,18 +111,18 @@ public PathogenicityData getVariantPathogenicityData(Variant variant, Set<Pathog
         final VariantEffect variantEffect = variant.getVariantEffect();
         //Polyphen, Mutation Taster and SIFT are all trained on missense variants - this is what is contained in the original variant table, but we shouldn't know that.
         if (variantEffect == VariantEffect.MISSENSE_VARIANT) {
-            PathogenicityData missenseScores = pathogenicityDao.getPathogenicityData(variant);
+            PathogenicityData missenseScores = pathogenicityRecorder.record(() -> pathogenicityDao.getPathogenicityData(variant), PathogenicityData::hasPredictedScore);
             allPathScores.addAll(missenseScores.getPredictedPathogenicityScores());
         }
         else if (pathogenicitySources.contains(PathogenicitySource.REMM) && variant.isNonCodingVariant()) {
             //REMM is trained on non-coding regulatory bits of the genome, this outperforms CADD for non-coding variants
-            PathogenicityData nonCodingScore = remmDao.getPathogenicityData(variant);
+            PathogenicityData nonCodingScore = remmRecorder.record(() -> remmDao.getPathogenicityData(variant), PathogenicityData::hasPredictedScore);
             allPathScores.addAll(nonCodingScore.getPredictedPathogenicityScores());
         }
         
         //CADD does all of it although is not as good as REMM for the non-coding regions.
         if (pathogenicitySources.contains(PathogenicitySource.CADD)) {
-            PathogenicityData caddScore = caddDao.getPathogenicityData(variant);
+            PathogenicityData caddScore = caddRecorder.record(() -> caddDao.getPathogenicityData(variant), PathogenicityData::hasPredictedScore);
             allPathScores.addAll(caddScore.getPredictedPathogenicityScores());
         }
 
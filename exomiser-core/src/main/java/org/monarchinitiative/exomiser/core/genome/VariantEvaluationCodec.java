@@ -0,0 +1,247 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFEncoder;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderVersion;
+import org.monarchinitiative.exomiser.core.filters.FilterResult;
+import org.monarchinitiative.exomiser.core.filters.FilterType;
+import org.monarchinitiative.exomiser.core.model.TranscriptAnnotation;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes a {@link VariantEvaluation} to, and reads it back from, a compact binary record. The {@link VariantContext} is
+ * stored as its VCF line so the codec needs the {@link VCFHeader} of the file the variants were read from. Instances
+ * are not thread-safe.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantEvaluationCodec {
+
+    private final VCFEncoder vcfEncoder;
+    private final VCFCodec vcfCodec;
+
+    public VariantEvaluationCodec(VCFHeader vcfHeader) {
+        this.vcfEncoder = new VCFEncoder(vcfHeader, true, false);
+        this.vcfCodec = new VCFCodec();
+        this.vcfCodec.setVCFHeader(vcfHeader, VCFHeaderVersion.VCF4_2);
+    }
+
+    public void encode(VariantEvaluation variantEvaluation, DataOutput out) throws IOException {
+        writeString(out, vcfEncoder.encode(variantEvaluation.getVariantContext()));
+        out.writeInt(variantEvaluation.getAltAlleleId());
+        writeString(out, variantEvaluation.getGenomeAssembly().name());
+        out.writeInt(variantEvaluation.getChromosome());
+        writeString(out, variantEvaluation.getChromosomeName());
+        out.writeInt(variantEvaluation.getPosition());
+        writeString(out, variantEvaluation.getRef());
+        writeString(out, variantEvaluation.getAlt());
+        out.writeInt(variantEvaluation.getNumberOfIndividuals());
+        out.writeDouble(variantEvaluation.getPhredScore());
+        writeString(out, variantEvaluation.getVariantEffect().name());
+        writeString(out, variantEvaluation.getGeneSymbol());
+        writeString(out, variantEvaluation.getGeneId());
+
+        List<TranscriptAnnotation> annotations = variantEvaluation.getTranscriptAnnotations();
+        out.writeInt(annotations.size());
+        for (TranscriptAnnotation annotation : annotations) {
+            writeString(out, annotation.getVariantEffect() == null ? null : annotation.getVariantEffect().name());
+            writeString(out, annotation.getGeneSymbol());
+            writeString(out, annotation.getAccession());
+            writeString(out, annotation.getHgvsGenomic());
+            writeString(out, annotation.getHgvsCdna());
+            writeString(out, annotation.getHgvsProtein());
+            out.writeInt(annotation.getDistanceFromNearestGene());
+        }
+
+        writeEnumNames(out, variantEvaluation.getPassedFilterTypes());
+        writeEnumNames(out, variantEvaluation.getFailedFilterTypes());
+
+        FrequencyData frequencyData = variantEvaluation.getFrequencyData();
+        out.writeInt(frequencyData.getRsId().getId());
+        List<Frequency> frequencies = frequencyData.getKnownFrequencies();
+        out.writeInt(frequencies.size());
+        for (Frequency frequency : frequencies) {
+            writeString(out, frequency.getSource().name());
+            out.writeFloat(frequency.getFrequency());
+        }
+
+        List<PathogenicityScore> pathogenicityScores = variantEvaluation.getPathogenicityData().getPredictedPathogenicityScores();
+        out.writeInt(pathogenicityScores.size());
+        for (PathogenicityScore pathogenicityScore : pathogenicityScores) {
+            writeString(out, pathogenicityScore.getSource().name());
+            out.writeFloat(pathogenicityScore.getScore());
+        }
+
+        out.writeBoolean(variantEvaluation.contributesToGeneScore());
+        writeEnumNames(out, variantEvaluation.getInheritanceModes());
+    }
+
+    public VariantEvaluation decode(DataInput in) throws IOException {
+        VariantContext variantContext = vcfCodec.decode(readString(in));
+        int altAlleleId = in.readInt();
+        GenomeAssembly genomeAssembly = GenomeAssembly.valueOf(readString(in));
+        int chr = in.readInt();
+        String chromosomeName = readString(in);
+        int pos = in.readInt();
+        String ref = readString(in);
+        String alt = readString(in);
+        int numIndividuals = in.readInt();
+        double phredScore = in.readDouble();
+        VariantEffect variantEffect = VariantEffect.valueOf(readString(in));
+        String geneSymbol = readString(in);
+        String geneId = readString(in);
+
+        int numAnnotations = in.readInt();
+        List<TranscriptAnnotation> annotations = new ArrayList<>(numAnnotations);
+        for (int i = 0; i < numAnnotations; i++) {
+            String annotationEffect = readString(in);
+            annotations.add(TranscriptAnnotation.builder()
+                    .variantEffect(annotationEffect == null ? null : VariantEffect.valueOf(annotationEffect))
+                    .geneSymbol(readString(in))
+                    .accession(readString(in))
+                    .hgvsGenomic(readString(in))
+                    .hgvsCdna(readString(in))
+                    .hgvsProtein(readString(in))
+                    .distanceFromNearestGene(in.readInt())
+                    .build());
+        }
+
+        List<FilterResult> filterResults = new ArrayList<>();
+        for (String passed : readEnumNames(in)) {
+            filterResults.add(FilterResult.pass(FilterType.valueOf(passed)));
+        }
+        for (String failed : readEnumNames(in)) {
+            filterResults.add(FilterResult.fail(FilterType.valueOf(failed)));
+        }
+
+        RsId rsId = RsId.valueOf(in.readInt());
+        int numFrequencies = in.readInt();
+        List<Frequency> frequencies = new ArrayList<>(numFrequencies);
+        for (int i = 0; i < numFrequencies; i++) {
+            FrequencySource source = FrequencySource.valueOf(readString(in));
+            frequencies.add(Frequency.valueOf(in.readFloat(), source));
+        }
+
+        int numPathogenicityScores = in.readInt();
+        List<PathogenicityScore> pathogenicityScores = new ArrayList<>(numPathogenicityScores);
+        for (int i = 0; i < numPathogenicityScores; i++) {
+            PathogenicitySource source = PathogenicitySource.valueOf(readString(in));
+            pathogenicityScores.add(toPathogenicityScore(source, in.readFloat()));
+        }
+
+        VariantEvaluation variantEvaluation = VariantEvaluation.builder(chr, pos, ref, alt)
+                .genomeAssembly(genomeAssembly)
+                .chromosomeName(chromosomeName)
+                .variantContext(variantContext)
+                .altAlleleId(altAlleleId)
+                .numIndividuals(numIndividuals)
+                .quality(phredScore)
+                .variantEffect(variantEffect)
+                .annotations(annotations)
+                .geneSymbol(geneSymbol)
+                .geneId(geneId)
+                .filterResults(filterResults)
+                .frequencyData(FrequencyData.of(rsId, frequencies))
+                .pathogenicityData(PathogenicityData.of(pathogenicityScores))
+                .build();
+
+        if (in.readBoolean()) {
+            variantEvaluation.setAsContributingToGeneScore();
+        }
+        Set<ModeOfInheritance> inheritanceModes = EnumSet.noneOf(ModeOfInheritance.class);
+        for (String mode : readEnumNames(in)) {
+            inheritanceModes.add(ModeOfInheritance.valueOf(mode));
+        }
+        variantEvaluation.setInheritanceModes(inheritanceModes);
+        return variantEvaluation;
+    }
+
+    private static PathogenicityScore toPathogenicityScore(PathogenicitySource source, float score) {
+        switch (source) {
+            case POLYPHEN:
+                return PolyPhenScore.valueOf(score);
+            case MUTATION_TASTER:
+                return MutationTasterScore.valueOf(score);
+            case SIFT:
+                return SiftScore.valueOf(score);
+            case CADD:
+                return CaddScore.valueOf(score);
+            case REMM:
+                return RemmScore.valueOf(score);
+            default:
+                throw new IllegalArgumentException("Unable to create pathogenicity score for source " + source);
+        }
+    }
+
+    private static void writeEnumNames(DataOutput out, Collection<? extends Enum<?>> values) throws IOException {
+        out.writeInt(values.size());
+        for (Enum<?> value : values) {
+            writeString(out, value.name());
+        }
+    }
+
+    private static List<String> readEnumNames(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<String> names = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            names.add(readString(in));
+        }
+        return names;
+    }
+
+    //DataOutput.writeUTF is limited to 64KB which VCF lines with many samples can easily exceed
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -22,9 +22,19 @@
 
 import htsjdk.tribble.readers.TabixReader;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Wrapper for an HTSJDK TabixReader.
  *
+ * The TabixReader shares a single file pointer between all the iterators it creates, so it cannot be queried by more
+ * than one thread at a time. In order for concurrent analyses to be able to share the same data source, queries are
+ * synchronised and the results are read in full before being returned. The regions queried by the DAOs are a single
+ * position or a small region, so this will only be a small number of lines.
+ *
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
  */
 public class TabixReaderAdaptor implements TabixDataSource {
@@ -36,17 +46,31 @@ public TabixReaderAdaptor(TabixReader tabixReader) {
     }
 
     @Override
-    public TabixReader.Iterator query(String query) {
-        return tabixReader.query(query);
+    public synchronized TabixReader.Iterator query(String query) {
+        return readAll(tabixReader.query(query));
     }
 
     @Override
-    public TabixReader.Iterator query(String chromosome, int start, int end) {
-        return tabixReader.query(chromosome, start, end);
+    public synchronized TabixReader.Iterator query(String chromosome, int start, int end) {
+        return readAll(tabixReader.query(chromosome, start, end));
+    }
+
+    private TabixReader.Iterator readAll(TabixReader.Iterator results) {
+        List<String> lines = new ArrayList<>();
+        try {
+            String line;
+            while ((line = results.next()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException e) {
+            // this is handed back to the caller to deal with when it reaches the line which could not be read
+            return new BufferedIterator(lines, e);
+        }
+        return new BufferedIterator(lines, null);
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
         tabixReader.close();
     }
 
@@ -54,4 +78,29 @@ public void close() {
     public String getSource() {
         return tabixReader.getSource();
     }
+
+    /**
+     * Iterator over lines which have already been read from the file, so is safe to use from any thread.
+     */
+    private static class BufferedIterator implements TabixReader.Iterator {
+
+        private final java.util.Iterator<String> lines;
+        private final IOException readException;
+
+        private BufferedIterator(List<String> lines, IOException readException) {
+            this.lines = lines.isEmpty() ? Collections.emptyIterator() : lines.iterator();
+            this.readException = readException;
+        }
+
+        @Override
+        public String next() throws IOException {
+            if (lines.hasNext()) {
+                return lines.next();
+            }
+            if (readException != null) {
+                throw readException;
+            }
+            return null;
+        }
+    }
 }
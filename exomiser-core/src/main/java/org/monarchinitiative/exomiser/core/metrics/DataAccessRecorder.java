@@ -0,0 +1,60 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.metrics;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Records calls to a data source both as a Micrometer {@link ExomiserMetrics#DATA_ACCESS} timer and, while a Flight
+ * Recorder recording is running, as a data lookup event noting whether the call found anything. Callers on a hot path
+ * should keep hold of the recorder rather than creating one for each call.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public final class DataAccessRecorder {
+
+    private final String data;
+    private final String storage;
+    private final Timer timer;
+
+    DataAccessRecorder(String data, String storage) {
+        this.data = data;
+        this.storage = storage;
+        this.timer = ExomiserMetrics.dataAccessTimer(data, storage);
+    }
+
+    /**
+     * @param lookup the call to the data source
+     * @param isHit  whether the result of the call contains any data
+     * @return the result of the lookup
+     */
+    public <T> T record(Supplier<T> lookup, Predicate<? super T> isHit) {
+        ExomiserEvents.Span span = ExomiserEvents.dataLookupStarted(data, storage);
+        T result = timer.record(lookup);
+        if (span.isRecording()) {
+            ExomiserEvents.dataLookupFinished(span, isHit.test(result));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event for a single call to a data source. There are several of these for every variant in a sample,
+ * so by default only the lookups taking longer than a millisecond are recorded. The threshold can be lowered in a
+ * custom .jfc settings file to record all of them.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@Name(DataLookupEvent.NAME)
+@Label("Data Lookup")
+@Category({"Exomiser", "Data Access"})
+@Description("A call to a frequency, pathogenicity or disease data source")
+@Threshold("1 ms")
+@StackTrace(false)
+class DataLookupEvent extends jdk.jfr.Event {
+
+    static final String NAME = "org.monarchinitiative.exomiser.DataLookup";
+
+    @Label("Sample")
+    String sample;
+
+    @Label("Assembly")
+    String assembly;
+
+    @Label("Data")
+    @Description("What was looked up e.g. frequency or cadd")
+    String data;
+
+    @Label("Storage")
+    @Description("Where the data is stored e.g. mvstore, tabix or h2")
+    String storage;
+
+    @Label("Hit")
+    @Description("Whether the data source contained any data for the query")
+    boolean hit;
+}
@@ -0,0 +1,258 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * Custom JDK Flight Recorder events marking out the stages of an analysis, so that the standard JFR CPU, allocation
+ * and GC events can be lined up against what the analysis was doing at the time. The events are:
+ * <ul>
+ * <li>{@value AnalysisEvent#NAME} - a complete analysis</li>
+ * <li>{@value AnalysisStepEvent#NAME} - each step of an analysis</li>
+ * <li>{@value VariantChunkEvent#NAME} - each chunk of variants read from the VCF file</li>
+ * <li>{@value DataLookupEvent#NAME} - calls to the variant and disease data sources, and whether these found any data</li>
+ * <li>{@value ResultsWriteEvent#NAME} - writing the results in each output format</li>
+ * </ul>
+ * Each of these carries the proband sample name and genome assembly of the analysis together with the relevant counts.
+ * They are only recorded while a Flight Recorder recording is running, e.g. when started with
+ * {@code -XX:StartFlightRecording}, otherwise the cost is a single check per event.
+ * <p>
+ * Flight Recorder is present in Java 8 from 8u262 and all later versions, so this is the minimum JDK required to build
+ * the project. At runtime, when it is not available this class does nothing and the jdk.jfr classes are never loaded.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public final class ExomiserEvents {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExomiserEvents.class);
+
+    private static final boolean AVAILABLE = isFlightRecorderPresent();
+
+    // the sample and assembly of the analysis being run on the current thread, used to label the data lookup events
+    private static final ThreadLocal<AnalysisContext> CONTEXT = new ThreadLocal<>();
+
+    private ExomiserEvents() {
+        //uninstantiable utility class
+    }
+
+    private static boolean isFlightRecorderPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, ExomiserEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.debug("JDK Flight Recorder is not available - Exomiser events will not be recorded");
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the JVM supports Flight Recorder events. This does not mean that a recording is running.
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * An event which has been started and is waiting to be finished. Should the event not be enabled in any running
+     * recording this will be {@link #NONE}, and finishing it does nothing.
+     */
+    public static final class Span {
+
+        private static final Span NONE = new Span(null);
+
+        private final Object event;
+
+        private Span(Object event) {
+            this.event = event;
+        }
+
+        private static Span of(Object event) {
+            return event == null ? NONE : new Span(event);
+        }
+
+        public boolean isRecording() {
+            return event != null;
+        }
+    }
+
+    private static final class AnalysisContext {
+
+        private static final AnalysisContext NONE = new AnalysisContext("", "");
+
+        private final String sample;
+        private final String assembly;
+
+        private AnalysisContext(String sample, String assembly) {
+            this.sample = sample;
+            this.assembly = assembly;
+        }
+    }
+
+    /**
+     * Starts an analysis event and sets the sample and assembly used to label the events from the current thread until
+     * {@link #analysisFinished(Span, String, int, int)} is called. This must be called, however the analysis finishes.
+     */
+    public static Span analysisStarted(String sample, String assembly, String mode, String vcf) {
+        if (!AVAILABLE) {
+            return Span.NONE;
+        }
+        CONTEXT.set(new AnalysisContext(sample, assembly));
+        return Span.of(JfrEvents.analysisStarted(sample, assembly, mode, vcf));
+    }
+
+    /**
+     * Updates the sample name for the events from the current thread. The proband sample name is often not known until
+     * the VCF header has been read.
+     */
+    public static void setAnalysisSample(String sample) {
+        if (!AVAILABLE) {
+            return;
+        }
+        CONTEXT.set(new AnalysisContext(sample, currentContext().assembly));
+    }
+
+    /**
+     * @param span     the span returned by {@link #analysisStarted(String, String, String, String)}
+     * @param outcome  one of completed, cancelled or failed
+     * @param genes    number of genes in the results
+     * @param variants number of variants in the results
+     */
+    public static void analysisFinished(Span span, String outcome, int genes, int variants) {
+        if (!AVAILABLE) {
+            return;
+        }
+        String sample = currentContext().sample;
+        CONTEXT.remove();
+        if (span.isRecording()) {
+            JfrEvents.analysisFinished(span.event, sample, outcome, genes, variants);
+        }
+    }
+
+    /**
+     * @param stepType the type of step e.g. {@link ExomiserMetrics#STEP_VARIANT_FILTER}
+     * @param step     the filter or priority type of the step
+     */
+    public static Span stepStarted(String stepType, String step) {
+        if (!AVAILABLE) {
+            return Span.NONE;
+        }
+        AnalysisContext context = currentContext();
+        return Span.of(JfrEvents.stepStarted(context.sample, context.assembly, stepType, step));
+    }
+
+    /**
+     * @param items number of genes or variants the step was run over
+     */
+    public static void stepFinished(Span span, int items) {
+        if (span.isRecording()) {
+            JfrEvents.stepFinished(span.event, items);
+        }
+    }
+
+    /**
+     * @param firstVariant one-based index of the first variant of the chunk in the VCF file
+     */
+    public static Span variantChunkStarted(long firstVariant) {
+        if (!AVAILABLE) {
+            return Span.NONE;
+        }
+        AnalysisContext context = currentContext();
+        return Span.of(JfrEvents.variantChunkStarted(context.sample, context.assembly, firstVariant));
+    }
+
+    /**
+     * @param variants number of variants read in the chunk
+     * @param passed   number of variants in the chunk which passed the variant filters
+     */
+    public static void variantChunkFinished(Span span, int variants, int passed) {
+        if (span.isRecording()) {
+            JfrEvents.variantChunkFinished(span.event, variants, passed);
+        }
+    }
+
+    static Span dataLookupStarted(String data, String storage) {
+        if (!AVAILABLE) {
+            return Span.NONE;
+        }
+        AnalysisContext context = currentContext();
+        return Span.of(JfrEvents.dataLookupStarted(context.sample, context.assembly, data, storage));
+    }
+
+    static void dataLookupFinished(Span span, boolean hit) {
+        if (span.isRecording()) {
+            JfrEvents.dataLookupFinished(span.event, hit);
+        }
+    }
+
+    /**
+     * Results are written after the analysis has finished, so the sample and assembly are given here.
+     *
+     * @param format the output format being written
+     */
+    public static Span resultsWriteStarted(String sample, String assembly, String format) {
+        if (!AVAILABLE) {
+            return Span.NONE;
+        }
+        return Span.of(JfrEvents.resultsWriteStarted(sample, assembly, format));
+    }
+
+    public static void resultsWriteFinished(Span span, int genes, int variants) {
+        if (span.isRecording()) {
+            JfrEvents.resultsWriteFinished(span.event, genes, variants);
+        }
+    }
+
+    /**
+     * Wraps an action which will be run on other threads so that the events it produces are labelled with the sample
+     * and assembly of the analysis running on the current thread.
+     */
+    public static <T> Consumer<T> withCurrentContext(Consumer<T> action) {
+        if (!AVAILABLE) {
+            return action;
+        }
+        AnalysisContext context = CONTEXT.get();
+        if (context == null) {
+            return action;
+        }
+        return item -> {
+            AnalysisContext previous = CONTEXT.get();
+            CONTEXT.set(context);
+            try {
+                action.accept(item);
+            } finally {
+                if (previous == null) {
+                    CONTEXT.remove();
+                } else {
+                    CONTEXT.set(previous);
+                }
+            }
+        };
+    }
+
+    private static AnalysisContext currentContext() {
+        AnalysisContext context = CONTEXT.get();
+        return context == null ? AnalysisContext.NONE : context;
+    }
+}
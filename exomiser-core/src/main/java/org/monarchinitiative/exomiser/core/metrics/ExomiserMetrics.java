@@ -0,0 +1,161 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.monarchinitiative.exomiser.core.filters.FilterType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Names and shared meters for the Micrometer metrics recorded by an analysis. Everything is recorded against the
+ * {@link Metrics#globalRegistry}, which does nothing until an application adds a registry to it. The web and REST
+ * applications do this through the Spring Boot actuator, the CLI adds a simple registry and logs a summary.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public final class ExomiserMetrics {
+
+    /**
+     * Timer for a complete analysis, tagged with the analysis mode.
+     */
+    public static final String ANALYSIS = "exomiser.analysis";
+    /**
+     * Gauge of the number of analyses currently running.
+     */
+    public static final String ANALYSES_ACTIVE = "exomiser.analysis.active";
+    /**
+     * Timer for each analysis step, tagged with the step type and its filter or priority type.
+     */
+    public static final String ANALYSIS_STEP = "exomiser.analysis.step";
+    public static final String VARIANTS_LOADED = "exomiser.variants.loaded";
+    public static final String VARIANTS_PASSED = "exomiser.variants.passed";
+    /**
+     * Timer for each run of a filter over a single variant or gene, tagged with the filter type and whether it passed.
+     */
+    public static final String FILTER = "exomiser.filter";
+    /**
+     * Timer for each call to a data source, tagged with the name of the data and where it is stored.
+     */
+    public static final String DATA_ACCESS = "exomiser.data.access";
+    /**
+     * Timer for writing the results of an analysis, tagged with the output format.
+     */
+    public static final String RESULTS_WRITE = "exomiser.results.write";
+
+    public static final String STEP_VARIANT_LOAD = "variant-load";
+    public static final String STEP_VARIANT_FILTER = "variant-filter";
+    public static final String STEP_GENE_FILTER = "gene-filter";
+    public static final String STEP_INHERITANCE_MODE = "inheritance-mode";
+    public static final String STEP_PRIORITISER = "prioritiser";
+    public static final String STEP_GENE_SCORING = "gene-scoring";
+
+    private static final AtomicInteger ACTIVE_ANALYSES = Metrics.gauge(ANALYSES_ACTIVE, new AtomicInteger());
+
+    // filters are run for every variant in a sample, so the timers are looked up once rather than for each variant
+    private static final Map<FilterType, Timer> PASSED_FILTER_TIMERS = filterTimers("pass");
+    private static final Map<FilterType, Timer> FAILED_FILTER_TIMERS = filterTimers("fail");
+
+    private ExomiserMetrics() {
+        //uninstantiable utility class
+    }
+
+    private static Map<FilterType, Timer> filterTimers(String result) {
+        Map<FilterType, Timer> timers = new EnumMap<>(FilterType.class);
+        for (FilterType filterType : FilterType.values()) {
+            timers.put(filterType, Metrics.timer(FILTER, "filter", filterType.name(), "result", result));
+        }
+        return timers;
+    }
+
+    /**
+     * Starts timing an analysis and includes it in the count of active analyses. The returned sample must be passed to
+     * {@link #analysisFinished(Timer.Sample, String, String)} once the analysis has finished, however it finished.
+     */
+    public static Timer.Sample analysisStarted() {
+        ACTIVE_ANALYSES.incrementAndGet();
+        return Timer.start(Metrics.globalRegistry);
+    }
+
+    /**
+     * @param sample  the sample returned by {@link #analysisStarted()}
+     * @param mode    the analysis mode
+     * @param outcome one of completed, cancelled or failed
+     */
+    public static void analysisFinished(Timer.Sample sample, String mode, String outcome) {
+        ACTIVE_ANALYSES.decrementAndGet();
+        sample.stop(Metrics.timer(ANALYSIS, "mode", mode, "outcome", outcome));
+    }
+
+    /**
+     * Records the time taken to run a filter.
+     *
+     * @param filterType  the type of filter run
+     * @param passed      whether the filterable passed the filter
+     * @param nanoseconds time taken to run the filter
+     */
+    public static void recordFilter(FilterType filterType, boolean passed, long nanoseconds) {
+        Timer timer = passed ? PASSED_FILTER_TIMERS.get(filterType) : FAILED_FILTER_TIMERS.get(filterType);
+        timer.record(nanoseconds, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param type the type of step e.g. {@link #STEP_VARIANT_FILTER}
+     * @param name the filter or priority type of the step
+     * @return a timer for the step
+     */
+    public static Timer stepTimer(String type, String name) {
+        return Metrics.timer(ANALYSIS_STEP, "type", type, "step", name);
+    }
+
+    public static void recordVariantsLoaded(int loaded, int passed) {
+        Metrics.counter(VARIANTS_LOADED).increment(loaded);
+        Metrics.counter(VARIANTS_PASSED).increment(passed);
+    }
+
+    /**
+     * Returns a timer for calls made to a data source. Callers on a hot path should keep hold of the timer rather than
+     * looking it up for each call.
+     *
+     * @param data    what is being looked up e.g. frequency or cadd
+     * @param storage where the data is stored e.g. mvstore, tabix or h2
+     * @return a timer for the data source
+     */
+    public static Timer dataAccessTimer(String data, String storage) {
+        return Metrics.timer(DATA_ACCESS, "data", data, "storage", storage);
+    }
+
+    /**
+     * Returns a recorder for calls made to a data source which records the {@link #DATA_ACCESS} timer together with a
+     * Flight Recorder event noting whether each call found any data.
+     *
+     * @param data    what is being looked up e.g. frequency or cadd
+     * @param storage where the data is stored e.g. mvstore, tabix or h2
+     * @return a recorder for the data source
+     */
+    public static DataAccessRecorder dataAccessRecorder(String data, String storage) {
+        return new DataAccessRecorder(data, storage);
+    }
+}
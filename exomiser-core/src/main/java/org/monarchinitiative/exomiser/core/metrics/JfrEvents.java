@@ -0,0 +1,149 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.metrics;
+
+/**
+ * The only class, apart from the events themselves, to touch the jdk.jfr API. This is only loaded by
+ * {@link ExomiserEvents} once it has checked that the API is present, so that a JVM without Flight Recorder can still
+ * run an analysis. Events are only created when a recording has enabled them, otherwise null is returned so that the
+ * cost to an analysis is a single check.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+        //uninstantiable utility class
+    }
+
+    static Object analysisStarted(String sample, String assembly, String mode, String vcf) {
+        AnalysisEvent event = new AnalysisEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.sample = sample;
+        event.assembly = assembly;
+        event.mode = mode;
+        event.vcf = vcf;
+        event.begin();
+        return event;
+    }
+
+    static void analysisFinished(Object started, String sample, String outcome, int genes, int variants) {
+        AnalysisEvent event = (AnalysisEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.sample = sample;
+            event.outcome = outcome;
+            event.genes = genes;
+            event.variants = variants;
+            event.commit();
+        }
+    }
+
+    static Object stepStarted(String sample, String assembly, String stepType, String step) {
+        AnalysisStepEvent event = new AnalysisStepEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.sample = sample;
+        event.assembly = assembly;
+        event.stepType = stepType;
+        event.step = step;
+        event.begin();
+        return event;
+    }
+
+    static void stepFinished(Object started, int items) {
+        AnalysisStepEvent event = (AnalysisStepEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.items = items;
+            event.commit();
+        }
+    }
+
+    static Object variantChunkStarted(String sample, String assembly, long firstVariant) {
+        VariantChunkEvent event = new VariantChunkEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.sample = sample;
+        event.assembly = assembly;
+        event.firstVariant = firstVariant;
+        event.begin();
+        return event;
+    }
+
+    static void variantChunkFinished(Object started, int variants, int passed) {
+        VariantChunkEvent event = (VariantChunkEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.variants = variants;
+            event.passed = passed;
+            event.commit();
+        }
+    }
+
+    static Object dataLookupStarted(String sample, String assembly, String data, String storage) {
+        DataLookupEvent event = new DataLookupEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.sample = sample;
+        event.assembly = assembly;
+        event.data = data;
+        event.storage = storage;
+        event.begin();
+        return event;
+    }
+
+    static void dataLookupFinished(Object started, boolean hit) {
+        DataLookupEvent event = (DataLookupEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+    static Object resultsWriteStarted(String sample, String assembly, String format) {
+        ResultsWriteEvent event = new ResultsWriteEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.sample = sample;
+        event.assembly = assembly;
+        event.format = format;
+        event.begin();
+        return event;
+    }
+
+    static void resultsWriteFinished(Object started, int genes, int variants) {
+        ResultsWriteEvent event = (ResultsWriteEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.genes = genes;
+            event.variants = variants;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event spanning the reading, annotation and filtering of a contiguous chunk of variants from a VCF
+ * file.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@Name(VariantChunkEvent.NAME)
+@Label("VCF Variant Chunk")
+@Category("Exomiser")
+@Description("A chunk of variants read from the VCF file, annotated and run through the initial variant filters")
+@StackTrace(false)
+class VariantChunkEvent extends jdk.jfr.Event {
+
+    static final String NAME = "org.monarchinitiative.exomiser.VariantChunk";
+
+    @Label("Sample")
+    String sample;
+
+    @Label("Assembly")
+    String assembly;
+
+    @Label("First Variant")
+    @Description("One-based index of the first variant of the chunk in the VCF file")
+    long firstVariant;
+
+    @Label("Variants")
+    int variants;
+
+    @Label("Passed Variants")
+    @Description("Number of variants in the chunk which passed the variant filters")
+    int passed;
+}
@@ -31,6 +31,7 @@
 
 import java.util.*;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import static java.util.stream.Collectors.toList;
 
@@ -61,6 +62,11 @@
  * {@link Prioritiser Prioritiser}.
  * Recently, the ability to downweight genes with too many variants (now
  * hardcoded to 5) was added).
+ * <p>
+ * This class is not thread-safe. The gene-level analysis steps may run on
+ * several threads, but each gene, along with its variants, is only ever
+ * handed to one thread at a time and is complete once the step returns.
+ * Code processing a gene in a step must not read or modify any other gene.
  *
  * @author Peter Robinson
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
@@ -74,6 +80,13 @@ public class Gene implements Comparable<Gene>, Filterable, Inheritable {
      */
     private final List<VariantEvaluation> variantEvaluations = new ArrayList<>();
 
+    /**
+     * Failed variants which have been written out of memory and the means to read them back in again.
+     */
+    private int numSpilledVariants = 0;
+    private Supplier<List<VariantEvaluation>> spilledVariantsReader = Collections::emptyList;
+    private Set<FilterType> spilledVariantsPassedFilterTypes = Collections.emptySet();
+
     private final Set<FilterType> failedFilterTypes = new LinkedHashSet<>();
     private final Set<FilterType> passedFilterTypes = new LinkedHashSet<>();
     private final Map<FilterType, FilterResult> filterResults = new EnumMap<>(FilterType.class);
@@ -166,7 +179,7 @@ public int getEntrezGeneID() {
      * @return the number of {@link Variant} associated with this gene.
      */
     public int getNumberOfVariants() {
-        return variantEvaluations.size();
+        return variantEvaluations.size() + numSpilledVariants;
     }
 
     /**
@@ -206,7 +219,7 @@ public int getNumberOfVariants() {
 //    }
 
     public boolean hasVariants() {
-        return !variantEvaluations.isEmpty();
+        return !variantEvaluations.isEmpty() || numSpilledVariants > 0;
     }
 
     /**
@@ -220,6 +233,24 @@ public final void addVariant(VariantEvaluation var) {
         variantEvaluations.add(var);
     }
 
+    /**
+     * Registers a variant which failed filtering and which is being held outside of memory rather than in this gene.
+     * The variant has the gene filter results added to it in the same way as {@link #addVariant(VariantEvaluation)} so
+     * this should be called before the variant is stored.
+     *
+     * @param var                   a failed variant affecting the current gene.
+     * @param spilledVariantsReader reads all of the stored variants for this gene back into memory.
+     */
+    public final void addSpilledVariant(VariantEvaluation var, Supplier<List<VariantEvaluation>> spilledVariantsReader) {
+        addGeneFilterResultsToVariant(var);
+        if (spilledVariantsPassedFilterTypes.isEmpty()) {
+            spilledVariantsPassedFilterTypes = EnumSet.noneOf(FilterType.class);
+        }
+        spilledVariantsPassedFilterTypes.addAll(var.getPassedFilterTypes());
+        this.spilledVariantsReader = spilledVariantsReader;
+        numSpilledVariants++;
+    }
+
     private void addGeneFilterResultsToVariant(VariantEvaluation var) {
         filterResults.values().stream()
                 .filter(isNotInheritanceFilterResult())
@@ -231,12 +262,36 @@ private Predicate<FilterResult> isNotInheritanceFilterResult() {
     }
     
     /**
-     * @return A list of all variants in the VCF file that affect this gene.
+     * @return A list of all variants in the VCF file that affect this gene. Where failed variants have been stored
+     * outside of memory these are read back in and a new list of all the variants in genomic order is returned. This
+     * means that each call will read the stored variants from disk unless this was the last gene read, so callers
+     * which need the variants more than once should keep the list rather than calling this again.
      */
     public List<VariantEvaluation> getVariantEvaluations() {
+        if (numSpilledVariants == 0) {
+            return variantEvaluations;
+        }
+        List<VariantEvaluation> allVariantEvaluations = new ArrayList<>(variantEvaluations.size() + numSpilledVariants);
+        allVariantEvaluations.addAll(variantEvaluations);
+        allVariantEvaluations.addAll(spilledVariantsReader.get());
+        Collections.sort(allVariantEvaluations);
+        return allVariantEvaluations;
+    }
+
+    /**
+     * @return the variants affecting this gene which are held in memory. Unlike {@link #getVariantEvaluations()} this
+     * never reads back any failed variants which have been stored outside of memory. Where no variants have been stored
+     * this is all the variants.
+     */
+    @JsonIgnore
+    public List<VariantEvaluation> getInMemoryVariantEvaluations() {
         return variantEvaluations;
     }
 
+    /**
+     * @return a new list of the variants affecting this gene which passed filtering. Variants stored outside of memory
+     * have all failed filtering, so unlike {@link #getVariantEvaluations()} this never reads them back in.
+     */
     @JsonIgnore
     public List<VariantEvaluation> getPassedVariantEvaluations() {
         return variantEvaluations.stream().filter(VariantEvaluation::passedFilters).collect(toList());
@@ -294,22 +349,29 @@ public boolean isConsistentWithX() {
      */
     @JsonIgnore
     public boolean isXChromosomal() {
-        if (variantEvaluations.isEmpty()) {
+        if (!hasVariants()) {
             return false;
         }
-        Variant ve = variantEvaluations.get(0);
+        Variant ve = getFirstVariant();
         return ve.getChromosome() == 23;
     }
 
     @JsonIgnore
     public boolean isYChromosomal() {
-        if (variantEvaluations.isEmpty()) {
+        if (!hasVariants()) {
             return false;
         }
-        Variant ve = variantEvaluations.get(0);
+        Variant ve = getFirstVariant();
         return ve.getChromosome() == 24;
     }
 
+    private Variant getFirstVariant() {
+        if (variantEvaluations.isEmpty()) {
+            return spilledVariantsReader.get().get(0);
+        }
+        return variantEvaluations.get(0);
+    }
+
     /**
      * @param priorityResult Result of a prioritization algorithm
      */
@@ -317,6 +379,15 @@ public void addPriorityResult(PriorityResult priorityResult) {
         priorityResultsMap.put(priorityResult.getPriorityType(), priorityResult);
     }
 
+    /**
+     * Removes the results of any prioritisers already run over the gene and resets its priority score so that it can
+     * be prioritised again, for instance with a different set of phenotypes.
+     */
+    public void clearPriorityResults() {
+        priorityResultsMap.clear();
+        priorityScore = 0f;
+    }
+
     /**
      * @param type {@code PriorityType} representing the priority type
      * @return The result applied by that {@code Priority}.
@@ -396,9 +467,10 @@ public boolean passedFilters() {
     }
 
     private boolean isUnfiltered() {
-        return failedFilterTypes.isEmpty() && variantEvaluations.isEmpty();
+        return failedFilterTypes.isEmpty() && !hasVariants();
     }
 
+    //stored variants have all failed filtering so only the variants in memory need checking here
     private boolean atLeastOneVariantPassedFilters() {
         for (VariantEvaluation variantEvaluation : variantEvaluations) {
             if (variantEvaluation.passedFilters()) {
@@ -422,7 +494,23 @@ private boolean atLeastOneVariantPassedFilter(FilterType filterType) {
                 return true;
             }
         }
-        return false;
+        return spilledVariantsPassedFilterTypes.contains(filterType);
+    }
+
+    /**
+     * @return a copy of the set of {@code FilterType} which the {@code Gene} itself passed.
+     */
+    @JsonIgnore
+    public Set<FilterType> getPassedFilterTypes() {
+        return new LinkedHashSet<>(passedFilterTypes);
+    }
+
+    /**
+     * @return a copy of the set of {@code FilterType} which the {@code Gene} itself failed to pass.
+     */
+    @JsonIgnore
+    public Set<FilterType> getFailedFilterTypes() {
+        return new LinkedHashSet<>(failedFilterTypes);
     }
 
     private FilterStatus getFilterStatus() {
@@ -451,6 +539,33 @@ private boolean addFailedFilterResult(FilterResult filterResult) {
         return false;
     }
 
+    /**
+     * Removes any result of the given {@code FilterType} from the gene and from the variants held in memory so that the
+     * filter can be run again. Variants held outside of memory have already failed a variant filter so keep their
+     * stored results.
+     *
+     * @param filterType the type of filter whose result is to be removed
+     */
+    public void removeFilterResult(FilterType filterType) {
+        filterResults.remove(filterType);
+        passedFilterTypes.remove(filterType);
+        failedFilterTypes.remove(filterType);
+        spilledVariantsPassedFilterTypes.remove(filterType);
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            variantEvaluation.removeFilterResult(filterType);
+        }
+    }
+
+    /**
+     * Marks the variants held in memory as no longer contributing to the gene score so that the gene can be scored
+     * again. Variants held outside of memory have failed filtering so never contribute to the score.
+     */
+    public void clearVariantsContributingToGeneScore() {
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            variantEvaluation.setAsNotContributingToGeneScore();
+        }
+    }
+
     @Override
     public int hashCode() {
         int hash = 3;
@@ -500,7 +615,7 @@ public int compareTo(Gene other) {
 
     @Override
     public String toString() {
-        return String.format("%s entrezId=%d compatibleWith=%s variantScore=%.3f priorityScore=%.3f combinedScore=%.3f variants=%d filterStatus=%s failedFilters=%s passedFilters=%s", geneSymbol, entrezGeneId, inheritanceModes, variantScore, priorityScore, combinedScore, variantEvaluations.size(), getFilterStatus(), failedFilterTypes, passedFilterTypes);
+        return String.format("%s entrezId=%d compatibleWith=%s variantScore=%.3f priorityScore=%.3f combinedScore=%.3f variants=%d filterStatus=%s failedFilters=%s passedFilters=%s", geneSymbol, entrezGeneId, inheritanceModes, variantScore, priorityScore, combinedScore, getNumberOfVariants(), getFilterStatus(), failedFilterTypes, passedFilterTypes);
     }
 
 }
@@ -35,11 +35,16 @@
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is a wrapper for the {@code Variant} class from the jannovar
  * hierarchy, and additionally includes all of the information on pathogenicity
  * and frequency that is added to each variant by the Exomizer program.
+ * <p>
+ * This class is not thread-safe. A variant belongs to a single {@link Gene}
+ * and is only modified by the thread processing that gene in an analysis
+ * step - see {@link Gene}.
  *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  * @author Peter Robinson <peter.robinson@charite.de>
@@ -51,6 +56,14 @@ public class VariantEvaluation implements Comparable<VariantEvaluation>, Filtera
     //threshold over which a variant effect score is considered pathogenic
     private static final float DEFAULT_PATHOGENICITY_THRESHOLD = 0.5f;
 
+    //unmodifiable sets of FilterType for each bit mask, shared between all variants with the same filter results
+    private static final Map<Integer, Set<FilterType>> FILTER_TYPE_SETS = new ConcurrentHashMap<>();
+
+    static {
+        checkFitsInBitMask(FilterType.class);
+        checkFitsInBitMask(ModeOfInheritance.class);
+    }
+
     // HTSJDK {@link VariantContext} instance of this allele
     @JsonIgnore
     private final VariantContext variantContext;
@@ -76,27 +89,24 @@ public class VariantEvaluation implements Comparable<VariantEvaluation>, Filtera
     private String geneSymbol;
     private String geneId;
 
-    //results from filters
-    private final Set<FilterType> passedFilterTypes;
-    private final Set<FilterType> failedFilterTypes;
+    //results from filters. There can be millions of variants in an analysis so these and the inheritance modes are held
+    //as bit masks of the enum ordinals rather than as an EnumSet per variant.
+    private int passedFilterTypes;
+    private int failedFilterTypes;
 
     //score-related stuff
     private FrequencyData frequencyData;
     private PathogenicityData pathogenicityData;
     private boolean contributesToGeneScore = false;
-    private Set<ModeOfInheritance> inheritanceModes = EnumSet.noneOf(ModeOfInheritance.class);
-
-    //bit of an orphan variable - look into refactoring this
-    @JsonIgnore
-    private List<String> mutationRefList = null;
+    private int inheritanceModes = 0;
 
     private VariantEvaluation(Builder builder) {
         genomeAssembly = builder.genomeAssembly;
         chr = builder.chr;
         chromosomeName = builder.chromosomeName;
         pos = builder.pos;
-        ref = builder.ref;
-        alt = builder.alt;
+        ref = canonicalAllele(builder.ref);
+        alt = canonicalAllele(builder.alt);
 
         numIndividuals = builder.numIndividuals;
         phredScore = builder.phredScore;
@@ -108,8 +118,8 @@ private VariantEvaluation(Builder builder) {
         variantContext = builder.variantContext;
         altAlleleId = builder.altAlleleId;
 
-        passedFilterTypes = EnumSet.copyOf(builder.passedFilterTypes);
-        failedFilterTypes = EnumSet.copyOf(builder.failedFilterTypes);
+        passedFilterTypes = toBitMask(builder.passedFilterTypes);
+        failedFilterTypes = toBitMask(builder.failedFilterTypes);
 
         frequencyData = builder.frequencyData;
         pathogenicityData = builder.pathogenicityData;
@@ -298,29 +308,47 @@ public boolean addFilterResult(FilterResult filterResult) {
     }
 
     private boolean addPassedFilterResult(FilterResult filterResult) {
-        passedFilterTypes.add(filterResult.getFilterType());
+        passedFilterTypes |= bit(filterResult.getFilterType());
         return true;
     }
 
     private boolean addFailedFilterResult(FilterResult filterResult) {
-        failedFilterTypes.add(filterResult.getFilterType());
+        failedFilterTypes |= bit(filterResult.getFilterType());
         return false;
     }
 
     /**
-     * @return the set of FilterResult objects that represent the result of
-     * filtering
+     * Removes any result of the given {@code FilterType} from this variant so that the filter can be run again.
+     *
+     * @param filterType the type of filter whose result is to be removed
+     */
+    public void removeFilterResult(FilterType filterType) {
+        int filterBit = bit(filterType);
+        passedFilterTypes &= ~filterBit;
+        failedFilterTypes &= ~filterBit;
+    }
+
+    /**
+     * @return an unmodifiable set of {@code FilterType} which the {@code VariantEvaluation} passed.
      */
     public Set<FilterType> getPassedFilterTypes() {
-        return passedFilterTypes;
+        return filterTypes(passedFilterTypes);
     }
 
     /**
-     * @return the Set of {@code FilterType} which the {@code VariantEvaluation}
+     * @return an unmodifiable Set of {@code FilterType} which the {@code VariantEvaluation}
      * failed to pass.
      */
     public Set<FilterType> getFailedFilterTypes() {
-        return failedFilterTypes;
+        return filterTypes(failedFilterTypes);
+    }
+
+    /**
+     * @return true if the {@code VariantEvaluation} failed the specified filter. Unlike
+     * {@link #getFailedFilterTypes()} this is a straight bit mask query.
+     */
+    public boolean failedFilter(FilterType filterType) {
+        return (failedFilterTypes & bit(filterType)) != 0;
     }
 
     /**
@@ -336,16 +364,17 @@ public Set<FilterType> getFailedFilterTypes() {
      */
     @Override
     public boolean passedFilters() {
-        return failedFilterTypes.isEmpty();
+        return failedFilterTypes == 0;
     }
 
     @Override
     public boolean passedFilter(FilterType filterType) {
-        return !failedFilterTypes.contains(filterType) && passedFilterTypes.contains(filterType);
+        int filterBit = bit(filterType);
+        return (failedFilterTypes & filterBit) == 0 && (passedFilterTypes & filterBit) != 0;
     }
 
     private boolean isUnFiltered() {
-        return failedFilterTypes.isEmpty() && passedFilterTypes.isEmpty();
+        return failedFilterTypes == 0 && passedFilterTypes == 0;
     }
 
     public FilterStatus getFilterStatus() {
@@ -430,6 +459,10 @@ public void setAsContributingToGeneScore() {
         contributesToGeneScore = true;
     }
 
+    public void setAsNotContributingToGeneScore() {
+        contributesToGeneScore = false;
+    }
+
     public boolean contributesToGeneScore() {
         return contributesToGeneScore;
     }
@@ -451,21 +484,80 @@ public boolean isPredictedPathogenic() {
 
     @Override
     public void setInheritanceModes(Set<ModeOfInheritance> compatibleModes) {
-        if (compatibleModes.isEmpty()) {
-            inheritanceModes = EnumSet.noneOf(ModeOfInheritance.class);
-        } else {
-            this.inheritanceModes = EnumSet.copyOf(compatibleModes);
-        }
+        this.inheritanceModes = toBitMask(compatibleModes);
     }
-    
+
+    /**
+     * @return a copy of the modes of inheritance this variant is compatible with.
+     */
     @Override
     public Set<ModeOfInheritance> getInheritanceModes() {
-        return inheritanceModes;
+        return fromBitMask(inheritanceModes, ModeOfInheritance.class);
     }
 
     @Override
     public boolean isCompatibleWith(ModeOfInheritance modeOfInheritance) {
-        return inheritanceModes.contains(modeOfInheritance);
+        return (inheritanceModes & bit(modeOfInheritance)) != 0;
+    }
+
+    private static void checkFitsInBitMask(Class<? extends Enum<?>> enumClass) {
+        int numValues = enumClass.getEnumConstants().length;
+        if (numValues > Integer.SIZE) {
+            throw new IllegalStateException(String.format("%s has %d values which will not fit in an int bit mask of %d bits", enumClass.getSimpleName(), numValues, Integer.SIZE));
+        }
+    }
+
+    private static Set<FilterType> filterTypes(int bitMask) {
+        return FILTER_TYPE_SETS.computeIfAbsent(bitMask, mask -> Collections.unmodifiableSet(fromBitMask(mask, FilterType.class)));
+    }
+
+    private static int bit(Enum<?> value) {
+        return 1 << value.ordinal();
+    }
+
+    private static int toBitMask(Collection<? extends Enum<?>> values) {
+        int bitMask = 0;
+        for (Enum<?> value : values) {
+            bitMask |= bit(value);
+        }
+        return bitMask;
+    }
+
+    private static <E extends Enum<E>> Set<E> fromBitMask(int bitMask, Class<E> enumClass) {
+        Set<E> values = EnumSet.noneOf(enumClass);
+        if (bitMask == 0) {
+            return values;
+        }
+        for (E value : enumClass.getEnumConstants()) {
+            if ((bitMask & bit(value)) != 0) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The vast majority of variants are SNVs, so rather than holding a new single base String for each allele of each
+     * variant these share the same instances.
+     */
+    private static String canonicalAllele(String allele) {
+        if (allele.length() != 1) {
+            return allele;
+        }
+        switch (allele) {
+            case "A":
+                return "A";
+            case "C":
+                return "C";
+            case "G":
+                return "G";
+            case "T":
+                return "T";
+            case "N":
+                return "N";
+            default:
+                return allele;
+        }
     }
     
     /**
@@ -548,11 +640,11 @@ public String toString() {
         //TODO: expose frequency and pathogenicity scores?
         if(contributesToGeneScore) {
             //Add a star to the output string between the variantEffect and the score
-            return "VariantEvaluation{assembly=" + genomeAssembly + " chr=" + chr + " pos=" + pos + " ref=" + ref + " alt=" + alt + " qual=" + phredScore + " " + variantEffect + " * score=" + getVariantScore() + " " + getFilterStatus() + " failedFilters=" + failedFilterTypes + " passedFilters=" + passedFilterTypes
-                    + " compatibleWith=" + inheritanceModes + "}";
+            return "VariantEvaluation{assembly=" + genomeAssembly + " chr=" + chr + " pos=" + pos + " ref=" + ref + " alt=" + alt + " qual=" + phredScore + " " + variantEffect + " * score=" + getVariantScore() + " " + getFilterStatus() + " failedFilters=" + getFailedFilterTypes() + " passedFilters=" + getPassedFilterTypes()
+                    + " compatibleWith=" + getInheritanceModes() + "}";
         }
-        return "VariantEvaluation{assembly=" + genomeAssembly + " chr=" + chr + " pos=" + pos + " ref=" + ref + " alt=" + alt + " qual=" + phredScore + " " + variantEffect + " score=" + getVariantScore() + " " + getFilterStatus() + " failedFilters=" + failedFilterTypes + " passedFilters=" + passedFilterTypes
-                + " compatibleWith=" + inheritanceModes + "}";
+        return "VariantEvaluation{assembly=" + genomeAssembly + " chr=" + chr + " pos=" + pos + " ref=" + ref + " alt=" + alt + " qual=" + phredScore + " " + variantEffect + " score=" + getVariantScore() + " " + getFilterStatus() + " failedFilters=" + getFailedFilterTypes() + " passedFilters=" + getPassedFilterTypes()
+                + " compatibleWith=" + getInheritanceModes() + "}";
     }
 
     public static Builder builder(int chr, int pos, String ref, String alt) {
@@ -23,10 +23,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Comparator;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Class implementing the Phenodigm (PHENOtype comparisons for DIsease Genes and Models) algorithm for scoring the
@@ -46,6 +43,11 @@
     private final PhenotypeMatcher organismPhenotypeMatcher;
     private final int numQueryPhenotypes;
 
+    //best score of each matched organism phenotype against any of the query phenotypes, used to bound the model scores
+    private final Map<String, Double> bestQueryMatchScores;
+    //best score of each query phenotype against any of the organism phenotypes
+    private final double[] bestOrganismMatchScores;
+
     /**
      * Use this constructor when running a single (HP-HP) or single cross-species (e.g. HP-MP) comparisons.
      * For multi cross-species comparisons use the constructor which requires the {@link QueryPhenotypeMatch} against which
@@ -72,6 +74,24 @@ private PhenodigmModelScorer(QueryPhenotypeMatch queryPhenotypeMatch, PhenotypeM
 
         this.organismPhenotypeMatcher = organismPhenotypeMatcher;
         this.numQueryPhenotypes = numQueryPhenotypes;
+
+        Set<String> queryPhenotypeIdsWithMatch = new HashSet<>();
+        for (PhenotypeMatch match : organismPhenotypeMatcher.getBestPhenotypeMatches()) {
+            queryPhenotypeIdsWithMatch.add(match.getQueryPhenotypeId());
+        }
+        Map<String, Double> queryTermBestScores = new HashMap<>();
+        this.bestQueryMatchScores = new HashMap<>();
+        for (Set<PhenotypeMatch> matches : organismPhenotypeMatcher.getTermPhenotypeMatches().values()) {
+            for (PhenotypeMatch match : matches) {
+                // all matched phenotypes count towards the number of matching model phenotypes, even if their score is zero
+                bestQueryMatchScores.putIfAbsent(match.getMatchPhenotypeId(), 0d);
+                if (queryPhenotypeIdsWithMatch.contains(match.getQueryPhenotypeId()) && match.getScore() > 0) {
+                    bestQueryMatchScores.merge(match.getMatchPhenotypeId(), match.getScore(), Math::max);
+                    queryTermBestScores.merge(match.getQueryPhenotypeId(), match.getScore(), Math::max);
+                }
+            }
+        }
+        this.bestOrganismMatchScores = queryTermBestScores.values().stream().mapToDouble(Double::doubleValue).toArray();
         logOrganismPhenotypeMatches();
     }
 
@@ -136,10 +156,50 @@ public ModelPhenotypeMatch<T> scoreModel(T model) {
         return ModelPhenotypeMatch.of(score, model, rawModelScore.getBestPhenotypeMatches());
     }
 
+    /**
+     * Returns a value which the score returned by {@link #scoreModel(Model)} for the model will not exceed. This is
+     * much cheaper to calculate than the score itself, so can be used to skip models which cannot beat an existing
+     * score.
+     * <p>
+     * The maximum match score and the sum of the reverse (model to query) best matches are the same as the full score
+     * as these only depend on each model phenotype. The sum of the forward (query to model) best matches is bounded by
+     * the best possible match for each query phenotype, capped at the model's maximum match score.
+     *
+     * @param model the model to bound
+     * @return the upper bound of the model score
+     */
+    public double scoreUpperBound(T model) {
+        double maxModelMatchScore = 0;
+        double sumReverseBestMatchScores = 0;
+        int numMatchingPhenotypesForModel = 0;
+        for (String phenotypeId : model.getPhenotypeIds()) {
+            Double bestMatchScore = bestQueryMatchScores.get(phenotypeId);
+            if (bestMatchScore != null) {
+                numMatchingPhenotypesForModel++;
+                if (bestMatchScore > 0) {
+                    sumReverseBestMatchScores += bestMatchScore;
+                    maxModelMatchScore = Math.max(bestMatchScore, maxModelMatchScore);
+                }
+            }
+        }
+        if (maxModelMatchScore == 0) {
+            // no query phenotype can match any of the model phenotypes
+            return 0;
+        }
+        double sumForwardBestMatchScores = 0;
+        for (double bestMatchScore : bestOrganismMatchScores) {
+            sumForwardBestMatchScores += Math.min(bestMatchScore, maxModelMatchScore);
+        }
+        return calculateCombinedScore(maxModelMatchScore, sumReverseBestMatchScores + sumForwardBestMatchScores, numMatchingPhenotypesForModel);
+    }
+
     private double calculateCombinedScore(PhenodigmMatchRawScore rawModelScore) {
-        double maxModelMatchScore = rawModelScore.getMaxModelMatchScore();
-        double sumModelBestMatchScores = rawModelScore.getSumModelBestMatchScores();
-        int numMatchingPhenotypesForModel = rawModelScore.getMatchingPhenotypes().size();
+        return calculateCombinedScore(rawModelScore.getMaxModelMatchScore(), rawModelScore.getSumModelBestMatchScores(), rawModelScore
+                .getMatchingPhenotypes()
+                .size());
+    }
+
+    private double calculateCombinedScore(double maxModelMatchScore, double sumModelBestMatchScores, int numMatchingPhenotypesForModel) {
 
         /*
          * hpIdsWithPhenotypeMatch.size() = no. of HPO disease annotations for human and the no. of annotations with an entry in hp_*_mappings table for other species
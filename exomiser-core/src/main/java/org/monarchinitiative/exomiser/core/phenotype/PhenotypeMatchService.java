@@ -29,8 +29,6 @@
 
 import java.util.*;
 
-import static java.util.stream.Collectors.toList;
-
 /**
  * Service for generating the best phenotypic matches for a given set of HPO terms against human, mouse or fish
  * ontologies. The matches are produced from Phenodigm data which computed the scores using OwlSim. 
@@ -74,10 +72,7 @@ private PhenotypeMatcher getOrganismPhenotypeMatcherFromTerms(List<PhenotypeTerm
     }
 
     public List<PhenotypeTerm> makePhenotypeTermsFromHpoIds(List<String> hpoIds) {
-        return hpoIds.stream()
-                .map(ontologyService::getPhenotypeTermForHpoId)
-                .filter(Objects::nonNull)
-                .collect(toList());
+        return ontologyService.getPhenotypeTermsForHpoIds(hpoIds);
     }
 
     private Set<PhenotypeMatch> getSpeciesMatchesForHpoTerm(PhenotypeTerm hpoTerm, Organism species) {
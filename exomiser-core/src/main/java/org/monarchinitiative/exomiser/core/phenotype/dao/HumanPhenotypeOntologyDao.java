@@ -38,6 +38,7 @@
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  *
@@ -87,4 +88,20 @@ public Set<PhenotypeMatch> getPhenotypeMatchesForHpoTerm(PhenotypeTerm hpoTerm)
         return Collections.emptySet();
     }
 
+    @Override
+    public void processAllPhenotypeMatches(Consumer<PhenotypeMatch> consumer) {
+        String mappingQuery = "SELECT hp_id AS query_id, hp_term AS query_term, simj, ic, score, hp_id_hit AS hit_id, hp_hit_term AS hit_term, lcs_id, lcs_term FROM hp_hp_mappings";
+        try (
+                Connection connection = dataSource.getConnection();
+                PreparedStatement ps = PreparedStatementSetter.prepareStatement(connection, mappingQuery, setter -> setter
+                        .setFetchSize(OntologyDaoResultSetProcessor.MAPPINGS_FETCH_SIZE));
+                ResultSet rs = ps.executeQuery()) {
+
+            OntologyDaoResultSetProcessor.processAllOntologyTermMatchResultSet(rs, consumer);
+
+        } catch (SQLException e) {
+            throw new OntologyDaoException("Unable to execute query '" + mappingQuery + "' for all HP-HP match terms", e);
+        }
+    }
+
 }
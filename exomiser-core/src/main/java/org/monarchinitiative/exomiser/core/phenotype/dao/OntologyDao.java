@@ -29,6 +29,7 @@
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
 
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  *
@@ -39,4 +40,13 @@ public interface OntologyDao {
     Set<PhenotypeTerm> getAllTerms();
 
     Set<PhenotypeMatch> getPhenotypeMatchesForHpoTerm(PhenotypeTerm hpoTerm);
+
+    /**
+     * Reads the entire HPO to organism phenotype mapping table in a single query, passing each match to the consumer
+     * rather than holding them all in memory.
+     *
+     * @param consumer receives every {@link PhenotypeMatch} in the mapping table
+     * @throws OntologyDaoException if the mapping table could not be read in full
+     */
+    void processAllPhenotypeMatches(Consumer<PhenotypeMatch> consumer);
 }
@@ -32,6 +32,7 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Common class for processing results sets from ontology tables - these are all
@@ -41,6 +42,9 @@
  */
 class OntologyDaoResultSetProcessor {
 
+    // number of rows fetched at a time when reading a whole mapping table
+    static final int MAPPINGS_FETCH_SIZE = 10000;
+
     private OntologyDaoResultSetProcessor() {
     }
 
@@ -59,29 +63,44 @@ static Set<PhenotypeTerm> processOntologyTermsResultSet(ResultSet rs) throws SQL
     static Set<PhenotypeMatch> processOntologyTermMatchResultSet(ResultSet rs, PhenotypeTerm queryPhenotype) throws SQLException {
         ImmutableSet.Builder<PhenotypeMatch> phenotypeMatches = ImmutableSet.builder();
         while (rs.next()) {
-            //simj, ic, score, hp_id_hit AS hit_id, hp_hit_term AS hit_term, lcs_id, lcs_term 
-            String matchId = rs.getString("hit_id");
-            String matchTerm = rs.getString("hit_term");
-            PhenotypeTerm matchPhenotype = PhenotypeTerm.of(matchId, matchTerm);
-            
-            String lcsId = rs.getString("lcs_id");
-            String lcsTerm = rs.getString("lcs_term");
-            PhenotypeTerm lcsPhenotype = PhenotypeTerm.of(lcsId, lcsTerm);
-
-            double ic = rs.getDouble("ic");
-            double simj = rs.getDouble("simj");
-            double score = rs.getDouble("score");
-            PhenotypeMatch match = PhenotypeMatch.builder()
-                    .query(queryPhenotype)
-                    .match(matchPhenotype)
-                    .lcs(lcsPhenotype)
-                    .simj(simj)
-                    .ic(ic)
-                    .score(score)
-                    .build();
-            phenotypeMatches.add(match);
+            phenotypeMatches.add(makePhenotypeMatch(rs, queryPhenotype));
         }
         return phenotypeMatches.build();
     }
 
+    /**
+     * Processes the result set of a query for all the rows of a mapping table. The query phenotype for each match is
+     * read from the query_id and query_term columns.
+     */
+    static void processAllOntologyTermMatchResultSet(ResultSet rs, Consumer<PhenotypeMatch> consumer) throws SQLException {
+        while (rs.next()) {
+            String queryId = rs.getString("query_id");
+            String queryTerm = rs.getString("query_term");
+            consumer.accept(makePhenotypeMatch(rs, PhenotypeTerm.of(queryId, queryTerm)));
+        }
+    }
+
+    private static PhenotypeMatch makePhenotypeMatch(ResultSet rs, PhenotypeTerm queryPhenotype) throws SQLException {
+        //simj, ic, score, hp_id_hit AS hit_id, hp_hit_term AS hit_term, lcs_id, lcs_term 
+        String matchId = rs.getString("hit_id");
+        String matchTerm = rs.getString("hit_term");
+        PhenotypeTerm matchPhenotype = PhenotypeTerm.of(matchId, matchTerm);
+        
+        String lcsId = rs.getString("lcs_id");
+        String lcsTerm = rs.getString("lcs_term");
+        PhenotypeTerm lcsPhenotype = PhenotypeTerm.of(lcsId, lcsTerm);
+
+        double ic = rs.getDouble("ic");
+        double simj = rs.getDouble("simj");
+        double score = rs.getDouble("score");
+        return PhenotypeMatch.builder()
+                .query(queryPhenotype)
+                .match(matchPhenotype)
+                .lcs(lcsPhenotype)
+                .simj(simj)
+                .ic(ic)
+                .score(score)
+                .build();
+    }
+
 }
@@ -0,0 +1,145 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype.service;
+
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Mappings of alternate HPO ids and obsolete HPO ids to their current primary id. The phenotype database only contains
+ * the primary ids so these are read from the hp.obo file, using the alt_id and replaced_by tags.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class AlternateHpoIds {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlternateHpoIds.class);
+
+    public static final AlternateHpoIds EMPTY = new AlternateHpoIds(Collections.emptyMap());
+
+    // obsolete terms may be replaced by terms which are themselves obsolete - this guards against cycles
+    private static final int MAX_REPLACEMENTS = 10;
+
+    private final Map<String, String> primaryIds;
+
+    private AlternateHpoIds(Map<String, String> primaryIds) {
+        this.primaryIds = primaryIds;
+    }
+
+    /**
+     * @param alternateIdToPrimaryId map of alternate or obsolete ids to the id which should be used in their place
+     */
+    public static AlternateHpoIds of(Map<String, String> alternateIdToPrimaryId) {
+        return new AlternateHpoIds(ImmutableMap.copyOf(alternateIdToPrimaryId));
+    }
+
+    /**
+     * Reads the alt_id and obsolete replaced_by tags of the terms in an OBO file. Should the file not be readable, the
+     * EMPTY instance is returned.
+     *
+     * @param oboFile path to the hp.obo file
+     * @return the alternate ids found in the file
+     */
+    public static AlternateHpoIds parseOboFile(Path oboFile) {
+        try (BufferedReader reader = Files.newBufferedReader(oboFile, StandardCharsets.UTF_8)) {
+            Map<String, String> alternateIds = new HashMap<>();
+            String id = null;
+            boolean obsolete = false;
+            String replacedBy = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("[")) {
+                    addReplacement(alternateIds, id, obsolete, replacedBy);
+                    id = null;
+                    obsolete = false;
+                    replacedBy = null;
+                } else if (line.startsWith("id: ")) {
+                    id = tagValue(line);
+                } else if (line.startsWith("alt_id: ") && id != null) {
+                    alternateIds.put(tagValue(line), id);
+                } else if (line.startsWith("is_obsolete: ")) {
+                    obsolete = "true".equals(tagValue(line));
+                } else if (line.startsWith("replaced_by: ")) {
+                    replacedBy = tagValue(line);
+                }
+            }
+            addReplacement(alternateIds, id, obsolete, replacedBy);
+            logger.info("Read {} alternate and obsolete HPO ids from {}", alternateIds.size(), oboFile);
+            return of(alternateIds);
+        } catch (IOException e) {
+            logger.error("Unable to read alternate HPO ids from {}", oboFile, e);
+        }
+        return EMPTY;
+    }
+
+    private static void addReplacement(Map<String, String> alternateIds, String id, boolean obsolete, String replacedBy) {
+        if (id != null && obsolete && replacedBy != null) {
+            alternateIds.put(id, replacedBy);
+        }
+    }
+
+    private static String tagValue(String line) {
+        String value = line.substring(line.indexOf(':') + 1);
+        // remove any trailing comments or modifiers
+        int commentStart = value.indexOf('!');
+        if (commentStart >= 0) {
+            value = value.substring(0, commentStart);
+        }
+        return value.trim();
+    }
+
+    /**
+     * Follows the alternate and replaced_by mappings to the current id for a term.
+     *
+     * @param hpoId an HPO id
+     * @return the current primary id of the term or empty if the id has no known replacement.
+     */
+    public Optional<String> getPrimaryId(String hpoId) {
+        String primaryId = primaryIds.get(hpoId);
+        for (int i = 0; i < MAX_REPLACEMENTS && primaryId != null && primaryIds.containsKey(primaryId); i++) {
+            primaryId = primaryIds.get(primaryId);
+        }
+        return Optional.ofNullable(primaryId);
+    }
+
+    public Set<String> getAlternateIds() {
+        return primaryIds.keySet();
+    }
+
+    public int size() {
+        return primaryIds.size();
+    }
+
+    @Override
+    public String toString() {
+        return "AlternateHpoIds{" +
+                "size=" + primaryIds.size() +
+                '}';
+    }
+}
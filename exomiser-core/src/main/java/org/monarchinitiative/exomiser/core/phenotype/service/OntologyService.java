@@ -28,8 +28,12 @@
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * Service for retrieving phenotype data from the database for use by the
  * prioritisers.
@@ -51,4 +55,18 @@ public interface OntologyService {
     Set<PhenotypeMatch> getZpoMatchesForHpoTerm(PhenotypeTerm hpoTerm);
 
     PhenotypeTerm getPhenotypeTermForHpoId(String hpoId);
+
+    /**
+     * Resolves a list of HPO ids to their PhenotypeTerms, in the same order. Ids which cannot be found are not
+     * included in the output.
+     *
+     * @param hpoIds the HPO ids to resolve
+     * @return the PhenotypeTerms for the HPO ids
+     */
+    default List<PhenotypeTerm> getPhenotypeTermsForHpoIds(List<String> hpoIds) {
+        return hpoIds.stream()
+                .map(this::getPhenotypeTermForHpoId)
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
 }
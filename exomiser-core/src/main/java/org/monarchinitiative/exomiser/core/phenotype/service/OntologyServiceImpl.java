@@ -25,16 +25,23 @@
  */
 package org.monarchinitiative.exomiser.core.phenotype.service;
 
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import io.micrometer.core.instrument.Timer;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
 import org.monarchinitiative.exomiser.core.phenotype.dao.HumanPhenotypeOntologyDao;
 import org.monarchinitiative.exomiser.core.phenotype.dao.MousePhenotypeOntologyDao;
 import org.monarchinitiative.exomiser.core.phenotype.dao.ZebraFishPhenotypeOntologyDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
+import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Service for retrieving phenotype data from the database for use by the
@@ -45,10 +52,20 @@
 @Service
 public class OntologyServiceImpl implements OntologyService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OntologyServiceImpl.class);
+
     private final HumanPhenotypeOntologyDao hpoDao;
     private final MousePhenotypeOntologyDao mpoDao;
     private final ZebraFishPhenotypeOntologyDao zpoDao;
 
+    private final Timer hpMatchTimer = ExomiserMetrics.dataAccessTimer("hp-hp-mappings", "h2");
+    private final Timer mpMatchTimer = ExomiserMetrics.dataAccessTimer("hp-mp-mappings", "h2");
+    private final Timer zpMatchTimer = ExomiserMetrics.dataAccessTimer("hp-zp-mappings", "h2");
+
+    private AlternateHpoIds alternateHpoIds = AlternateHpoIds.EMPTY;
+    // built once, on first use, from all the HPO terms
+    private final Supplier<Map<String, PhenotypeTerm>> hpoIdIndex = Suppliers.memoize(this::buildHpoIdIndex);
+
     @Autowired
     public OntologyServiceImpl(HumanPhenotypeOntologyDao hpoDao, MousePhenotypeOntologyDao mpoDao, ZebraFishPhenotypeOntologyDao zpoDao) {
         this.hpoDao = hpoDao;
@@ -56,6 +73,33 @@ public OntologyServiceImpl(HumanPhenotypeOntologyDao hpoDao, MousePhenotypeOntol
         this.zpoDao = zpoDao;
     }
 
+    /**
+     * Optionally sets the alternate and obsolete HPO ids which will be resolved to their current term by
+     * {@link #getPhenotypeTermForHpoId(String)}. This must be set before any terms are looked up.
+     *
+     * @param alternateHpoIds the alternate HPO ids, usually parsed from the hp.obo file
+     */
+    @Autowired(required = false)
+    public void setAlternateHpoIds(AlternateHpoIds alternateHpoIds) {
+        this.alternateHpoIds = Objects.requireNonNull(alternateHpoIds);
+    }
+
+    private Map<String, PhenotypeTerm> buildHpoIdIndex() {
+        Map<String, PhenotypeTerm> index = new HashMap<>();
+        for (PhenotypeTerm hpoTerm : hpoDao.getAllTerms()) {
+            // the first term found for an id wins, as with the original linear search
+            index.putIfAbsent(hpoTerm.getId(), hpoTerm);
+        }
+        int numPrimaryIds = index.size();
+        for (String alternateId : alternateHpoIds.getAlternateIds()) {
+            alternateHpoIds.getPrimaryId(alternateId)
+                    .map(index::get)
+                    .ifPresent(primaryTerm -> index.putIfAbsent(alternateId, primaryTerm));
+        }
+        logger.info("Indexed {} HPO terms and {} alternate ids", numPrimaryIds, index.size() - numPrimaryIds);
+        return ImmutableMap.copyOf(index);
+    }
+
     @Cacheable(value = "hpo")
     @Override
     public Set<PhenotypeTerm> getHpoTerms() {
@@ -76,34 +120,43 @@ public Set<PhenotypeTerm> getZpoTerms() {
 
     @Override
     public Set<PhenotypeMatch> getHpoMatchesForHpoTerm(PhenotypeTerm hpoTerm) {
-        return hpoDao.getPhenotypeMatchesForHpoTerm(hpoTerm);
+        return hpMatchTimer.record(() -> hpoDao.getPhenotypeMatchesForHpoTerm(hpoTerm));
     }
 
     @Override
     public Set<PhenotypeMatch> getMpoMatchesForHpoTerm(PhenotypeTerm hpoTerm) {
-        return mpoDao.getPhenotypeMatchesForHpoTerm(hpoTerm);
+        return mpMatchTimer.record(() -> mpoDao.getPhenotypeMatchesForHpoTerm(hpoTerm));
     }
 
     @Override
     public Set<PhenotypeMatch> getZpoMatchesForHpoTerm(PhenotypeTerm hpoTerm) {
-        return zpoDao.getPhenotypeMatchesForHpoTerm(hpoTerm);
+        return zpMatchTimer.record(() -> zpoDao.getPhenotypeMatchesForHpoTerm(hpoTerm));
     }
 
     /**
      * Returns the matching HPO PhenotypeTerm for a given HPO id or null if the
-     * term cannot be found.
+     * term cannot be found. Alternate and obsolete ids return the current term
+     * which replaces them.
      *
      * @param hpoId
      * @return
      */
     @Override
     public PhenotypeTerm getPhenotypeTermForHpoId(String hpoId) {
-        for (PhenotypeTerm hpoTerm : getHpoTerms()) {
-            if (hpoTerm.getId().equals(hpoId)) {
-                return hpoTerm;
+        return hpoIdIndex.get().get(hpoId);
+    }
+
+    @Override
+    public List<PhenotypeTerm> getPhenotypeTermsForHpoIds(List<String> hpoIds) {
+        Map<String, PhenotypeTerm> index = hpoIdIndex.get();
+        List<PhenotypeTerm> phenotypeTerms = new ArrayList<>(hpoIds.size());
+        for (String hpoId : hpoIds) {
+            PhenotypeTerm phenotypeTerm = index.get(hpoId);
+            if (phenotypeTerm != null) {
+                phenotypeTerms.add(phenotypeTerm);
             }
         }
-        return null;
+        return phenotypeTerms;
     }
 
 }
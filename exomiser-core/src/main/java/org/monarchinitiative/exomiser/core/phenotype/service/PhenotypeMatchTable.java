@@ -0,0 +1,188 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype.service;
+
+import com.google.common.collect.ImmutableSet;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
+
+import java.util.*;
+
+/**
+ * In-memory copy of an HPO to organism phenotype mapping table. Match and LCS terms are interned and stored as int
+ * indices with the simJ, IC and score held in parallel primitive arrays. The matches for each query term are held in
+ * a contiguous block, sorted by descending score. Instances are immutable and safe to be shared between threads.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class PhenotypeMatchTable {
+
+    private final Map<String, Integer> queryTermIndex;
+    // matches for query term i are found between queryOffsets[i] (inclusive) and queryOffsets[i + 1] (exclusive)
+    private final int[] queryOffsets;
+    private final PhenotypeTerm[] terms;
+    private final int[] matchTerms;
+    private final int[] lcsTerms;
+    private final double[] simJs;
+    private final double[] ics;
+    private final double[] scores;
+
+    private PhenotypeMatchTable(Map<String, Integer> queryTermIndex, int[] queryOffsets, PhenotypeTerm[] terms, int[] matchTerms, int[] lcsTerms, double[] simJs, double[] ics, double[] scores) {
+        this.queryTermIndex = queryTermIndex;
+        this.queryOffsets = queryOffsets;
+        this.terms = terms;
+        this.matchTerms = matchTerms;
+        this.lcsTerms = lcsTerms;
+        this.simJs = simJs;
+        this.ics = ics;
+        this.scores = scores;
+    }
+
+    int numQueryTerms() {
+        return queryTermIndex.size();
+    }
+
+    int numMatches() {
+        return scores.length;
+    }
+
+    /**
+     * Returns the matches for the query term in descending score order. As with the database queries, the query
+     * phenotype of the returned matches is the term provided, not the one read from the mapping table.
+     *
+     * @param queryTerm the HPO term to find matches for
+     * @return the matches for the term or an empty set if there are none
+     */
+    Set<PhenotypeMatch> getPhenotypeMatches(PhenotypeTerm queryTerm) {
+        Integer index = queryTermIndex.get(queryTerm.getId());
+        if (index == null) {
+            return Collections.emptySet();
+        }
+        ImmutableSet.Builder<PhenotypeMatch> phenotypeMatches = ImmutableSet.builder();
+        for (int i = queryOffsets[index]; i < queryOffsets[index + 1]; i++) {
+            phenotypeMatches.add(PhenotypeMatch.builder()
+                    .query(queryTerm)
+                    .match(terms[matchTerms[i]])
+                    .lcs(terms[lcsTerms[i]])
+                    .simj(simJs[i])
+                    .ic(ics[i])
+                    .score(scores[i])
+                    .build());
+        }
+        return phenotypeMatches.build();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Accumulates matches in any order. Not thread-safe.
+     */
+    static class Builder {
+
+        private final Map<String, Integer> queryTermIndex = new HashMap<>();
+        private final Map<PhenotypeTerm, Integer> termIndex = new HashMap<>();
+        private final List<PhenotypeTerm> terms = new ArrayList<>();
+
+        private int size = 0;
+        private int[] queryTerms = new int[1024];
+        private int[] matchTerms = new int[1024];
+        private int[] lcsTerms = new int[1024];
+        private double[] simJs = new double[1024];
+        private double[] ics = new double[1024];
+        private double[] scores = new double[1024];
+
+        Builder add(PhenotypeMatch phenotypeMatch) {
+            if (size == scores.length) {
+                int capacity = size * 2;
+                queryTerms = Arrays.copyOf(queryTerms, capacity);
+                matchTerms = Arrays.copyOf(matchTerms, capacity);
+                lcsTerms = Arrays.copyOf(lcsTerms, capacity);
+                simJs = Arrays.copyOf(simJs, capacity);
+                ics = Arrays.copyOf(ics, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+            }
+            queryTerms[size] = queryTermIndex.computeIfAbsent(phenotypeMatch.getQueryPhenotypeId(), id -> queryTermIndex.size());
+            matchTerms[size] = intern(phenotypeMatch.getMatchPhenotype());
+            lcsTerms[size] = intern(phenotypeMatch.getLcs());
+            simJs[size] = phenotypeMatch.getSimJ();
+            ics[size] = phenotypeMatch.getIc();
+            scores[size] = phenotypeMatch.getScore();
+            size++;
+            return this;
+        }
+
+        private int intern(PhenotypeTerm term) {
+            return termIndex.computeIfAbsent(term, key -> {
+                terms.add(key);
+                return terms.size() - 1;
+            });
+        }
+
+        PhenotypeMatchTable build() {
+            int numQueryTerms = queryTermIndex.size();
+            // counting sort the matches into contiguous blocks by query term
+            int[] queryOffsets = new int[numQueryTerms + 1];
+            for (int i = 0; i < size; i++) {
+                queryOffsets[queryTerms[i] + 1]++;
+            }
+            for (int i = 0; i < numQueryTerms; i++) {
+                queryOffsets[i + 1] += queryOffsets[i];
+            }
+            int[] nextPosition = Arrays.copyOf(queryOffsets, numQueryTerms);
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[nextPosition[queryTerms[i]]++] = i;
+            }
+            for (int query = 0; query < numQueryTerms; query++) {
+                sortByDescendingScore(order, queryOffsets[query], queryOffsets[query + 1]);
+            }
+
+            int[] sortedMatchTerms = new int[size];
+            int[] sortedLcsTerms = new int[size];
+            double[] sortedSimJs = new double[size];
+            double[] sortedIcs = new double[size];
+            double[] sortedScores = new double[size];
+            for (int i = 0; i < size; i++) {
+                int original = order[i];
+                sortedMatchTerms[i] = matchTerms[original];
+                sortedLcsTerms[i] = lcsTerms[original];
+                sortedSimJs[i] = simJs[original];
+                sortedIcs[i] = ics[original];
+                sortedScores[i] = scores[original];
+            }
+            return new PhenotypeMatchTable(new HashMap<>(queryTermIndex), queryOffsets, terms.toArray(new PhenotypeTerm[0]), sortedMatchTerms, sortedLcsTerms, sortedSimJs, sortedIcs, sortedScores);
+        }
+
+        private void sortByDescendingScore(int[] order, int from, int to) {
+            Integer[] block = new Integer[to - from];
+            for (int i = from; i < to; i++) {
+                block[i - from] = order[i];
+            }
+            // stable, so matches with equal scores remain in the order they were added
+            Arrays.sort(block, (a, b) -> Double.compare(scores[b], scores[a]));
+            for (int i = from; i < to; i++) {
+                order[i] = block[i - from];
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype.service;
+
+import com.google.common.base.Suppliers;
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
+import org.monarchinitiative.exomiser.core.phenotype.dao.HumanPhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.MousePhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.OntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.ZebraFishPhenotypeOntologyDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * {@link OntologyService} which reads each of the HP-HP, HP-MP and HP-ZP mapping tables into memory with a single
+ * query, the first time matches for that organism are requested, or all at once using {@link #preload()}. After this
+ * the phenotype matches for a term are an in-memory lookup so concurrent analyses do not need to compete for database
+ * connections when setting up their phenotype matchers. This is at the expense of holding all the mappings in RAM.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class PreloadedOntologyService extends OntologyServiceImpl {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreloadedOntologyService.class);
+
+    private final Supplier<PhenotypeMatchTable> hpMatches;
+    private final Supplier<PhenotypeMatchTable> mpMatches;
+    private final Supplier<PhenotypeMatchTable> zpMatches;
+
+    public PreloadedOntologyService(HumanPhenotypeOntologyDao hpoDao, MousePhenotypeOntologyDao mpoDao, ZebraFishPhenotypeOntologyDao zpoDao) {
+        super(hpoDao, mpoDao, zpoDao);
+        // each table is loaded exactly once, even when first requested from several threads at the same time. Should
+        // the load fail the exception is propagated and nothing is memoized, so the next request will try again.
+        this.hpMatches = Suppliers.memoize(() -> loadPhenotypeMatchTable(hpoDao, Organism.HUMAN));
+        this.mpMatches = Suppliers.memoize(() -> loadPhenotypeMatchTable(mpoDao, Organism.MOUSE));
+        this.zpMatches = Suppliers.memoize(() -> loadPhenotypeMatchTable(zpoDao, Organism.FISH));
+    }
+
+    private static PhenotypeMatchTable loadPhenotypeMatchTable(OntologyDao ontologyDao, Organism organism) {
+        logger.info("Loading HUMAN-{} phenotype mappings...", organism);
+        Instant start = Instant.now();
+        PhenotypeMatchTable.Builder builder = PhenotypeMatchTable.builder();
+        ontologyDao.processAllPhenotypeMatches(builder::add);
+        PhenotypeMatchTable phenotypeMatchTable = builder.build();
+        logger.info("Loaded {} HUMAN-{} phenotype mappings for {} HPO terms - {} ms", phenotypeMatchTable.numMatches(), organism, phenotypeMatchTable
+                .numQueryTerms(), Duration.between(start, Instant.now()).toMillis());
+        return phenotypeMatchTable;
+    }
+
+    /**
+     * Loads all the mapping tables now rather than waiting until they are first used.
+     */
+    public void preload() {
+        hpMatches.get();
+        mpMatches.get();
+        zpMatches.get();
+    }
+
+    @Override
+    public Set<PhenotypeMatch> getHpoMatchesForHpoTerm(PhenotypeTerm hpoTerm) {
+        return hpMatches.get().getPhenotypeMatches(hpoTerm);
+    }
+
+    @Override
+    public Set<PhenotypeMatch> getMpoMatchesForHpoTerm(PhenotypeTerm hpoTerm) {
+        return mpMatches.get().getPhenotypeMatches(hpoTerm);
+    }
+
+    @Override
+    public Set<PhenotypeMatch> getZpoMatchesForHpoTerm(PhenotypeTerm hpoTerm) {
+        return zpMatches.get().getPhenotypeMatches(hpoTerm);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.monarchinitiative.exomiser.core.prioritisers;
+
+import org.monarchinitiative.exomiser.core.phenotype.PhenodigmModelScorer;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModelPhenotypeMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Comparator.comparingDouble;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Finds the best scoring model for each gene. Only the best model for a gene is ever reported so, rather than fully
+ * scoring every model, the models for a gene are scored in descending order of their
+ * {@link PhenodigmModelScorer#scoreUpperBound(org.monarchinitiative.exomiser.core.phenotype.Model)} and the remaining
+ * models are skipped as soon as none of them are able to beat the best score found so far. The best model found is
+ * exactly that which would be found by scoring all the models.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class BestGeneModelFinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BestGeneModelFinder.class);
+
+    // guards against the upper bound being summed in a different order to the score and so differing in the last bits
+    private static final double TOLERANCE = 1e-9;
+
+    private final PhenodigmModelScorer<GeneModel> modelScorer;
+
+    BestGeneModelFinder(PhenodigmModelScorer<GeneModel> modelScorer) {
+        this.modelScorer = modelScorer;
+    }
+
+    /**
+     * Runs in parallel over the genes using the common pool, or the pool of the calling task if this is run inside a
+     * {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @param models the models to score
+     * @return map of entrez gene id to the best scoring model for each gene with at least one model
+     */
+    Map<Integer, GeneModelPhenotypeMatch> findBestModels(Collection<GeneModel> models) {
+        Map<Integer, List<GeneModel>> modelsByGene = models.stream().collect(groupingBy(GeneModel::getEntrezGeneId));
+        AtomicInteger numModelsScored = new AtomicInteger();
+        Map<Integer, GeneModelPhenotypeMatch> bestModels = modelsByGene.values().parallelStream()
+                .map(geneModels -> findBestModel(geneModels, numModelsScored))
+                .collect(toMap(GeneModelPhenotypeMatch::getEntrezGeneId, bestModel -> bestModel));
+        logger.debug("Scored {} of {} models for {} genes", numModelsScored.get(), models.size(), modelsByGene.size());
+        return bestModels;
+    }
+
+    private GeneModelPhenotypeMatch findBestModel(List<GeneModel> geneModels, AtomicInteger numModelsScored) {
+        List<BoundedModel> boundedModels = new ArrayList<>(geneModels.size());
+        for (GeneModel model : geneModels) {
+            boundedModels.add(new BoundedModel(model, modelScorer.scoreUpperBound(model)));
+        }
+        boundedModels.sort(comparingDouble(BoundedModel::getUpperBound).reversed());
+
+        GeneModelPhenotypeMatch bestModel = null;
+        int scored = 0;
+        for (BoundedModel boundedModel : boundedModels) {
+            if (bestModel != null && boundedModel.getUpperBound() + TOLERANCE < bestModel.getScore()) {
+                // the models are sorted by upper bound, so none of the remaining models can beat the current best
+                break;
+            }
+            GeneModelPhenotypeMatch geneModelPhenotypeMatch = new GeneModelPhenotypeMatch(modelScorer.scoreModel(boundedModel.getModel()));
+            scored++;
+            if (bestModel == null || geneModelPhenotypeMatch.getScore() > bestModel.getScore()) {
+                bestModel = geneModelPhenotypeMatch;
+            }
+        }
+        numModelsScored.addAndGet(scored);
+        return bestModel;
+    }
+
+    private static class BoundedModel {
+
+        private final GeneModel model;
+        private final double upperBound;
+
+        private BoundedModel(GeneModel model, double upperBound) {
+            this.model = model;
+            this.upperBound = upperBound;
+        }
+
+        GeneModel getModel() {
+            return model;
+        }
+
+        double getUpperBound() {
+            return upperBound;
+        }
+    }
+}
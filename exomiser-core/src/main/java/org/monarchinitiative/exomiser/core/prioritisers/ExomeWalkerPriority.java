@@ -150,27 +150,13 @@ public PriorityType getPriorityType() {
      * seed genes given by the user.
      */
     private void computeDistanceAllNodesFromStartNodes() {
-        boolean first = true;
-        for (Integer seedGeneEntrezId : seedGenes) {
-            if (!randomWalkMatrix.containsGene(seedGeneEntrezId)) {
-                /* Note that the RW matrix does not have an entry for every
-                 Entrez Gene. If the gene is not contained in the matrix, we
-                 skip it. The gene will be given a (low) default score in 
-                 Genewanderer Relevance.
-                 */
-                continue;
-            }
-            //Get the column we need, this has the distances of ALL genes to the current gene
-            FloatMatrix column = randomWalkMatrix.getColumnMatrixForGene(seedGeneEntrezId);
-
-            // for the first column/known gene we have to init the resulting vector
-            if (first) {
-                combinedProximityVector = column;
-                first = false;
-            } else {
-                combinedProximityVector = combinedProximityVector.add(column);
-            }
-        }
+        /* Note that the RW matrix does not have an entry for every
+         Entrez Gene. If the gene is not contained in the matrix, it is
+         skipped. The gene will be given a (low) default score in
+         Genewanderer Relevance.
+         */
+        //Sum the columns for the seed genes, these have the distances of ALL genes to the seed genes
+        combinedProximityVector = randomWalkMatrix.getColumnSumForGenes(seedGenes);
     }
 
     @Override
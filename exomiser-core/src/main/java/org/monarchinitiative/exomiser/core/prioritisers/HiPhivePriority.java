@@ -21,7 +21,6 @@
 package org.monarchinitiative.exomiser.core.prioritisers;
 
 import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 import org.monarchinitiative.exomiser.core.model.Gene;
@@ -38,15 +37,21 @@
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
-import static java.util.Comparator.comparingDouble;
 import static java.util.stream.Collectors.*;
 
 /**
  * Filter genes according phenotypic similarity and to the random walk proximity
  * in the protein-protein interaction network.
+ * <p>
+ * The phenotype matching and model scoring for each organism run concurrently on a fork-join pool rather than the
+ * common pool. This is either the shared pool set using {@link #setForkJoinPool(ForkJoinPool)} or a pool bounded by
+ * {@link #setParallelism(int)} which is created for each call to {@link #prioritise(List, List)}.
  *
  * @author Damian Smedley <damian.smedley@sanger.ac.uk>
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
@@ -62,6 +67,10 @@ public class HiPhivePriority implements Prioritiser<HiPhivePriorityResult> {
     private final DataMatrix randomWalkMatrix;
     private final PriorityService priorityService;
 
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ForkJoinPool forkJoinPool = null;
+    private ProgressListener progressListener = ProgressListener.LOGGING;
+
     /**
      * @param options
      * @param randomWalkMatrix
@@ -72,6 +81,38 @@ public HiPhivePriority(HiPhiveOptions options, DataMatrix randomWalkMatrix, Prio
         this.priorityService = priorityService;
     }
 
+    /**
+     * Sets the maximum number of threads used for matching and scoring the organism models and finding the
+     * protein-protein interaction matches. Defaults to the number of available processors.
+     *
+     * @param parallelism maximum number of scoring threads - must be greater than 0.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets a pool, shared with other prioritisers, to match and score the models and find the protein-protein
+     * interaction matches in. The pool is not shut down by this class. {@link #setParallelism(int)} is ignored if this
+     * is set.
+     *
+     * @param forkJoinPool the pool to run in, or null to use a new pool for each call to {@link #prioritise(List, List)}
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * @param progressListener notified as the models for each organism are scored. Defaults to
+     *                         {@link ProgressListener#LOGGING}.
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = Objects.requireNonNull(progressListener);
+    }
+
     @Override
     public PriorityType getPriorityType() {
         return PRIORITY_TYPE;
@@ -86,10 +127,17 @@ public Stream<HiPhivePriorityResult> prioritise(List<String> hpoIds, List<Gene>
 
         Set<Integer> wantedGeneIds = genes.stream().map(Gene::getEntrezGeneID).collect(ImmutableSet.toImmutableSet());
 
-        ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels = makeBestGeneModelsForOrganisms(hpoPhenotypeTerms, Organism.HUMAN, options
-                .getOrganismsToRun(), wantedGeneIds);
-
-        HiPhiveProteinInteractionScorer ppiScorer = makeHiPhiveProteinInteractionScorer(bestGeneModels, options.runPpi());
+        ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels;
+        HiPhiveProteinInteractionScorer ppiScorer;
+        ForkJoinPool scoringPool = forkJoinPool == null ? new ForkJoinPool(parallelism) : forkJoinPool;
+        try {
+            bestGeneModels = makeBestGeneModelsForOrganisms(hpoPhenotypeTerms, Organism.HUMAN, options.getOrganismsToRun(), wantedGeneIds, scoringPool);
+            ppiScorer = makeHiPhiveProteinInteractionScorer(bestGeneModels, options.runPpi(), scoringPool);
+        } finally {
+            if (scoringPool != forkJoinPool) {
+                scoringPool.shutdown();
+            }
+        }
 
         logger.info("Prioritising genes...");
         return genes.stream().map(makeHiPhivePriorityResult(hpoPhenotypeTerms, bestGeneModels, ppiScorer));
@@ -122,15 +170,15 @@ private boolean matchesCandidateGeneSymbol(String geneSymbol) {
         return options.getCandidateGeneSymbol().equals(geneSymbol) || geneSymbol.startsWith(options.getCandidateGeneSymbol() + ",");
     }
 
-    private HiPhiveProteinInteractionScorer makeHiPhiveProteinInteractionScorer(ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels, boolean runPpi) {
+    private HiPhiveProteinInteractionScorer makeHiPhiveProteinInteractionScorer(ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels, boolean runPpi, ForkJoinPool scoringPool) {
         if (runPpi) {
             logger.info("Creating PPI scorer ");
-            return new HiPhiveProteinInteractionScorer(randomWalkMatrix, bestGeneModels, HIGH_QUALITY_SCORE_CUTOFF);
+            return new HiPhiveProteinInteractionScorer(randomWalkMatrix, bestGeneModels, HIGH_QUALITY_SCORE_CUTOFF, scoringPool);
         }
         return HiPhiveProteinInteractionScorer.EMPTY;
     }
 
-    private ListMultimap<Integer, GeneModelPhenotypeMatch> makeBestGeneModelsForOrganisms(List<PhenotypeTerm> hpoPhenotypeTerms, Organism referenceOrganism, Set<Organism> organismsToCompare, Set<Integer> wantedGeneIds) {
+    private ListMultimap<Integer, GeneModelPhenotypeMatch> makeBestGeneModelsForOrganisms(List<PhenotypeTerm> hpoPhenotypeTerms, Organism referenceOrganism, Set<Organism> organismsToCompare, Set<Integer> wantedGeneIds, ForkJoinPool forkJoinPool) {
 
         //CAUTION!! this must always run in order that the best score is set - HUMAN runs first as we are comparing HP to other phenotype ontology terms.
         PhenotypeMatcher referenceOrganismPhenotypeMatcher = priorityService.getPhenotypeMatcherForOrganism(hpoPhenotypeTerms, referenceOrganism);
@@ -138,82 +186,102 @@ private ListMultimap<Integer, GeneModelPhenotypeMatch> makeBestGeneModelsForOrga
         if (bestQueryPhenotypeMatch.getBestPhenotypeMatches().isEmpty()) {
             logger.warn("{} has no phenotype matches for input set {}", bestQueryPhenotypeMatch, hpoPhenotypeTerms);
         }
-        List<PhenotypeMatcher> bestOrganismPhenotypeMatches = getBestOrganismPhenotypeMatches(hpoPhenotypeTerms, referenceOrganismPhenotypeMatcher, organismsToCompare);
 
-        ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels = ArrayListMultimap.create();
-        for (PhenotypeMatcher organismPhenotypeMatcher : bestOrganismPhenotypeMatches) {
-            Set<GeneModel> modelsToScore = priorityService.getModelsForOrganism(organismPhenotypeMatcher.getOrganism())
-                    .stream()
-                    .filter(model -> wantedGeneIds.contains(model.getEntrezGeneId()))
-                    .collect(toSet());
-
-            List<GeneModelPhenotypeMatch> geneModelPhenotypeMatches = scoreModels(bestQueryPhenotypeMatch, organismPhenotypeMatcher, modelsToScore);
-            Map<Integer, GeneModelPhenotypeMatch> bestGeneModelsForOrganism = mapBestModelByGene(geneModelPhenotypeMatches);
-            bestGeneModelsForOrganism.forEach(bestGeneModels::put);
+        // the other organisms are independent of each other so their phenotype mappings and models can be fetched and
+        // scored concurrently. The parallel streams used when scoring run in the same pool as the task which started them.
+        AtomicInteger organismsScored = new AtomicInteger();
+        List<ForkJoinTask<Map<Integer, GeneModelPhenotypeMatch>>> organismTasks = new ArrayList<>();
+        for (Organism organism : organismsToCompare) {
+            organismTasks.add(forkJoinPool.submit(() -> {
+                Map<Integer, GeneModelPhenotypeMatch> bestGeneModelsForOrganism = scoreOrganismModels(hpoPhenotypeTerms, referenceOrganismPhenotypeMatcher, organism, wantedGeneIds);
+                progressListener.organismScored(organism, bestGeneModelsForOrganism.size(), organismsScored.incrementAndGet(), organismsToCompare.size());
+                return bestGeneModelsForOrganism;
+            }));
         }
 
+        // results are added in the original organism order so that the output is the same as running sequentially
+        ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels = ArrayListMultimap.create();
+        for (ForkJoinTask<Map<Integer, GeneModelPhenotypeMatch>> organismTask : organismTasks) {
+            organismTask.join().forEach(bestGeneModels::put);
+        }
         return bestGeneModels;
     }
 
-    private List<PhenotypeMatcher> getBestOrganismPhenotypeMatches(List<PhenotypeTerm> hpoPhenotypeTerms, PhenotypeMatcher referenceOrganismPhenotypeMatcher, Set<Organism> organismsToCompare) {
-        ImmutableList.Builder<PhenotypeMatcher> bestPossibleOrganismPhenotypeMatches = ImmutableList.builder();
-        for (Organism organism : organismsToCompare) {
-            if (organism == referenceOrganismPhenotypeMatcher.getOrganism()) {
-                //no need to re-query the database for these
-                bestPossibleOrganismPhenotypeMatches.add(referenceOrganismPhenotypeMatcher);
-            } else {
-                PhenotypeMatcher bestOrganismPhenotypes = priorityService.getPhenotypeMatcherForOrganism(hpoPhenotypeTerms, organism);
-                bestPossibleOrganismPhenotypeMatches.add(bestOrganismPhenotypes);
-            }
-        }
-        return bestPossibleOrganismPhenotypeMatches.build();
-    }
+    private Map<Integer, GeneModelPhenotypeMatch> scoreOrganismModels(List<PhenotypeTerm> hpoPhenotypeTerms, PhenotypeMatcher referenceOrganismPhenotypeMatcher, Organism organism, Set<Integer> wantedGeneIds) {
+        PhenotypeMatcher organismPhenotypeMatcher = getOrganismPhenotypeMatcher(hpoPhenotypeTerms, referenceOrganismPhenotypeMatcher, organism);
+        List<GeneModel> modelsToScore = getModelsToScore(organism, wantedGeneIds);
 
-    //returns a map of geneId to best model
-    private Map<Integer, GeneModelPhenotypeMatch> mapBestModelByGene(List<GeneModelPhenotypeMatch> organismModels) {
-        return getBestModelsByGene(organismModels)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(toMap(GeneModelPhenotypeMatch::getEntrezGeneId, Function.identity()));
+        QueryPhenotypeMatch bestQueryPhenotypeMatch = referenceOrganismPhenotypeMatcher.getQueryPhenotypeMatch();
+        Map<Integer, GeneModelPhenotypeMatch> bestGeneModels = scoreModels(bestQueryPhenotypeMatch, organismPhenotypeMatcher, modelsToScore);
+        return removeZeroScoringModels(bestGeneModels);
     }
 
-    private Stream<Optional<GeneModelPhenotypeMatch>> getBestModelsByGene(List<GeneModelPhenotypeMatch> organismModels) {
+    private List<GeneModel> getModelsToScore(Organism organism, Set<Integer> wantedGeneIds) {
+        List<GeneModel> models = priorityService.getModelsForGenes(organism, wantedGeneIds);
         if (options.isBenchmarkingEnabled()) {
-            return organismModels.parallelStream()
-                    .filter(model -> model.getScore() > 0)
-                    // catch hit to known disease-gene association for purposes of benchmarking i.e to simulate novel gene discovery performance
+            // catch hit to known disease-gene association for purposes of benchmarking i.e to simulate novel gene discovery performance
+            // these are removed before scoring so that the next best model for the gene is found instead
+            return models.stream()
                     .filter(model -> !options.isBenchmarkHit(model))
-                    .collect(groupingByConcurrent(GeneModelPhenotypeMatch::getEntrezGeneId, maxBy(comparingDouble(GeneModelPhenotypeMatch::getScore))))
-                    .values()
-                    .stream();
+                    .collect(toList());
         }
-        return organismModels.parallelStream()
+        return models;
+    }
+
+    private PhenotypeMatcher getOrganismPhenotypeMatcher(List<PhenotypeTerm> hpoPhenotypeTerms, PhenotypeMatcher referenceOrganismPhenotypeMatcher, Organism organism) {
+        if (organism == referenceOrganismPhenotypeMatcher.getOrganism()) {
+            //no need to re-query the database for these
+            return referenceOrganismPhenotypeMatcher;
+        }
+        return priorityService.getPhenotypeMatcherForOrganism(hpoPhenotypeTerms, organism);
+    }
+
+    private Map<Integer, GeneModelPhenotypeMatch> removeZeroScoringModels(Map<Integer, GeneModelPhenotypeMatch> bestGeneModels) {
+        return bestGeneModels.values().stream()
                 .filter(model -> model.getScore() > 0)
-                .collect(groupingByConcurrent(GeneModelPhenotypeMatch::getEntrezGeneId, maxBy(comparingDouble(GeneModelPhenotypeMatch::getScore))))
-                .values()
-                .stream();
+                .collect(toMap(GeneModelPhenotypeMatch::getEntrezGeneId, Function.identity()));
     }
 
     // n.b. this is *almost* identical to PhivePriority.scoreModels() the only difference is in HiPhive we're comparing the input terms
     // against all possible models (disease, mouse, fish), whereas in Phive we're only comparing against mouse.
     // For HiPhive the bestQueryPhenotypeMatch is going to be an HPO self-hit for every term in the query set so the
     // scoreModelPhenotypeMatch uses hpoIds.size() as the numMatchedQueryPhenotypes.
-    private List<GeneModelPhenotypeMatch> scoreModels(QueryPhenotypeMatch bestQueryPhenotypeMatch, PhenotypeMatcher organismPhenotypeMatcher, Collection<GeneModel> models) {
+    //returns a map of geneId to best model
+    private Map<Integer, GeneModelPhenotypeMatch> scoreModels(QueryPhenotypeMatch bestQueryPhenotypeMatch, PhenotypeMatcher organismPhenotypeMatcher, Collection<GeneModel> models) {
         Organism organism = organismPhenotypeMatcher.getOrganism();
 
-        ModelScorer<GeneModel> modelScorer = PhenodigmModelScorer.forMultiCrossSpecies(bestQueryPhenotypeMatch, organismPhenotypeMatcher);
+        PhenodigmModelScorer<GeneModel> modelScorer = PhenodigmModelScorer.forMultiCrossSpecies(bestQueryPhenotypeMatch, organismPhenotypeMatcher);
 
         logger.info("Scoring {} models", organism);
         Instant timeStart = Instant.now();
-        //running this in parallel here can cut the overall time for this method in half or better - ~650ms -> ~350ms on Pfeiffer test set.
-        List<GeneModelPhenotypeMatch> geneModelPhenotypeMatches = models.parallelStream()
-                .map(modelScorer::scoreModel)
-                .map(GeneModelPhenotypeMatch::new)
-                .collect(toList());
+        //only the best model for each gene is needed, so models which cannot beat it are not scored.
+        Map<Integer, GeneModelPhenotypeMatch> bestGeneModels = new BestGeneModelFinder(modelScorer).findBestModels(models);
 
         Duration duration = Duration.between(timeStart, Instant.now());
         logger.info("Scored {} {} models - {} ms", models.size(), organism, duration.toMillis());
-        return geneModelPhenotypeMatches;
+        return bestGeneModels;
+    }
+
+    /**
+     * Receives progress updates as the models for each organism are scored. Updates are sent from the scoring threads
+     * so implementations must be thread-safe.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        ProgressListener LOGGING = (organism, numGenesMatched, organismsScored, totalOrganisms) ->
+                logger.info("Finished scoring {} models ({} of {} organisms) - {} genes matched", organism, organismsScored, totalOrganisms, numGenesMatched);
+
+        ProgressListener NONE = (organism, numGenesMatched, organismsScored, totalOrganisms) -> {
+        };
+
+        /**
+         * @param organism        the organism whose models have been scored
+         * @param numGenesMatched number of genes with a best model for the organism
+         * @param organismsScored number of organisms scored so far, including this one
+         * @param totalOrganisms  total number of organisms to score
+         */
+        void organismScored(Organism organism, int numGenesMatched, int organismsScored, int totalOrganisms);
     }
 
     @Override
@@ -27,12 +27,16 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.ToDoubleFunction;
 import java.util.stream.Stream;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * This class is designed to do two things. First, it will add annotations to
  * genes based on their annotations to OMIM or Orphanet disease entries in the
@@ -83,15 +87,24 @@ public PriorityType getPriorityType() {
      */
     @Override
     public void prioritizeGenes(List<String> hpoIds, List<Gene> genes) {
+        Function<Gene, OMIMPriorityResult> prioritiseGene = prioritiseGene(getDiseasesByGeneId(genes));
         for (Gene gene : genes) {
-            OMIMPriorityResult result = prioritiseGene().apply(gene);
+            OMIMPriorityResult result = prioritiseGene.apply(gene);
             gene.addPriorityResult(result);
         }
     }
 
     @Override
     public Stream<OMIMPriorityResult> prioritise(List<String> hpoIds, List<Gene> genes) {
-        return genes.stream().map(prioritiseGene());
+        return genes.stream().map(prioritiseGene(getDiseasesByGeneId(genes)));
+    }
+
+    /**
+     * Fetches the diseases for all the genes in one go rather than one call per gene.
+     */
+    private Map<Integer, List<Disease>> getDiseasesByGeneId(List<Gene> genes) {
+        List<Integer> geneIds = genes.stream().map(Gene::getEntrezGeneID).collect(toList());
+        return priorityService.getDiseaseDataAssociatedWithGeneIds(geneIds);
     }
 
     /**
@@ -100,9 +113,9 @@ public Stream<OMIMPriorityResult> prioritise(List<String> hpoIds, List<Gene> gen
      * all OMIM and Orphanet diseases associated with the entrez Gene.
      *
      **/
-    private Function<Gene, OMIMPriorityResult> prioritiseGene() {
+    private Function<Gene, OMIMPriorityResult> prioritiseGene(Map<Integer, List<Disease>> diseasesByGeneId) {
         return gene -> {
-            List<Disease> diseases = priorityService.getDiseaseDataAssociatedWithGeneId(gene.getEntrezGeneID());
+            List<Disease> diseases = diseasesByGeneId.getOrDefault(gene.getEntrezGeneID(), Collections.emptyList());
             //this is a pretty non-punitive prioritiser. We're relying on the other prioritisers to do the main ranking
             double score = diseases.stream()
                     .filter(disease -> disease.getDiseaseId().startsWith("OMIM"))
@@ -25,11 +25,11 @@
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.prioritisers.util.ScoreDistribution;
 import org.monarchinitiative.exomiser.core.prioritisers.util.ScoreDistributionContainer;
+import org.monarchinitiative.exomiser.core.prioritisers.util.ScoreDistributionIndex;
+import org.monarchinitiative.exomiser.core.prioritisers.util.TermSimilarityIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import similarity.SimilarityUtilities;
-import similarity.concepts.ResnikSimilarity;
-import similarity.objects.InformationContentObjectSimilarity;
 import sonumina.math.graph.SlimDirectedGraphView;
 
 import java.io.BufferedReader;
@@ -38,6 +38,8 @@
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -67,9 +69,21 @@ public class PhenixPriority implements Prioritiser<PhenixPriorityResult> {
     private Ontology hpo;
 
     /**
-     * The semantic similarity measure used to calculate phenotypic similarity
+     * Pre-computed ancestors of the gene annotation terms used to calculate the Resnik semantic similarity of each
+     * gene to the query terms.
      */
-    private InformationContentObjectSimilarity similarityMeasure;
+    private TermSimilarityIndex<Term> termSimilarityIndex;
+
+    /**
+     * The maximum number of threads used to score the genes.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Shared pool used to score the genes, owned by whoever supplied it. If this is not set a pool is created for each
+     * call to {@link #prioritise(List, List)} and shut down again afterwards.
+     */
+    private ForkJoinPool forkJoinPool = null;
 
     private static final double DEFAULT_SCORE = 0;
 
@@ -81,6 +95,11 @@ public class PhenixPriority implements Prioritiser<PhenixPriorityResult> {
      * distribution.
      */
     private String scoredistributionFolder;
+    /**
+     * Pre-computed binary score distributions shared between analyses. If this is empty the text distributions in the
+     * {@link #scoredistributionFolder} will be parsed for each analysis.
+     */
+    private ScoreDistributionIndex scoreDistributionIndex = ScoreDistributionIndex.EMPTY;
 
 //counters for stats
     /**
@@ -114,12 +133,26 @@ public class PhenixPriority implements Prioritiser<PhenixPriorityResult> {
      * Hudson page</a>
      */
     public PhenixPriority(String scoreDistributionFolder, boolean symmetric) {
+        this(scoreDistributionFolder, symmetric, ScoreDistributionIndex.EMPTY);
+    }
+
+    /**
+     * Create a new instance of the PhenixPriority using the pre-computed score distributions to calculate the p-values.
+     *
+     * @param scoreDistributionFolder Folder which contains the hp.obo and annotation files.
+     * @param symmetric Flag to indicate if the semantic similarity score should
+     * be calculated using the symmetrix formula.
+     * @param scoreDistributionIndex The memory-mapped score distributions. If this is empty, the score distribution
+     * files in the scoreDistributionFolder will be used.
+     */
+    public PhenixPriority(String scoreDistributionFolder, boolean symmetric, ScoreDistributionIndex scoreDistributionIndex) {
 
         if (!scoreDistributionFolder.endsWith(File.separator)) {
             scoreDistributionFolder += File.separator;
         }
         this.scoredistributionFolder = scoreDistributionFolder;
         this.symmetric = symmetric;
+        this.scoreDistributionIndex = scoreDistributionIndex;
 
         String hpoOboFile = String.format("%s%s", scoreDistributionFolder, "hp.obo");
         String hpoAnnotationFile = String.format("%s%s", scoreDistributionFolder, "ALL_SOURCES_ALL_FREQUENCIES_genes_to_phenotype.txt");
@@ -129,7 +162,9 @@ public PhenixPriority(String scoreDistributionFolder, boolean symmetric) {
         //The HPO as SlimDirectedGraph (fast access to ancestors etc.)
         SlimDirectedGraphView<Term> hpoSlim = hpo.getSlimGraphView();
         this.geneId2annotations = parseAnnotations(hpoAnnotationFile, hpo, hpoSlim);
-        this.similarityMeasure = calculateInformationContentSimilarityMeasures(symmetric, hpo, hpoSlim, geneId2annotations);
+        Map<Term, Double> term2ic = calculateTermIC(hpo, hpoSlim, geneId2annotations);
+        this.termSimilarityIndex = new TermSimilarityIndex<>(term2ic, hpoSlim::getAncestors, geneId2annotations);
+        logger.info("Indexed ancestors of {} HPO annotation terms", termSimilarityIndex.numAnnotationTerms());
     }
 
     /**
@@ -140,10 +175,27 @@ protected PhenixPriority(boolean symmetric) {
         this.symmetric = symmetric;
     }
 
-    private InformationContentObjectSimilarity calculateInformationContentSimilarityMeasures(boolean symmetric, Ontology hpo, SlimDirectedGraphView<Term> hpoSlim, Map<String, List<Term>> geneId2annotations) {
-        Map<Term, Double> term2ic = calculateTermIC(hpo, hpoSlim, geneId2annotations);
-        ResnikSimilarity resnik = new ResnikSimilarity(hpo, (HashMap<Term, Double>) term2ic);
-        return new InformationContentObjectSimilarity(resnik, symmetric, false);
+    /**
+     * Sets the maximum number of threads used to score the genes in {@link #prioritise(List, List)}. This is ignored
+     * if a shared pool has been set using {@link #setForkJoinPool(ForkJoinPool)}.
+     *
+     * @param parallelism maximum number of scoring threads - must be greater than 0.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets a pool, shared with other prioritisers, to score the genes in. The pool is not shut down by this class.
+     *
+     * @param forkJoinPool the pool to score the genes in, or null to use a new pool for each call to
+     *                     {@link #prioritise(List, List)}
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
     }
 
     /**
@@ -274,9 +326,11 @@ public Stream<PhenixPriorityResult> prioritise(List<String> hpoIds, List<Gene> g
         List<Term> hpoQueryTerms = makeHpoQueryTerms(hpoIds);
         logger.info("Created HPO query terms {}", hpoQueryTerms);
 
-        ScoreDistributionContainer scoredistributionContainer = new ScoreDistributionContainer(scoredistributionFolder, symmetric, hpoQueryTerms.size());
+        NegLogPCalculator negLogPCalculator = makeNegLogPCalculator(hpoQueryTerms.size());
+
+        TermSimilarityIndex<Term>.QuerySimilarities querySimilarities = termSimilarityIndex.querySimilarities(hpoQueryTerms);
 
-        Map<Gene, PhenixScore> geneScores = genes.stream().collect(toMap(Function.identity(), scoreGene(hpoQueryTerms, scoredistributionContainer)));
+        Map<Gene, PhenixScore> geneScores = scoreGenes(genes, scoreGene(hpoQueryTerms, querySimilarities, negLogPCalculator));
 
         double maxSemSimScore = geneScores.values().stream().mapToDouble(PhenixScore::getSemanticSimilarityScore).max().orElse(DEFAULT_SCORE);
         double maxNegLogP = geneScores.values().stream().mapToDouble(PhenixScore::getNegativeLogP).max().orElse(DEFAULT_SCORE);
@@ -306,24 +360,56 @@ private List<Term> makeHpoQueryTerms(List<String> hpoIds) {
                 .collect(Collectors.toList());
     }
 
-    private Function<Gene, PhenixScore> scoreGene(List<Term> queryTerms, ScoreDistributionContainer scoredistributionContainer) {
+    private NegLogPCalculator makeNegLogPCalculator(int numQueryTerms) {
+        if (scoreDistributionIndex.isEmpty()) {
+            ScoreDistributionContainer scoredistributionContainer = new ScoreDistributionContainer(scoredistributionFolder, symmetric, numQueryTerms);
+            return (entrezGeneId, semanticSimilarityScore) -> {
+                ScoreDistribution scoreDist = scoredistributionContainer.getDistribution(Integer.toString(entrezGeneId));
+                return calculateNegLogP(semanticSimilarityScore, scoreDist);
+            };
+        }
+        return (entrezGeneId, semanticSimilarityScore) -> {
+            OptionalDouble rawPvalue = scoreDistributionIndex.getPvalue(symmetric, numQueryTerms, entrezGeneId, semanticSimilarityScore);
+            // Negative log of p value : most significant get highest score
+            return rawPvalue.isPresent() ? Math.log(rawPvalue.getAsDouble()) * -1.0 : DEFAULT_SCORE;
+        };
+    }
+
+    /**
+     * Scores the genes using a bounded pool of threads. The gene scoring only reads from the pre-computed
+     * query similarities and the immutable score distributions so is safe to run concurrently.
+     */
+    private Map<Gene, PhenixScore> scoreGenes(List<Gene> genes, Function<Gene, PhenixScore> geneScorer) {
+        ForkJoinPool scoringPool = forkJoinPool == null ? new ForkJoinPool(parallelism) : forkJoinPool;
+        try {
+            return scoringPool.submit(() -> genes.parallelStream().collect(toMap(Function.identity(), geneScorer))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PhenixException("Interrupted while scoring genes");
+        } catch (ExecutionException e) {
+            throw new PhenixException("Unable to score genes: " + e.getCause().getMessage());
+        } finally {
+            if (scoringPool != forkJoinPool) {
+                scoringPool.shutdown();
+            }
+        }
+    }
+
+    private Function<Gene, PhenixScore> scoreGene(List<Term> queryTerms, TermSimilarityIndex<Term>.QuerySimilarities querySimilarities, NegLogPCalculator negLogPCalculator) {
         return gene -> {
             int entrezGeneId = gene.getEntrezGeneID();
             String geneIdString = Integer.toString(entrezGeneId);
 
-            if (!geneId2annotations.containsKey(geneIdString)) {
+            if (!termSimilarityIndex.containsObject(geneIdString)) {
                 return new PhenixScore(DEFAULT_SCORE, DEFAULT_SCORE);
             }
 
-            List<Term> geneAnnotations = geneId2annotations.get(geneIdString);
-            double semanticSimilarityScore = similarityMeasure.computeObjectSimilarity( (ArrayList<Term>) queryTerms, (ArrayList<Term>) geneAnnotations);
+            double semanticSimilarityScore = querySimilarities.objectSimilarity(geneIdString, symmetric);
 
             if (Double.isNaN(semanticSimilarityScore)) {
-                logger.error("Score was NaN for geneId: {} : ", entrezGeneId, queryTerms);
+                logger.error("Score was NaN for geneId: {} : {}", entrezGeneId, queryTerms);
             }
-            ScoreDistribution scoreDist = scoredistributionContainer.getDistribution(geneIdString);
-
-            double negLogP = calculateNegLogP(semanticSimilarityScore, scoreDist);
+            double negLogP = negLogPCalculator.calculateNegLogP(entrezGeneId, semanticSimilarityScore);
             return new PhenixScore(semanticSimilarityScore, negLogP);
         };
     }
@@ -355,6 +441,11 @@ private double calculateNormalisationFactor(double maxSemSimScore) {
     }
 
 
+    @FunctionalInterface
+    private interface NegLogPCalculator {
+        double calculateNegLogP(int entrezGeneId, double semanticSimilarityScore);
+    }
+
     private static class PhenixException extends RuntimeException {
 
         private PhenixException(String message) {
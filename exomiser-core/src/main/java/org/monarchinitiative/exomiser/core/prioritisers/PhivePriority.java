@@ -35,7 +35,6 @@
 import java.util.function.Function;
 import java.util.stream.Stream;
 
-import static java.util.Comparator.comparingDouble;
 import static java.util.stream.Collectors.*;
 
 /**
@@ -84,22 +83,16 @@ public Stream<PhivePriorityResult> prioritise(List<String> hpoIds, List<Gene> ge
 
         Set<Integer> wantedGeneIds = genes.stream().map(Gene::getEntrezGeneID).collect(ImmutableSet.toImmutableSet());
 
-        Set<GeneModel> modelsToScore = priorityService.getModelsForOrganism(Organism.MOUSE).stream()
-                .filter(model -> wantedGeneIds.contains(model.getEntrezGeneId()))
-                .collect(ImmutableSet.toImmutableSet());
-
-        List<GeneModelPhenotypeMatch> scoredModels = scoreModels(humanMousePhenotypeMatcher, modelsToScore);
+        List<GeneModel> modelsToScore = priorityService.getModelsForGenes(Organism.MOUSE, wantedGeneIds);
 
         //n.b. this will contain models but with a phenotype score of zero
-        Map<Integer, Optional<GeneModelPhenotypeMatch>> geneModelPhenotypeMatches = scoredModels.parallelStream()
-//                .filter(model -> model.getScore() > 0)
-                .collect(groupingByConcurrent(GeneModelPhenotypeMatch::getEntrezGeneId, maxBy(comparingDouble(GeneModelPhenotypeMatch::getScore))));
+        Map<Integer, GeneModelPhenotypeMatch> geneModelPhenotypeMatches = scoreModels(humanMousePhenotypeMatcher, modelsToScore);
 
         return genes.stream().map(getPhivePriorityResult(geneModelPhenotypeMatches));
     }
 
-    private Function<Gene, PhivePriorityResult> getPhivePriorityResult(Map<Integer, Optional<GeneModelPhenotypeMatch>> geneModelPhenotypeMatches) {
-        return gene -> geneModelPhenotypeMatches.getOrDefault(gene.getEntrezGeneID(), Optional.empty())
+    private Function<Gene, PhivePriorityResult> getPhivePriorityResult(Map<Integer, GeneModelPhenotypeMatch> geneModelPhenotypeMatches) {
+        return gene -> Optional.ofNullable(geneModelPhenotypeMatches.get(gene.getEntrezGeneID()))
                     .map(makeModelPhivePriorityResult())
                     //This is set to 0.6 otherwise the performance is poor for genes with no mouse models.
                     //The rankings are quite different to hiPhive because of this - HiPhive uses 0 if there are no models.
@@ -111,22 +104,20 @@ private Function<GeneModelPhenotypeMatch, PhivePriorityResult> makeModelPhivePri
         return modelPhenotypeMatch -> new PhivePriorityResult(modelPhenotypeMatch.getEntrezGeneId(), modelPhenotypeMatch.getHumanGeneSymbol(), modelPhenotypeMatch.getScore(), modelPhenotypeMatch);
     }
 
-    private List<GeneModelPhenotypeMatch> scoreModels(PhenotypeMatcher organismPhenotypeMatcher, Collection<GeneModel> models) {
+    //returns a map of geneId to best model
+    private Map<Integer, GeneModelPhenotypeMatch> scoreModels(PhenotypeMatcher organismPhenotypeMatcher, Collection<GeneModel> models) {
         Organism organism = organismPhenotypeMatcher.getOrganism();
 
-        ModelScorer<GeneModel> modelScorer = PhenodigmModelScorer.forSingleCrossSpecies(organismPhenotypeMatcher);
+        PhenodigmModelScorer<GeneModel> modelScorer = PhenodigmModelScorer.forSingleCrossSpecies(organismPhenotypeMatcher);
 
         logger.info("Scoring {} models", organism);
         Instant timeStart = Instant.now();
-        //running this in parallel here can cut the overall time for this method in half or better - ~650ms -> ~350ms on Pfeiffer test set.
-        List<GeneModelPhenotypeMatch> geneModelPhenotypeMatches = models.parallelStream()
-                .map(modelScorer::scoreModel)
-                .map(GeneModelPhenotypeMatch::new)
-                .collect(toList());
+        //only the best model for each gene is needed, so models which cannot beat it are not scored.
+        Map<Integer, GeneModelPhenotypeMatch> bestGeneModels = new BestGeneModelFinder(modelScorer).findBestModels(models);
 
         Duration duration = Duration.between(timeStart, Instant.now());
         logger.info("Scored {} {} models - {} ms", models.size(), organism, duration.toMillis());
-        return geneModelPhenotypeMatches;
+        return bestGeneModels;
     }
 
     @Override
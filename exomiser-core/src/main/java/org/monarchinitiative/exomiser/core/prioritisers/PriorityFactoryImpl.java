@@ -27,15 +27,19 @@
 
 import org.monarchinitiative.exomiser.core.prioritisers.service.PriorityService;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
+import org.monarchinitiative.exomiser.core.prioritisers.util.ScoreDistributionIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Factory class for handling creation of FilterType objects.
@@ -43,13 +47,21 @@
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
 @Component
-public class PriorityFactoryImpl implements PriorityFactory {
+public class PriorityFactoryImpl implements PriorityFactory, AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(PriorityFactoryImpl.class);
 
     private final PriorityService priorityService;
     private final DataMatrix randomWalkMatrix;
     private final Path phenixDataDirectory;
+    // memory-mapped once and shared between all PhenixPriority instances
+    private ScoreDistributionIndex phenixScoreDistributionIndex;
+    // where the binary PhenIX score distributions are written if they are not shipped with the data
+    private Path phenixCacheDirectory = null;
+    private int prioritiserThreads = Runtime.getRuntime().availableProcessors();
+    // shared by the PhenixPriority and HiPhivePriority of every analysis, created on first use and shut down on close
+    private ForkJoinPool prioritiserPool = null;
+    private boolean closed = false;
 
     // The randomWalkMatrix takes about 1min to load into RAM and isn't always required, so @Lazy is used to defer loading
     // until it is required.
@@ -61,6 +73,29 @@ public PriorityFactoryImpl(PriorityService priorityService, DataMatrix randomWal
         this.phenixDataDirectory = phenixDataDirectory;
     }
 
+    /**
+     * Sets the maximum number of threads shared by all of the PhenixPriority and HiPhivePriority made by this factory.
+     * Values less than 1 will use the number of available processors.
+     *
+     * @param prioritiserThreads maximum number of threads for the prioritisers
+     */
+    @Value("${exomiser.phenotype.prioritiser-threads:0}")
+    public void setPrioritiserThreads(int prioritiserThreads) {
+        this.prioritiserThreads = prioritiserThreads < 1 ? Runtime.getRuntime().availableProcessors() : prioritiserThreads;
+    }
+
+    /**
+     * Sets the directory to write the binary PhenIX score distribution index to when there is no up to date index in
+     * the PhenIX data directory. An empty value, the default, means the index is never written and the text score
+     * distributions are used instead.
+     *
+     * @param phenixCacheDirectory directory for the PhenIX score distribution index, created if it does not exist
+     */
+    @Value("${exomiser.phenotype.phenix-cache-directory:}")
+    public void setPhenixCacheDirectory(String phenixCacheDirectory) {
+        this.phenixCacheDirectory = phenixCacheDirectory.isEmpty() ? null : Paths.get(phenixCacheDirectory);
+    }
+
     /**
      * Returns a Prioritiser of the given type, ready to run according to the
      * settings provided. Will return a non-functional prioritiser in cases
@@ -118,7 +153,75 @@ public OMIMPriority makeOmimPrioritiser() {
     @Override
     public PhenixPriority makePhenixPrioritiser() {
         boolean symmetric = false;
-        return new PhenixPriority(phenixDataDirectory.toString(), symmetric);
+        PhenixPriority phenixPriority = new PhenixPriority(phenixDataDirectory.toString(), symmetric, getPhenixScoreDistributionIndex());
+        phenixPriority.setParallelism(prioritiserThreads);
+        phenixPriority.setForkJoinPool(getPrioritiserPool());
+        return phenixPriority;
+    }
+
+    /**
+     * @return the pool shared by the prioritisers, or null once this factory has been closed, in which case each
+     * prioritiser uses a pool of its own.
+     */
+    private synchronized ForkJoinPool getPrioritiserPool() {
+        if (prioritiserPool == null && !closed) {
+            prioritiserPool = new ForkJoinPool(prioritiserThreads);
+        }
+        return prioritiserPool;
+    }
+
+    /**
+     * Shuts down the pool of threads shared by the prioritisers. Calling this more than once has no further effect.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (prioritiserPool != null) {
+            prioritiserPool.shutdown();
+            prioritiserPool = null;
+        }
+    }
+
+    /**
+     * Maps the binary PhenIX score distributions on first use. An up to date index file in the PhenIX data directory,
+     * i.e. one built along with the data release, is used as-is. Otherwise, if a PhenIX cache directory has been set,
+     * the index in there is used, being (re-)created from the text *.out files in the PhenIX data directory if it does
+     * not exist or is out of date with respect to them. The data directory itself is never written to. Should this
+     * fail, the empty index is returned and the PhenixPriority will fall back to parsing the text files for each
+     * analysis.
+     */
+    private synchronized ScoreDistributionIndex getPhenixScoreDistributionIndex() {
+        if (phenixScoreDistributionIndex == null) {
+            phenixScoreDistributionIndex = loadPhenixScoreDistributionIndex();
+        }
+        return phenixScoreDistributionIndex;
+    }
+
+    private ScoreDistributionIndex loadPhenixScoreDistributionIndex() {
+        Path indexFile = phenixDataDirectory.resolve(ScoreDistributionIndex.DEFAULT_FILE_NAME);
+        try {
+            if (!ScoreDistributionIndex.hasDistributionFiles(phenixDataDirectory)) {
+                logger.info("No PhenIX score distributions found in {}", phenixDataDirectory);
+                return ScoreDistributionIndex.EMPTY;
+            }
+            if (ScoreDistributionIndex.isUpToDate(indexFile, phenixDataDirectory)) {
+                return ScoreDistributionIndex.open(indexFile);
+            }
+            if (phenixCacheDirectory == null) {
+                logger.info("Set exomiser.phenotype.phenix-cache-directory to convert the PhenIX score distributions in {} to a faster binary index", phenixDataDirectory);
+            } else {
+                indexFile = phenixCacheDirectory.resolve(ScoreDistributionIndex.DEFAULT_FILE_NAME);
+                if (!ScoreDistributionIndex.isUpToDate(indexFile, phenixDataDirectory)) {
+                    logger.info("Converting PhenIX score distributions in {} to {}", phenixDataDirectory, indexFile);
+                    ScoreDistributionIndex.writeIndex(phenixDataDirectory, indexFile);
+                }
+                return ScoreDistributionIndex.open(indexFile);
+            }
+        } catch (ScoreDistributionIndex.ScoreDistributionIndexException e) {
+            logger.error("Unable to use PhenIX score distribution index {}", indexFile, e);
+        }
+        logger.info("No PhenIX score distribution index found - using text score distributions from {}", phenixDataDirectory);
+        return ScoreDistributionIndex.EMPTY;
     }
 
     @Override
@@ -133,7 +236,10 @@ public ExomeWalkerPriority makeExomeWalkerPrioritiser(List<Integer> entrezSeedGe
 
     @Override
     public HiPhivePriority makeHiPhivePrioritiser(HiPhiveOptions hiPhiveOptions) {
-        return new HiPhivePriority(hiPhiveOptions, randomWalkMatrix, priorityService);
+        HiPhivePriority hiPhivePriority = new HiPhivePriority(hiPhiveOptions, randomWalkMatrix, priorityService);
+        hiPhivePriority.setParallelism(prioritiserThreads);
+        hiPhivePriority.setForkJoinPool(getPrioritiserPool());
+        return hiPhivePriority;
     }
 
 }
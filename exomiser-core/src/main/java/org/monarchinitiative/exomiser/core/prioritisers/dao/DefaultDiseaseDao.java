@@ -26,9 +26,14 @@
 package org.monarchinitiative.exomiser.core.prioritisers.dao;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
@@ -38,6 +43,7 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  *
@@ -48,12 +54,29 @@ public class DefaultDiseaseDao implements DiseaseDao {
 
     private final Logger logger = LoggerFactory.getLogger(DefaultDiseaseDao.class);
 
+    private static final String DISEASE_DATA_QUERY = "SELECT gene_id as entrez_id, symbol as human_gene_symbol, d.disease_id as disease_id, d.diseasename as disease_name, d.TYPE AS disease_type, d.INHERITANCE as inheritance_code, hp_id as pheno_ids FROM entrez2sym e, disease_hp dhp, disease d  WHERE dhp.disease_id = d.DISEASE_ID and e.entrezid = d.GENE_ID";
+    //keeps the IN clause of the batch query to a reasonable size
+    private static final int MAX_GENE_IDS_PER_QUERY = 1000;
+    private static final int FETCH_SIZE = 10000;
+    private static final String DISEASES_CACHE_NAME = "diseases";
+
     private final DataSource dataSource;
+    private Cache diseasesCache;
 
     public DefaultDiseaseDao(DataSource phenotypeDataSource) {
         this.dataSource = phenotypeDataSource;
     }
 
+    /**
+     * Enables {@link #getDiseaseDataAssociatedWithGeneIds(Collection)} to share the "diseases" cache used by
+     * {@link #getDiseaseDataAssociatedWithGeneId(int)}. The @Cacheable proxy only intercepts calls for single genes, so
+     * the batch query reads and populates the cache directly using the same entrez gene id keys.
+     */
+    @Autowired(required = false)
+    public void setCacheManager(CacheManager cacheManager) {
+        this.diseasesCache = cacheManager.getCache(DISEASES_CACHE_NAME);
+    }
+
     @Cacheable(value = "diseaseHp")
     @Override
     public Set<String> getHpoIdsForDiseaseId(String diseaseId) {
@@ -83,10 +106,10 @@ private List<String> parseHpoIdListFromString(String hpoIdsString) {
         return hpoIdList;
     }
 
-    @Cacheable(value="diseases")
+    @Cacheable(value = DISEASES_CACHE_NAME)
     @Override
     public List<Disease> getDiseaseDataAssociatedWithGeneId(int geneId) {
-        String query = "SELECT gene_id as entrez_id, symbol as human_gene_symbol, d.disease_id as disease_id, d.diseasename as disease_name, d.TYPE AS disease_type, d.INHERITANCE as inheritance_code, hp_id as pheno_ids FROM entrez2sym e, disease_hp dhp, disease d  WHERE dhp.disease_id = d.DISEASE_ID and e.entrezid = d.GENE_ID and d.GENE_ID = ?";
+        String query = DISEASE_DATA_QUERY + " and d.GENE_ID = ?";
 
         try (Connection connection = dataSource.getConnection();
              PreparedStatement statement = setQueryGeneId(connection, query, geneId);
@@ -106,9 +129,96 @@ private PreparedStatement setQueryGeneId(Connection connection, String query, in
         return ps;
     }
 
-    private List<Disease> processDiseaseResults(ResultSet rs) throws SQLException{
+    /**
+     * Fetches the diseases for the genes using one query per {@value MAX_GENE_IDS_PER_QUERY} genes, rather than one query
+     * per gene. Genes already in the "diseases" cache are not queried and the results for the remaining genes, including
+     * those with no associated diseases, are added to it.
+     */
+    @Override
+    public Map<Integer, List<Disease>> getDiseaseDataAssociatedWithGeneIds(Collection<Integer> geneIds) {
+        ImmutableMap.Builder<Integer, List<Disease>> mapBuilder = ImmutableMap.builder();
+        List<Integer> uncachedGeneIds = new ArrayList<>();
+        for (Integer geneId : new LinkedHashSet<>(geneIds)) {
+            List<Disease> cachedDiseases = getCachedDiseases(geneId);
+            if (cachedDiseases == null) {
+                uncachedGeneIds.add(geneId);
+            } else if (!cachedDiseases.isEmpty()) {
+                mapBuilder.put(geneId, cachedDiseases);
+            }
+        }
+        for (List<Integer> batch : Lists.partition(uncachedGeneIds, MAX_GENE_IDS_PER_QUERY)) {
+            String query = DISEASE_DATA_QUERY + " and d.GENE_ID IN (" + String.join(",", Collections.nCopies(batch.size(), "?")) + ")";
+            try {
+                Map<Integer, List<Disease>> queriedDiseases = queryDiseaseData(query, batch);
+                for (Integer geneId : batch) {
+                    List<Disease> diseases = queriedDiseases.getOrDefault(geneId, ImmutableList.of());
+                    // failed queries are not cached so that they can be retried
+                    if (diseasesCache != null) {
+                        diseasesCache.put(geneId, diseases);
+                    }
+                    if (!diseases.isEmpty()) {
+                        mapBuilder.put(geneId, diseases);
+                    }
+                }
+            } catch (SQLException e) {
+                logger.error("Unable to execute query '{}' for {} geneIds", query, batch.size(), e);
+            }
+        }
+        return mapBuilder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Disease> getCachedDiseases(Integer geneId) {
+        if (diseasesCache == null) {
+            return null;
+        }
+        Cache.ValueWrapper valueWrapper = diseasesCache.get(geneId);
+        return valueWrapper == null ? null : (List<Disease>) valueWrapper.get();
+    }
+
+    private Map<Integer, List<Disease>> queryDiseaseData(String query, List<Integer> geneIds) throws SQLException {
+        Map<Integer, ImmutableList.Builder<Disease>> diseasesByGeneId = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = setQueryGeneIds(connection, query, geneIds);
+             ResultSet rs = statement.executeQuery()) {
+            processDiseaseResults(rs, disease -> diseasesByGeneId
+                    .computeIfAbsent(disease.getAssociatedGeneId(), key -> ImmutableList.builder())
+                    .add(disease));
+        }
+        Map<Integer, List<Disease>> results = new HashMap<>();
+        diseasesByGeneId.forEach((geneId, diseases) -> results.put(geneId, diseases.build()));
+        return results;
+    }
+
+    private PreparedStatement setQueryGeneIds(Connection connection, String query, List<Integer> geneIds) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(query);
+        for (int i = 0; i < geneIds.size(); i++) {
+            ps.setInt(i + 1, geneIds.get(i));
+        }
+        return ps;
+    }
+
+    @Override
+    public void processAllDiseaseData(Consumer<Disease> consumer) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(DISEASE_DATA_QUERY)) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                processDiseaseResults(rs, consumer);
+            }
+        } catch (SQLException e) {
+            throw new DiseaseDaoException("Unable to execute query '" + DISEASE_DATA_QUERY + "' for all gene-disease associations", e);
+        }
+    }
+
+    private List<Disease> processDiseaseResults(ResultSet rs) throws SQLException {
         ImmutableList.Builder<Disease> listBuilder = ImmutableList.builder();
-        while(rs.next()) {
+        processDiseaseResults(rs, listBuilder::add);
+        return listBuilder.build();
+    }
+
+    private void processDiseaseResults(ResultSet rs, Consumer<Disease> consumer) throws SQLException {
+        while (rs.next()) {
             List<String> phenotypes = ImmutableList.copyOf(rs.getString("pheno_ids").split(","));
             Disease disease = Disease.builder()
                     .diseaseId(rs.getString("disease_id"))
@@ -119,8 +229,7 @@ private List<Disease> processDiseaseResults(ResultSet rs) throws SQLException{
                     .diseaseTypeCode(rs.getString("disease_type"))
                     .phenotypeIds(phenotypes)
                     .build();
-            listBuilder.add(disease);
+            consumer.accept(disease);
         }
-        return listBuilder.build();
     }
 }
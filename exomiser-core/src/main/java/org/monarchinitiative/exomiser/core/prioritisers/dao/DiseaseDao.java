@@ -27,8 +27,8 @@
 
 import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
 
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * 
@@ -39,4 +39,30 @@ public interface DiseaseDao {
     Set<String> getHpoIdsForDiseaseId(String diseaseId);
 
     List<Disease> getDiseaseDataAssociatedWithGeneId(int geneId);
+
+    /**
+     * Batch version of {@link #getDiseaseDataAssociatedWithGeneId(int)}. Implementations should override this where
+     * they are able to fetch the data for many genes in fewer calls.
+     *
+     * @param geneIds entrez gene ids of the genes of interest
+     * @return map of entrez gene id to the diseases associated with that gene. Genes without any associated diseases
+     * are not present in the map.
+     */
+    default Map<Integer, List<Disease>> getDiseaseDataAssociatedWithGeneIds(Collection<Integer> geneIds) {
+        Map<Integer, List<Disease>> diseasesByGeneId = new HashMap<>();
+        for (Integer geneId : geneIds) {
+            List<Disease> diseases = getDiseaseDataAssociatedWithGeneId(geneId);
+            if (!diseases.isEmpty()) {
+                diseasesByGeneId.put(geneId, diseases);
+            }
+        }
+        return diseasesByGeneId;
+    }
+
+    /**
+     * Passes every gene-disease association to the consumer. Each {@link Disease} is associated with a single gene.
+     *
+     * @throws DiseaseDaoException if the associations could not be read in full
+     */
+    void processAllDiseaseData(Consumer<Disease> consumer);
 }
@@ -0,0 +1,102 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.monarchinitiative.exomiser.core.prioritisers.dao;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link DiseaseDao} which reads all the gene-disease associations from the wrapped DiseaseDao with a single query the
+ * first time they are needed, or on {@link #preload()}, and serves them from an immutable entrez gene id keyed index
+ * thereafter. The HPO ids for a disease are still fetched from the wrapped DiseaseDao.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class PreloadedDiseaseDao implements DiseaseDao {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreloadedDiseaseDao.class);
+
+    private final DiseaseDao diseaseDao;
+    private final Supplier<ImmutableListMultimap<Integer, Disease>> geneDiseaseAssociations;
+
+    public PreloadedDiseaseDao(DiseaseDao diseaseDao) {
+        this.diseaseDao = diseaseDao;
+        // a failed load is propagated and not memoized, so the next request will try again
+        this.geneDiseaseAssociations = Suppliers.memoize(() -> loadGeneDiseaseAssociations(diseaseDao));
+    }
+
+    private static ImmutableListMultimap<Integer, Disease> loadGeneDiseaseAssociations(DiseaseDao diseaseDao) {
+        logger.info("Loading gene-disease associations...");
+        Instant start = Instant.now();
+        ImmutableListMultimap.Builder<Integer, Disease> builder = ImmutableListMultimap.builder();
+        diseaseDao.processAllDiseaseData(disease -> builder.put(disease.getAssociatedGeneId(), disease));
+        ImmutableListMultimap<Integer, Disease> associations = builder.build();
+        logger.info("Loaded {} diseases associated with {} genes - {} ms", associations.size(), associations.keySet()
+                .size(), Duration.between(start, Instant.now()).toMillis());
+        return associations;
+    }
+
+    /**
+     * Loads all the gene-disease associations now rather than waiting until they are first used.
+     */
+    public void preload() {
+        geneDiseaseAssociations.get();
+    }
+
+    @Override
+    public Set<String> getHpoIdsForDiseaseId(String diseaseId) {
+        return diseaseDao.getHpoIdsForDiseaseId(diseaseId);
+    }
+
+    @Override
+    public List<Disease> getDiseaseDataAssociatedWithGeneId(int geneId) {
+        return geneDiseaseAssociations.get().get(geneId);
+    }
+
+    @Override
+    public Map<Integer, List<Disease>> getDiseaseDataAssociatedWithGeneIds(Collection<Integer> geneIds) {
+        ImmutableListMultimap<Integer, Disease> associations = geneDiseaseAssociations.get();
+        ImmutableMap.Builder<Integer, List<Disease>> builder = ImmutableMap.builder();
+        for (Integer geneId : new LinkedHashSet<>(geneIds)) {
+            List<Disease> diseases = associations.get(geneId);
+            if (!diseases.isEmpty()) {
+                builder.put(geneId, diseases);
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void processAllDiseaseData(Consumer<Disease> consumer) {
+        geneDiseaseAssociations.get().values().forEach(consumer);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.monarchinitiative.exomiser.core.prioritisers.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Immutable index of the {@link GeneModel} for an organism by the entrez gene id of their associated human gene. This
+ * allows the prioritisers to fetch only the models for the genes being analysed rather than filtering every model for
+ * the organism.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class GeneModelIndex {
+
+    public static final GeneModelIndex EMPTY = new GeneModelIndex(ImmutableListMultimap.of());
+
+    private final ImmutableListMultimap<Integer, GeneModel> modelsByEntrezGeneId;
+
+    private GeneModelIndex(ImmutableListMultimap<Integer, GeneModel> modelsByEntrezGeneId) {
+        this.modelsByEntrezGeneId = modelsByEntrezGeneId;
+    }
+
+    /**
+     * Creates a new index from the models. Duplicate models are only indexed once.
+     */
+    public static GeneModelIndex of(Collection<? extends GeneModel> models) {
+        ImmutableListMultimap.Builder<Integer, GeneModel> builder = ImmutableListMultimap.builder();
+        for (GeneModel model : new LinkedHashSet<>(models)) {
+            builder.put(model.getEntrezGeneId(), model);
+        }
+        return new GeneModelIndex(builder.build());
+    }
+
+    public List<GeneModel> getModelsForGene(int entrezGeneId) {
+        return modelsByEntrezGeneId.get(entrezGeneId);
+    }
+
+    /**
+     * @param entrezGeneIds entrez gene ids of the genes of interest
+     * @return all the models associated with the genes, in the order of the genes provided. Each gene is only included
+     * once.
+     */
+    public List<GeneModel> getModelsForGenes(Collection<Integer> entrezGeneIds) {
+        ImmutableList.Builder<GeneModel> builder = ImmutableList.builder();
+        for (Integer entrezGeneId : new LinkedHashSet<>(entrezGeneIds)) {
+            builder.addAll(modelsByEntrezGeneId.get(entrezGeneId));
+        }
+        return builder.build();
+    }
+
+    public List<GeneModel> getAllModels() {
+        return modelsByEntrezGeneId.values().asList();
+    }
+
+    public int numGenes() {
+        return modelsByEntrezGeneId.keySet().size();
+    }
+
+    public int numModels() {
+        return modelsByEntrezGeneId.size();
+    }
+
+    @Override
+    public String toString() {
+        return "GeneModelIndex{" +
+                "numGenes=" + numGenes() +
+                ", numModels=" + numModels() +
+                '}';
+    }
+}
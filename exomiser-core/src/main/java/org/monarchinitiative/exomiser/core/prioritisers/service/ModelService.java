@@ -25,6 +25,7 @@
  */
 package org.monarchinitiative.exomiser.core.prioritisers.service;
 
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
 
 import java.util.List;
@@ -42,4 +43,21 @@ public interface ModelService {
 
     List<GeneModel> getFishGeneOrthologModels();
 
+    /**
+     * Returns the models for an organism indexed by the entrez gene id of their human gene. The default implementation
+     * builds a new index on each call so implementations are expected to override this where the index can be re-used.
+     */
+    default GeneModelIndex getGeneModelIndex(Organism organism) {
+        switch (organism) {
+            case HUMAN:
+                return GeneModelIndex.of(getHumanGeneDiseaseModels());
+            case MOUSE:
+                return GeneModelIndex.of(getMouseGeneOrthologModels());
+            case FISH:
+                return GeneModelIndex.of(getFishGeneOrthologModels());
+            default:
+                return GeneModelIndex.EMPTY;
+        }
+    }
+
 }
@@ -25,6 +25,10 @@
  */
 package org.monarchinitiative.exomiser.core.prioritisers.service;
 
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.monarchinitiative.exomiser.core.phenotype.Organism;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneDiseaseModel;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
@@ -38,9 +42,13 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  *
@@ -54,12 +62,52 @@ public class ModelServiceImpl implements ModelService {
 
     private final DataSource phenotypeDataSource;
 
+    //the same few thousand phenotype ids are shared by around 100k models, so only keep one copy of each
+    private final Interner<String> phenotypeIdInterner = Interners.newWeakInterner();
+    private final Map<Organism, Supplier<GeneModelIndex>> geneModelIndices = new EnumMap<>(Organism.class);
+
     public ModelServiceImpl(DataSource phenotypeDataSource) {
         this.phenotypeDataSource = phenotypeDataSource;
+        geneModelIndices.put(Organism.HUMAN, Suppliers.memoize(() -> loadGeneModelIndex(Organism.HUMAN, this::loadHumanGeneDiseaseModels)));
+        geneModelIndices.put(Organism.MOUSE, Suppliers.memoize(() -> loadGeneModelIndex(Organism.MOUSE, this::loadMouseGeneOrthologModels)));
+        geneModelIndices.put(Organism.FISH, Suppliers.memoize(() -> loadGeneModelIndex(Organism.FISH, this::loadFishGeneOrthologModels)));
+    }
+
+    private static GeneModelIndex loadGeneModelIndex(Organism organism, Supplier<List<GeneModel>> modelLoader) {
+        Instant start = Instant.now();
+        GeneModelIndex geneModelIndex = GeneModelIndex.of(modelLoader.get());
+        logger.info("Indexed {} {} models for {} genes - {} ms", geneModelIndex.numModels(), organism, geneModelIndex.numGenes(), Duration
+                .between(start, Instant.now())
+                .toMillis());
+        return geneModelIndex;
+    }
+
+    /**
+     * The models for each organism are loaded from the database the first time they are requested and held in memory
+     * thereafter.
+     */
+    @Override
+    public GeneModelIndex getGeneModelIndex(Organism organism) {
+        Supplier<GeneModelIndex> geneModelIndex = geneModelIndices.get(organism);
+        return geneModelIndex == null ? GeneModelIndex.EMPTY : geneModelIndex.get();
     }
 
     @Override
     public List<GeneModel> getHumanGeneDiseaseModels() {
+        return getGeneModelIndex(Organism.HUMAN).getAllModels();
+    }
+
+    @Override
+    public List<GeneModel> getMouseGeneOrthologModels() {
+        return getGeneModelIndex(Organism.MOUSE).getAllModels();
+    }
+
+    @Override
+    public List<GeneModel> getFishGeneOrthologModels() {
+        return getGeneModelIndex(Organism.FISH).getAllModels();
+    }
+
+    private List<GeneModel> loadHumanGeneDiseaseModels() {
         // We only connect to human2mouse_orthologs to get the human_gene_symbol but if there is no orthology mapping we get 0 results and no disease hit at all - this is daft!
         // Tried to replace with the below - should be more successful
         String modelQuery = "SELECT distinct 'HUMAN' as organism, gene_id as entrez_id, symbol as human_gene_symbol, d.disease_id as disease_id, d.diseasename as disease_term, hp_id as pheno_ids FROM entrez2sym e, disease_hp M, disease d WHERE e.entrezid=d.gene_id and M.disease_id=d.disease_id"; 
@@ -67,14 +115,12 @@ public List<GeneModel> getHumanGeneDiseaseModels() {
         return runGeneDiseaseModelQuery(modelQuery);
     }
 
-    @Override
-    public List<GeneModel> getMouseGeneOrthologModels() {
+    private List<GeneModel> loadMouseGeneOrthologModels() {
         String modelQuery = "SELECT 'MOUSE' as organism, entrez_id, human_gene_symbol, mouse_model_id as model_id, M.mgi_gene_id as model_gene_id, M.mgi_gene_symbol as model_gene_symbol, mp_id as pheno_ids FROM mgi_mp M, human2mouse_orthologs H WHERE M.mgi_gene_id=H.mgi_gene_id and human_gene_symbol != 'null'";
         return runGeneOrthologModelQuery(modelQuery);
     }
 
-    @Override
-    public List<GeneModel> getFishGeneOrthologModels() {
+    private List<GeneModel> loadFishGeneOrthologModels() {
         String modelQuery = "SELECT 'FISH' as organism, entrez_id, human_gene_symbol, zfin_model_id as model_id, M.zfin_gene_id as model_gene_id, M.zfin_gene_symbol as model_gene_symbol, zp_id as pheno_ids FROM zfin_zp M, human2fish_orthologs H WHERE M.zfin_gene_id=H.zfin_gene_id and human_gene_symbol != 'null'";
         return runGeneOrthologModelQuery(modelQuery);
     }
@@ -98,9 +144,7 @@ private List<GeneModel> runGeneDiseaseModelQuery(String modelQuery) {
                 
                 String modelId = diseaseId + "_" + entrezId;
                 
-                String phenotypeIdString = rs.getString("pheno_ids");
-                String[] mpInitial = phenotypeIdString.split(",");
-                List<String> phenotypeIds = Arrays.asList(mpInitial);
+                List<String> phenotypeIds = parsePhenotypeIds(rs.getString("pheno_ids"));
                 
                 GeneDiseaseModel model = new GeneDiseaseModel(modelId, organism, entrezId, humanGeneSymbol, diseaseId, diseaseTerm, phenotypeIds);
                 models.add(model);
@@ -132,10 +176,7 @@ private List<GeneModel> runGeneOrthologModelQuery(String modelQuery) {
                         
                 modelId = modelGeneId + "_" + modelId;
                 
-                String phenotypeIdString = toEmptyIfNull(rs.getString("pheno_ids"));
-
-                String[] mpInitial = phenotypeIdString.split(",");
-                List<String> phenotypeIds = Arrays.asList(mpInitial);
+                List<String> phenotypeIds = parsePhenotypeIds(toEmptyIfNull(rs.getString("pheno_ids")));
                 
                 GeneOrthologModel model = new GeneOrthologModel(modelId, organism, entrezId, humanGeneSymbol, modelGeneId, modelGeneSymbol, phenotypeIds);
                 models.add(model);
@@ -146,6 +187,14 @@ private List<GeneModel> runGeneOrthologModelQuery(String modelQuery) {
         return models;
     }
 
+    private List<String> parsePhenotypeIds(String phenotypeIdString) {
+        String[] phenotypeIds = phenotypeIdString.split(",");
+        for (int i = 0; i < phenotypeIds.length; i++) {
+            phenotypeIds[i] = phenotypeIdInterner.intern(phenotypeIds[i]);
+        }
+        return ImmutableList.copyOf(phenotypeIds);
+    }
+
     private String toEmptyIfNull(String result) {
         if (result == null) {
             return "";
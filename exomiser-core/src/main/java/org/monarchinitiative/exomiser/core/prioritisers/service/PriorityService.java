@@ -26,6 +26,9 @@
 package org.monarchinitiative.exomiser.core.prioritisers.service;
 
 import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.Timer;
+import org.monarchinitiative.exomiser.core.metrics.DataAccessRecorder;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
 import org.monarchinitiative.exomiser.core.phenotype.Organism;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatchService;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatcher;
@@ -39,8 +42,10 @@
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class which offers a single interface to other services required by
@@ -57,6 +62,9 @@ public class PriorityService {
     private final PhenotypeMatchService phenotypeMatchService;
     private final DiseaseDao diseaseDao;
 
+    private final DataAccessRecorder diseaseRecorder = ExomiserMetrics.dataAccessRecorder("disease", "h2");
+    private final Timer modelTimer = ExomiserMetrics.dataAccessTimer("model", "h2");
+
     @Autowired
     public PriorityService(ModelService modelService, PhenotypeMatchService phenotypeMatchService, DiseaseDao diseaseDao) {
         this.modelService = modelService;
@@ -65,7 +73,7 @@ public PriorityService(ModelService modelService, PhenotypeMatchService phenotyp
     }
 
     public List<String> getHpoIdsForDiseaseId(String diseaseId) {
-        return ImmutableList.copyOf(diseaseDao.getHpoIdsForDiseaseId(diseaseId));
+        return ImmutableList.copyOf(diseaseRecorder.record(() -> diseaseDao.getHpoIdsForDiseaseId(diseaseId), hpoIds -> !hpoIds.isEmpty()));
     }
 
     public List<PhenotypeTerm> makePhenotypeTermsFromHpoIds(List<String> hpoIds) {
@@ -88,6 +96,10 @@ public PhenotypeMatcher getPhenotypeMatcherForOrganism(List<PhenotypeTerm> query
     @Cacheable(value = "models", key = "#species", cacheResolver = "modelCacheResolver")
     public List<GeneModel> getModelsForOrganism(Organism species) {
         logger.info("Fetching disease/gene model phenotype annotations and HUMAN-{} gene orthologs", species);
+        return modelTimer.record(() -> fetchModelsForOrganism(species));
+    }
+
+    private List<GeneModel> fetchModelsForOrganism(Organism species) {
         switch (species) {
             case HUMAN:
                 return modelService.getHumanGeneDiseaseModels();
@@ -100,8 +112,23 @@ public List<GeneModel> getModelsForOrganism(Organism species) {
         }
     }
 
+    /**
+     * @return the models of the organism associated with the given human genes.
+     */
+    public List<GeneModel> getModelsForGenes(Organism species, Collection<Integer> entrezGeneIds) {
+        return modelService.getGeneModelIndex(species).getModelsForGenes(entrezGeneIds);
+    }
+
     public List<Disease> getDiseaseDataAssociatedWithGeneId(int geneId) {
-        return diseaseDao.getDiseaseDataAssociatedWithGeneId(geneId);
+        return diseaseRecorder.record(() -> diseaseDao.getDiseaseDataAssociatedWithGeneId(geneId), diseases -> !diseases.isEmpty());
+    }
+
+    /**
+     * @return map of entrez gene id to associated diseases for the given genes. Genes without any associated diseases
+     * are not present in the map.
+     */
+    public Map<Integer, List<Disease>> getDiseaseDataAssociatedWithGeneIds(Collection<Integer> geneIds) {
+        return diseaseRecorder.record(() -> diseaseDao.getDiseaseDataAssociatedWithGeneIds(geneIds), diseases -> !diseases.isEmpty());
     }
 
 }
@@ -1,7 +1,7 @@
 /*
  * The Exomiser - A tool to annotate and prioritize genomic variants
  *
- * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2016-2018 Queen Mary University of London.
  * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
  *
  * This program is free software: you can redistribute it and/or modify
@@ -21,66 +21,83 @@
 package org.monarchinitiative.exomiser.core.prioritisers.util;
 
 import org.jblas.FloatMatrix;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 /**
- * Contains the random walk relationships and the entrez-id to index relations.
+ * Contains the random walk relationships and the entrez-id to index relations. The random walk matrix is symmetrical
+ * so the row and column index of a gene are the same.
  *
  * @author Sebastian Köhler <dr.sebastian.koehler@gmail.com>
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
-public class DataMatrix {
+public interface DataMatrix {
 
-    private static final Logger logger = LoggerFactory.getLogger(DataMatrix.class);
+    DataMatrix EMPTY = new InMemoryDataMatrix(FloatMatrix.EMPTY, Collections.emptyMap());
 
-    public static final DataMatrix EMPTY = new DataMatrix(FloatMatrix.EMPTY, Collections.emptyMap());
+    Map<Integer, Integer> getEntrezIdToRowIndex();
 
-    private final FloatMatrix matrix;
-    private final Map<Integer, Integer> entrezIdToRowIndex;
+    /**
+     * Returns the full dense matrix. Implementations not backed by a dense {@link FloatMatrix} will create a new one,
+     * which for a full-size random walk matrix requires a very large amount of RAM.
+     *
+     * @return the dense {@link FloatMatrix} representation of this matrix.
+     */
+    FloatMatrix getMatrix();
 
-    public DataMatrix(FloatMatrix matrix, Map<Integer, Integer> entrezIdToRowIndex) {
-        this.matrix = matrix;
-        this.entrezIdToRowIndex = entrezIdToRowIndex;
-    }
+    int numRows();
 
-    public Map<Integer, Integer> getEntrezIdToRowIndex() {
-        return entrezIdToRowIndex;
+    default boolean containsGene(Integer entrezGeneId) {
+        return getEntrezIdToRowIndex().containsKey(entrezGeneId);
     }
 
-    public FloatMatrix getMatrix() {
-        return matrix;
+    default Integer getRowIndexForGene(int entrezGeneId) {
+        return getEntrezIdToRowIndex().get(entrezGeneId);
     }
 
-    public boolean containsGene(Integer entrezGeneId) {
-        return entrezIdToRowIndex.containsKey(entrezGeneId);
-    }
+    /**
+     * @param entrezGeneId of a gene contained in the matrix
+     * @return a new numRows x 1 {@link FloatMatrix} containing the column values for the gene
+     */
+    FloatMatrix getColumnMatrixForGene(int entrezGeneId);
 
-    public Integer getRowIndexForGene(int entrezGeneId) {
-        return entrezIdToRowIndex.get(entrezGeneId);
+    /**
+     * Passes the values of the column for the gene with a row index between fromRow (inclusive) and toRow (exclusive)
+     * to the consumer in ascending row order, without copying the column. Implementations may skip zero values.
+     *
+     * @param entrezGeneId of a gene contained in the matrix
+     * @param fromRow      first row index, inclusive
+     * @param toRow        last row index, exclusive
+     * @param consumer     accepts the row index and value
+     */
+    default void forEachValueInColumn(int entrezGeneId, int fromRow, int toRow, ColumnValueConsumer consumer) {
+        FloatMatrix column = getColumnMatrixForGene(entrezGeneId);
+        for (int row = fromRow; row < toRow; row++) {
+            consumer.accept(row, column.get(row, 0));
+        }
     }
 
-    public FloatMatrix getColumnMatrixForGene(int entrezGeneId) {
-        //the PPI float matrix is symmetrical so this will work here.
-        Integer rowIndex = entrezIdToRowIndex.get(entrezGeneId);
-        return matrix.getColumn(rowIndex);
+    /**
+     * Returns the sum of the columns for the genes provided. Genes not contained in the matrix are ignored.
+     *
+     * @param entrezGeneIds genes for which the columns are to be summed
+     * @return a new numRows x 1 {@link FloatMatrix} containing the summed values
+     */
+    default FloatMatrix getColumnSumForGenes(List<Integer> entrezGeneIds) {
+        FloatMatrix sum = FloatMatrix.zeros(numRows(), 1);
+        for (Integer entrezGeneId : entrezGeneIds) {
+            if (containsGene(entrezGeneId)) {
+                sum.addi(getColumnMatrixForGene(entrezGeneId));
+            }
+        }
+        return sum;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof DataMatrix)) return false;
-        DataMatrix that = (DataMatrix) o;
-        return Objects.equals(matrix, that.matrix) &&
-                Objects.equals(entrezIdToRowIndex, that.entrezIdToRowIndex);
+    @FunctionalInterface
+    interface ColumnValueConsumer {
+        void accept(int row, float value);
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(matrix, entrezIdToRowIndex);
-    }
 }
@@ -25,6 +25,11 @@
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.zip.GZIPInputStream;
@@ -39,6 +44,8 @@ public class DataMatrixIO {
 
     private static final String TAB_DELIMITER = "\t";
 
+    private static final int SPARSE_MATRIX_MAGIC = 0x53504d31;
+
     /*
      * This shouldn't be instantiated.
      */
@@ -47,7 +54,89 @@ private DataMatrixIO() {}
     public static DataMatrix loadDataMatrix(String matrixFileZip, String entrezId2indexFileZip, boolean shouldUseExponent) {
         Map<Integer, Integer> index = createIndex(entrezId2indexFileZip);
         FloatMatrix floatMatrix = createMatrixfromFile(index.size(), matrixFileZip, shouldUseExponent);
-        return new DataMatrix(floatMatrix, index);
+        return new InMemoryDataMatrix(floatMatrix, index);
+    }
+
+    /**
+     * Loads a {@link SparseDataMatrix} previously written using {@link #writeSparseDataMatrix(SparseDataMatrix, Path)}.
+     *
+     * @param sparseMatrixFile path to the binary sparse matrix file
+     * @return the {@link SparseDataMatrix} contained in the file
+     */
+    public static SparseDataMatrix loadSparseDataMatrix(Path sparseMatrixFile) {
+        logger.info("Loading sparse data matrix from {}", sparseMatrixFile);
+        try (FileChannel fileChannel = FileChannel.open(sparseMatrixFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+            if (buffer.getInt() != SPARSE_MATRIX_MAGIC) {
+                throw new DataMatrixIoException("Not a sparse data matrix file " + sparseMatrixFile);
+            }
+            int numRows = buffer.getInt();
+            int numColumns = buffer.getInt();
+            int numValues = buffer.getInt();
+
+            Map<Integer, Integer> index = new HashMap<>();
+            for (int i = 0; i < numRows; i++) {
+                index.put(buffer.getInt(), buffer.getInt());
+            }
+            int[] columnPointers = new int[numColumns + 1];
+            buffer.asIntBuffer().get(columnPointers);
+            buffer.position(buffer.position() + columnPointers.length * Integer.BYTES);
+            float[] columnScales = new float[numColumns];
+            buffer.asFloatBuffer().get(columnScales);
+            buffer.position(buffer.position() + columnScales.length * Float.BYTES);
+            float[] columnErrorBounds = new float[numColumns];
+            buffer.asFloatBuffer().get(columnErrorBounds);
+            buffer.position(buffer.position() + columnErrorBounds.length * Float.BYTES);
+            int[] rowIndices = new int[numValues];
+            buffer.asIntBuffer().get(rowIndices);
+            buffer.position(buffer.position() + rowIndices.length * Integer.BYTES);
+            short[] quantisedValues = new short[numValues];
+            buffer.asShortBuffer().get(quantisedValues);
+            logger.info("Loaded sparse data matrix ({} rows * {} columns) with {} values", numRows, numColumns, numValues);
+            return new SparseDataMatrix(numRows, index, columnPointers, rowIndices, quantisedValues, columnScales, columnErrorBounds);
+        } catch (IOException e) {
+            throw new DataMatrixIoException(e);
+        }
+    }
+
+    /**
+     * Writes the {@link SparseDataMatrix} to a compact binary file which can be read using
+     * {@link #loadSparseDataMatrix(Path)}.
+     *
+     * @param sparseDataMatrix the matrix to write
+     * @param sparseMatrixFile the path of the output file
+     */
+    public static void writeSparseDataMatrix(SparseDataMatrix sparseDataMatrix, Path sparseMatrixFile) {
+        logger.info("Writing sparse data matrix to {}", sparseMatrixFile);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(sparseMatrixFile)))) {
+            int[] columnPointers = sparseDataMatrix.getColumnPointers();
+            int[] rowIndices = sparseDataMatrix.getRowIndices();
+            out.writeInt(SPARSE_MATRIX_MAGIC);
+            out.writeInt(sparseDataMatrix.numRows());
+            out.writeInt(columnPointers.length - 1);
+            out.writeInt(rowIndices.length);
+            for (Map.Entry<Integer, Integer> entry : sparseDataMatrix.getEntrezIdToRowIndex().entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+            for (int columnPointer : columnPointers) {
+                out.writeInt(columnPointer);
+            }
+            for (float columnScale : sparseDataMatrix.getColumnScales()) {
+                out.writeFloat(columnScale);
+            }
+            for (float columnErrorBound : sparseDataMatrix.getColumnErrorBounds()) {
+                out.writeFloat(columnErrorBound);
+            }
+            for (int rowIndex : rowIndices) {
+                out.writeInt(rowIndex);
+            }
+            for (short quantisedValue : sparseDataMatrix.getQuantisedValues()) {
+                out.writeShort(quantisedValue);
+            }
+        } catch (IOException e) {
+            throw new DataMatrixIoException(e);
+        }
     }
 
     private static Map<Integer, Integer> createIndex(String object2idxFileZip) {
@@ -226,6 +315,10 @@ public static void writeMatrixInclHeaderAndRowIDs(FloatMatrix matrix, String fil
 
     public static class DataMatrixIoException extends RuntimeException {
 
+        public DataMatrixIoException(String message) {
+            super(message);
+        }
+
         public DataMatrixIoException(Throwable cause) {
             super(cause);
         }
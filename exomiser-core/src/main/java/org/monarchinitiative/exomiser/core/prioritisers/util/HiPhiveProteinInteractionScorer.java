@@ -23,18 +23,21 @@
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
-import org.jblas.FloatMatrix;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneMatch;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModelPhenotypeMatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
+ * Finds the closest high-quality phenotype matched gene in the random walk protein-protein interaction network for a
+ * gene. Rather than building a weighted rows * high-quality-genes copy of the matrix, the best weighted score and
+ * matching gene for every row are found up-front in a single pass over the high-quality columns, with the rows split
+ * into chunks scored in parallel. Lookups are then simple reads from these arrays.
+ *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
 public class HiPhiveProteinInteractionScorer {
@@ -43,6 +46,9 @@ public class HiPhiveProteinInteractionScorer {
 
     public static final HiPhiveProteinInteractionScorer EMPTY = new HiPhiveProteinInteractionScorer();
 
+    private static final int MIN_ROWS_PER_CHUNK = 1024;
+    private static final int NO_HIT_INDEX = -1;
+
     private final DataMatrix dataMatrix;
 
     private final ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels;
@@ -50,7 +56,9 @@ public class HiPhiveProteinInteractionScorer {
 
     private final Map<Integer, Double> highQualityPhenoMatchedGeneScores;
     private final List<Integer> highQualityPhenoMatchedGeneIds;
-    private final FloatMatrix weightedHighQualityMatrix;
+    // the best weighted score for each row of the dataMatrix and the index of the high-quality gene which produced it
+    private final float[] bestWeightedScores;
+    private final int[] bestHighQualityGeneIndices;
 
     private HiPhiveProteinInteractionScorer() {
         this.dataMatrix = DataMatrix.EMPTY;
@@ -61,17 +69,44 @@ private HiPhiveProteinInteractionScorer() {
         //should be used to produce these wrapped in some matcher or some-such:
         highQualityPhenoMatchedGeneScores = Collections.emptyMap();
         highQualityPhenoMatchedGeneIds = Collections.emptyList();
-        weightedHighQualityMatrix = FloatMatrix.EMPTY;
+        bestWeightedScores = new float[0];
+        bestHighQualityGeneIndices = new int[0];
     }
 
     public HiPhiveProteinInteractionScorer(DataMatrix dataMatrix, ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels, double highQualityPhenoScoreCutOff) {
+        this(dataMatrix, bestGeneModels, highQualityPhenoScoreCutOff, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism maximum number of threads used to find the best matches - must be greater than 0.
+     */
+    public HiPhiveProteinInteractionScorer(DataMatrix dataMatrix, ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels, double highQualityPhenoScoreCutOff, int parallelism) {
+        this(dataMatrix, bestGeneModels, highQualityPhenoScoreCutOff, parallelism, null);
+    }
+
+    /**
+     * @param forkJoinPool shared pool used to find the best matches. This is not shut down by this class.
+     */
+    public HiPhiveProteinInteractionScorer(DataMatrix dataMatrix, ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels, double highQualityPhenoScoreCutOff, ForkJoinPool forkJoinPool) {
+        this(dataMatrix, bestGeneModels, highQualityPhenoScoreCutOff, forkJoinPool.getParallelism(), forkJoinPool);
+    }
+
+    private HiPhiveProteinInteractionScorer(DataMatrix dataMatrix, ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels, double highQualityPhenoScoreCutOff, int parallelism, ForkJoinPool forkJoinPool) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0");
+        }
         this.dataMatrix = dataMatrix;
         this.bestGeneModels = bestGeneModels;
         this.highQualityPhenoScoreCutOff = highQualityPhenoScoreCutOff;
 
         highQualityPhenoMatchedGeneScores = getHighestGeneIdPhenoScores();
         highQualityPhenoMatchedGeneIds = Lists.newArrayList(highQualityPhenoMatchedGeneScores.keySet());
-        weightedHighQualityMatrix = makeWeightedProteinInteractionMatrix();
+
+        int rows = dataMatrix.numRows();
+        bestWeightedScores = new float[rows];
+        bestHighQualityGeneIndices = new int[rows];
+        Arrays.fill(bestHighQualityGeneIndices, NO_HIT_INDEX);
+        findBestHighQualityMatches(parallelism, forkJoinPool);
     }
 
     private Map<Integer, Double> getHighestGeneIdPhenoScores() {
@@ -92,31 +127,55 @@ private Map<Integer, Double> getHighestGeneIdPhenoScores() {
         return Collections.unmodifiableMap(highestGeneIdPhenoScores);
     }
 
-    //todo: If this returned a DataMatrix things might be a bit more convenient later on...
-    private FloatMatrix makeWeightedProteinInteractionMatrix() {
-        logger.info("Making weighted-score Protein-Protein interaction sub-matrix from high quality phenotypic gene matches...");
-        logger.info("Original data matrix ({} rows * {} columns)", dataMatrix.getMatrix()
-                .getRows(), dataMatrix.getMatrix().getColumns());
-        int rows = dataMatrix.getMatrix().getRows();
-        int cols = highQualityPhenoMatchedGeneScores.size();
-        FloatMatrix highQualityPpiMatrix = FloatMatrix.zeros(rows, cols);
-        int c = 0;
-        for (Map.Entry<Integer, Double> entry : highQualityPhenoMatchedGeneScores.entrySet()) {
-            Integer seedGeneEntrezId = entry.getKey();
-            //TODO: the original DataMatrix is a symmetrical matrix this new one is asymmetrical with the original rows but only high-quality columns.
-            if (dataMatrix.containsGene(seedGeneEntrezId)) {
-                FloatMatrix column = dataMatrix.getColumnMatrixForGene(seedGeneEntrezId);
-                // weight column by phenoScore
-                //get the best model score for the gene from the highQualityPhenoMatchedGenes
-                Double score = entry.getValue();
-                column = column.mul(score.floatValue());
-                highQualityPpiMatrix.putColumn(c, column);
+    private void findBestHighQualityMatches(int parallelism, ForkJoinPool sharedPool) {
+        int rows = dataMatrix.numRows();
+        if (rows == 0 || highQualityPhenoMatchedGeneIds.isEmpty()) {
+            return;
+        }
+        int rowsPerChunk = Math.max(MIN_ROWS_PER_CHUNK, (rows + parallelism - 1) / parallelism);
+        int numChunks = (rows + rowsPerChunk - 1) / rowsPerChunk;
+        logger.info("Finding best weighted-score protein-protein interactions for {} rows against {} high quality phenotypic gene matches using {} chunks", rows, highQualityPhenoMatchedGeneIds.size(), numChunks);
+        if (numChunks == 1) {
+            findBestHighQualityMatches(0, rows);
+            return;
+        }
+        ForkJoinPool forkJoinPool = sharedPool == null ? new ForkJoinPool(Math.min(parallelism, numChunks)) : sharedPool;
+        try {
+            // each chunk only writes to its own rows so no further synchronisation is required
+            forkJoinPool.submit(() -> IntStream.range(0, numChunks)
+                    .parallel()
+                    .forEach(chunk -> findBestHighQualityMatches(chunk * rowsPerChunk, Math.min(rows, (chunk + 1) * rowsPerChunk))))
+                    .join();
+        } finally {
+            if (forkJoinPool != sharedPool) {
+                forkJoinPool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Walks the high-quality gene columns in order for the rows between fromRow (inclusive) and toRow (exclusive),
+     * keeping the first, highest weighted score for each row. Self-hits are excluded as genes with direct phenotypic
+     * evidence are also tested.
+     */
+    private void findBestHighQualityMatches(int fromRow, int toRow) {
+        for (int index = 0; index < highQualityPhenoMatchedGeneIds.size(); index++) {
+            Integer seedGeneEntrezId = highQualityPhenoMatchedGeneIds.get(index);
+            if (!dataMatrix.containsGene(seedGeneEntrezId)) {
+                continue;
             }
-            c++;
+            int seedGeneRow = dataMatrix.getRowIndexForGene(seedGeneEntrezId);
+            // weight column by the best model score for the gene from the highQualityPhenoMatchedGenes
+            float weight = highQualityPhenoMatchedGeneScores.get(seedGeneEntrezId).floatValue();
+            int highQualityGeneIndex = index;
+            dataMatrix.forEachValueInColumn(seedGeneEntrezId, fromRow, toRow, (row, value) -> {
+                float weightedScore = value * weight;
+                if (row != seedGeneRow && weightedScore > bestWeightedScores[row]) {
+                    bestWeightedScores[row] = weightedScore;
+                    bestHighQualityGeneIndices[row] = highQualityGeneIndex;
+                }
+            });
         }
-        logger.info("Made high quality interaction matrix ({} rows * {} columns)", highQualityPpiMatrix.getRows(), highQualityPpiMatrix
-                .getColumns());
-        return highQualityPpiMatrix;
     }
 
     public GeneMatch getClosestPhenoMatchInNetwork(Integer entrezGeneId) {
@@ -124,19 +183,19 @@ public GeneMatch getClosestPhenoMatchInNetwork(Integer entrezGeneId) {
             return GeneMatch.NO_HIT;
         }
         int rowIndex = dataMatrix.getRowIndexForGene(entrezGeneId);
-        int columnIndex = getColumnIndexOfMostPhenotypicallySimilarGene(entrezGeneId);
+        int columnIndex = bestHighQualityGeneIndices[rowIndex];
 
         /* Changed method to return -1 if no hit as otherwise could not distinguish between
         no hit or hit to 1st entry in column (entrezGene 50640). When querying with 50640 this
         resulted in a self-hit being returned with a PPI score of 0.5+0.7=1.2 and also lots of
         low-scoring (0.5) PPI hits to 50640 for other genes with no PPI match
          */
-        if (columnIndex == -1){
+        if (columnIndex == NO_HIT_INDEX) {
             return GeneMatch.NO_HIT;
         }
 
         // optimal adjustment based on benchmarking to allow walker scores to compete with low phenotype scores
-        double walkerScore = 0.5 + weightedHighQualityMatrix.get(rowIndex, columnIndex);
+        double walkerScore = 0.5 + bestWeightedScores[rowIndex];
 
         Integer closestGeneId = highQualityPhenoMatchedGeneIds.get(columnIndex);
         List<GeneModelPhenotypeMatch> models = bestGeneModels.get(closestGeneId);
@@ -149,39 +208,4 @@ public GeneMatch getClosestPhenoMatchInNetwork(Integer entrezGeneId) {
                 .build();
     }
 
-    /**
-     * This function retrieves the random walk similarity score for the gene
-     *
-     * @param entrezGeneId for which the random walk score is to be retrieved
-     */
-    //TODO: speed this up? This bit is slow. This can be done in a single operation without having to pre-compute the high-quality matrix.
-    private int getColumnIndexOfMostPhenotypicallySimilarGene(int entrezGeneId) {
-        int geneIndex = dataMatrix.getRowIndexForGene(entrezGeneId);
-        int columnIndex = 0;
-        double bestScore = 0;
-        int bestHitIndex = -1;
-        //TODO: here were walking along all the columns of a row from the high quality matches, i.e. traversing a list to find the value and position of the highest value in that list.
-        //The matrix is (12511 rows * 303 columns)
-        // The output of this function (assigned to columnIndex) is used to:
-        // define the walkerScore:
-        // walkerScore = 0.5 + weightedHighQualityMatrix.get(rowIndex, columnIndex);
-        //
-        // Integer closestGeneId = highQualityPhenoMatchedGeneIds.get(columnIndex);
-        // closestPhysicallyInteractingGeneModels = bestGeneModels.get(closestGeneId);
-        for (Integer similarGeneEntrezId : highQualityPhenoMatchedGeneIds) {
-            if (!dataMatrix.containsGene(similarGeneEntrezId) || similarGeneEntrezId == entrezGeneId) {
-                //avoid self-hits now are testing genes with direct pheno-evidence as well
-                columnIndex++;
-            } else {
-                double cellScore = weightedHighQualityMatrix.get(geneIndex, columnIndex);
-                if (cellScore > bestScore) {
-                    bestScore = cellScore;
-                    bestHitIndex = columnIndex;
-                }
-                columnIndex++;
-            }
-        }
-        return bestHitIndex;
-    }
-
 }
@@ -0,0 +1,98 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.jblas.FloatMatrix;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Dense {@link DataMatrix} backed by a {@link FloatMatrix}. This holds every value of the random walk matrix so a
+ * full-size matrix requires around 1.6 GB RAM.
+ *
+ * @author Sebastian Köhler <dr.sebastian.koehler@gmail.com>
+ * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
+ */
+public class InMemoryDataMatrix implements DataMatrix {
+
+    private final FloatMatrix matrix;
+    private final Map<Integer, Integer> entrezIdToRowIndex;
+
+    public InMemoryDataMatrix(FloatMatrix matrix, Map<Integer, Integer> entrezIdToRowIndex) {
+        this.matrix = matrix;
+        this.entrezIdToRowIndex = entrezIdToRowIndex;
+    }
+
+    @Override
+    public Map<Integer, Integer> getEntrezIdToRowIndex() {
+        return entrezIdToRowIndex;
+    }
+
+    @Override
+    public FloatMatrix getMatrix() {
+        return matrix;
+    }
+
+    @Override
+    public int numRows() {
+        return matrix.getRows();
+    }
+
+    @Override
+    public boolean containsGene(Integer entrezGeneId) {
+        return entrezIdToRowIndex.containsKey(entrezGeneId);
+    }
+
+    @Override
+    public Integer getRowIndexForGene(int entrezGeneId) {
+        return entrezIdToRowIndex.get(entrezGeneId);
+    }
+
+    @Override
+    public FloatMatrix getColumnMatrixForGene(int entrezGeneId) {
+        //the PPI float matrix is symmetrical so this will work here.
+        Integer rowIndex = entrezIdToRowIndex.get(entrezGeneId);
+        return matrix.getColumn(rowIndex);
+    }
+
+    @Override
+    public void forEachValueInColumn(int entrezGeneId, int fromRow, int toRow, ColumnValueConsumer consumer) {
+        int column = entrezIdToRowIndex.get(entrezGeneId);
+        for (int row = fromRow; row < toRow; row++) {
+            consumer.accept(row, matrix.get(row, column));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InMemoryDataMatrix)) return false;
+        InMemoryDataMatrix that = (InMemoryDataMatrix) o;
+        return Objects.equals(matrix, that.matrix) &&
+                Objects.equals(entrezIdToRowIndex, that.entrezIdToRowIndex);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(matrix, entrezIdToRowIndex);
+    }
+}
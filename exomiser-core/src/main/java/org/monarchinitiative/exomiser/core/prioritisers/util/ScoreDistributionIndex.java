@@ -0,0 +1,546 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Read-only, memory-mapped index of the PhenIX score distributions. This replaces the per-analysis parsing of the
+ * {@code *.out} files performed by the {@link ScoreDistributionContainer} with a single binary file containing all of
+ * the distributions for every supported number of query terms. Scores are stored as sorted fixed-width float arrays
+ * so that p-value lookups are performed using a binary search. An instance of this class is immutable and is safe to
+ * share between concurrently running analyses.
+ * <p>
+ * The binary file can be created from a directory containing the original text distributions using
+ * {@link #writeIndex(Path, Path)}. The size and modification time of each text file used are recorded in the index so
+ * that {@link #isUpToDate(Path, Path)} can detect when the text distributions have been changed since the index was
+ * written.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class ScoreDistributionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreDistributionIndex.class);
+
+    public static final String DEFAULT_FILE_NAME = "phenix_score_distributions.bin";
+
+    public static final ScoreDistributionIndex EMPTY = new ScoreDistributionIndex(Collections.emptyMap());
+
+    static final int MAX_NUMBER_QUERY_TERMS = 20;
+
+    private static final int MAGIC = 0x50585344;
+    private static final int FORMAT_VERSION = 2;
+    private static final int FILE_HEADER_BYTES = Integer.BYTES * 3;
+    // numQueryTerms, symmetric, numGenes, section offset, source file size, source file last modified millis
+    private static final int SECTION_HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES * 3;
+
+    private final Map<String, Section> sections;
+
+    private ScoreDistributionIndex(Map<String, Section> sections) {
+        this.sections = sections;
+    }
+
+    /**
+     * Memory-maps the binary score distribution file. The file is mapped read-only and is not loaded onto the heap
+     * apart from the (small) sorted arrays of entrez gene identifiers.
+     *
+     * @param indexFile binary file created by {@link #writeIndex(Path, Path)}
+     * @return a new {@link ScoreDistributionIndex} backed by the mapped file
+     */
+    public static ScoreDistributionIndex open(Path indexFile) {
+        logger.info("Mapping PhenIX score distributions from {}", indexFile);
+        try (FileChannel fileChannel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (fileChannel.size() > Integer.MAX_VALUE) {
+                throw new ScoreDistributionIndexException("PhenIX score distribution index " + indexFile + " is larger than the maximum supported size of 2GB");
+            }
+            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+            return new ScoreDistributionIndex(readSections(buffer));
+        } catch (IOException e) {
+            throw new ScoreDistributionIndexException("Unable to read PhenIX score distribution index " + indexFile, e);
+        }
+    }
+
+    private static Map<String, Section> readSections(ByteBuffer buffer) {
+        int numSections = checkFileHeader(buffer);
+        Map<String, Section> sections = new HashMap<>();
+        int headerPosition = FILE_HEADER_BYTES;
+        for (int i = 0; i < numSections; i++) {
+            int numQueryTerms = buffer.getInt(headerPosition);
+            boolean symmetric = buffer.getInt(headerPosition + Integer.BYTES) == 1;
+            int numGenes = buffer.getInt(headerPosition + Integer.BYTES * 2);
+            long offset = buffer.getLong(headerPosition + Integer.BYTES * 3);
+            sections.put(getKey(symmetric, numQueryTerms), Section.read(buffer, toIntOffset(offset), numGenes));
+            headerPosition += SECTION_HEADER_BYTES;
+        }
+        logger.info("Mapped {} PhenIX score distributions", numSections);
+        return Collections.unmodifiableMap(sections);
+    }
+
+    /**
+     * Checks the magic number and format version of the index, returning the number of sections.
+     */
+    private static int checkFileHeader(ByteBuffer buffer) {
+        if (buffer.limit() < FILE_HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new ScoreDistributionIndexException("Not a PhenIX score distribution index file");
+        }
+        int version = buffer.getInt(Integer.BYTES);
+        if (version != FORMAT_VERSION) {
+            throw new ScoreDistributionIndexException("Unsupported PhenIX score distribution index version " + version);
+        }
+        return buffer.getInt(Integer.BYTES * 2);
+    }
+
+    private static int toIntOffset(long offset) {
+        try {
+            return Math.toIntExact(offset);
+        } catch (ArithmeticException e) {
+            throw new ScoreDistributionIndexException("PhenIX score distribution index offset " + offset + " is larger than the maximum supported size of 2GB", e);
+        }
+    }
+
+    /**
+     * Checks whether the index was written from the text score distribution files currently found in the
+     * distributions directory. The index is considered to be out of date if it was written using a different format
+     * version, if any of the *.out files have been added, removed or have changed size or modification time since the
+     * index was written, or if the index cannot be read.
+     *
+     * @param indexFile              binary file created by {@link #writeIndex(Path, Path)}
+     * @param distributionsDirectory directory containing the *.out score distribution files
+     * @return true if the index can be used in place of the text distributions
+     */
+    public static boolean isUpToDate(Path indexFile, Path distributionsDirectory) {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        try {
+            Map<String, SourceFile> indexedFiles = readSourceFiles(indexFile);
+            Map<String, SourceFile> currentFiles = findDistributionFiles(distributionsDirectory);
+            if (!indexedFiles.equals(currentFiles)) {
+                logger.info("PhenIX score distribution index {} does not match the distributions in {}", indexFile, distributionsDirectory);
+                return false;
+            }
+            return true;
+        } catch (IOException | ScoreDistributionIndexException e) {
+            logger.info("Unable to check PhenIX score distribution index {} - {}", indexFile, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the directory contains any *.out distribution files from which an index can be written.
+     */
+    public static boolean hasDistributionFiles(Path distributionsDirectory) {
+        try {
+            return !findDistributionFiles(distributionsDirectory).isEmpty();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static Map<String, SourceFile> readSourceFiles(Path indexFile) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer fileHeader = readFully(fileChannel, 0, FILE_HEADER_BYTES);
+            int numSections = checkFileHeader(fileHeader);
+            ByteBuffer sectionHeaders = readFully(fileChannel, FILE_HEADER_BYTES, numSections * SECTION_HEADER_BYTES);
+            Map<String, SourceFile> sourceFiles = new HashMap<>();
+            for (int i = 0; i < numSections; i++) {
+                int headerPosition = i * SECTION_HEADER_BYTES;
+                int numQueryTerms = sectionHeaders.getInt(headerPosition);
+                boolean symmetric = sectionHeaders.getInt(headerPosition + Integer.BYTES) == 1;
+                long size = sectionHeaders.getLong(headerPosition + Integer.BYTES * 3 + Long.BYTES);
+                long lastModified = sectionHeaders.getLong(headerPosition + Integer.BYTES * 3 + Long.BYTES * 2);
+                sourceFiles.put(getKey(symmetric, numQueryTerms), new SourceFile(size, lastModified));
+            }
+            return sourceFiles;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel fileChannel, long position, int length) throws IOException {
+        if (length < 0 || fileChannel.size() < position + length) {
+            throw new ScoreDistributionIndexException("Truncated PhenIX score distribution index file");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, position + buffer.position()) < 0) {
+                throw new ScoreDistributionIndexException("Truncated PhenIX score distribution index file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Map<String, SourceFile> findDistributionFiles(Path distributionsDirectory) throws IOException {
+        Map<String, SourceFile> sourceFiles = new HashMap<>();
+        for (boolean symmetric : new boolean[]{false, true}) {
+            for (int numQueryTerms = 1; numQueryTerms <= MAX_NUMBER_QUERY_TERMS; numQueryTerms++) {
+                String key = getKey(symmetric, numQueryTerms);
+                Path distributionFile = distributionsDirectory.resolve(key + ".out");
+                if (Files.exists(distributionFile)) {
+                    sourceFiles.put(key, SourceFile.of(distributionFile));
+                }
+            }
+        }
+        return sourceFiles;
+    }
+
+    private static String getKey(boolean symmetric, int numberQueryTerms) {
+        return symmetric ? Integer.toString(numberQueryTerms) + "_symmetric" : Integer.toString(numberQueryTerms);
+    }
+
+    public boolean isEmpty() {
+        return sections.isEmpty();
+    }
+
+    /**
+     * Returns the p-value of the score for the given gene using the distribution for the number of query terms
+     * provided. In cases where there is no distribution for the gene with the number of query terms given, the
+     * distributions with progressively fewer query terms will be used, as for the {@link ScoreDistributionContainer}.
+     *
+     * @param symmetric      whether the symmetric or asymmetric distributions should be used
+     * @param numQueryTerms  the number of HPO terms in the query
+     * @param entrezGeneId   entrez gene identifier of the gene being scored
+     * @param score          the semantic similarity score of the gene
+     * @return the p-value of the score, or an empty {@link OptionalDouble} if no distribution could be found
+     */
+    public OptionalDouble getPvalue(boolean symmetric, int numQueryTerms, int entrezGeneId, double score) {
+        for (int n = Math.min(numQueryTerms, MAX_NUMBER_QUERY_TERMS); n > 0; n--) {
+            Section section = sections.get(getKey(symmetric, n));
+            if (section != null) {
+                int geneIndex = section.indexOf(entrezGeneId);
+                if (geneIndex >= 0) {
+                    return OptionalDouble.of(section.getPvalue(geneIndex, score, 1000d));
+                }
+            }
+        }
+        return OptionalDouble.empty();
+    }
+
+    /**
+     * Section of the index holding all the gene distributions for a given number of query terms and symmetry.
+     */
+    private static class Section {
+
+        private final int[] entrezGeneIds;
+        private final int[] dataOffsets;
+        private final int[] lengths;
+        private final float[] numberRandomizations;
+        private final FloatBuffer data;
+
+        private Section(int[] entrezGeneIds, int[] dataOffsets, int[] lengths, float[] numberRandomizations, FloatBuffer data) {
+            this.entrezGeneIds = entrezGeneIds;
+            this.dataOffsets = dataOffsets;
+            this.lengths = lengths;
+            this.numberRandomizations = numberRandomizations;
+            this.data = data;
+        }
+
+        private static Section read(ByteBuffer buffer, int offset, int numGenes) {
+            ByteBuffer sectionBuffer = buffer.duplicate();
+            sectionBuffer.position(offset);
+            int[] entrezGeneIds = new int[numGenes];
+            int[] dataOffsets = new int[numGenes];
+            int[] lengths = new int[numGenes];
+            float[] numberRandomizations = new float[numGenes];
+            sectionBuffer.asIntBuffer().get(entrezGeneIds);
+            sectionBuffer.position(offset + numGenes * Integer.BYTES);
+            sectionBuffer.asIntBuffer().get(dataOffsets);
+            sectionBuffer.position(offset + numGenes * Integer.BYTES * 2);
+            sectionBuffer.asIntBuffer().get(lengths);
+            sectionBuffer.position(offset + numGenes * Integer.BYTES * 3);
+            sectionBuffer.asFloatBuffer().get(numberRandomizations);
+            sectionBuffer.position(offset + numGenes * Integer.BYTES * 4);
+            // the view shares the mapped memory - no copy of the distributions is made
+            FloatBuffer data = sectionBuffer.slice().asFloatBuffer();
+            return new Section(entrezGeneIds, dataOffsets, lengths, numberRandomizations, data);
+        }
+
+        private int indexOf(int entrezGeneId) {
+            return Arrays.binarySearch(entrezGeneIds, entrezGeneId);
+        }
+
+        /**
+         * Equivalent to {@link ScoreDistribution#getPvalue(double, double)} only using a binary search of the sorted
+         * scores rather than a linear scan.
+         */
+        private double getPvalue(int geneIndex, double score, double roundFactor) {
+            float rounded = (float) (Math.rint(score * roundFactor) / roundFactor);
+            int scoresStart = dataOffsets[geneIndex];
+            int length = lengths[geneIndex];
+            if (length == 0) {
+                return 1d;
+            }
+            if (data.get(scoresStart + length - 1) < rounded) {
+                return 1d / numberRandomizations[geneIndex];
+            }
+            // find the first score greater than or equal to the rounded score
+            int low = 0;
+            int high = length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (data.get(scoresStart + mid) < rounded) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            // p-values immediately follow the scores for each gene
+            return data.get(scoresStart + length + low);
+        }
+    }
+
+    /**
+     * Converts the text PhenIX score distribution files (e.g. 1.out, 1_symmetric.out ... 20.out, 20_symmetric.out)
+     * found in the distributions directory into a single binary index file which can be opened using
+     * {@link #open(Path)}. Missing distribution files are skipped, however an index will not be written if there
+     * are no distribution files at all.
+     *
+     * @param distributionsDirectory directory containing the *.out score distribution files
+     * @param indexFile              path of the binary file to be written
+     * @throws ScoreDistributionIndexException if there are no distribution files or they cannot be read or written
+     */
+    public static void writeIndex(Path distributionsDirectory, Path indexFile) {
+        List<ParsedSection> parsedSections = new ArrayList<>();
+        for (boolean symmetric : new boolean[]{false, true}) {
+            for (int numQueryTerms = 1; numQueryTerms <= MAX_NUMBER_QUERY_TERMS; numQueryTerms++) {
+                Path distributionFile = distributionsDirectory.resolve(getKey(symmetric, numQueryTerms) + ".out");
+                if (Files.exists(distributionFile)) {
+                    parsedSections.add(parseDistributionFile(distributionFile, numQueryTerms, symmetric));
+                }
+            }
+        }
+        if (parsedSections.isEmpty()) {
+            throw new ScoreDistributionIndexException("No PhenIX score distribution files found in " + distributionsDirectory);
+        }
+        logger.info("Writing {} PhenIX score distributions to {}", parsedSections.size(), indexFile);
+        // write to a uniquely named temporary file in the same directory first so that a partially written index is
+        // never opened and concurrent writers cannot write over each other's file
+        Path tempFile = createTempFile(indexFile);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(parsedSections.size());
+            long sectionOffset = FILE_HEADER_BYTES + (long) SECTION_HEADER_BYTES * parsedSections.size();
+            for (ParsedSection parsedSection : parsedSections) {
+                out.writeInt(parsedSection.numQueryTerms);
+                out.writeInt(parsedSection.symmetric ? 1 : 0);
+                out.writeInt(parsedSection.distributions.size());
+                out.writeLong(sectionOffset);
+                out.writeLong(parsedSection.sourceFile.size);
+                out.writeLong(parsedSection.sourceFile.lastModified);
+                sectionOffset += parsedSection.sizeInBytes();
+            }
+            if (sectionOffset > Integer.MAX_VALUE) {
+                throw new ScoreDistributionIndexException("PhenIX score distributions are too large for an index of the maximum supported size of 2GB");
+            }
+            for (ParsedSection parsedSection : parsedSections) {
+                parsedSection.write(out);
+            }
+            out.close();
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ScoreDistributionIndexException("Unable to write PhenIX score distribution index " + indexFile, e);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private static Path createTempFile(Path indexFile) {
+        Path directory = indexFile.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(directory);
+            return Files.createTempFile(directory, indexFile.getFileName() + "-", ".tmp");
+        } catch (IOException e) {
+            throw new ScoreDistributionIndexException("Unable to write PhenIX score distribution index " + indexFile, e);
+        }
+    }
+
+    private static void deleteQuietly(Path tempFile) {
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            logger.warn("Unable to delete temporary file {}", tempFile, e);
+        }
+    }
+
+    private static ParsedSection parseDistributionFile(Path distributionFile, int numQueryTerms, boolean symmetric) {
+        logger.info("Reading distributions from file: {}", distributionFile);
+        // the attributes are read before the contents so that any concurrent change will make the index appear stale
+        SourceFile sourceFile;
+        try {
+            sourceFile = SourceFile.of(distributionFile);
+        } catch (IOException e) {
+            throw new ScoreDistributionIndexException("Unable to read PhenIX score distribution file " + distributionFile, e);
+        }
+        // TreeMap ensures the entrez ids are sorted for the binary search
+        Map<Integer, ParsedDistribution> distributions = new TreeMap<>();
+        try (BufferedReader in = Files.newBufferedReader(distributionFile)) {
+            ParsedDistribution current = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith(">")) {
+                    String[] split = line.replaceAll(">", "").split("_");
+                    current = new ParsedDistribution(Double.parseDouble(split[1]));
+                    distributions.put(Integer.parseInt(split[0]), current);
+                } else if (current != null && !line.isEmpty()) {
+                    int indexFirstMinus = line.indexOf('-');
+                    double score;
+                    try {
+                        score = Double.parseDouble(line.substring(0, indexFirstMinus));
+                    } catch (NumberFormatException e) {
+                        indexFirstMinus = line.indexOf('-', indexFirstMinus + 1);
+                        score = Double.parseDouble(line.substring(0, indexFirstMinus));
+                    }
+                    double pValue = Double.parseDouble(line.substring(indexFirstMinus + 1));
+                    current.add(score, pValue);
+                }
+            }
+        } catch (IOException e) {
+            throw new ScoreDistributionIndexException("Unable to read PhenIX score distribution file " + distributionFile, e);
+        }
+        return new ParsedSection(numQueryTerms, symmetric, sourceFile, distributions);
+    }
+
+    /**
+     * Size and modification time of a text distribution file used to detect a stale index.
+     */
+    private static class SourceFile {
+
+        private final long size;
+        private final long lastModified;
+
+        private SourceFile(long size, long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        private static SourceFile of(Path distributionFile) throws IOException {
+            return new SourceFile(Files.size(distributionFile), Files.getLastModifiedTime(distributionFile).toMillis());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SourceFile that = (SourceFile) o;
+            return size == that.size && lastModified == that.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified);
+        }
+    }
+
+    private static class ParsedSection {
+
+        private final int numQueryTerms;
+        private final boolean symmetric;
+        private final SourceFile sourceFile;
+        private final Map<Integer, ParsedDistribution> distributions;
+
+        private ParsedSection(int numQueryTerms, boolean symmetric, SourceFile sourceFile, Map<Integer, ParsedDistribution> distributions) {
+            this.numQueryTerms = numQueryTerms;
+            this.symmetric = symmetric;
+            this.sourceFile = sourceFile;
+            this.distributions = distributions;
+        }
+
+        private long sizeInBytes() {
+            long numValues = distributions.values().stream().mapToLong(distribution -> distribution.scores.size() * 2L).sum();
+            return (long) distributions.size() * Integer.BYTES * 4 + numValues * Float.BYTES;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            for (Integer entrezGeneId : distributions.keySet()) {
+                out.writeInt(entrezGeneId);
+            }
+            int dataOffset = 0;
+            for (ParsedDistribution distribution : distributions.values()) {
+                out.writeInt(dataOffset);
+                dataOffset += distribution.scores.size() * 2;
+            }
+            for (ParsedDistribution distribution : distributions.values()) {
+                out.writeInt(distribution.scores.size());
+            }
+            for (ParsedDistribution distribution : distributions.values()) {
+                out.writeFloat((float) distribution.numberRandomizations);
+            }
+            for (ParsedDistribution distribution : distributions.values()) {
+                distribution.write(out);
+            }
+        }
+    }
+
+    private static class ParsedDistribution {
+
+        private final double numberRandomizations;
+        private final List<Double> scores = new ArrayList<>();
+        private final List<Double> pvalues = new ArrayList<>();
+
+        private ParsedDistribution(double numberRandomizations) {
+            this.numberRandomizations = numberRandomizations;
+        }
+
+        private void add(double score, double pvalue) {
+            scores.add(score);
+            pvalues.add(pvalue);
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            // the distributions are written in ascending score order, but just in case they are sorted here so that
+            // the binary search will work. A stable sort keeps the first p-value for equal scores first.
+            Integer[] order = new Integer[scores.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingDouble(scores::get));
+            for (Integer i : order) {
+                out.writeFloat(scores.get(i).floatValue());
+            }
+            for (Integer i : order) {
+                out.writeFloat(pvalues.get(i).floatValue());
+            }
+        }
+    }
+
+    public static class ScoreDistributionIndexException extends RuntimeException {
+
+        public ScoreDistributionIndexException(String message) {
+            super(message);
+        }
+
+        public ScoreDistributionIndexException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.jblas.FloatMatrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Sparse {@link DataMatrix} stored in compressed sparse column (CSC) form. Only the largest values of each column of
+ * the original random walk matrix are retained, and these are quantised to 16 bits using a per-column scale. This
+ * reduces the memory required for a full-size random walk matrix from about 1.6 GB to tens of MB.
+ * <p>
+ * The values returned are approximations of the original matrix. The maximum absolute error of any value in a column
+ * is available from {@link #getColumnErrorBound(int)} and can be checked against the original dense matrix using
+ * {@link #maxAbsoluteError(DataMatrix)}.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SparseDataMatrix implements DataMatrix {
+
+    private static final Logger logger = LoggerFactory.getLogger(SparseDataMatrix.class);
+
+    private static final int MAX_QUANTISED_VALUE = 0xFFFF;
+
+    private final int numRows;
+    private final Map<Integer, Integer> entrezIdToRowIndex;
+    // entries for column c are found between columnPointers[c] (inclusive) and columnPointers[c + 1] (exclusive)
+    private final int[] columnPointers;
+    private final int[] rowIndices;
+    private final short[] quantisedValues;
+    private final float[] columnScales;
+    private final float[] columnErrorBounds;
+
+    SparseDataMatrix(int numRows, Map<Integer, Integer> entrezIdToRowIndex, int[] columnPointers, int[] rowIndices, short[] quantisedValues, float[] columnScales, float[] columnErrorBounds) {
+        this.numRows = numRows;
+        this.entrezIdToRowIndex = entrezIdToRowIndex;
+        this.columnPointers = columnPointers;
+        this.rowIndices = rowIndices;
+        this.quantisedValues = quantisedValues;
+        this.columnScales = columnScales;
+        this.columnErrorBounds = columnErrorBounds;
+    }
+
+    /**
+     * Converts a dense {@link DataMatrix} into a {@link SparseDataMatrix}. For each column, values less than the
+     * minValue are discarded and of those remaining only the maxEntriesPerColumn largest are retained.
+     *
+     * @param dataMatrix          the original dense matrix
+     * @param maxEntriesPerColumn the maximum number of values to store per column
+     * @param minValue            values smaller than this will not be stored
+     * @return a new {@link SparseDataMatrix}
+     */
+    public static SparseDataMatrix fromDataMatrix(DataMatrix dataMatrix, int maxEntriesPerColumn, float minValue) {
+        if (maxEntriesPerColumn < 1) {
+            throw new IllegalArgumentException("maxEntriesPerColumn must be greater than 0");
+        }
+        FloatMatrix matrix = dataMatrix.getMatrix();
+        int numRows = matrix.getRows();
+        int numColumns = matrix.getColumns();
+        logger.info("Converting {} * {} data matrix to sparse matrix using top {} values per column >= {}", numRows, numColumns, maxEntriesPerColumn, minValue);
+
+        int[] columnPointers = new int[numColumns + 1];
+        int[] rowIndices = new int[Math.toIntExact(Math.min((long) numColumns * maxEntriesPerColumn, (long) numRows * numColumns))];
+        short[] quantisedValues = new short[rowIndices.length];
+        float[] columnScales = new float[numColumns];
+        float[] columnErrorBounds = new float[numColumns];
+
+        float[] columnValues = new float[numRows];
+        float[] sortedValues = new float[numRows];
+        int position = 0;
+        for (int column = 0; column < numColumns; column++) {
+            columnPointers[column] = position;
+            for (int row = 0; row < numRows; row++) {
+                columnValues[row] = matrix.get(row, column);
+            }
+            float cutOff = columnCutOff(columnValues, sortedValues, maxEntriesPerColumn, minValue);
+            // ties at the cut-off are included until the column is full
+            int numAtCutOff = maxEntriesPerColumn - countGreaterThan(columnValues, cutOff);
+            float maxValue = 0f;
+            float maxDropped = 0f;
+            int columnStart = position;
+            for (int row = 0; row < numRows; row++) {
+                float value = columnValues[row];
+                boolean keep = value > cutOff || (value == cutOff && value != 0f && numAtCutOff-- > 0);
+                if (keep) {
+                    rowIndices[position] = row;
+                    position++;
+                    maxValue = Math.max(maxValue, value);
+                } else {
+                    maxDropped = Math.max(maxDropped, Math.abs(value));
+                }
+            }
+            float scale = maxValue / MAX_QUANTISED_VALUE;
+            float maxQuantisationError = 0f;
+            for (int i = columnStart; i < position; i++) {
+                float value = columnValues[rowIndices[i]];
+                short quantisedValue = quantise(value, scale);
+                quantisedValues[i] = quantisedValue;
+                maxQuantisationError = Math.max(maxQuantisationError, Math.abs(value - (quantisedValue & MAX_QUANTISED_VALUE) * scale));
+            }
+            columnScales[column] = scale;
+            // dropped values are returned as 0 and kept values are within half a quantisation step
+            columnErrorBounds[column] = Math.max(maxDropped, maxQuantisationError);
+        }
+        columnPointers[numColumns] = position;
+        logger.info("Stored {} of {} values in sparse matrix", position, (long) numRows * numColumns);
+        return new SparseDataMatrix(numRows, dataMatrix.getEntrezIdToRowIndex(), columnPointers, Arrays.copyOf(rowIndices, position), Arrays.copyOf(quantisedValues, position), columnScales, columnErrorBounds);
+    }
+
+    /**
+     * Returns the smallest value to be retained in the column.
+     */
+    private static float columnCutOff(float[] columnValues, float[] sortedValues, int maxEntriesPerColumn, float minValue) {
+        if (maxEntriesPerColumn >= columnValues.length) {
+            return minValue;
+        }
+        System.arraycopy(columnValues, 0, sortedValues, 0, columnValues.length);
+        Arrays.sort(sortedValues);
+        float kthLargest = sortedValues[sortedValues.length - maxEntriesPerColumn];
+        return Math.max(kthLargest, minValue);
+    }
+
+    private static int countGreaterThan(float[] values, float cutOff) {
+        int count = 0;
+        for (float value : values) {
+            if (value > cutOff) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static short quantise(float value, float scale) {
+        if (scale == 0f) {
+            return 0;
+        }
+        int quantised = Math.round(value / scale);
+        return (short) Math.max(0, Math.min(quantised, MAX_QUANTISED_VALUE));
+    }
+
+    private float dequantise(int index, int column) {
+        return (quantisedValues[index] & MAX_QUANTISED_VALUE) * columnScales[column];
+    }
+
+    @Override
+    public Map<Integer, Integer> getEntrezIdToRowIndex() {
+        return entrezIdToRowIndex;
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    public int numStoredValues() {
+        return rowIndices.length;
+    }
+
+    /**
+     * @param row    row index
+     * @param column column index
+     * @return the approximate value at the given position, or 0 if this was not stored.
+     */
+    public float get(int row, int column) {
+        int index = Arrays.binarySearch(rowIndices, columnPointers[column], columnPointers[column + 1], row);
+        return index < 0 ? 0f : dequantise(index, column);
+    }
+
+    /**
+     * @param column column index
+     * @return the maximum absolute difference between any value in the column and the original matrix value.
+     */
+    public float getColumnErrorBound(int column) {
+        return columnErrorBounds[column];
+    }
+
+    public float getMaxErrorBound() {
+        float max = 0f;
+        for (float errorBound : columnErrorBounds) {
+            max = Math.max(max, errorBound);
+        }
+        return max;
+    }
+
+    /**
+     * Calculates the actual maximum absolute difference between the values of this matrix and the original. This
+     * should always be less than or equal to the {@link #getMaxErrorBound()}.
+     *
+     * @param original the matrix from which this was created
+     * @return the maximum absolute difference between the two matrices
+     */
+    public float maxAbsoluteError(DataMatrix original) {
+        FloatMatrix originalMatrix = original.getMatrix();
+        float maxError = 0f;
+        for (int column = 0; column < originalMatrix.getColumns(); column++) {
+            for (int row = 0; row < originalMatrix.getRows(); row++) {
+                maxError = Math.max(maxError, Math.abs(originalMatrix.get(row, column) - get(row, column)));
+            }
+        }
+        return maxError;
+    }
+
+    @Override
+    public FloatMatrix getMatrix() {
+        FloatMatrix matrix = FloatMatrix.zeros(numRows, columnScales.length);
+        for (int column = 0; column < columnScales.length; column++) {
+            for (int i = columnPointers[column]; i < columnPointers[column + 1]; i++) {
+                matrix.put(rowIndices[i], column, dequantise(i, column));
+            }
+        }
+        return matrix;
+    }
+
+    @Override
+    public FloatMatrix getColumnMatrixForGene(int entrezGeneId) {
+        FloatMatrix columnMatrix = FloatMatrix.zeros(numRows, 1);
+        addColumnForGene(entrezGeneId, columnMatrix);
+        return columnMatrix;
+    }
+
+    @Override
+    public FloatMatrix getColumnSumForGenes(List<Integer> entrezGeneIds) {
+        FloatMatrix sum = FloatMatrix.zeros(numRows, 1);
+        for (Integer entrezGeneId : entrezGeneIds) {
+            if (containsGene(entrezGeneId)) {
+                addColumnForGene(entrezGeneId, sum);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Only the stored values are passed to the consumer.
+     */
+    @Override
+    public void forEachValueInColumn(int entrezGeneId, int fromRow, int toRow, ColumnValueConsumer consumer) {
+        int column = entrezIdToRowIndex.get(entrezGeneId);
+        int start = Arrays.binarySearch(rowIndices, columnPointers[column], columnPointers[column + 1], fromRow);
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int i = start; i < columnPointers[column + 1] && rowIndices[i] < toRow; i++) {
+            consumer.accept(rowIndices[i], dequantise(i, column));
+        }
+    }
+
+    private void addColumnForGene(int entrezGeneId, FloatMatrix target) {
+        //the PPI float matrix is symmetrical so the row index is also the column index.
+        int column = entrezIdToRowIndex.get(entrezGeneId);
+        for (int i = columnPointers[column]; i < columnPointers[column + 1]; i++) {
+            int row = rowIndices[i];
+            target.put(row, 0, target.get(row, 0) + dequantise(i, column));
+        }
+    }
+
+    int[] getColumnPointers() {
+        return columnPointers;
+    }
+
+    int[] getRowIndices() {
+        return rowIndices;
+    }
+
+    short[] getQuantisedValues() {
+        return quantisedValues;
+    }
+
+    float[] getColumnScales() {
+        return columnScales;
+    }
+
+    float[] getColumnErrorBounds() {
+        return columnErrorBounds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SparseDataMatrix)) return false;
+        SparseDataMatrix that = (SparseDataMatrix) o;
+        return numRows == that.numRows &&
+                Objects.equals(entrezIdToRowIndex, that.entrezIdToRowIndex) &&
+                Arrays.equals(columnPointers, that.columnPointers) &&
+                Arrays.equals(rowIndices, that.rowIndices) &&
+                Arrays.equals(quantisedValues, that.quantisedValues) &&
+                Arrays.equals(columnScales, that.columnScales) &&
+                Arrays.equals(columnErrorBounds, that.columnErrorBounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(numRows, entrezIdToRowIndex, Arrays.hashCode(columnPointers), Arrays.hashCode(rowIndices), Arrays.hashCode(columnErrorBounds));
+    }
+
+    @Override
+    public String toString() {
+        return "SparseDataMatrix{" +
+                "numRows=" + numRows +
+                ", numStoredValues=" + rowIndices.length +
+                ", maxErrorBound=" + getMaxErrorBound() +
+                '}';
+    }
+}
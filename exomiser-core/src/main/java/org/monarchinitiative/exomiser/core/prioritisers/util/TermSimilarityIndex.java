@@ -0,0 +1,200 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Pre-computed ancestor bitsets for all the terms used to annotate a set of objects (e.g. genes) enabling fast
+ * calculation of the Resnik similarity between a set of query terms and the annotations of each object. The Resnik
+ * similarity of two terms is the information content (IC) of their most informative common ancestor.
+ * <p>
+ * For each query a dense query-term x annotation-term table of best similarities is computed once using
+ * {@link #querySimilarities(List)}, after which the object similarity scores are simple reads from this table. Both
+ * this class and the {@link QuerySimilarities} are immutable and safe to be used concurrently.
+ *
+ * @param <T> the term type
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class TermSimilarityIndex<T> {
+
+    private final Map<T, Integer> termIndex;
+    private final double[] termIc;
+    private final Function<T, List<T>> ancestorsFunction;
+
+    private final Map<T, Integer> annotationTermColumns;
+    private final BitSet[] annotationTermAncestors;
+    private final Map<String, int[]> objectAnnotationColumns;
+
+    /**
+     * @param termIc             the information content for all terms in the ontology
+     * @param ancestorsFunction  returns the ancestors of a term, including the term itself
+     * @param objectAnnotations  the annotation terms for each object
+     */
+    public TermSimilarityIndex(Map<T, Double> termIc, Function<T, List<T>> ancestorsFunction, Map<String, List<T>> objectAnnotations) {
+        this.ancestorsFunction = ancestorsFunction;
+        this.termIndex = new HashMap<>();
+        this.termIc = new double[termIc.size()];
+        for (Map.Entry<T, Double> entry : termIc.entrySet()) {
+            int index = termIndex.size();
+            termIndex.put(entry.getKey(), index);
+            this.termIc[index] = entry.getValue();
+        }
+
+        this.annotationTermColumns = new HashMap<>();
+        List<BitSet> ancestorBitSets = new ArrayList<>();
+        this.objectAnnotationColumns = new HashMap<>();
+        for (Map.Entry<String, List<T>> entry : objectAnnotations.entrySet()) {
+            List<T> annotations = entry.getValue();
+            int[] columns = new int[annotations.size()];
+            for (int i = 0; i < annotations.size(); i++) {
+                T annotation = annotations.get(i);
+                Integer column = annotationTermColumns.get(annotation);
+                if (column == null) {
+                    column = annotationTermColumns.size();
+                    annotationTermColumns.put(annotation, column);
+                    ancestorBitSets.add(ancestorBitSet(annotation));
+                }
+                columns[i] = column;
+            }
+            objectAnnotationColumns.put(entry.getKey(), columns);
+        }
+        this.annotationTermAncestors = ancestorBitSets.toArray(new BitSet[0]);
+    }
+
+    private BitSet ancestorBitSet(T term) {
+        BitSet bitSet = new BitSet(termIc.length);
+        for (T ancestor : ancestorsFunction.apply(term)) {
+            Integer index = termIndex.get(ancestor);
+            if (index != null) {
+                bitSet.set(index);
+            }
+        }
+        return bitSet;
+    }
+
+    public boolean containsObject(String objectId) {
+        return objectAnnotationColumns.containsKey(objectId);
+    }
+
+    public int numAnnotationTerms() {
+        return annotationTermAncestors.length;
+    }
+
+    /**
+     * Calculates the Resnik similarity between each of the query terms and every term used to annotate an object.
+     *
+     * @param queryTerms the query terms
+     * @return a {@link QuerySimilarities} for scoring objects against the query terms
+     */
+    public QuerySimilarities querySimilarities(List<T> queryTerms) {
+        int numColumns = annotationTermAncestors.length;
+        double[][] similarities = new double[queryTerms.size()][];
+        for (int row = 0; row < queryTerms.size(); row++) {
+            int[] queryAncestorsByDescendingIc = queryAncestorsByDescendingIc(queryTerms.get(row));
+            double[] rowSimilarities = new double[numColumns];
+            for (int column = 0; column < numColumns; column++) {
+                BitSet annotationAncestors = annotationTermAncestors[column];
+                // the first shared ancestor is the most informative common ancestor
+                for (int ancestor : queryAncestorsByDescendingIc) {
+                    if (annotationAncestors.get(ancestor)) {
+                        rowSimilarities[column] = termIc[ancestor];
+                        break;
+                    }
+                }
+            }
+            similarities[row] = rowSimilarities;
+        }
+        return new QuerySimilarities(similarities);
+    }
+
+    private int[] queryAncestorsByDescendingIc(T queryTerm) {
+        return ancestorsFunction.apply(queryTerm).stream()
+                .map(termIndex::get)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted(Comparator.comparingDouble((Integer index) -> termIc[index]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * The best-match similarities of a set of query terms against all the annotation terms.
+     */
+    public class QuerySimilarities {
+
+        private final double[][] similarities;
+
+        private QuerySimilarities(double[][] similarities) {
+            this.similarities = similarities;
+        }
+
+        public double getSimilarity(int queryTermIndex, T annotationTerm) {
+            Integer column = annotationTermColumns.get(annotationTerm);
+            return column == null ? 0d : similarities[queryTermIndex][column];
+        }
+
+        /**
+         * Returns the similarity of the query to the object as the average of the best matching annotation for each
+         * query term. If symmetric, this is the mean of the query to object and object to query similarities.
+         *
+         * @param objectId  identifier of the annotated object
+         * @param symmetric whether to calculate the symmetric similarity
+         * @return the similarity score or 0 if the object has no annotations.
+         */
+        public double objectSimilarity(String objectId, boolean symmetric) {
+            int[] columns = objectAnnotationColumns.get(objectId);
+            if (columns == null) {
+                return 0d;
+            }
+            double queryToObject = queryToObjectSimilarity(columns);
+            if (symmetric) {
+                return (queryToObject + objectToQuerySimilarity(columns)) / 2;
+            }
+            return queryToObject;
+        }
+
+        private double queryToObjectSimilarity(int[] columns) {
+            double similarity = 0;
+            for (double[] rowSimilarities : similarities) {
+                double maxSimilarity = 0;
+                for (int column : columns) {
+                    maxSimilarity = Math.max(maxSimilarity, rowSimilarities[column]);
+                }
+                similarity += maxSimilarity;
+            }
+            return similarity / similarities.length;
+        }
+
+        private double objectToQuerySimilarity(int[] columns) {
+            double similarity = 0;
+            for (int column : columns) {
+                double maxSimilarity = 0;
+                for (double[] rowSimilarities : similarities) {
+                    maxSimilarity = Math.max(maxSimilarity, rowSimilarities[column]);
+                }
+                similarity += maxSimilarity;
+            }
+            return similarity / columns.length;
+        }
+    }
+}
@@ -37,6 +37,12 @@
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
@@ -114,6 +120,103 @@ public void canRunAnalysisUsingAlternateGenomeAssemblyPassOnly() {
         assertThat(hg38AnalysisResults.getGenes().size(), equalTo(2));
     }
 
+    @Test
+    public void canRunAnalysisAsync() throws Exception {
+        Analysis analysis = makeAnalysisWithMode(AnalysisMode.PASS_ONLY);
+        AnalysisResults analysisResults = instance.runAsync(analysis, AnalysisListener.NONE).get();
+        assertThat(analysisResults.getGenes().size(), equalTo(2));
+    }
+
+    @Test
+    public void runAsyncReportsProgressToListener() throws Exception {
+        List<String> events = new ArrayList<>();
+        AnalysisListener listener = new AnalysisListener() {
+            @Override
+            public void analysisStarted(Analysis analysis) {
+                events.add("started");
+            }
+
+            @Override
+            public void analysisCompleted(AnalysisResults analysisResults) {
+                events.add("completed");
+            }
+        };
+        Analysis analysis = makeAnalysisWithMode(AnalysisMode.PASS_ONLY);
+        //runs the analysis on this thread
+        instance.runAsync(analysis, listener, Runnable::run).get();
+        assertThat(events, equalTo(Arrays.asList("started", "completed")));
+    }
+
+    @Test
+    public void runAsyncCancelledBeforeStartingDoesNotRunAnalysis() {
+        List<Runnable> queuedJobs = new ArrayList<>();
+        List<String> events = new ArrayList<>();
+        AnalysisListener listener = new AnalysisListener() {
+            @Override
+            public void analysisStarted(Analysis analysis) {
+                events.add("started");
+            }
+        };
+        CompletableFuture<AnalysisResults> future = instance.runAsync(makeAnalysisWithMode(AnalysisMode.PASS_ONLY), listener, queuedJobs::add);
+        future.cancel(true);
+        queuedJobs.forEach(Runnable::run);
+
+        assertThat(future.isCancelled(), equalTo(true));
+        assertThat(events.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void runAsyncCancelledWhileRunningStopsAnalysis() {
+        AtomicReference<CompletableFuture<AnalysisResults>> futureRef = new AtomicReference<>();
+        List<Runnable> queuedJobs = new ArrayList<>();
+        List<String> events = new ArrayList<>();
+        AnalysisListener listener = new AnalysisListener() {
+            @Override
+            public void analysisStarted(Analysis analysis) {
+                events.add("started");
+                futureRef.get().cancel(true);
+            }
+
+            @Override
+            public void analysisCompleted(AnalysisResults analysisResults) {
+                events.add("completed");
+            }
+        };
+        futureRef.set(instance.runAsync(makeAnalysisWithMode(AnalysisMode.PASS_ONLY), listener, queuedJobs::add));
+        queuedJobs.forEach(Runnable::run);
+
+        assertThat(futureRef.get().isCancelled(), equalTo(true));
+        assertThat(events, equalTo(Arrays.asList("started")));
+    }
+
+    @Test
+    public void runAsyncCancelledAfterAnalysisFinishedIsCancelled() {
+        AtomicReference<CompletableFuture<AnalysisResults>> futureRef = new AtomicReference<>();
+        List<Runnable> queuedJobs = new ArrayList<>();
+        AnalysisListener listener = new AnalysisListener() {
+            @Override
+            public void analysisCompleted(AnalysisResults analysisResults) {
+                futureRef.get().cancel(true);
+            }
+        };
+        futureRef.set(instance.runAsync(makeAnalysisWithMode(AnalysisMode.PASS_ONLY), listener, queuedJobs::add));
+        queuedJobs.forEach(Runnable::run);
+
+        assertThat(futureRef.get().isCancelled(), equalTo(true));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void runAsyncAfterCloseIsRejected() {
+        instance.close();
+        instance.runAsync(makeAnalysisWithMode(AnalysisMode.PASS_ONLY), AnalysisListener.NONE);
+    }
+
+    @Test
+    public void canCloseMoreThanOnce() {
+        instance.close();
+        instance.close();
+    }
+
     @Test
     public void canGetAnalysisBuilder() {
         AnalysisBuilder analysisBuilder = instance.getAnalysisBuilder();
@@ -0,0 +1,187 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.monarchinitiative.exomiser.core.filters.*;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.GeneticInterval;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.prioritisers.MockPrioritiser;
+import org.monarchinitiative.exomiser.core.prioritisers.Prioritiser;
+import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class AnalysisCheckpointerTest extends AnalysisRunnerTestBase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path checkpointDirectory;
+
+    private final AtomicInteger variantFilterCount = new AtomicInteger();
+
+    /**
+     * Counts the variants it is run over. The toString is constant so that the checkpoint key matches between runs.
+     */
+    private final VariantFilter countingIntervalFilter = new VariantFilter() {
+        private final VariantFilter intervalFilter = new IntervalFilter(new GeneticInterval(1, 145508800, 145508800));
+
+        @Override
+        public FilterType getFilterType() {
+            return intervalFilter.getFilterType();
+        }
+
+        @Override
+        public FilterResult runFilter(VariantEvaluation variantEvaluation) {
+            variantFilterCount.incrementAndGet();
+            return intervalFilter.runFilter(variantEvaluation);
+        }
+
+        @Override
+        public String toString() {
+            return "CountingIntervalFilter";
+        }
+    };
+
+    private Prioritiser prioritiser() {
+        Map<String, Float> hiPhiveGeneScores = new HashMap<>();
+        hiPhiveGeneScores.put("GNRHR2", 0.75f);
+        hiPhiveGeneScores.put("RBM8A", 0.65f);
+        return new MockPrioritiser(PriorityType.HIPHIVE_PRIORITY, hiPhiveGeneScores);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        checkpointDirectory = temporaryFolder.newFolder("checkpoints").toPath();
+    }
+
+    private AnalysisResults runWithCheckpoints(Analysis analysis, boolean resume) {
+        PassOnlyAnalysisRunner analysisRunner = new PassOnlyAnalysisRunner(genomeAnalysisService);
+        analysisRunner.setAnalysisCheckpointer(new AnalysisCheckpointer(checkpointDirectory, "1711", resume));
+        return analysisRunner.run(analysis);
+    }
+
+    private List<String> describe(AnalysisResults analysisResults) {
+        return analysisResults.getGenes().stream()
+                .map(gene -> gene.getGeneSymbol() + " " + gene.getCombinedScore() + " " + gene.getPriorityResults()
+                        .keySet() + " " + gene.getVariantEvaluations())
+                .collect(toList());
+    }
+
+    @Test
+    public void testCheckpointPathDependsOnDataVersion() {
+        Analysis analysis = makeAnalysis(vcfPath, countingIntervalFilter);
+        Optional<Path> checkpointPath = new AnalysisCheckpointer(checkpointDirectory, "1711", true).checkpointPath(analysis);
+        Optional<Path> otherCheckpointPath = new AnalysisCheckpointer(checkpointDirectory, "1802", true).checkpointPath(analysis);
+
+        assertThat(checkpointPath.isPresent(), is(true));
+        assertThat(checkpointPath, not(equalTo(otherCheckpointPath)));
+    }
+
+    @Test
+    public void testCheckpointPathDependsOnAnalysis() {
+        AnalysisCheckpointer instance = new AnalysisCheckpointer(checkpointDirectory, "1711", true);
+        Optional<Path> checkpointPath = instance.checkpointPath(makeAnalysis(vcfPath, countingIntervalFilter));
+        Optional<Path> otherCheckpointPath = instance.checkpointPath(makeAnalysis(vcfPath, countingIntervalFilter, prioritiser()));
+
+        assertThat(checkpointPath, not(equalTo(otherCheckpointPath)));
+    }
+
+    @Test
+    public void testCheckpointPathEmptyForMissingVcf() {
+        AnalysisCheckpointer instance = new AnalysisCheckpointer(checkpointDirectory, "1711", true);
+        Analysis analysis = makeAnalysis(checkpointDirectory.resolve("wibble.vcf"), countingIntervalFilter);
+        assertThat(instance.checkpointPath(analysis), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void testCheckpointIsWrittenDuringAnalysis() throws Exception {
+        Analysis analysis = makeAnalysis(vcfPath, prioritiser(), countingIntervalFilter);
+        runWithCheckpoints(analysis, false);
+
+        Path checkpointPath = new AnalysisCheckpointer(checkpointDirectory, "1711", false).checkpointPath(analysis).get();
+        assertThat(Files.exists(checkpointPath), is(true));
+        try (Stream<Path> files = Files.list(checkpointDirectory)) {
+            assertThat(files.count(), equalTo(1L));
+        }
+    }
+
+    @Test
+    public void testCheckpointIsNotUsedUnlessResuming() {
+        Analysis analysis = makeAnalysis(vcfPath, prioritiser(), countingIntervalFilter);
+        runWithCheckpoints(analysis, false);
+        int firstRunCount = variantFilterCount.get();
+        assertThat(firstRunCount > 0, is(true));
+
+        runWithCheckpoints(analysis, false);
+        assertThat(variantFilterCount.get(), equalTo(firstRunCount * 2));
+    }
+
+    @Test
+    public void testResumedAnalysisSkipsCompletedStepsWithSameResults() {
+        Analysis analysis = makeAnalysis(vcfPath, prioritiser(), countingIntervalFilter);
+        AnalysisResults analysisResults = runWithCheckpoints(analysis, false);
+        int firstRunCount = variantFilterCount.get();
+
+        AnalysisResults resumedResults = runWithCheckpoints(analysis, true);
+
+        assertThat(variantFilterCount.get(), equalTo(firstRunCount));
+        assertThat(describe(resumedResults), equalTo(describe(analysisResults)));
+        Gene rbm8a = resumedResults.getGenes().get(0);
+        assertThat(rbm8a.getGeneSymbol(), equalTo("RBM8A"));
+        assertThat(rbm8a.getPriorityResult(PriorityType.HIPHIVE_PRIORITY).getScore(), equalTo(0.65f));
+    }
+
+    @Test
+    public void testResumedAnalysisRestoresGeneFilterResults() {
+        GeneFilter priorityScoreFilter = new PriorityScoreFilter(PriorityType.HIPHIVE_PRIORITY, 0.6f);
+        Analysis analysis = makeAnalysis(vcfPath, prioritiser(), priorityScoreFilter, countingIntervalFilter);
+        AnalysisResults analysisResults = runWithCheckpoints(analysis, false);
+
+        AnalysisResults resumedResults = runWithCheckpoints(analysis, true);
+
+        assertThat(resumedResults.getGenes().isEmpty(), is(false));
+        assertThat(describe(resumedResults), equalTo(describe(analysisResults)));
+        Gene rbm8a = resumedResults.getGenes().get(0);
+        assertThat(rbm8a.passedFilter(FilterType.PRIORITY_SCORE_FILTER), is(true));
+    }
+}
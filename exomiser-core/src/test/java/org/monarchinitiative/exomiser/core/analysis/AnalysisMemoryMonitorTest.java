@@ -0,0 +1,139 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import htsjdk.variant.vcf.VCFHeader;
+import org.junit.After;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.analysis.util.SpilledVariantStore;
+import org.monarchinitiative.exomiser.core.filters.FilterResult;
+import org.monarchinitiative.exomiser.core.filters.FilterType;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class AnalysisMemoryMonitorTest {
+
+    private final Gene fgfr2 = new Gene("FGFR2", 2263);
+    private final List<Gene> genes = Collections.singletonList(fgfr2);
+
+    private final SpilledVariantStore spilledVariantStore = new SpilledVariantStore(new VCFHeader(Collections.emptySet(), Collections
+            .singletonList("sample")), Integer.MAX_VALUE);
+
+    @After
+    public void tearDown() throws Exception {
+        spilledVariantStore.close();
+    }
+
+    private List<VariantEvaluation> failedVariants(int numVariants) {
+        List<VariantEvaluation> variants = new ArrayList<>();
+        for (int i = 0; i < numVariants; i++) {
+            variants.add(VariantEvaluation.builder(10, 123256000 + i, "A", "T")
+                    .geneSymbol(fgfr2.getGeneSymbol())
+                    .geneId(fgfr2.getGeneId())
+                    .filterResults(FilterResult.fail(FilterType.FREQUENCY_FILTER))
+                    .build());
+        }
+        return variants;
+    }
+
+    private long estimatedBytes(List<VariantEvaluation> variants) {
+        AnalysisMemoryMonitor unlimited = new AnalysisMemoryMonitor(0, Optional.of(spilledVariantStore), genes);
+        unlimited.check("test", variants);
+        return unlimited.getPeakFootprint().getTotalBytes();
+    }
+
+    @Test
+    public void testNoLimitOnlyReportsFootprint() {
+        List<VariantEvaluation> variants = failedVariants(10);
+        AnalysisMemoryMonitor instance = new AnalysisMemoryMonitor(0, Optional.of(spilledVariantStore), genes);
+        variants.forEach(instance.countRetainedVariant());
+        instance.checkVariantLoad();
+
+        assertThat(instance.getPeakFootprint().getNumVariants(), equalTo(10));
+        assertThat(instance.getPeakFootprint().getNumGenes(), equalTo(1));
+        assertThat(instance.isLowerMemoryMode(), is(false));
+    }
+
+    @Test
+    public void testPeakFootprintIsKept() {
+        List<VariantEvaluation> variants = failedVariants(10);
+        AnalysisMemoryMonitor instance = new AnalysisMemoryMonitor(0, Optional.empty(), genes);
+        instance.check("loading", variants);
+        instance.check("filtering", variants.subList(0, 2));
+
+        assertThat(instance.getPeakFootprint().getNumVariants(), equalTo(10));
+    }
+
+    @Test(expected = AnalysisMemoryLimitExceededException.class)
+    public void testExceedingLimitThrowsException() {
+        AnalysisMemoryMonitor instance = new AnalysisMemoryMonitor(1, Optional.empty(), genes);
+        instance.check("loading", failedVariants(10));
+    }
+
+    @Test
+    public void testExceptionContainsFootprint() {
+        AnalysisMemoryMonitor instance = new AnalysisMemoryMonitor(1, Optional.empty(), genes);
+        try {
+            instance.check("loading", failedVariants(10));
+            fail("Expected an AnalysisMemoryLimitExceededException");
+        } catch (AnalysisMemoryLimitExceededException e) {
+            assertThat(e.getMemoryFootprint(), equalTo(instance.getPeakFootprint()));
+        }
+    }
+
+    @Test
+    public void testNearingLimitSpillsFurtherFailedVariants() {
+        List<VariantEvaluation> variants = failedVariants(10);
+        long limit = (long) (estimatedBytes(variants) / 0.9);
+        AnalysisMemoryMonitor instance = new AnalysisMemoryMonitor(limit, Optional.of(spilledVariantStore), genes);
+
+        variants.forEach(variant -> assertThat(spilledVariantStore.retainInMemory(variant, fgfr2), is(true)));
+        instance.check("loading", variants);
+
+        assertThat(instance.isLowerMemoryMode(), is(true));
+        VariantEvaluation nextFailedVariant = failedVariants(11).get(10);
+        assertThat(spilledVariantStore.retainInMemory(nextFailedVariant, fgfr2), is(false));
+        assertThat(spilledVariantStore.size(), equalTo(1));
+    }
+
+    @Test
+    public void testNearingLimitWithoutStoreDoesNothing() {
+        List<VariantEvaluation> variants = failedVariants(10);
+        long limit = (long) (estimatedBytes(variants) / 0.9);
+        AnalysisMemoryMonitor instance = new AnalysisMemoryMonitor(limit, Optional.empty(), genes);
+        instance.check("loading", variants);
+
+        assertThat(instance.isLowerMemoryMode(), is(false));
+    }
+}
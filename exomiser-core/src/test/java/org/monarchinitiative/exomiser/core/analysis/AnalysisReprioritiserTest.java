@@ -0,0 +1,182 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.filters.FilterResult;
+import org.monarchinitiative.exomiser.core.filters.FilterType;
+import org.monarchinitiative.exomiser.core.filters.FrequencyFilter;
+import org.monarchinitiative.exomiser.core.filters.PriorityScoreFilter;
+import org.monarchinitiative.exomiser.core.model.FilterStatus;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.prioritisers.MockPrioritiser;
+import org.monarchinitiative.exomiser.core.prioritisers.Prioritiser;
+import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
+
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class AnalysisReprioritiserTest {
+
+    private final AnalysisReprioritiser instance = new AnalysisReprioritiser();
+
+    private final Gene fgfr2 = new Gene("FGFR2", 2263);
+    private final Gene shh = new Gene("SHH", 6469);
+
+    private Prioritiser prioritiser(PriorityType priorityType, float fgfr2Score, float shhScore) {
+        Map<String, Float> geneScores = new HashMap<>();
+        geneScores.put("FGFR2", fgfr2Score);
+        geneScores.put("SHH", shhScore);
+        return new MockPrioritiser(priorityType, geneScores);
+    }
+
+    private AnalysisResults analyse(Prioritiser prioritiser) {
+        List<Gene> genes = Arrays.asList(fgfr2, shh);
+        prioritiser.prioritizeGenes(Collections.emptyList(), genes);
+        for (Gene gene : genes) {
+            gene.setPriorityScore(gene.getPriorityResults().values().iterator().next().getScore());
+        }
+        List<Gene> rankedGenes = new ArrayList<>(genes);
+        rankedGenes.sort(Comparator.comparing(Gene::getPriorityScore).reversed());
+        return AnalysisResults.builder()
+                .genes(rankedGenes)
+                .build();
+    }
+
+    private Analysis analysisWithSteps(AnalysisStep... steps) {
+        return Analysis.builder()
+                .hpoIds(Arrays.asList("HP:0000001", "HP:0000002"))
+                .steps(Arrays.asList(steps))
+                .build();
+    }
+
+    @Test
+    public void testGenesAreReRankedUsingNewPrioritiser() {
+        AnalysisResults analysisResults = analyse(prioritiser(PriorityType.PHIVE_PRIORITY, 0.9f, 0.1f));
+        assertThat(analysisResults.getGenes(), equalTo(Arrays.asList(fgfr2, shh)));
+
+        AnalysisResults reprioritised = instance.reprioritise(analysisResults, analysisWithSteps(prioritiser(PriorityType.PHIVE_PRIORITY, 0.2f, 0.8f)));
+
+        assertThat(reprioritised.getGenes(), equalTo(Arrays.asList(shh, fgfr2)));
+        assertThat(shh.getPriorityScore(), equalTo(0.8f));
+        assertThat(fgfr2.getPriorityScore(), equalTo(0.2f));
+    }
+
+    @Test
+    public void testPreviousPriorityResultsAreRemoved() {
+        AnalysisResults analysisResults = analyse(prioritiser(PriorityType.OMIM_PRIORITY, 1f, 1f));
+
+        instance.reprioritise(analysisResults, analysisWithSteps(prioritiser(PriorityType.PHIVE_PRIORITY, 0.2f, 0.8f)));
+
+        assertThat(fgfr2.getPriorityResults().keySet(), equalTo(EnumSet.of(PriorityType.PHIVE_PRIORITY)));
+        assertThat(shh.getPriorityResults().keySet(), equalTo(EnumSet.of(PriorityType.PHIVE_PRIORITY)));
+    }
+
+    @Test
+    public void testNonPrioritiserStepsAreIgnored() {
+        fgfr2.addFilterResult(FilterResult.fail(FilterType.FREQUENCY_FILTER));
+        AnalysisResults analysisResults = analyse(prioritiser(PriorityType.PHIVE_PRIORITY, 0.9f, 0.1f));
+
+        Analysis analysis = analysisWithSteps(new FrequencyFilter(0.1f), prioritiser(PriorityType.PHIVE_PRIORITY, 0.2f, 0.8f));
+        AnalysisResults reprioritised = instance.reprioritise(analysisResults, analysis);
+
+        assertThat(reprioritised.getGenes(), equalTo(Arrays.asList(shh, fgfr2)));
+        assertThat(fgfr2.passedFilters(), is(false));
+        assertThat(shh.passedFilters(), is(true));
+    }
+
+    @Test
+    public void testVariantsAreUnchanged() {
+        VariantEvaluation variant = VariantEvaluation.builder(10, 123256215, "T", "G").build();
+        List<VariantEvaluation> variants = Collections.singletonList(variant);
+        AnalysisResults analysisResults = AnalysisResults.builder()
+                .genes(Collections.singletonList(fgfr2))
+                .variantEvaluations(variants)
+                .build();
+
+        AnalysisResults reprioritised = instance.reprioritise(analysisResults, analysisWithSteps(prioritiser(PriorityType.PHIVE_PRIORITY, 0.2f, 0.8f)));
+
+        assertThat(reprioritised.getVariantEvaluations(), sameInstance(variants));
+    }
+
+    @Test
+    public void testOriginalGeneListOrderIsNotChanged() {
+        AnalysisResults analysisResults = analyse(prioritiser(PriorityType.PHIVE_PRIORITY, 0.9f, 0.1f));
+
+        instance.reprioritise(analysisResults, analysisWithSteps(prioritiser(PriorityType.PHIVE_PRIORITY, 0.2f, 0.8f)));
+
+        assertThat(analysisResults.getGenes(), equalTo(Arrays.asList(fgfr2, shh)));
+    }
+
+    @Test
+    public void testPriorityScoreFilterIsReRun() {
+        fgfr2.addVariant(VariantEvaluation.builder(10, 123256215, "T", "G").build());
+        shh.addVariant(VariantEvaluation.builder(7, 155604800, "C", "T").build());
+        AnalysisResults analysisResults = analyse(prioritiser(PriorityType.PHIVE_PRIORITY, 0.9f, 0.1f));
+        PriorityScoreFilter priorityScoreFilter = new PriorityScoreFilter(PriorityType.PHIVE_PRIORITY, 0.5f);
+        analysisResults.getGenes().forEach(gene -> gene.addFilterResult(priorityScoreFilter.runFilter(gene)));
+        assertThat(fgfr2.passedFilters(), is(true));
+        assertThat(shh.passedFilters(), is(false));
+
+        Analysis analysis = analysisWithSteps(prioritiser(PriorityType.PHIVE_PRIORITY, 0.2f, 0.8f), priorityScoreFilter);
+        instance.reprioritise(analysisResults, analysis);
+
+        assertThat(fgfr2.passedFilters(), is(false));
+        assertThat(fgfr2.getVariantEvaluations().get(0).passedFilters(), is(false));
+        assertThat(shh.passedFilters(), is(true));
+        assertThat(shh.getVariantEvaluations().get(0).passedFilters(), is(true));
+    }
+
+    @Test
+    public void testPriorityScoreFilterResultsAreRemovedWhenNotInNewAnalysis() {
+        fgfr2.addVariant(VariantEvaluation.builder(10, 123256215, "T", "G").build());
+        AnalysisResults analysisResults = analyse(prioritiser(PriorityType.PHIVE_PRIORITY, 0.1f, 0.9f));
+        fgfr2.addFilterResult(new PriorityScoreFilter(PriorityType.PHIVE_PRIORITY, 0.5f).runFilter(fgfr2));
+        assertThat(fgfr2.passedFilters(), is(false));
+
+        instance.reprioritise(analysisResults, analysisWithSteps(prioritiser(PriorityType.PHIVE_PRIORITY, 0.2f, 0.8f)));
+
+        assertThat(fgfr2.passedFilters(), is(true));
+        assertThat(fgfr2.getVariantEvaluations().get(0).getFilterStatus(), equalTo(FilterStatus.UNFILTERED));
+    }
+
+    @Test
+    public void testVariantsNoLongerContributingToGeneScoreAreReset() {
+        VariantEvaluation variant = VariantEvaluation.builder(10, 123256215, "T", "G").build();
+        variant.setAsContributingToGeneScore();
+        fgfr2.addVariant(variant);
+        AnalysisResults analysisResults = analyse(prioritiser(PriorityType.PHIVE_PRIORITY, 0.9f, 0.1f));
+
+        Analysis analysis = analysisWithSteps(prioritiser(PriorityType.PHIVE_PRIORITY, 0.2f, 0.8f), new PriorityScoreFilter(PriorityType.PHIVE_PRIORITY, 0.5f));
+        instance.reprioritise(analysisResults, analysis);
+
+        assertThat(variant.passedFilters(), is(false));
+        assertThat(variant.contributesToGeneScore(), is(false));
+    }
+}
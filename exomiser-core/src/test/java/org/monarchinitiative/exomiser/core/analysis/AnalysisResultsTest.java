@@ -32,6 +32,7 @@
 import org.monarchinitiative.exomiser.core.model.TranscriptAnnotation;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 
+import java.io.Closeable;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -55,6 +56,35 @@ public void noArgsConstructorInitialisesGenesVariantEvalations() {
         assertThat(instance.getVariantEvaluations(), notNullValue());
     }
 
+    @Test
+    public void testCloseClosesVariantStore() {
+        List<String> closed = new ArrayList<>();
+        Closeable variantStore = () -> closed.add("closed");
+        AnalysisResults instance = AnalysisResults.builder().variantStore(variantStore).build();
+        instance.close();
+        assertThat(closed, equalTo(Collections.singletonList("closed")));
+    }
+
+    @Test
+    public void testCloseWithoutVariantStore() {
+        AnalysisResults instance = AnalysisResults.builder().build();
+        instance.close();
+        assertThat(instance.getGenes(), notNullValue());
+    }
+
+    @Test
+    public void testMemoryFootprintDefaultsToEmpty() {
+        AnalysisResults instance = AnalysisResults.builder().build();
+        assertThat(instance.getMemoryFootprint(), equalTo(MemoryFootprint.EMPTY));
+    }
+
+    @Test
+    public void testCanSetAndGetMemoryFootprint() {
+        MemoryFootprint memoryFootprint = MemoryFootprint.builder().numVariants(3).variantBytes(1024).build();
+        AnalysisResults instance = AnalysisResults.builder().memoryFootprint(memoryFootprint).build();
+        assertThat(instance.getMemoryFootprint(), equalTo(memoryFootprint));
+    }
+
     @Test
     public void testCanSetAndGetProbandSampleName() {
         String probandSampleName = "Slartibartfast";
@@ -0,0 +1,126 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class GeneStepExecutorTest {
+
+    private List<AtomicInteger> makeCounters(int numCounters) {
+        return IntStream.range(0, numCounters).mapToObj(i -> new AtomicInteger()).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testParallelismLessThanOneUsesAvailableProcessors() {
+        assertThat(new GeneStepExecutor(0).getParallelism(), equalTo(Runtime.getRuntime().availableProcessors()));
+        assertThat(new GeneStepExecutor(-1).getParallelism(), equalTo(Runtime.getRuntime().availableProcessors()));
+        assertThat(new GeneStepExecutor(3).getParallelism(), equalTo(3));
+    }
+
+    @Test
+    public void testEachItemIsProcessedExactlyOnce() {
+        List<AtomicInteger> counters = makeCounters(10000);
+        new GeneStepExecutor(4).forEach(counters, AtomicInteger::incrementAndGet);
+        assertThat(counters.stream().allMatch(counter -> counter.get() == 1), equalTo(true));
+    }
+
+    @Test
+    public void testItemOrderIsUnchanged() {
+        List<AtomicInteger> counters = makeCounters(10000);
+        List<AtomicInteger> original = new ArrayList<>(counters);
+        new GeneStepExecutor(4).forEach(counters, AtomicInteger::incrementAndGet);
+        assertThat(counters, equalTo(original));
+    }
+
+    @Test
+    public void testRunsInCallingThreadWhenSingleThreaded() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        new GeneStepExecutor(1).forEach(makeCounters(1000), counter -> threads.add(Thread.currentThread()));
+        assertThat(threads.size(), equalTo(1));
+        assertThat(threads.contains(Thread.currentThread()), equalTo(true));
+    }
+
+    @Test
+    public void testUsesNoMoreThanParallelismThreads() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        new GeneStepExecutor(2).forEach(makeCounters(10000), counter -> threads.add(Thread.currentThread()));
+        assertThat(threads.size() <= 2, equalTo(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExceptionThrownByActionIsRethrown() {
+        new GeneStepExecutor(4).forEach(makeCounters(1000), counter -> {
+            throw new IllegalArgumentException("wibble");
+        });
+    }
+
+    @Test
+    public void testStepsShareThePoolOfThreads() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        try (GeneStepExecutor instance = new GeneStepExecutor(2)) {
+            for (int step = 0; step < 10; step++) {
+                instance.forEach(makeCounters(10000), counter -> threads.add(Thread.currentThread()));
+            }
+        }
+        //the calling thread may also help out with the work
+        threads.remove(Thread.currentThread());
+        assertThat(threads.size() <= 2, equalTo(true));
+    }
+
+    @Test
+    public void testRunsInCallingThreadOnceClosed() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        GeneStepExecutor instance = new GeneStepExecutor(4);
+        instance.forEach(makeCounters(1000), AtomicInteger::incrementAndGet);
+        instance.close();
+
+        List<AtomicInteger> counters = makeCounters(1000);
+        instance.forEach(counters, counter -> {
+            threads.add(Thread.currentThread());
+            counter.incrementAndGet();
+        });
+        assertThat(threads.size(), equalTo(1));
+        assertThat(threads.contains(Thread.currentThread()), equalTo(true));
+        assertThat(counters.stream().allMatch(counter -> counter.get() == 1), equalTo(true));
+    }
+
+    @Test
+    public void testCloseIsIdempotent() {
+        GeneStepExecutor instance = new GeneStepExecutor(4);
+        instance.forEach(makeCounters(1000), AtomicInteger::incrementAndGet);
+        instance.close();
+        instance.close();
+    }
+}
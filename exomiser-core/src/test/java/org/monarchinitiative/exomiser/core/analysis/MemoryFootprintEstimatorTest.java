@@ -0,0 +1,159 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.TranscriptAnnotation;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PolyPhenScore;
+import org.monarchinitiative.exomiser.core.prioritisers.OMIMPriorityResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class MemoryFootprintEstimatorTest {
+
+    private final Gene fgfr2 = new Gene("FGFR2", 2263);
+
+    private VariantEvaluation variant(int pos) {
+        return VariantEvaluation.builder(10, pos, "A", "T")
+                .geneSymbol(fgfr2.getGeneSymbol())
+                .geneId(fgfr2.getGeneId())
+                .build();
+    }
+
+    private List<VariantEvaluation> variants(int numVariants) {
+        List<VariantEvaluation> variants = new ArrayList<>();
+        for (int i = 0; i < numVariants; i++) {
+            variants.add(variant(123256000 + i));
+        }
+        return variants;
+    }
+
+    @Test
+    public void testEstimateNothing() {
+        MemoryFootprintEstimator instance = new MemoryFootprintEstimator();
+        assertThat(instance.estimate(0, Collections.emptyList(), 0), equalTo(MemoryFootprint.EMPTY));
+    }
+
+    @Test
+    public void testStringBytes() {
+        assertThat(MemoryFootprintEstimator.stringBytes(null), equalTo(0L));
+        assertThat(MemoryFootprintEstimator.stringBytes(""), equalTo(40L));
+        assertThat(MemoryFootprintEstimator.stringBytes("A"), equalTo(48L));
+        assertThat(MemoryFootprintEstimator.stringBytes("ACGTA"), equalTo(56L));
+    }
+
+    @Test
+    public void testAlign() {
+        assertThat(MemoryFootprintEstimator.align(0), equalTo(0L));
+        assertThat(MemoryFootprintEstimator.align(1), equalTo(8L));
+        assertThat(MemoryFootprintEstimator.align(8), equalTo(8L));
+        assertThat(MemoryFootprintEstimator.align(12), equalTo(16L));
+    }
+
+    @Test
+    public void testVariantWithDataIsLargerThanVariantWithout() {
+        VariantEvaluation withoutData = variant(123256215);
+        VariantEvaluation withData = VariantEvaluation.builder(10, 123256215, "A", "T")
+                .frequencyData(FrequencyData.of(Frequency.valueOf(0.01f, FrequencySource.THOUSAND_GENOMES)))
+                .pathogenicityData(PathogenicityData.of(PolyPhenScore.valueOf(0.9f)))
+                .build();
+        assertThat(MemoryFootprintEstimator.variantEvaluationBytes(withData), greaterThan(MemoryFootprintEstimator.variantEvaluationBytes(withoutData)));
+    }
+
+    @Test
+    public void testVariantContextBytesScaleWithNumberOfSamples() {
+        VariantEvaluation variantEvaluation = variant(123256215);
+        long oneSample = MemoryFootprintEstimator.variantContextBytes(variantEvaluation.getVariantContext(), 1);
+        long twoSamples = MemoryFootprintEstimator.variantContextBytes(variantEvaluation.getVariantContext(), 2);
+        assertThat(twoSamples, greaterThan(oneSample));
+        assertThat(MemoryFootprintEstimator.variantContextBytes(null, 1), equalTo(0L));
+    }
+
+    @Test
+    public void testAnnotationBytes() {
+        TranscriptAnnotation annotation = TranscriptAnnotation.builder()
+                .geneSymbol("FGFR2")
+                .accession("uc021pzz.1")
+                .hgvsCdna("c.1694A>T")
+                .hgvsProtein("p.(Glu565Val)")
+                .build();
+        long none = MemoryFootprintEstimator.annotationBytes(Collections.emptyList());
+        long one = MemoryFootprintEstimator.annotationBytes(Collections.singletonList(annotation));
+        long two = MemoryFootprintEstimator.annotationBytes(Arrays.asList(annotation, annotation));
+        assertThat(one, greaterThan(none));
+        assertThat(two, greaterThan(one));
+    }
+
+    @Test
+    public void testEstimateExtrapolatesFromSampledVariants() {
+        List<VariantEvaluation> variants = variants(1000);
+        MemoryFootprintEstimator instance = new MemoryFootprintEstimator();
+        variants.forEach(instance::addVariant);
+
+        MemoryFootprint memoryFootprint = instance.estimate(variants.size(), Collections.emptyList(), 0);
+        // all the variants are the same size, so sampling every 100th one gives the exact total
+        long variantBytes = MemoryFootprintEstimator.variantEvaluationBytes(variants.get(0));
+        assertThat(memoryFootprint.getNumVariants(), equalTo(1000));
+        assertThat(memoryFootprint.getVariantBytes(), equalTo(1000 * variantBytes));
+        assertThat(memoryFootprint.getTotalBytes(), greaterThan(memoryFootprint.getVariantBytes()));
+    }
+
+    @Test
+    public void testSampleIfEmpty() {
+        List<VariantEvaluation> variants = variants(250);
+        MemoryFootprintEstimator sampled = new MemoryFootprintEstimator();
+        sampled.sampleIfEmpty(variants);
+
+        MemoryFootprintEstimator added = new MemoryFootprintEstimator();
+        variants.forEach(added::addVariant);
+
+        assertThat(sampled.estimate(250, Collections.emptyList(), 0), equalTo(added.estimate(250, Collections.emptyList(), 0)));
+    }
+
+    @Test
+    public void testEstimateIncludesGenesPriorityResultsAndCaches() {
+        fgfr2.addPriorityResult(new OMIMPriorityResult(fgfr2.getGeneId(), fgfr2.getGeneSymbol(), 1f, Collections.emptyList()));
+        MemoryFootprintEstimator instance = new MemoryFootprintEstimator();
+
+        MemoryFootprint memoryFootprint = instance.estimate(0, Collections.singletonList(fgfr2), 1024);
+        assertThat(memoryFootprint.getNumGenes(), equalTo(1));
+        assertThat(memoryFootprint.getGeneBytes(), greaterThan(0L));
+        assertThat(memoryFootprint.getNumPriorityResults(), equalTo(1));
+        assertThat(memoryFootprint.getPriorityResultBytes(), greaterThan(0L));
+        assertThat(memoryFootprint.getCacheBytes(), equalTo(1024L));
+    }
+}
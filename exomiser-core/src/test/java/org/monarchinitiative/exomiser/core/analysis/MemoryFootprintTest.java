@@ -0,0 +1,81 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class MemoryFootprintTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    private final MemoryFootprint instance = MemoryFootprint.builder()
+            .numVariants(1000)
+            .variantBytes(2 * MB)
+            .variantContextBytes(3 * MB)
+            .annotationBytes(MB)
+            .numGenes(20)
+            .geneBytes(MB)
+            .numPriorityResults(40)
+            .priorityResultBytes(MB)
+            .cacheBytes(MB)
+            .build();
+
+    @Test
+    public void testEmpty() {
+        assertThat(MemoryFootprint.EMPTY.getNumVariants(), equalTo(0));
+        assertThat(MemoryFootprint.EMPTY.getTotalBytes(), equalTo(0L));
+    }
+
+    @Test
+    public void testGetTotalBytes() {
+        assertThat(instance.getTotalBytes(), equalTo(9 * MB));
+    }
+
+    @Test
+    public void testEquals() {
+        MemoryFootprint other = MemoryFootprint.builder()
+                .numVariants(1000)
+                .variantBytes(2 * MB)
+                .variantContextBytes(3 * MB)
+                .annotationBytes(MB)
+                .numGenes(20)
+                .geneBytes(MB)
+                .numPriorityResults(40)
+                .priorityResultBytes(MB)
+                .cacheBytes(MB)
+                .build();
+        assertThat(instance, equalTo(other));
+        assertThat(instance.hashCode(), equalTo(other.hashCode()));
+        assertThat(instance, not(equalTo(MemoryFootprint.EMPTY)));
+    }
+
+    @Test
+    public void testToString() {
+        assertThat(instance.toString(), equalTo("MemoryFootprint{total=9MB, variants=1000 (2MB), variantContexts=3MB, annotations=1MB, genes=20 (1MB), priorityResults=40 (1MB), caches=1MB}"));
+    }
+}
@@ -21,8 +21,11 @@
 package org.monarchinitiative.exomiser.core.analysis;
 
 import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Test;
 import org.monarchinitiative.exomiser.core.filters.*;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserMetrics;
 import org.monarchinitiative.exomiser.core.model.FilterStatus;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.model.GeneticInterval;
@@ -394,4 +397,36 @@ public void testRunAnalysis_autosomalRecessiveTrioInheritanceFilter() {
         assertThat(passedGene.getVariantEvaluations().get(0).getPosition(), equalTo(123239370));
     }
 
+    @Test
+    public void testRunAnalysis_RecordsMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        try {
+            VariantFilter intervalFilter = new IntervalFilter(new GeneticInterval(1, 145508800, 145508800));
+            Map<String, Float> hiPhiveGeneScores = new HashMap<>();
+            hiPhiveGeneScores.put("RBM8A", 0.65f);
+            Prioritiser mockHiPhivePrioritiser = new MockPrioritiser(PriorityType.HIPHIVE_PRIORITY, hiPhiveGeneScores);
+
+            instance.run(makeAnalysis(vcfPath, intervalFilter, mockHiPhivePrioritiser));
+
+            assertThat(meterRegistry.find(ExomiserMetrics.ANALYSIS).tags("outcome", "completed").timer().count(), equalTo(1L));
+            assertThat(meterRegistry.find(ExomiserMetrics.ANALYSIS_STEP)
+                    .tags("type", ExomiserMetrics.STEP_VARIANT_LOAD)
+                    .timer()
+                    .count(), equalTo(1L));
+            assertThat(meterRegistry.find(ExomiserMetrics.ANALYSIS_STEP)
+                    .tags("type", ExomiserMetrics.STEP_PRIORITISER, "step", PriorityType.HIPHIVE_PRIORITY.name())
+                    .timer()
+                    .count(), equalTo(1L));
+            assertThat(meterRegistry.find(ExomiserMetrics.VARIANTS_LOADED).counter().count(), equalTo(3.0));
+            assertThat(meterRegistry.find(ExomiserMetrics.VARIANTS_PASSED).counter().count(), equalTo(1.0));
+            assertThat(meterRegistry.find(ExomiserMetrics.FILTER)
+                    .tags("filter", FilterType.INTERVAL_FILTER.name(), "result", "pass")
+                    .timer()
+                    .count(), equalTo(1L));
+        } finally {
+            Metrics.removeRegistry(meterRegistry);
+        }
+    }
+
 }
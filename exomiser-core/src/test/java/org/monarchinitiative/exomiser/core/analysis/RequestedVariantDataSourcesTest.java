@@ -0,0 +1,100 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.filters.*;
+import org.monarchinitiative.exomiser.core.genome.VariantDataService;
+import org.monarchinitiative.exomiser.core.genome.VariantDataServiceStub;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.CaddScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PolyPhenScore;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class RequestedVariantDataSourcesTest {
+
+    private final VariantDataService variantDataService = new VariantDataServiceStub();
+
+    private static final FrequencyData FREQUENCY_DATA = FrequencyData.of(RsId.valueOf(123456), Frequency.valueOf(0.1f, FrequencySource.ESP_ALL), Frequency
+            .valueOf(0.2f, FrequencySource.LOCAL));
+    private static final PathogenicityData PATHOGENICITY_DATA = PathogenicityData.of(PolyPhenScore.valueOf(0.9f), CaddScore.valueOf(20f));
+
+    private VariantEvaluation variantWithAllData() {
+        VariantEvaluation variantEvaluation = VariantEvaluation.builder(1, 1, "A", "T").build();
+        variantEvaluation.setFrequencyData(FREQUENCY_DATA);
+        variantEvaluation.setPathogenicityData(PATHOGENICITY_DATA);
+        return variantEvaluation;
+    }
+
+    @Test
+    public void testNoDataProvidersRemovesAllData() {
+        RequestedVariantDataSources instance = new RequestedVariantDataSources(Collections.singletonList(new QualityFilter(1)));
+
+        VariantEvaluation variantEvaluation = instance.removeUnrequestedData(variantWithAllData());
+        assertThat(variantEvaluation.getFrequencyData(), equalTo(FrequencyData.empty()));
+        assertThat(variantEvaluation.getPathogenicityData(), equalTo(PathogenicityData.empty()));
+    }
+
+    @Test
+    public void testKeepsOnlyRequestedSources() {
+        RequestedVariantDataSources instance = new RequestedVariantDataSources(Arrays.asList(
+                new FrequencyDataProvider(variantDataService, EnumSet.of(FrequencySource.ESP_ALL), new FrequencyFilter(1f)),
+                new PathogenicityDataProvider(variantDataService, EnumSet.of(PathogenicitySource.POLYPHEN), new PathogenicityFilter(true))
+        ));
+
+        VariantEvaluation variantEvaluation = instance.removeUnrequestedData(variantWithAllData());
+        assertThat(variantEvaluation.getFrequencyData(), equalTo(FrequencyData.of(RsId.valueOf(123456), Frequency.valueOf(0.1f, FrequencySource.ESP_ALL))));
+        assertThat(variantEvaluation.getPathogenicityData(), equalTo(PathogenicityData.of(PolyPhenScore.valueOf(0.9f))));
+    }
+
+    @Test
+    public void testKeepsSourcesRequestedByAnyDataProvider() {
+        RequestedVariantDataSources instance = new RequestedVariantDataSources(Arrays.asList(
+                new FrequencyDataProvider(variantDataService, EnumSet.of(FrequencySource.ESP_ALL), new KnownVariantFilter()),
+                new FrequencyDataProvider(variantDataService, EnumSet.of(FrequencySource.LOCAL), new FrequencyFilter(1f)),
+                new PathogenicityDataProvider(variantDataService, EnumSet.of(PathogenicitySource.POLYPHEN, PathogenicitySource.CADD), new PathogenicityFilter(true))
+        ));
+
+        VariantEvaluation variantEvaluation = variantWithAllData();
+        FrequencyData frequencyData = variantEvaluation.getFrequencyData();
+        PathogenicityData pathogenicityData = variantEvaluation.getPathogenicityData();
+
+        instance.removeUnrequestedData(variantEvaluation);
+        assertThat(variantEvaluation.getFrequencyData(), sameInstance(frequencyData));
+        assertThat(variantEvaluation.getPathogenicityData(), sameInstance(pathogenicityData));
+    }
+}
@@ -21,19 +21,33 @@
 package org.monarchinitiative.exomiser.core.analysis;
 
 import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.monarchinitiative.exomiser.core.filters.*;
+import org.monarchinitiative.exomiser.core.genome.*;
 import org.monarchinitiative.exomiser.core.model.FilterStatus;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.model.GeneticInterval;
+import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.CaddScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PolyPhenScore;
 import org.monarchinitiative.exomiser.core.prioritisers.MockPrioritiser;
 import org.monarchinitiative.exomiser.core.prioritisers.Prioritiser;
 import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
 
-import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -354,4 +368,73 @@ public void testRunAnalysis_VariantFilterPrioritiserPriorityScoreFilterVariantFi
         assertThat(rbm8Variant2.passedFilter(FilterType.INHERITANCE_FILTER), is(true));
     }
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    //every variant has data from all of these sources
+    private final VariantDataService allSourcesVariantDataService = new VariantDataService() {
+        @Override
+        public FrequencyData getVariantFrequencyData(Variant variant, Set<FrequencySource> frequencySources) {
+            List<Frequency> frequencies = Arrays.asList(Frequency.valueOf(0.1f, FrequencySource.ESP_ALL), Frequency.valueOf(0.2f, FrequencySource.LOCAL));
+            return FrequencyData.of(RsId.valueOf(123456), frequencies.stream()
+                    .filter(frequency -> frequencySources.contains(frequency.getSource()))
+                    .collect(toList()));
+        }
+
+        @Override
+        public PathogenicityData getVariantPathogenicityData(Variant variant, Set<PathogenicitySource> pathogenicitySources) {
+            if (pathogenicitySources.isEmpty()) {
+                return PathogenicityData.empty();
+            }
+            return PathogenicityData.of(Arrays.<PathogenicityScore>asList(PolyPhenScore.valueOf(0.9f), CaddScore.valueOf(20f)).stream()
+                    .filter(score -> pathogenicitySources.contains(score.getSource()))
+                    .collect(toList()));
+        }
+    };
+
+    private List<String> runAndDescribe(GenomeAnalysisService genomeAnalysisService, Analysis analysis) {
+        try (SimpleAnalysisRunner analysisRunner = new SimpleAnalysisRunner(genomeAnalysisService);
+             AnalysisResults analysisResults = analysisRunner.run(analysis)) {
+            List<String> results = new ArrayList<>();
+            for (Gene gene : analysisResults.getGenes()) {
+                results.add(gene.getGeneSymbol() + " " + gene.getCombinedScore() + " " + gene.getVariantScore());
+                for (VariantEvaluation variant : gene.getVariantEvaluations()) {
+                    results.add(variant.getPosition() + " " + variant.getVariantScore() + " " + variant.getFrequencyData() + " " + variant
+                            .getPathogenicityData() + " " + variant.getPassedFilterTypes() + " " + variant.getFailedFilterTypes());
+                }
+            }
+            return results;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void assertSameResultsWithAndWithoutSnapshot(Analysis analysis) throws Exception {
+        VariantFactory variantFactory = TestFactory.buildDefaultVariantFactory();
+        GenomeAnalysisService withoutSnapshot = new GenomeAnalysisServiceImpl(TestFactory.getDefaultGenomeAssembly(), TestFactory
+                .buildDefaultGenomeDataService(), allSourcesVariantDataService, variantFactory);
+
+        Path snapshotDirectory = temporaryFolder.newFolder("snapshots").toPath();
+        SnapshotVariantFactory snapshotVariantFactory = new SnapshotVariantFactory(variantFactory, snapshotDirectory, "1711_hg19_ucsc", allSourcesVariantDataService, EnumSet
+                .of(FrequencySource.ESP_ALL, FrequencySource.LOCAL), EnumSet.of(PathogenicitySource.POLYPHEN, PathogenicitySource.CADD));
+        GenomeAnalysisService withSnapshot = new GenomeAnalysisServiceImpl(TestFactory.getDefaultGenomeAssembly(), TestFactory
+                .buildDefaultGenomeDataService(), allSourcesVariantDataService, snapshotVariantFactory);
+
+        List<String> expected = runAndDescribe(withoutSnapshot, analysis);
+        //the first run writes the snapshot, the second reads it
+        assertThat(runAndDescribe(withSnapshot, analysis), equalTo(expected));
+        assertThat(runAndDescribe(withSnapshot, analysis), equalTo(expected));
+    }
+
+    @Test
+    public void testRunAnalysis_NoDataFilters_SameResultsWithAndWithoutSnapshot() throws Exception {
+        assertSameResultsWithAndWithoutSnapshot(makeAnalysis(vcfPath, new QualityFilter(1)));
+    }
+
+    @Test
+    public void testRunAnalysis_NoFrequencyFilter_SameResultsWithAndWithoutSnapshot() throws Exception {
+        VariantFilter pathogenicityFilter = new PathogenicityDataProvider(allSourcesVariantDataService, EnumSet.of(PathogenicitySource.POLYPHEN), new PathogenicityFilter(true));
+        assertSameResultsWithAndWithoutSnapshot(makeAnalysis(vcfPath, pathogenicityFilter));
+    }
+
 }
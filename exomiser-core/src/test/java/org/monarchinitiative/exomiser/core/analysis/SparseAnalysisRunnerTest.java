@@ -22,6 +22,7 @@
 
 import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
 import org.junit.Test;
+import org.monarchinitiative.exomiser.core.analysis.util.SpilledVariantStore;
 import org.monarchinitiative.exomiser.core.filters.*;
 import org.monarchinitiative.exomiser.core.model.FilterStatus;
 import org.monarchinitiative.exomiser.core.model.Gene;
@@ -31,6 +32,8 @@
 import org.monarchinitiative.exomiser.core.prioritisers.Prioritiser;
 import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -120,6 +123,74 @@ public void testRunAnalysis_TwoVariantFilters_AllVariantsFail_VariantsShouldCont
         assertThat(rbm8Variant2.getFailedFilterTypes(), equalTo(EnumSet.of(FilterType.QUALITY_FILTER)));
     }
     
+    @Test
+    public void testRunAnalysis_FailedVariantsOverThresholdAreSpilledToDisk_ResultsAreUnchanged() {
+        SparseAnalysisRunner spillingInstance = new SparseAnalysisRunner(genomeAnalysisService, 1, 1);
+        VariantFilter intervalFilter = new IntervalFilter(new GeneticInterval(1, 145508800, 145508800));
+        VariantFilter qualityFilter = new QualityFilter(9999999f);
+
+        Analysis analysis = makeAnalysis(vcfPath, intervalFilter, qualityFilter);
+        AnalysisResults analysisResults = spillingInstance.run(analysis);
+        printResults(analysisResults);
+        assertThat(analysisResults.getGenes().size(), equalTo(2));
+        assertThat(analysisResults.getVariantEvaluations().size(), equalTo(3));
+
+        Map<String, Gene> results = makeResults(analysisResults.getGenes());
+
+        Gene gnrh2 = results.get("GNRHR2");
+        assertThat(gnrh2.passedFilters(), is(false));
+        assertThat(gnrh2.getNumberOfVariants(), equalTo(1));
+        assertThat(gnrh2.getVariantEvaluations().get(0).getFailedFilterTypes(), equalTo(EnumSet.of(FilterType.INTERVAL_FILTER)));
+
+        Gene rbm8a = results.get("RBM8A");
+        assertThat(rbm8a.passedFilters(), is(false));
+        assertThat(rbm8a.getNumberOfVariants(), equalTo(2));
+        assertThat(rbm8a.getVariantEvaluations().get(0).getFailedFilterTypes(), equalTo(EnumSet.of(FilterType.INTERVAL_FILTER)));
+        assertThat(rbm8a.getVariantEvaluations().get(1).getFailedFilterTypes(), equalTo(EnumSet.of(FilterType.QUALITY_FILTER)));
+    }
+
+    @Test
+    public void testRunAnalysis_ClosingResultsDeletesSpilledVariantsFile() {
+        SparseAnalysisRunner spillingInstance = new SparseAnalysisRunner(genomeAnalysisService, 1, 1);
+        VariantFilter qualityFilter = new QualityFilter(9999999f);
+
+        AnalysisResults analysisResults = spillingInstance.run(makeAnalysis(vcfPath, qualityFilter));
+        SpilledVariantStore spilledVariantStore = (SpilledVariantStore) analysisResults.getVariantStore();
+        Path spilledVariantsFile = spilledVariantStore.getFile().get();
+        assertThat(Files.exists(spilledVariantsFile), is(true));
+
+        analysisResults.close();
+        assertThat(Files.exists(spilledVariantsFile), is(false));
+    }
+
+    @Test
+    public void testRunAnalysis_MemoryFootprintIsReported() {
+        VariantFilter qualityFilter = new QualityFilter(9999999f);
+
+        AnalysisResults analysisResults = instance.run(makeAnalysis(vcfPath, qualityFilter));
+        MemoryFootprint memoryFootprint = analysisResults.getMemoryFootprint();
+        assertThat(memoryFootprint.getNumVariants(), equalTo(3));
+        assertThat(memoryFootprint.getTotalBytes() > 0, is(true));
+    }
+
+    @Test
+    public void testRunAnalysis_SpilledVariantsAreNotCountedInMemoryFootprint() {
+        SparseAnalysisRunner spillingInstance = new SparseAnalysisRunner(genomeAnalysisService, 1, 1);
+        VariantFilter qualityFilter = new QualityFilter(9999999f);
+
+        AnalysisResults analysisResults = spillingInstance.run(makeAnalysis(vcfPath, qualityFilter));
+        assertThat(analysisResults.getVariantEvaluations().size(), equalTo(3));
+        assertThat(analysisResults.getMemoryFootprint().getNumVariants(), equalTo(1));
+        assertThat(analysisResults.getMemoryFootprint().getCacheBytes() > 0, is(true));
+    }
+
+    @Test(expected = AnalysisMemoryLimitExceededException.class)
+    public void testRunAnalysis_MemoryLimitExceededStopsAnalysis() {
+        SparseAnalysisRunner limitedInstance = new SparseAnalysisRunner(genomeAnalysisService);
+        limitedInstance.setMemoryLimit(1);
+        limitedInstance.run(makeAnalysis(vcfPath));
+    }
+
     @Test
     public void testRunAnalysis_TwoVariantFiltersOnePrioritiser_VariantsShouldContainOnlyOneFailedFilterResult() {
         VariantFilter intervalFilter = new IntervalFilter(new GeneticInterval(1, 145508800, 145508800));
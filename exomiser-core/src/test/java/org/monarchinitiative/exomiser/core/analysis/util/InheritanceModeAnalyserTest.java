@@ -604,4 +604,54 @@ public void testFindCompHetCompatibleAllelesTwoAffectedSibsUnaffectedMotherhMiss
         assertThat(compHetAlleles.get(0), equalTo(Arrays.asList(var98518687, var97723020)));
         assertThat(compHetAlleles.get(1), equalTo(Arrays.asList(var98518683, var97723020)));
     }
+
+    @Test
+    public void testFindCompHetCompatibleAllelesSingleSampleManyVariantsReturnsPairsInListOrder() {
+        List<VariantEvaluation> variants = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            List<Allele> alleles = buildAlleles("A", "T");
+            //every third variant is HOM_VAR so cannot be part of a comp het pair
+            Allele secondAllele = (i % 3 == 0) ? alleles.get(1) : alleles.get(0);
+            Genotype proband = buildSampleGenotype("Cain", secondAllele, alleles.get(1));
+            VariantContext variantContext = buildVariantContext(1, 1000 + i, alleles, proband);
+            variants.add(filteredVariant(1, 1000 + i, "A", "T", FilterResult.pass(FilterType.FREQUENCY_FILTER), variantContext));
+        }
+
+        List<List<VariantEvaluation>> expected = new ArrayList<>();
+        for (int i = 0; i < variants.size(); i++) {
+            for (int j = i + 1; j < variants.size(); j++) {
+                if (i % 3 != 0 && j % 3 != 0) {
+                    expected.add(Arrays.asList(variants.get(i), variants.get(j)));
+                }
+            }
+        }
+
+        Pedigree pedigree = Pedigree.constructSingleSamplePedigree("Cain");
+        InheritanceModeAnalyser instance = new InheritanceModeAnalyser(ModeOfInheritance.AUTOSOMAL_RECESSIVE, pedigree);
+        List<List<VariantEvaluation>> compHetAlleles = instance.findCompatibleCompHetAlleles(variants);
+
+        assertThat(compHetAlleles.size(), equalTo(40 * 39 / 2));
+        assertThat(compHetAlleles, equalTo(expected));
+    }
+
+    @Test
+    public void testFindCompHetCompatibleAllelesIgnoresIdenticalAlleles() {
+        List<Allele> alleles = buildAlleles("A", "T");
+        Genotype proband = buildSampleGenotype("Cain", alleles.get(0), alleles.get(1));
+        VariantContext variantContext = buildVariantContext(1, 12345, alleles, proband);
+        VariantContext duplicateVariantContext = buildVariantContext(1, 12345, alleles, proband);
+        VariantEvaluation variant = filteredVariant(1, 12345, "A", "T", FilterResult.pass(FilterType.FREQUENCY_FILTER), variantContext);
+        VariantEvaluation duplicate = filteredVariant(1, 12345, "A", "T", FilterResult.pass(FilterType.FREQUENCY_FILTER), duplicateVariantContext);
+
+        List<Allele> otherAlleles = buildAlleles("C", "G");
+        Genotype otherProband = buildSampleGenotype("Cain", otherAlleles.get(0), otherAlleles.get(1));
+        VariantContext otherVariantContext = buildVariantContext(1, 12350, otherAlleles, otherProband);
+        VariantEvaluation other = filteredVariant(1, 12350, "C", "G", FilterResult.pass(FilterType.FREQUENCY_FILTER), otherVariantContext);
+
+        Pedigree pedigree = Pedigree.constructSingleSamplePedigree("Cain");
+        InheritanceModeAnalyser instance = new InheritanceModeAnalyser(ModeOfInheritance.AUTOSOMAL_RECESSIVE, pedigree);
+        List<List<VariantEvaluation>> compHetAlleles = instance.findCompatibleCompHetAlleles(Arrays.asList(variant, duplicate, other));
+
+        assertThat(compHetAlleles, equalTo(Arrays.asList(Arrays.asList(variant, other), Arrays.asList(duplicate, other))));
+    }
 }
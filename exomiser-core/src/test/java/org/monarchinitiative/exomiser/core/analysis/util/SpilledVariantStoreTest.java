@@ -0,0 +1,289 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis.util;
+
+import htsjdk.variant.vcf.VCFHeader;
+import org.junit.After;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.filters.FilterResult;
+import org.monarchinitiative.exomiser.core.filters.FilterType;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SpilledVariantStoreTest {
+
+    private final VCFHeader vcfHeader = new VCFHeader(Collections.emptySet(), Collections.singletonList("sample"));
+
+    private final SpilledVariantStore instance = new SpilledVariantStore(vcfHeader, 1);
+
+    private final Gene fgfr2 = new Gene("FGFR2", 2263);
+    private final Gene shh = new Gene("SHH", 6469);
+
+    @After
+    public void tearDown() throws Exception {
+        instance.close();
+    }
+
+    private VariantEvaluation failedVariant(int chr, int pos, Gene gene) {
+        return VariantEvaluation.builder(chr, pos, "A", "T")
+                .geneSymbol(gene.getGeneSymbol())
+                .geneId(gene.getGeneId())
+                .filterResults(FilterResult.fail(FilterType.FREQUENCY_FILTER))
+                .build();
+    }
+
+    private VariantEvaluation passedVariant(int chr, int pos, Gene gene) {
+        return VariantEvaluation.builder(chr, pos, "A", "T")
+                .geneSymbol(gene.getGeneSymbol())
+                .geneId(gene.getGeneId())
+                .filterResults(FilterResult.pass(FilterType.FREQUENCY_FILTER))
+                .build();
+    }
+
+    private List<VariantEvaluation> retainInMemory(List<VariantEvaluation> variants, Gene gene) {
+        List<VariantEvaluation> retained = new ArrayList<>();
+        for (VariantEvaluation variant : variants) {
+            if (instance.retainInMemory(variant, gene)) {
+                gene.addVariant(variant);
+                retained.add(variant);
+            }
+        }
+        return retained;
+    }
+
+    @Test
+    public void testPassedVariantsAreAlwaysRetained() {
+        List<VariantEvaluation> variants = Arrays.asList(passedVariant(10, 1, fgfr2), passedVariant(10, 2, fgfr2), passedVariant(10, 3, fgfr2));
+
+        assertThat(retainInMemory(variants, fgfr2), equalTo(variants));
+        assertThat(instance.size(), equalTo(0));
+        assertThat(instance.withSpilledVariants(variants), equalTo(variants));
+    }
+
+    @Test
+    public void testFailedVariantsOverThresholdAreSpilled() {
+        VariantEvaluation failed1 = failedVariant(10, 1, fgfr2);
+        VariantEvaluation failed2 = failedVariant(10, 2, fgfr2);
+        VariantEvaluation passed = passedVariant(10, 3, fgfr2);
+        VariantEvaluation failed3 = failedVariant(10, 4, fgfr2);
+
+        List<VariantEvaluation> retained = retainInMemory(Arrays.asList(failed1, failed2, passed, failed3), fgfr2);
+
+        assertThat(retained, equalTo(Arrays.asList(failed1, passed)));
+        assertThat(instance.size(), equalTo(2));
+        assertThat(fgfr2.getNumberOfVariants(), equalTo(4));
+        assertThat(fgfr2.getVariantEvaluations(), equalTo(Arrays.asList(failed1, failed2, passed, failed3)));
+    }
+
+    @Test
+    public void testReadVariantEvaluationsForGene() {
+        VariantEvaluation fgfr2Failed1 = failedVariant(10, 1, fgfr2);
+        VariantEvaluation fgfr2Failed2 = failedVariant(10, 2, fgfr2);
+        VariantEvaluation shhFailed = failedVariant(7, 3, shh);
+
+        retainInMemory(Arrays.asList(fgfr2Failed1, fgfr2Failed2), fgfr2);
+        retainInMemory(Collections.singletonList(shhFailed), shh);
+
+        assertThat(instance.readVariantEvaluations("FGFR2"), equalTo(Collections.singletonList(fgfr2Failed2)));
+        assertThat(instance.readVariantEvaluations("SHH"), equalTo(Collections.singletonList(shhFailed)));
+        assertThat(instance.readVariantEvaluations("GNRHR2").isEmpty(), is(true));
+    }
+
+    @Test
+    public void testSpilledVariantsKeepTheirFilterResults() {
+        retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failedVariant(10, 2, fgfr2)), fgfr2);
+
+        VariantEvaluation spilled = instance.readVariantEvaluations("FGFR2").get(0);
+        assertThat(spilled.passedFilters(), is(false));
+        assertThat(spilled.passedFilter(FilterType.FREQUENCY_FILTER), is(false));
+    }
+
+    @Test
+    public void testWithSpilledVariants() {
+        VariantEvaluation failed1 = failedVariant(10, 1, fgfr2);
+        VariantEvaluation failed2 = failedVariant(10, 2, fgfr2);
+        VariantEvaluation failed3 = failedVariant(10, 3, fgfr2);
+
+        List<VariantEvaluation> retained = retainInMemory(Arrays.asList(failed1, failed2, failed3), fgfr2);
+        List<VariantEvaluation> allVariants = instance.withSpilledVariants(retained);
+
+        assertThat(allVariants.size(), equalTo(3));
+        assertThat(allVariants.get(2), equalTo(failed3));
+        assertThat(new ArrayList<>(allVariants), equalTo(Arrays.asList(failed1, failed2, failed3)));
+    }
+
+    @Test
+    public void testWithSpilledVariantsMergesVariantsByPosition() {
+        VariantEvaluation failed1 = failedVariant(10, 1, fgfr2);
+        VariantEvaluation failed2 = failedVariant(10, 2, fgfr2);
+        VariantEvaluation passed3 = passedVariant(10, 3, fgfr2);
+        VariantEvaluation failed4 = failedVariant(10, 4, fgfr2);
+        VariantEvaluation passed5 = passedVariant(10, 5, fgfr2);
+        List<VariantEvaluation> variants = Arrays.asList(failed1, failed2, passed3, failed4, passed5);
+
+        List<VariantEvaluation> retained = retainInMemory(variants, fgfr2);
+        assertThat(retained, equalTo(Arrays.asList(failed1, passed3, passed5)));
+
+        List<VariantEvaluation> allVariants = instance.withSpilledVariants(retained);
+        assertThat(allVariants.size(), equalTo(5));
+        assertThat(new ArrayList<>(allVariants), equalTo(variants));
+        for (int i = 0; i < variants.size(); i++) {
+            assertThat(allVariants.get(i), equalTo(variants.get(i)));
+        }
+        //in-memory variants are returned as-is
+        assertThat(allVariants.get(2), sameInstance(passed3));
+    }
+
+    @Test
+    public void testWithSpilledVariantsMergesVariantsOnDifferentChromosomes() {
+        VariantEvaluation failed1 = failedVariant(7, 100, shh);
+        VariantEvaluation failed2 = failedVariant(7, 200, shh);
+        VariantEvaluation failed3 = failedVariant(10, 1, fgfr2);
+        VariantEvaluation failed4 = failedVariant(10, 2, fgfr2);
+
+        List<VariantEvaluation> retained = new ArrayList<>(retainInMemory(Arrays.asList(failed1, failed2), shh));
+        retained.addAll(retainInMemory(Arrays.asList(failed3, failed4), fgfr2));
+        assertThat(retained, equalTo(Collections.singletonList(failed1)));
+
+        List<VariantEvaluation> allVariants = instance.withSpilledVariants(retained);
+        assertThat(new ArrayList<>(allVariants), equalTo(Arrays.asList(failed1, failed2, failed3, failed4)));
+    }
+
+    @Test
+    public void testWithSpilledVariantsGetReturnsSameInstanceForSameIndex() {
+        List<VariantEvaluation> retained = retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failedVariant(10, 2, fgfr2), failedVariant(10, 3, fgfr2)), fgfr2);
+        List<VariantEvaluation> allVariants = instance.withSpilledVariants(retained);
+
+        assertThat(allVariants.get(1), sameInstance(allVariants.get(1)));
+        assertThat(allVariants.get(2), sameInstance(allVariants.get(2)));
+    }
+
+    @Test
+    public void testWithSpilledVariantsGetCanReadEarlierVariants() {
+        VariantEvaluation failed2 = failedVariant(10, 2, fgfr2);
+        VariantEvaluation failed3 = failedVariant(10, 3, fgfr2);
+        List<VariantEvaluation> retained = retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failed2, failed3), fgfr2);
+        List<VariantEvaluation> allVariants = instance.withSpilledVariants(retained);
+
+        assertThat(allVariants.get(2), equalTo(failed3));
+        assertThat(allVariants.get(1), equalTo(failed2));
+        assertThat(allVariants.get(2), equalTo(failed3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testWithSpilledVariantsGetOutOfBounds() {
+        List<VariantEvaluation> retained = retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failedVariant(10, 2, fgfr2)), fgfr2);
+        instance.withSpilledVariants(retained).get(2);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testWithSpilledVariantsIsUnmodifiable() {
+        List<VariantEvaluation> retained = retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failedVariant(10, 2, fgfr2)), fgfr2);
+        instance.withSpilledVariants(retained).add(failedVariant(10, 3, fgfr2));
+    }
+
+    @Test
+    public void testSpillFurtherFailedVariants() throws Exception {
+        try (SpilledVariantStore store = new SpilledVariantStore(vcfHeader, 10)) {
+            assertThat(store.retainInMemory(failedVariant(10, 1, fgfr2), fgfr2), is(true));
+            store.spillFurtherFailedVariants();
+            assertThat(store.retainInMemory(failedVariant(10, 2, fgfr2), fgfr2), is(false));
+            assertThat(store.retainInMemory(passedVariant(10, 3, fgfr2), fgfr2), is(true));
+            assertThat(store.size(), equalTo(1));
+        }
+    }
+
+    @Test
+    public void testRepeatedReadsOfAGeneReturnTheSameVariants() {
+        retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failedVariant(10, 2, fgfr2)), fgfr2);
+
+        List<VariantEvaluation> firstRead = instance.readVariantEvaluations("FGFR2");
+        List<VariantEvaluation> secondRead = instance.readVariantEvaluations("FGFR2");
+        assertThat(secondRead, equalTo(firstRead));
+        assertThat(secondRead.get(0), sameInstance(firstRead.get(0)));
+    }
+
+    @Test
+    public void testFurtherSpilledVariantsAreReadAfterARepeatedRead() {
+        retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failedVariant(10, 2, fgfr2)), fgfr2);
+        assertThat(instance.readVariantEvaluations("FGFR2").size(), equalTo(1));
+
+        VariantEvaluation failed3 = failedVariant(10, 3, fgfr2);
+        retainInMemory(Collections.singletonList(failed3), fgfr2);
+        assertThat(instance.readVariantEvaluations("FGFR2").size(), equalTo(2));
+    }
+
+    @Test
+    public void testCloseDeletesFile() throws Exception {
+        assertThat(instance.getFile().isPresent(), is(false));
+        retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failedVariant(10, 2, fgfr2)), fgfr2);
+
+        Path file = instance.getFile().get();
+        assertThat(Files.exists(file), is(true));
+        instance.close();
+        assertThat(Files.exists(file), is(false));
+    }
+
+    @Test
+    public void testCloseIsIdempotent() throws Exception {
+        retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failedVariant(10, 2, fgfr2)), fgfr2);
+        instance.close();
+        instance.close();
+        assertThat(Files.exists(instance.getFile().get()), is(false));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testReadAfterCloseThrowsException() throws Exception {
+        retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failedVariant(10, 2, fgfr2)), fgfr2);
+        instance.close();
+        instance.readVariantEvaluations("FGFR2");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSpillAfterCloseThrowsException() throws Exception {
+        retainInMemory(Collections.singletonList(failedVariant(10, 1, fgfr2)), fgfr2);
+        instance.close();
+        retainInMemory(Collections.singletonList(failedVariant(10, 2, fgfr2)), fgfr2);
+    }
+
+    @Test
+    public void testIndexSizeInBytesIncludesGeneIndices() {
+        long emptySize = instance.indexSizeInBytes();
+        retainInMemory(Arrays.asList(failedVariant(10, 1, fgfr2), failedVariant(10, 2, fgfr2)), fgfr2);
+        assertThat(instance.indexSizeInBytes() > emptySize, is(true));
+    }
+}
@@ -146,4 +146,28 @@ public void testGetDecoratedFilter() {
         instance = new FrequencyDataProvider(variantDataService, EnumSet.noneOf(FrequencySource.class), decoratedFilter);
         assertThat(instance.getDecoratedFilter(), equalTo(decoratedFilter));
     }
+
+    @Test
+    public void testExistingFrequencyDataOnlyKeepsSpecifiedSources() {
+        Frequency espAll = Frequency.valueOf(0.01f, ESP_ALL);
+        Frequency exacAfr = Frequency.valueOf(0.234f, EXAC_AFRICAN_INC_AFRICAN_AMERICAN);
+        variant.setFrequencyData(FrequencyData.of(RsId.valueOf(123456), espAll, exacAfr, Frequency.valueOf(0.02f, LOCAL)));
+
+        instance = new FrequencyDataProvider(variantDataService, EnumSet.of(ESP_ALL, EXAC_AFRICAN_INC_AFRICAN_AMERICAN), new KnownVariantFilter());
+        instance.runFilter(variant);
+
+        assertThat(variant.getFrequencyData(), equalTo(FrequencyData.of(RsId.valueOf(123456), espAll, exacAfr)));
+    }
+
+    @Test
+    public void testExistingFrequencyDataFromSpecifiedSourcesIsUnchanged() {
+        FrequencyData existingFrequencyData = FrequencyData.of(RsId.valueOf(123456), Frequency.valueOf(0.01f, ESP_ALL));
+        variant.setFrequencyData(existingFrequencyData);
+        variantDataService.put(variant, FrequencyData.of(RsId.valueOf(123456), Frequency.valueOf(0.02f, ESP_ALL)));
+
+        instance = new FrequencyDataProvider(variantDataService, EnumSet.of(ESP_ALL, EXAC_FINNISH), new KnownVariantFilter());
+        instance.runFilter(variant);
+
+        assertThat(variant.getFrequencyData(), equalTo(existingFrequencyData));
+    }
 }
@@ -99,4 +99,24 @@ public void testGetDecoratedFilter() {
         instance = new PathogenicityDataProvider(variantDataService, EMPTY_SET, decoratedFilter);
         assertThat(instance.getDecoratedFilter(), equalTo(decoratedFilter));
     }
+
+    @Test
+    public void testExistingPathogenicityDataOnlyKeepsSpecifiedSources() {
+        variant.setPathogenicityData(PathogenicityData.of(PolyPhenScore.valueOf(1f), SiftScore.valueOf(0f), CaddScore.valueOf(20f)));
+
+        instance = new PathogenicityDataProvider(variantDataService, EnumSet.of(POLYPHEN, CADD), new StubPassAllVariantFilter(FilterType.PATHOGENICITY_FILTER));
+        instance.provideVariantData(variant);
+
+        assertThat(variant.getPathogenicityData(), equalTo(PathogenicityData.of(PolyPhenScore.valueOf(1f), CaddScore.valueOf(20f))));
+    }
+
+    @Test
+    public void testExistingPathogenicityDataWithNoSpecifiedSourcesIsEmpty() {
+        variant.setPathogenicityData(PathogenicityData.of(CaddScore.valueOf(20f)));
+
+        instance = new PathogenicityDataProvider(variantDataService, EnumSet.of(POLYPHEN), new StubPassAllVariantFilter(FilterType.PATHOGENICITY_FILTER));
+        instance.provideVariantData(variant);
+
+        assertThat(variant.getPathogenicityData(), equalTo(EMPTY_PATH_DATA));
+    }
 }
@@ -0,0 +1,271 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.CaddScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PolyPhenScore;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SnapshotVariantFactoryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Path vcfPath = Paths.get("src/test/resources/smallTest.vcf");
+
+    private final AtomicInteger annotationCount = new AtomicInteger();
+    private Path snapshotDirectory;
+    private SnapshotVariantFactory instance;
+
+    private final VariantFactory countingVariantFactory = new VariantFactory() {
+        private final VariantFactory variantFactory = TestFactory.buildDefaultVariantFactory();
+
+        @Override
+        public Stream<VariantEvaluation> createVariantEvaluations(Stream<VariantContext> variantContextStream) {
+            annotationCount.incrementAndGet();
+            return variantFactory.createVariantEvaluations(variantContextStream);
+        }
+    };
+
+    private final AtomicInteger dataLookupCount = new AtomicInteger();
+
+    private static final FrequencyData FREQUENCY_DATA = FrequencyData.of(RsId.valueOf(123456), Frequency.valueOf(0.1f, FrequencySource.ESP_ALL), Frequency
+            .valueOf(0.2f, FrequencySource.LOCAL));
+    private static final PathogenicityData PATHOGENICITY_DATA = PathogenicityData.of(PolyPhenScore.valueOf(0.9f), CaddScore.valueOf(20f));
+
+    private final VariantDataService countingVariantDataService = new VariantDataService() {
+        @Override
+        public FrequencyData getVariantFrequencyData(Variant variant, Set<FrequencySource> frequencySources) {
+            dataLookupCount.incrementAndGet();
+            return VariantDataServiceImpl.frequencyDataFromSpecifiedSources(FREQUENCY_DATA.getRsId(), FREQUENCY_DATA.getKnownFrequencies(), frequencySources);
+        }
+
+        @Override
+        public PathogenicityData getVariantPathogenicityData(Variant variant, Set<PathogenicitySource> pathogenicitySources) {
+            dataLookupCount.incrementAndGet();
+            return VariantDataServiceImpl.pathDataFromSpecifiedDataSources(PATHOGENICITY_DATA.getPredictedPathogenicityScores(), pathogenicitySources);
+        }
+    };
+
+    private SnapshotVariantFactory variantDataInstance(Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+        return new SnapshotVariantFactory(countingVariantFactory, snapshotDirectory, "1711_hg19_ucsc", countingVariantDataService, frequencySources, pathogenicitySources);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        snapshotDirectory = temporaryFolder.newFolder("snapshots").toPath();
+        instance = new SnapshotVariantFactory(countingVariantFactory, snapshotDirectory, "1711_hg19_ucsc");
+    }
+
+    private List<VariantEvaluation> createVariantEvaluations(VariantFactory variantFactory) {
+        try (Stream<VariantEvaluation> variants = variantFactory.createVariantEvaluations(vcfPath)) {
+            return variants.collect(toList());
+        }
+    }
+
+    private List<String> describe(List<VariantEvaluation> variantEvaluations) {
+        return variantEvaluations.stream()
+                .map(variant -> variant.getChromosome() + " " + variant.getPosition() + " " + variant.getRef() + " " + variant
+                        .getAlt() + " " + variant.getGenotypeString() + " " + variant.getGeneSymbol() + " " + variant.getVariantEffect() + " " + variant
+                        .getTranscriptAnnotations())
+                .collect(toList());
+    }
+
+    private long countFiles(Path directory) throws Exception {
+        if (!Files.exists(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    public void testFirstAnalysisWritesSnapshot() throws Exception {
+        Path snapshotPath = instance.snapshotPath(vcfPath);
+        assertThat(Files.exists(snapshotPath), is(false));
+
+        List<VariantEvaluation> variants = createVariantEvaluations(instance);
+
+        assertThat(variants.isEmpty(), is(false));
+        assertThat(annotationCount.get(), equalTo(1));
+        assertThat(Files.exists(snapshotPath), is(true));
+        assertThat(countFiles(snapshotDirectory), equalTo(1L));
+    }
+
+    @Test
+    public void testReanalysisReadsVariantsFromSnapshot() {
+        List<VariantEvaluation> annotated = createVariantEvaluations(instance);
+        List<VariantEvaluation> fromSnapshot = createVariantEvaluations(instance);
+
+        assertThat(annotationCount.get(), equalTo(1));
+        assertThat(describe(fromSnapshot), equalTo(describe(annotated)));
+        assertThat(fromSnapshot, equalTo(annotated));
+    }
+
+    @Test
+    public void testSnapshotVariantsAreUnaffectedByLaterChanges() {
+        try (Stream<VariantEvaluation> variants = instance.createVariantEvaluations(vcfPath)) {
+            variants.forEach(variant -> variant.setGeneSymbol("WIBBLE"));
+        }
+        List<VariantEvaluation> fromSnapshot = createVariantEvaluations(instance);
+        assertThat(fromSnapshot.stream().anyMatch(variant -> "WIBBLE".equals(variant.getGeneSymbol())), is(false));
+    }
+
+    @Test
+    public void testPartiallyConsumedStreamDoesNotLeaveSnapshot() throws Exception {
+        try (Stream<VariantEvaluation> variants = instance.createVariantEvaluations(vcfPath)) {
+            assertThat(variants.limit(1).count(), equalTo(1L));
+        }
+        assertThat(countFiles(snapshotDirectory), equalTo(0L));
+
+        createVariantEvaluations(instance);
+        assertThat(annotationCount.get(), equalTo(2));
+    }
+
+    @Test
+    public void testSnapshotIsSpecificToDataRelease() throws Exception {
+        SnapshotVariantFactory otherRelease = new SnapshotVariantFactory(countingVariantFactory, snapshotDirectory, "1802_hg19_ucsc");
+        assertThat(otherRelease.snapshotPath(vcfPath), not(equalTo(instance.snapshotPath(vcfPath))));
+
+        createVariantEvaluations(instance);
+        createVariantEvaluations(otherRelease);
+        assertThat(annotationCount.get(), equalTo(2));
+    }
+
+    @Test
+    public void testSnapshotIsSpecificToVcfContents() throws Exception {
+        Path otherVcf = temporaryFolder.newFile("other.vcf").toPath();
+        Files.copy(vcfPath, otherVcf, StandardCopyOption.REPLACE_EXISTING);
+        assertThat(instance.snapshotPath(otherVcf), equalTo(instance.snapshotPath(vcfPath)));
+
+        Files.write(otherVcf, "1\t123456\t.\tA\tG\t100\tPASS\t.\tGT\t0/1\n".getBytes(), StandardOpenOption.APPEND);
+        assertThat(instance.snapshotPath(otherVcf), not(equalTo(instance.snapshotPath(vcfPath))));
+    }
+
+    @Test
+    public void testCorruptSnapshotIsReplaced() throws Exception {
+        Path snapshotPath = instance.snapshotPath(vcfPath);
+        Files.createDirectories(snapshotPath.getParent());
+        Files.write(snapshotPath, "wibble".getBytes());
+
+        List<VariantEvaluation> variants = createVariantEvaluations(instance);
+        assertThat(variants.isEmpty(), is(false));
+        assertThat(annotationCount.get(), equalTo(1));
+
+        createVariantEvaluations(instance);
+        assertThat(annotationCount.get(), equalTo(1));
+    }
+
+    @Test
+    public void testVariantContextStreamIsNotSnapshot() throws Exception {
+        long numVariants;
+        try (Stream<VariantEvaluation> variants = instance.createVariantEvaluations(VcfFiles.readVariantContexts(vcfPath))) {
+            numVariants = variants.count();
+        }
+        assertThat(numVariants > 0, is(true));
+        assertThat(countFiles(snapshotDirectory), equalTo(0L));
+    }
+
+    @Test
+    public void testVariantDataIsSnapshot() {
+        SnapshotVariantFactory dataInstance = variantDataInstance(EnumSet.of(FrequencySource.ESP_ALL, FrequencySource.LOCAL), EnumSet
+                .of(PathogenicitySource.POLYPHEN, PathogenicitySource.CADD));
+
+        List<VariantEvaluation> annotated = createVariantEvaluations(dataInstance);
+        assertThat(dataLookupCount.get(), equalTo(annotated.size() * 2));
+        for (VariantEvaluation variant : annotated) {
+            assertThat(variant.getFrequencyData(), equalTo(FREQUENCY_DATA));
+            assertThat(variant.getPathogenicityData(), equalTo(PATHOGENICITY_DATA));
+        }
+
+        List<VariantEvaluation> fromSnapshot = createVariantEvaluations(dataInstance);
+        assertThat(annotationCount.get(), equalTo(1));
+        assertThat(dataLookupCount.get(), equalTo(annotated.size() * 2));
+        for (VariantEvaluation variant : fromSnapshot) {
+            assertThat(variant.getFrequencyData(), equalTo(FREQUENCY_DATA));
+            assertThat(variant.getPathogenicityData(), equalTo(PATHOGENICITY_DATA));
+        }
+    }
+
+    @Test
+    public void testSnapshotOnlyHoldsSpecifiedDataSources() {
+        SnapshotVariantFactory dataInstance = variantDataInstance(EnumSet.of(FrequencySource.ESP_ALL), EnumSet.of(PathogenicitySource.POLYPHEN));
+
+        List<VariantEvaluation> fromSnapshot = createVariantEvaluations(dataInstance);
+        for (VariantEvaluation variant : fromSnapshot) {
+            assertThat(variant.getFrequencyData(), equalTo(FrequencyData.of(RsId.valueOf(123456), Frequency.valueOf(0.1f, FrequencySource.ESP_ALL))));
+            assertThat(variant.getPathogenicityData(), equalTo(PathogenicityData.of(PolyPhenScore.valueOf(0.9f))));
+        }
+    }
+
+    @Test
+    public void testSnapshotIsSpecificToDataSources() throws Exception {
+        SnapshotVariantFactory espOnly = variantDataInstance(EnumSet.of(FrequencySource.ESP_ALL), EnumSet.noneOf(PathogenicitySource.class));
+        SnapshotVariantFactory espAndLocal = variantDataInstance(EnumSet.of(FrequencySource.ESP_ALL, FrequencySource.LOCAL), EnumSet
+                .noneOf(PathogenicitySource.class));
+        assertThat(espOnly.snapshotPath(vcfPath), not(equalTo(instance.snapshotPath(vcfPath))));
+        assertThat(espOnly.snapshotPath(vcfPath), not(equalTo(espAndLocal.snapshotPath(vcfPath))));
+
+        createVariantEvaluations(espOnly);
+        createVariantEvaluations(espAndLocal);
+        createVariantEvaluations(espOnly);
+        assertThat(annotationCount.get(), equalTo(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVariantDataServiceIsRequiredForDataSources() {
+        new SnapshotVariantFactory(countingVariantFactory, snapshotDirectory, "1711_hg19_ucsc", null, EnumSet.of(FrequencySource.ESP_ALL), EnumSet
+                .noneOf(PathogenicitySource.class));
+    }
+}
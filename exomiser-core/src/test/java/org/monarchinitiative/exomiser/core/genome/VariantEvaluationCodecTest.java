@@ -0,0 +1,112 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
+import htsjdk.variant.vcf.VCFHeader;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.filters.FilterResult;
+import org.monarchinitiative.exomiser.core.filters.FilterType;
+import org.monarchinitiative.exomiser.core.model.TranscriptAnnotation;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.CaddScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PolyPhenScore;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantEvaluationCodecTest {
+
+    private final VariantEvaluationCodec instance = new VariantEvaluationCodec(new VCFHeader(Collections.emptySet(), Collections.singletonList("sample")));
+
+    private VariantEvaluation roundTrip(VariantEvaluation variantEvaluation) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        instance.encode(variantEvaluation, new DataOutputStream(bytes));
+        return instance.decode(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    public void testRoundTripMinimalVariant() throws Exception {
+        VariantEvaluation variantEvaluation = VariantEvaluation.builder(1, 12345, "A", "T").build();
+
+        VariantEvaluation decoded = roundTrip(variantEvaluation);
+        assertThat(decoded, equalTo(variantEvaluation));
+        assertThat(decoded.getChromosomeName(), equalTo("1"));
+        assertThat(decoded.getVariantContext().getStart(), equalTo(12345));
+        assertThat(decoded.getGenotypeString(), equalTo(variantEvaluation.getGenotypeString()));
+    }
+
+    @Test
+    public void testRoundTripFullyAnnotatedVariant() throws Exception {
+        TranscriptAnnotation annotation = TranscriptAnnotation.builder()
+                .variantEffect(VariantEffect.MISSENSE_VARIANT)
+                .geneSymbol("FGFR2")
+                .accession("uc021pzz.1")
+                .hgvsGenomic("g.123256215T>G")
+                .hgvsCdna("c.1694A>C")
+                .hgvsProtein("p.(Glu565Ala)")
+                .distanceFromNearestGene(0)
+                .build();
+
+        VariantEvaluation variantEvaluation = VariantEvaluation.builder(10, 123256215, "T", "G")
+                .genomeAssembly(GenomeAssembly.HG38)
+                .quality(2.2)
+                .variantEffect(VariantEffect.MISSENSE_VARIANT)
+                .annotations(Collections.singletonList(annotation))
+                .geneSymbol("FGFR2")
+                .geneId("2263")
+                .frequencyData(FrequencyData.of(RsId.valueOf(123456), Frequency.valueOf(0.01f, FrequencySource.ESP_ALL)))
+                .pathogenicityData(PathogenicityData.of(PolyPhenScore.valueOf(0.9f), CaddScore.valueOf(23.5f)))
+                .filterResults(FilterResult.pass(FilterType.FREQUENCY_FILTER), FilterResult.fail(FilterType.PATHOGENICITY_FILTER))
+                .build();
+        variantEvaluation.setInheritanceModes(EnumSet.of(ModeOfInheritance.AUTOSOMAL_DOMINANT));
+
+        VariantEvaluation decoded = roundTrip(variantEvaluation);
+        assertThat(decoded, equalTo(variantEvaluation));
+        assertThat(decoded.getGenomeAssembly(), equalTo(GenomeAssembly.HG38));
+        assertThat(decoded.getPhredScore(), equalTo(2.2));
+        assertThat(decoded.getVariantEffect(), equalTo(VariantEffect.MISSENSE_VARIANT));
+        assertThat(decoded.getTranscriptAnnotations(), equalTo(Collections.singletonList(annotation)));
+        assertThat(decoded.getGeneSymbol(), equalTo("FGFR2"));
+        assertThat(decoded.getGeneId(), equalTo("2263"));
+        assertThat(decoded.getFrequencyData(), equalTo(variantEvaluation.getFrequencyData()));
+        assertThat(decoded.getPathogenicityData(), equalTo(variantEvaluation.getPathogenicityData()));
+        assertThat(decoded.getPassedFilterTypes(), equalTo(EnumSet.of(FilterType.FREQUENCY_FILTER)));
+        assertThat(decoded.getFailedFilterTypes(), equalTo(EnumSet.of(FilterType.PATHOGENICITY_FILTER)));
+        assertThat(decoded.getInheritanceModes(), equalTo(EnumSet.of(ModeOfInheritance.AUTOSOMAL_DOMINANT)));
+        assertThat(decoded.contributesToGeneScore(), is(false));
+        assertThat(decoded.getVariantScore(), equalTo(variantEvaluation.getVariantScore()));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import htsjdk.tribble.readers.TabixReader;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class TabixReaderAdaptorTest {
+
+    @Mock
+    private TabixReader tabixReader;
+
+    private TabixReaderAdaptor instance;
+
+    @Before
+    public void setUp() {
+        instance = new TabixReaderAdaptor(tabixReader);
+    }
+
+    private List<String> readLines(TabixReader.Iterator results) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = results.next()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Test
+    public void testQueryReturnsAllLines() throws Exception {
+        Mockito.when(tabixReader.query("1:2-2")).thenReturn(MockTabixIterator.of("1\t2\tA\tT\t1.0", "1\t2\tA\tG\t2.0"));
+        assertThat(readLines(instance.query("1:2-2")), equalTo(Arrays.asList("1\t2\tA\tT\t1.0", "1\t2\tA\tG\t2.0")));
+    }
+
+    @Test
+    public void testQueryChromosomeStartEndReturnsAllLines() throws Exception {
+        Mockito.when(tabixReader.query("1", 2, 3)).thenReturn(MockTabixIterator.of("1\t2\tA\tT\t1.0"));
+        assertThat(readLines(instance.query("1", 2, 3)), equalTo(Arrays.asList("1\t2\tA\tT\t1.0")));
+    }
+
+    @Test
+    public void testQueryNoResults() throws Exception {
+        Mockito.when(tabixReader.query("1:2-2")).thenReturn(MockTabixIterator.empty());
+        assertThat(instance.query("1:2-2").next(), nullValue());
+    }
+
+    @Test
+    public void testResultsAreReadBeforeBeingReturned() throws Exception {
+        MockTabixIterator results = MockTabixIterator.of("1\t2\tA\tT\t1.0");
+        Mockito.when(tabixReader.query("1:2-2")).thenReturn(results);
+        TabixReader.Iterator adaptedResults = instance.query("1:2-2");
+        //the underlying iterator has been exhausted so is free to be re-used by another query
+        assertThat(results.next(), nullValue());
+        assertThat(adaptedResults.next(), equalTo("1\t2\tA\tT\t1.0"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadExceptionIsThrownByIterator() throws Exception {
+        TabixReader.Iterator failingIterator = Mockito.mock(TabixReader.Iterator.class);
+        Mockito.when(failingIterator.next()).thenReturn("1\t2\tA\tT\t1.0").thenThrow(new IOException());
+        Mockito.when(tabixReader.query("1:2-2")).thenReturn(failingIterator);
+
+        TabixReader.Iterator results = instance.query("1:2-2");
+        assertThat(results.next(), equalTo("1\t2\tA\tT\t1.0"));
+        results.next();
+    }
+
+    @Test
+    public void testGetSource() {
+        Mockito.when(tabixReader.getSource()).thenReturn("wibble.tsv.gz");
+        assertThat(instance.getSource(), equalTo("wibble.tsv.gz"));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class ExomiserEventsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        assumeTrue("JDK Flight Recorder is not available", ExomiserEvents.isAvailable());
+    }
+
+    private List<RecordedEvent> readEvents(Recording recording, String eventName) throws Exception {
+        Path recordingFile = temporaryFolder.newFile().toPath();
+        recording.dump(recordingFile);
+        return RecordingFile.readAllEvents(recordingFile)
+                .stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .collect(toList());
+    }
+
+    @Test
+    public void testEventsAreNotRecordedWithoutRecording() {
+        assertThat(ExomiserEvents.stepStarted("prioritiser", "OMIM_PRIORITY").isRecording(), equalTo(false));
+        assertThat(ExomiserEvents.variantChunkStarted(1).isRecording(), equalTo(false));
+    }
+
+    @Test
+    public void testAnalysisEvent() throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable(AnalysisEvent.NAME);
+            recording.start();
+            ExomiserEvents.Span span = ExomiserEvents.analysisStarted("", "hg19", "PASS_ONLY", "Pfeiffer.vcf");
+            ExomiserEvents.setAnalysisSample("manuel");
+            ExomiserEvents.analysisFinished(span, "completed", 2, 3);
+            recording.stop();
+
+            List<RecordedEvent> events = readEvents(recording, AnalysisEvent.NAME);
+            assertThat(events.size(), equalTo(1));
+            RecordedEvent event = events.get(0);
+            assertThat(event.getString("sample"), equalTo("manuel"));
+            assertThat(event.getString("assembly"), equalTo("hg19"));
+            assertThat(event.getString("mode"), equalTo("PASS_ONLY"));
+            assertThat(event.getString("vcf"), equalTo("Pfeiffer.vcf"));
+            assertThat(event.getString("outcome"), equalTo("completed"));
+            assertThat(event.getInt("genes"), equalTo(2));
+            assertThat(event.getInt("variants"), equalTo(3));
+        }
+    }
+
+    @Test
+    public void testStepEventIsLabelledWithAnalysisSampleAndAssembly() throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable(AnalysisStepEvent.NAME);
+            recording.start();
+            ExomiserEvents.Span analysisSpan = ExomiserEvents.analysisStarted("manuel", "hg38", "FULL", "Pfeiffer.vcf");
+            ExomiserEvents.Span stepSpan = ExomiserEvents.stepStarted(ExomiserMetrics.STEP_PRIORITISER, "OMIM_PRIORITY");
+            ExomiserEvents.stepFinished(stepSpan, 20);
+            ExomiserEvents.analysisFinished(analysisSpan, "completed", 0, 0);
+            recording.stop();
+
+            List<RecordedEvent> events = readEvents(recording, AnalysisStepEvent.NAME);
+            assertThat(events.size(), equalTo(1));
+            RecordedEvent event = events.get(0);
+            assertThat(event.getString("sample"), equalTo("manuel"));
+            assertThat(event.getString("assembly"), equalTo("hg38"));
+            assertThat(event.getString("stepType"), equalTo(ExomiserMetrics.STEP_PRIORITISER));
+            assertThat(event.getString("step"), equalTo("OMIM_PRIORITY"));
+            assertThat(event.getInt("items"), equalTo(20));
+        }
+    }
+
+    @Test
+    public void testVariantChunkEvent() throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable(VariantChunkEvent.NAME);
+            recording.start();
+            ExomiserEvents.Span span = ExomiserEvents.variantChunkStarted(10001);
+            ExomiserEvents.variantChunkFinished(span, 10000, 25);
+            recording.stop();
+
+            List<RecordedEvent> events = readEvents(recording, VariantChunkEvent.NAME);
+            assertThat(events.size(), equalTo(1));
+            RecordedEvent event = events.get(0);
+            assertThat(event.getLong("firstVariant"), equalTo(10001L));
+            assertThat(event.getInt("variants"), equalTo(10000));
+            assertThat(event.getInt("passed"), equalTo(25));
+        }
+    }
+
+    @Test
+    public void testDataLookupEventRecordsHitAndMiss() throws Exception {
+        DataAccessRecorder recorder = ExomiserMetrics.dataAccessRecorder("frequency", "mvstore");
+        try (Recording recording = new Recording()) {
+            recording.enable(DataLookupEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            recorder.record(() -> "rs12345", value -> !value.isEmpty());
+            recorder.record(() -> "", value -> !value.isEmpty());
+            recording.stop();
+
+            List<RecordedEvent> events = readEvents(recording, DataLookupEvent.NAME);
+            assertThat(events.size(), equalTo(2));
+            assertThat(events.get(0).getString("data"), equalTo("frequency"));
+            assertThat(events.get(0).getString("storage"), equalTo("mvstore"));
+            assertThat(events.get(0).getBoolean("hit"), equalTo(true));
+            assertThat(events.get(1).getBoolean("hit"), equalTo(false));
+        }
+    }
+
+    @Test
+    public void testDataLookupEventBelowThresholdIsNotRecorded() throws Exception {
+        DataAccessRecorder recorder = ExomiserMetrics.dataAccessRecorder("frequency", "mvstore");
+        try (Recording recording = new Recording()) {
+            recording.enable(DataLookupEvent.NAME).withThreshold(Duration.ofHours(1));
+            recording.start();
+            recorder.record(() -> "rs12345", value -> !value.isEmpty());
+            recording.stop();
+
+            assertThat(readEvents(recording, DataLookupEvent.NAME).isEmpty(), equalTo(true));
+        }
+    }
+
+    @Test
+    public void testResultsWriteEvent() throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable(ResultsWriteEvent.NAME);
+            recording.start();
+            ExomiserEvents.Span span = ExomiserEvents.resultsWriteStarted("manuel", "hg19", "VCF");
+            ExomiserEvents.resultsWriteFinished(span, 2, 3);
+            recording.stop();
+
+            List<RecordedEvent> events = readEvents(recording, ResultsWriteEvent.NAME);
+            assertThat(events.size(), equalTo(1));
+            RecordedEvent event = events.get(0);
+            assertThat(event.getString("sample"), equalTo("manuel"));
+            assertThat(event.getString("format"), equalTo("VCF"));
+            assertThat(event.getInt("genes"), equalTo(2));
+            assertThat(event.getInt("variants"), equalTo(3));
+        }
+    }
+
+    @Test
+    public void testWithCurrentContextLabelsEventsFromOtherThreads() throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable(AnalysisStepEvent.NAME);
+            recording.start();
+            ExomiserEvents.Span analysisSpan = ExomiserEvents.analysisStarted("manuel", "hg19", "FULL", "Pfeiffer.vcf");
+            Consumer<String> action = ExomiserEvents.withCurrentContext(step -> {
+                ExomiserEvents.Span stepSpan = ExomiserEvents.stepStarted(ExomiserMetrics.STEP_GENE_FILTER, step);
+                ExomiserEvents.stepFinished(stepSpan, 1);
+            });
+            Thread worker = new Thread(() -> action.accept("PRIORITY_SCORE_FILTER"));
+            worker.start();
+            worker.join();
+            ExomiserEvents.analysisFinished(analysisSpan, "completed", 0, 0);
+            recording.stop();
+
+            List<RecordedEvent> events = readEvents(recording, AnalysisStepEvent.NAME);
+            assertThat(events.size(), equalTo(1));
+            assertThat(events.get(0).getString("sample"), equalTo("manuel"));
+            assertThat(events.get(0).getString("assembly"), equalTo("hg19"));
+        }
+    }
+}
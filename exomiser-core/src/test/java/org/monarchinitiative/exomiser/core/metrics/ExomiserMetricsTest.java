@@ -0,0 +1,117 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.filters.FilterType;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class ExomiserMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.removeRegistry(meterRegistry);
+    }
+
+    private Timer filterTimer(FilterType filterType, String result) {
+        return meterRegistry.find(ExomiserMetrics.FILTER)
+                .tags("filter", filterType.name(), "result", result)
+                .timer();
+    }
+
+    @Test
+    public void testRecordFilterPassAndFail() {
+        ExomiserMetrics.recordFilter(FilterType.FREQUENCY_FILTER, true, 1000);
+        ExomiserMetrics.recordFilter(FilterType.FREQUENCY_FILTER, true, 3000);
+        ExomiserMetrics.recordFilter(FilterType.FREQUENCY_FILTER, false, 2000);
+
+        Timer passed = filterTimer(FilterType.FREQUENCY_FILTER, "pass");
+        assertThat(passed.count(), equalTo(2L));
+        assertThat(passed.totalTime(TimeUnit.NANOSECONDS), equalTo(4000.0));
+        assertThat(filterTimer(FilterType.FREQUENCY_FILTER, "fail").count(), equalTo(1L));
+        assertThat(filterTimer(FilterType.QUALITY_FILTER, "pass").count(), equalTo(0L));
+    }
+
+    @Test
+    public void testAnalysisStartedAndFinished() {
+        Timer.Sample sample = ExomiserMetrics.analysisStarted();
+        assertThat(meterRegistry.find(ExomiserMetrics.ANALYSES_ACTIVE).gauge().value(), equalTo(1.0));
+
+        ExomiserMetrics.analysisFinished(sample, "PASS_ONLY", "completed");
+        assertThat(meterRegistry.find(ExomiserMetrics.ANALYSES_ACTIVE).gauge().value(), equalTo(0.0));
+        Timer analysisTimer = meterRegistry.find(ExomiserMetrics.ANALYSIS)
+                .tags("mode", "PASS_ONLY", "outcome", "completed")
+                .timer();
+        assertThat(analysisTimer.count(), equalTo(1L));
+    }
+
+    @Test
+    public void testRecordVariantsLoaded() {
+        ExomiserMetrics.recordVariantsLoaded(100, 10);
+        ExomiserMetrics.recordVariantsLoaded(50, 5);
+        assertThat(meterRegistry.find(ExomiserMetrics.VARIANTS_LOADED).counter().count(), equalTo(150.0));
+        assertThat(meterRegistry.find(ExomiserMetrics.VARIANTS_PASSED).counter().count(), equalTo(15.0));
+    }
+
+    @Test
+    public void testDataAccessTimer() {
+        Timer timer = ExomiserMetrics.dataAccessTimer("frequency", "mvstore");
+        String result = timer.record(() -> "wibble");
+
+        assertThat(result, equalTo("wibble"));
+        Timer registered = meterRegistry.find(ExomiserMetrics.DATA_ACCESS)
+                .tags("data", "frequency", "storage", "mvstore")
+                .timer();
+        assertThat(registered.count(), equalTo(1L));
+    }
+
+    @Test
+    public void testDataAccessRecorderRecordsTimer() {
+        DataAccessRecorder recorder = ExomiserMetrics.dataAccessRecorder("cadd", "tabix");
+        String result = recorder.record(() -> "wibble", value -> !value.isEmpty());
+
+        assertThat(result, equalTo("wibble"));
+        Timer registered = meterRegistry.find(ExomiserMetrics.DATA_ACCESS)
+                .tags("data", "cadd", "storage", "tabix")
+                .timer();
+        assertThat(registered.count(), equalTo(1L));
+    }
+}
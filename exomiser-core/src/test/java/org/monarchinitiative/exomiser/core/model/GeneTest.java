@@ -274,6 +274,27 @@ public void testPassedFilters_TrueWhenPassesGeneFilterAndAtLeastOneVariantFilter
         instance.addVariant(variantEvaluation2);
         assertThat(instance.passedFilters(), is(true));
     }
+
+    @Test
+    public void testRemoveFilterResultRemovesResultFromGeneAndVariants() {
+        instance.addFilterResult(FilterResult.fail(FilterType.PRIORITY_SCORE_FILTER));
+        instance.addVariant(variantEvaluation1);
+        assertThat(variantEvaluation1.passedFilters(), is(false));
+
+        instance.removeFilterResult(FilterType.PRIORITY_SCORE_FILTER);
+        assertThat(instance.passedFilters(), is(true));
+        assertThat(instance.getFailedFilterTypes().isEmpty(), is(true));
+        assertThat(variantEvaluation1.passedFilters(), is(true));
+    }
+
+    @Test
+    public void testClearVariantsContributingToGeneScore() {
+        variantEvaluation1.setAsContributingToGeneScore();
+        instance.addVariant(variantEvaluation1);
+        instance.clearVariantsContributingToGeneScore();
+        assertThat(variantEvaluation1.contributesToGeneScore(), is(false));
+    }
+
 //TODO: behaviour under consideration - better in the gene or the gene filter runner? Should it apply to all gene filters?
 //    @Test
 //    public void testAddingFilterResultToGeneAppliesThatResultToAllVariantsOfTheGene() {
@@ -552,4 +573,65 @@ public void testCanSetAndChangeVariantScore() {
     public void testToString() {
         System.out.println(instance);
     }
+    @Test
+    public void testAddSpilledVariantCountsTowardsNumberOfVariants() {
+        variantEvaluation1.addFilterResult(FAIL_VARIANT_FILTER_RESULT);
+        instance.addSpilledVariant(variantEvaluation1, () -> Collections.singletonList(variantEvaluation1));
+
+        assertThat(instance.hasVariants(), is(true));
+        assertThat(instance.getNumberOfVariants(), equalTo(1));
+        assertThat(instance.passedFilters(), is(false));
+        assertThat(instance.getPassedVariantEvaluations().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testGetVariantEvaluationsIncludesSpilledVariantsInGenomicOrder() {
+        variantEvaluation1.addFilterResult(FAIL_VARIANT_FILTER_RESULT);
+        variantEvaluation2.addFilterResult(PASS_VARIANT_FILTER_RESULT);
+        instance.addVariant(variantEvaluation2);
+        instance.addSpilledVariant(variantEvaluation1, () -> Collections.singletonList(variantEvaluation1));
+
+        assertThat(instance.getVariantEvaluations(), equalTo(Arrays.asList(variantEvaluation1, variantEvaluation2)));
+        assertThat(instance.passedFilters(), is(true));
+    }
+
+    @Test
+    public void testGetPassedVariantEvaluationsDoesNotReadSpilledVariants() {
+        variantEvaluation1.addFilterResult(FAIL_VARIANT_FILTER_RESULT);
+        variantEvaluation2.addFilterResult(PASS_VARIANT_FILTER_RESULT);
+        instance.addVariant(variantEvaluation2);
+        instance.addSpilledVariant(variantEvaluation1, () -> {
+            throw new AssertionError("Spilled variants should not be read");
+        });
+
+        assertThat(instance.getPassedVariantEvaluations(), equalTo(Collections.singletonList(variantEvaluation2)));
+        assertThat(instance.getInMemoryVariantEvaluations(), equalTo(Collections.singletonList(variantEvaluation2)));
+    }
+
+    @Test
+    public void testAddSpilledVariantAddsGeneFilterResultsToVariant() {
+        instance.addFilterResult(FilterResult.fail(FilterType.PRIORITY_SCORE_FILTER));
+        instance.addSpilledVariant(variantEvaluation1, Collections::emptyList);
+
+        assertThat(variantEvaluation1.getFailedFilterTypes(), equalTo(EnumSet.of(FilterType.PRIORITY_SCORE_FILTER)));
+    }
+
+    @Test
+    public void testPassedFilterIncludesFilterTypesPassedBySpilledVariants() {
+        variantEvaluation1.addFilterResult(PASS_VARIANT_FILTER_RESULT);
+        variantEvaluation1.addFilterResult(FilterResult.fail(FilterType.PATHOGENICITY_FILTER));
+        instance.addSpilledVariant(variantEvaluation1, () -> Collections.singletonList(variantEvaluation1));
+
+        assertThat(instance.passedFilter(FilterType.FREQUENCY_FILTER), is(true));
+        assertThat(instance.passedFilter(FilterType.PATHOGENICITY_FILTER), is(false));
+    }
+
+    @Test
+    public void testIsXChromosomalWithOnlySpilledVariants() {
+        VariantEvaluation xVariant = VariantEvaluation.builder(23, 12345, "A", "T").build();
+        instance.addSpilledVariant(xVariant, () -> Collections.singletonList(xVariant));
+
+        assertThat(instance.isXChromosomal(), is(true));
+        assertThat(instance.isYChromosomal(), is(false));
+    }
 }
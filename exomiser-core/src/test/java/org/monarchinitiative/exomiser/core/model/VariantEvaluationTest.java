@@ -444,6 +444,23 @@ public void testFailsFiltersWhenPassedAndFailedFiltersHaveBeenApplied() {
         assertThat(instance.passedFilters(), is(false));
     }
 
+    @Test
+    public void testRemoveFilterResult() {
+        instance.addFilterResult(FAIL_FREQUENCY_RESULT);
+        instance.addFilterResult(PASS_QUALITY_RESULT);
+        instance.removeFilterResult(FilterType.FREQUENCY_FILTER);
+        assertThat(instance.passedFilters(), is(true));
+        assertThat(instance.getFailedFilterTypes().isEmpty(), is(true));
+        assertThat(instance.getPassedFilterTypes(), equalTo(EnumSet.of(FilterType.QUALITY_FILTER)));
+    }
+
+    @Test
+    public void testSetAsNotContributingToGeneScore() {
+        instance.setAsContributingToGeneScore();
+        instance.setAsNotContributingToGeneScore();
+        assertThat(instance.contributesToGeneScore(), is(false));
+    }
+
     @Test
     public void testFilterStatusWhenNoFiltersHaveBeenApplied() {
         assertThat(instance.getFilterStatus(), equalTo(FilterStatus.UNFILTERED));
@@ -700,6 +717,68 @@ public void testVariantCompareByRank() {
         assertThat(variants, equalTo(scoredVariantsInDescendingRankOrder()));
     }
 
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetPassedFilterTypesIsUnmodifiable() {
+        instance.addFilterResult(FilterResult.pass(FilterType.FREQUENCY_FILTER));
+        instance.getPassedFilterTypes().add(FilterType.QUALITY_FILTER);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetFailedFilterTypesIsUnmodifiable() {
+        instance.getFailedFilterTypes().add(FilterType.QUALITY_FILTER);
+    }
+
+    @Test
+    public void testGetFilterTypesAreSharedForTheSameFilterResults() {
+        VariantEvaluation other = VariantEvaluation.builder(2, 2, "A", "G").build();
+        instance.addFilterResult(FilterResult.pass(FilterType.FREQUENCY_FILTER));
+        instance.addFilterResult(FilterResult.fail(FilterType.QUALITY_FILTER));
+        other.addFilterResult(FilterResult.fail(FilterType.QUALITY_FILTER));
+        other.addFilterResult(FilterResult.pass(FilterType.FREQUENCY_FILTER));
+
+        assertThat(instance.getPassedFilterTypes(), equalTo(EnumSet.of(FilterType.FREQUENCY_FILTER)));
+        assertThat(instance.getFailedFilterTypes(), equalTo(EnumSet.of(FilterType.QUALITY_FILTER)));
+        assertThat(instance.getPassedFilterTypes(), sameInstance(other.getPassedFilterTypes()));
+        assertThat(instance.getFailedFilterTypes(), sameInstance(other.getFailedFilterTypes()));
+    }
+
+    @Test
+    public void testFailedFilter() {
+        instance.addFilterResult(FilterResult.pass(FilterType.FREQUENCY_FILTER));
+        instance.addFilterResult(FilterResult.fail(FilterType.QUALITY_FILTER));
+
+        assertThat(instance.failedFilter(FilterType.QUALITY_FILTER), is(true));
+        assertThat(instance.failedFilter(FilterType.FREQUENCY_FILTER), is(false));
+        assertThat(instance.failedFilter(FilterType.PATHOGENICITY_FILTER), is(false));
+    }
+
+    @Test
+    public void testFilterResultsForAllFilterTypes() {
+        for (FilterType filterType : FilterType.values()) {
+            instance.addFilterResult(FilterResult.pass(filterType));
+        }
+        assertThat(instance.getPassedFilterTypes(), equalTo(EnumSet.allOf(FilterType.class)));
+        for (FilterType filterType : FilterType.values()) {
+            assertThat(instance.passedFilter(filterType), is(true));
+        }
+    }
+
+    @Test
+    public void testGetInheritanceModesReturnsCopy() {
+        instance.setInheritanceModes(EnumSet.of(ModeOfInheritance.AUTOSOMAL_DOMINANT));
+        instance.getInheritanceModes().add(ModeOfInheritance.X_RECESSIVE);
+
+        assertThat(instance.getInheritanceModes(), equalTo(EnumSet.of(ModeOfInheritance.AUTOSOMAL_DOMINANT)));
+        assertThat(instance.isCompatibleWith(ModeOfInheritance.X_RECESSIVE), is(false));
+    }
+
+    @Test
+    public void testSingleBaseAllelesAreShared() {
+        VariantEvaluation variant = VariantEvaluation.builder(1, 1, new String("A"), new String("T")).build();
+        assertThat(variant.getRef(), sameInstance("A"));
+        assertThat(variant.getAlt(), sameInstance("T"));
+    }
+
     @Test
     public void testToString() {
         String expected = "VariantEvaluation{assembly=hg19 chr=1 pos=1 ref=C alt=T qual=2.2 SEQUENCE_VARIANT score=0.0 UNFILTERED failedFilters=[] passedFilters=[] compatibleWith=[]}";
@@ -24,6 +24,7 @@
 import org.junit.Test;
 import org.monarchinitiative.exomiser.core.phenotype.service.OntologyService;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneDiseaseModel;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneOrthologModel;
 import org.monarchinitiative.exomiser.core.prioritisers.service.TestPriorityServiceFactory;
 
@@ -34,6 +35,7 @@
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -191,4 +193,49 @@ public void testScoreMultiCrossSpecies() {
         System.out.println(fishResult);
         assertThat(fishResult.getScore(), equalTo(0.628922135363762));
     }
+
+    @Test
+    public void testScoreUpperBoundNoMatch() {
+        List<PhenotypeTerm> queryTerms = ImmutableList.copyOf(ontologyService.getHpoTerms());
+        PhenotypeMatcher referenceOrganismPhenotypeMatcher = priorityService.getHumanPhenotypeMatcherForTerms(queryTerms);
+
+        PhenodigmModelScorer<Model> instance = PhenodigmModelScorer.forSameSpecies(referenceOrganismPhenotypeMatcher);
+
+        Model model = new GeneDiseaseModel("DISEASE:2", Organism.HUMAN, 12345, "GENE2", "DISEASE:2", "disease 2", Collections.singletonList("HP:000000"));
+        assertThat(instance.scoreUpperBound(model), equalTo(0.0));
+    }
+
+    @Test
+    public void testScoreUpperBoundPerfectMatch() {
+        List<PhenotypeTerm> queryTerms = ImmutableList.copyOf(ontologyService.getHpoTerms());
+        PhenotypeMatcher referenceOrganismPhenotypeMatcher = priorityService.getHumanPhenotypeMatcherForTerms(queryTerms);
+
+        PhenodigmModelScorer<Model> instance = PhenodigmModelScorer.forSameSpecies(referenceOrganismPhenotypeMatcher);
+
+        Model model = makeBestHumanModel(referenceOrganismPhenotypeMatcher);
+        assertThat(instance.scoreUpperBound(model), equalTo(1.0));
+    }
+
+    @Test
+    public void testScoreUpperBoundIsNeverLessThanScore() {
+        List<PhenotypeTerm> queryTerms = ImmutableList.copyOf(ontologyService.getHpoTerms());
+        PhenotypeMatcher referenceOrganismPhenotypeMatcher = priorityService.getHumanPhenotypeMatcherForTerms(queryTerms);
+        QueryPhenotypeMatch bestQueryPhenotypeMatch = referenceOrganismPhenotypeMatcher.getQueryPhenotypeMatch();
+
+        List<PhenotypeMatcher> organismPhenotypeMatchers = ImmutableList.of(
+                referenceOrganismPhenotypeMatcher,
+                priorityService.getMousePhenotypeMatcherForTerms(queryTerms),
+                priorityService.getFishPhenotypeMatcherForTerms(queryTerms)
+        );
+
+        for (PhenotypeMatcher organismPhenotypeMatcher : organismPhenotypeMatchers) {
+            PhenodigmModelScorer<GeneModel> instance = PhenodigmModelScorer.forMultiCrossSpecies(bestQueryPhenotypeMatch, organismPhenotypeMatcher);
+            List<GeneModel> models = TestPriorityServiceFactory.TEST_SERVICE.getModelsForOrganism(organismPhenotypeMatcher.getOrganism());
+            assertThat(models.isEmpty(), is(false));
+            for (GeneModel model : models) {
+                double score = instance.scoreModel(model).getScore();
+                assertThat(model.getId(), instance.scoreUpperBound(model), greaterThanOrEqualTo(score - 1e-9));
+            }
+        }
+    }
 }
@@ -165,4 +165,11 @@ public void testGetPhenotypeMatchesForHpoTerm() {
         assertThat(matches.isEmpty(), is(false));
         assertThat(matches, equalTo(phenotypeMatches));
     }
+
+    @Test
+    public void testProcessAllPhenotypeMatches() {
+        Set<PhenotypeMatch> matches = new LinkedHashSet<>();
+        instance.processAllPhenotypeMatches(matches::add);
+        assertThat(matches, equalTo(phenotypeMatches));
+    }
 }
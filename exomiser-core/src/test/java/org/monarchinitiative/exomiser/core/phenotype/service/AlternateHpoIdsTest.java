@@ -0,0 +1,130 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype.service;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class AlternateHpoIdsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path writeOboFile() throws Exception {
+        Path oboFile = temporaryFolder.newFile("hp.obo").toPath();
+        Files.write(oboFile, Arrays.asList(
+                "format-version: 1.2",
+                "",
+                "[Term]",
+                "id: HP:0000001",
+                "name: All",
+                "",
+                "[Term]",
+                "id: HP:0000118",
+                "name: Phenotypic abnormality",
+                "alt_id: HP:0000111",
+                "alt_id: HP:0000112 ! a comment",
+                "is_a: HP:0000001 ! All",
+                "",
+                "[Term]",
+                "id: HP:0001112",
+                "name: Early cataracts",
+                "is_obsolete: true",
+                "replaced_by: HP:0000518",
+                "",
+                "[Term]",
+                "id: HP:0000489",
+                "name: Abnormality of globe location or size",
+                "is_obsolete: true",
+                "consider: HP:0100886",
+                "",
+                "[Typedef]",
+                "id: part_of",
+                "name: part of"
+        ));
+        return oboFile;
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(AlternateHpoIds.EMPTY.size(), equalTo(0));
+        assertThat(AlternateHpoIds.EMPTY.getPrimaryId("HP:0000111"), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void testParseOboFile() throws Exception {
+        AlternateHpoIds instance = AlternateHpoIds.parseOboFile(writeOboFile());
+        assertThat(instance.size(), equalTo(3));
+        assertThat(instance.getPrimaryId("HP:0000111"), equalTo(Optional.of("HP:0000118")));
+        assertThat(instance.getPrimaryId("HP:0000112"), equalTo(Optional.of("HP:0000118")));
+        assertThat(instance.getPrimaryId("HP:0001112"), equalTo(Optional.of("HP:0000518")));
+    }
+
+    @Test
+    public void testObsoleteTermWithoutReplacementIsNotMapped() throws Exception {
+        AlternateHpoIds instance = AlternateHpoIds.parseOboFile(writeOboFile());
+        assertThat(instance.getPrimaryId("HP:0000489"), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void testPrimaryIdIsNotMapped() throws Exception {
+        AlternateHpoIds instance = AlternateHpoIds.parseOboFile(writeOboFile());
+        assertThat(instance.getPrimaryId("HP:0000118"), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void testParseMissingFileReturnsEmpty() {
+        AlternateHpoIds instance = AlternateHpoIds.parseOboFile(temporaryFolder.getRoot().toPath().resolve("wibble.obo"));
+        assertThat(instance, equalTo(AlternateHpoIds.EMPTY));
+    }
+
+    @Test
+    public void testFollowsReplacementChains() {
+        Map<String, String> alternateIds = new HashMap<>();
+        alternateIds.put("HP:0000001", "HP:0000002");
+        alternateIds.put("HP:0000002", "HP:0000003");
+        AlternateHpoIds instance = AlternateHpoIds.of(alternateIds);
+        assertThat(instance.getPrimaryId("HP:0000001"), equalTo(Optional.of("HP:0000003")));
+    }
+
+    @Test
+    public void testReplacementCyclesTerminate() {
+        Map<String, String> alternateIds = new HashMap<>();
+        alternateIds.put("HP:0000001", "HP:0000002");
+        alternateIds.put("HP:0000002", "HP:0000001");
+        AlternateHpoIds instance = AlternateHpoIds.of(alternateIds);
+        assertThat(instance.getPrimaryId("HP:0000001").isPresent(), equalTo(true));
+    }
+}
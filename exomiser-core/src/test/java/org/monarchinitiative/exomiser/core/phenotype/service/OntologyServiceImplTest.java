@@ -137,4 +137,35 @@ public void testReturnsPhenotypeTermForGivenHpoId() {
     public void testReturnsNullForGivenHpoIdWhenHpoIdIsUnrecognised() {
         assertThat(instance.getPhenotypeTermForHpoId("invalidId"), equalTo(null));
     }
+
+    @Test
+    public void testReturnsPrimaryPhenotypeTermForAlternateHpoId() {
+        Map<String, String> alternateIds = new HashMap<>();
+        alternateIds.put("HP:0004715", cleftHelix.getId());
+        instance.setAlternateHpoIds(AlternateHpoIds.of(alternateIds));
+        assertThat(instance.getPhenotypeTermForHpoId("HP:0004715"), equalTo(cleftHelix));
+    }
+
+    @Test
+    public void testReturnsReplacementPhenotypeTermForObsoleteHpoId() {
+        Map<String, String> alternateIds = new HashMap<>();
+        //obsolete term replaced by another obsolete term
+        alternateIds.put("HP:0001112", "HP:0001113");
+        alternateIds.put("HP:0001113", thinEarHelix.getId());
+        instance.setAlternateHpoIds(AlternateHpoIds.of(alternateIds));
+        assertThat(instance.getPhenotypeTermForHpoId("HP:0001112"), equalTo(thinEarHelix));
+    }
+
+    @Test
+    public void testAlternateIdOfUnknownTermIsNotFound() {
+        instance.setAlternateHpoIds(AlternateHpoIds.of(Collections.singletonMap("HP:0004715", "HP:9999999")));
+        assertThat(instance.getPhenotypeTermForHpoId("HP:0004715"), equalTo(null));
+    }
+
+    @Test
+    public void testGetPhenotypeTermsForHpoIds() {
+        instance.setAlternateHpoIds(AlternateHpoIds.of(Collections.singletonMap("HP:0004715", cleftHelix.getId())));
+        List<String> hpoIds = Arrays.asList(thinEarHelix.getId(), "invalidId", "HP:0004715", fingerJointHyperExtensibility.getId());
+        assertThat(instance.getPhenotypeTermsForHpoIds(hpoIds), equalTo(Arrays.asList(thinEarHelix, cleftHelix, fingerJointHyperExtensibility)));
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype.service;
+
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class PhenotypeMatchTableTest {
+
+    private final PhenotypeTerm multicysticKidneyDysplasia = PhenotypeTerm.of("HP:0000003", "Multicystic kidney dysplasia");
+    private final PhenotypeTerm renalCyst = PhenotypeTerm.of("HP:0000107", "Renal cyst");
+    private final PhenotypeTerm kidneyAbnormality = PhenotypeTerm.of("HP:0000077", "Abnormality of the kidney");
+    private final PhenotypeTerm renalDiverticulum = PhenotypeTerm.of("HP:0100877", "Renal diverticulum");
+    private final PhenotypeTerm mesoblasticNephroma = PhenotypeTerm.of("HP:0100881", "Congenital mesoblastic nephroma");
+
+    private PhenotypeMatch makeMatch(PhenotypeTerm query, PhenotypeTerm match, PhenotypeTerm lcs, double score) {
+        return PhenotypeMatch.builder()
+                .query(query)
+                .match(match)
+                .lcs(lcs)
+                .simj(0.5)
+                .ic(3.0)
+                .score(score)
+                .build();
+    }
+
+    @Test
+    public void testEmptyTable() {
+        PhenotypeMatchTable instance = PhenotypeMatchTable.builder().build();
+        assertThat(instance.numQueryTerms(), equalTo(0));
+        assertThat(instance.numMatches(), equalTo(0));
+        assertThat(instance.getPhenotypeMatches(multicysticKidneyDysplasia), equalTo(Collections.emptySet()));
+    }
+
+    @Test
+    public void testGetPhenotypeMatchesSortedByDescendingScore() {
+        PhenotypeMatch lowMatch = makeMatch(multicysticKidneyDysplasia, mesoblasticNephroma, kidneyAbnormality, 1.07);
+        PhenotypeMatch highMatch = makeMatch(multicysticKidneyDysplasia, renalDiverticulum, renalCyst, 2.03);
+        PhenotypeMatch otherQueryMatch = makeMatch(renalCyst, renalCyst, renalCyst, 3.5);
+
+        PhenotypeMatchTable instance = PhenotypeMatchTable.builder()
+                .add(lowMatch)
+                .add(otherQueryMatch)
+                .add(highMatch)
+                .build();
+
+        assertThat(instance.numQueryTerms(), equalTo(2));
+        assertThat(instance.numMatches(), equalTo(3));
+        List<PhenotypeMatch> matches = new ArrayList<>(instance.getPhenotypeMatches(multicysticKidneyDysplasia));
+        assertThat(matches, equalTo(Arrays.asList(highMatch, lowMatch)));
+        assertThat(new ArrayList<>(instance.getPhenotypeMatches(renalCyst)), equalTo(Collections.singletonList(otherQueryMatch)));
+    }
+
+    @Test
+    public void testQueryPhenotypeIsTheTermProvided() {
+        PhenotypeTerm unlabelledQuery = PhenotypeTerm.of("HP:0000003", "");
+        PhenotypeMatchTable instance = PhenotypeMatchTable.builder()
+                .add(makeMatch(multicysticKidneyDysplasia, renalDiverticulum, renalCyst, 2.03))
+                .build();
+
+        PhenotypeMatch expected = makeMatch(unlabelledQuery, renalDiverticulum, renalCyst, 2.03);
+        assertThat(instance.getPhenotypeMatches(unlabelledQuery), equalTo(Collections.singleton(expected)));
+    }
+
+    @Test
+    public void testUnknownQueryTermReturnsEmptySet() {
+        PhenotypeMatchTable instance = PhenotypeMatchTable.builder()
+                .add(makeMatch(multicysticKidneyDysplasia, renalDiverticulum, renalCyst, 2.03))
+                .build();
+        assertThat(instance.getPhenotypeMatches(renalCyst), equalTo(Collections.emptySet()));
+    }
+
+    @Test
+    public void testBuilderGrowsBeyondInitialCapacity() {
+        PhenotypeMatchTable.Builder builder = PhenotypeMatchTable.builder();
+        int numMatches = 5000;
+        for (int i = 0; i < numMatches; i++) {
+            PhenotypeTerm query = PhenotypeTerm.of(String.format("HP:%07d", i % 10), "query");
+            PhenotypeTerm match = PhenotypeTerm.of(String.format("MP:%07d", i), "match");
+            builder.add(makeMatch(query, match, kidneyAbnormality, i));
+        }
+        PhenotypeMatchTable instance = builder.build();
+        assertThat(instance.numQueryTerms(), equalTo(10));
+        assertThat(instance.numMatches(), equalTo(numMatches));
+        assertThat(instance.getPhenotypeMatches(PhenotypeTerm.of("HP:0000003", "query")).size(), equalTo(numMatches / 10));
+    }
+}
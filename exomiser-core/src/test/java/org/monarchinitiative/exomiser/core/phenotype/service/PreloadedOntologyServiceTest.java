@@ -0,0 +1,158 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype.service;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
+import org.monarchinitiative.exomiser.core.phenotype.dao.HumanPhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.MousePhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.OntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.OntologyDaoException;
+import org.monarchinitiative.exomiser.core.phenotype.dao.ZebraFishPhenotypeOntologyDao;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class PreloadedOntologyServiceTest {
+
+    private final PhenotypeTerm cleftHelix = PhenotypeTerm.of("HP:0009902", "Cleft helix");
+    private final PhenotypeTerm thinEarHelix = PhenotypeTerm.of("HP:0009905", "Thin ear helix");
+    private final PhenotypeTerm abnormalEar = PhenotypeTerm.of("MP:0002102", "abnormal ear morphology");
+    private final PhenotypeTerm abnormalFin = PhenotypeTerm.of("ZP:0000001", "abnormal fin");
+
+    private HumanPhenotypeOntologyDao mockHpoDao;
+    private MousePhenotypeOntologyDao mockMpoDao;
+    private ZebraFishPhenotypeOntologyDao mockZpoDao;
+
+    private PreloadedOntologyService instance;
+
+    private PhenotypeMatch makeMatch(PhenotypeTerm query, PhenotypeTerm match, double score) {
+        return PhenotypeMatch.builder()
+                .query(query)
+                .match(match)
+                .lcs(query)
+                .simj(0.5)
+                .ic(2.0)
+                .score(score)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubAllPhenotypeMatches(OntologyDao mockDao, PhenotypeMatch... phenotypeMatches) {
+        doAnswer(invocation -> {
+            Consumer<PhenotypeMatch> consumer = (Consumer<PhenotypeMatch>) invocation.getArguments()[0];
+            for (PhenotypeMatch phenotypeMatch : phenotypeMatches) {
+                consumer.accept(phenotypeMatch);
+            }
+            return null;
+        }).when(mockDao).processAllPhenotypeMatches(any(Consumer.class));
+    }
+
+    @Before
+    public void setUp() {
+        mockHpoDao = Mockito.mock(HumanPhenotypeOntologyDao.class);
+        mockMpoDao = Mockito.mock(MousePhenotypeOntologyDao.class);
+        mockZpoDao = Mockito.mock(ZebraFishPhenotypeOntologyDao.class);
+
+        stubAllPhenotypeMatches(mockHpoDao, makeMatch(cleftHelix, thinEarHelix, 1.5), makeMatch(thinEarHelix, cleftHelix, 1.5));
+        stubAllPhenotypeMatches(mockMpoDao, makeMatch(cleftHelix, abnormalEar, 2.0));
+        stubAllPhenotypeMatches(mockZpoDao, makeMatch(cleftHelix, abnormalFin, 0.5));
+
+        instance = new PreloadedOntologyService(mockHpoDao, mockMpoDao, mockZpoDao);
+    }
+
+    @Test
+    public void testGetHpoMatchesForHpoTerm() {
+        assertThat(instance.getHpoMatchesForHpoTerm(cleftHelix), equalTo(Collections.singleton(makeMatch(cleftHelix, thinEarHelix, 1.5))));
+    }
+
+    @Test
+    public void testGetMpoMatchesForHpoTerm() {
+        assertThat(instance.getMpoMatchesForHpoTerm(cleftHelix), equalTo(Collections.singleton(makeMatch(cleftHelix, abnormalEar, 2.0))));
+    }
+
+    @Test
+    public void testGetZpoMatchesForHpoTerm() {
+        assertThat(instance.getZpoMatchesForHpoTerm(cleftHelix), equalTo(Collections.singleton(makeMatch(cleftHelix, abnormalFin, 0.5))));
+    }
+
+    @Test
+    public void testGetMatchesForUnmappedTermReturnsEmptySet() {
+        assertThat(instance.getMpoMatchesForHpoTerm(thinEarHelix), equalTo(Collections.emptySet()));
+    }
+
+    @Test
+    public void testMappingsAreLoadedLazilyOnlyOnce() {
+        verify(mockMpoDao, never()).processAllPhenotypeMatches(any(Consumer.class));
+
+        instance.getMpoMatchesForHpoTerm(cleftHelix);
+        instance.getMpoMatchesForHpoTerm(thinEarHelix);
+
+        verify(mockMpoDao, times(1)).processAllPhenotypeMatches(any(Consumer.class));
+        verify(mockMpoDao, never()).getPhenotypeMatchesForHpoTerm(any(PhenotypeTerm.class));
+        verify(mockHpoDao, never()).processAllPhenotypeMatches(any(Consumer.class));
+    }
+
+    @Test
+    public void testPreloadLoadsAllMappings() {
+        instance.preload();
+        instance.getHpoMatchesForHpoTerm(cleftHelix);
+
+        verify(mockHpoDao, times(1)).processAllPhenotypeMatches(any(Consumer.class));
+        verify(mockMpoDao, times(1)).processAllPhenotypeMatches(any(Consumer.class));
+        verify(mockZpoDao, times(1)).processAllPhenotypeMatches(any(Consumer.class));
+    }
+
+    @Test
+    public void testFailedLoadIsPropagatedAndNotMemoized() {
+        OntologyDaoException loadFailure = new OntologyDaoException("Unable to read HP-MP mappings", new SQLException());
+        doThrow(loadFailure).when(mockMpoDao).processAllPhenotypeMatches(any(Consumer.class));
+        try {
+            instance.getMpoMatchesForHpoTerm(cleftHelix);
+            fail("Expected an OntologyDaoException");
+        } catch (OntologyDaoException e) {
+            assertThat(e, equalTo(loadFailure));
+        }
+
+        stubAllPhenotypeMatches(mockMpoDao, makeMatch(cleftHelix, abnormalEar, 2.0));
+        assertThat(instance.getMpoMatchesForHpoTerm(cleftHelix), equalTo(Collections.singleton(makeMatch(cleftHelix, abnormalEar, 2.0))));
+        verify(mockMpoDao, times(2)).processAllPhenotypeMatches(any(Consumer.class));
+    }
+
+    @Test
+    public void testGetHpoTermsUsesDao() {
+        when(mockHpoDao.getAllTerms()).thenReturn(Collections.singleton(cleftHelix));
+        assertThat(instance.getHpoTerms(), equalTo(Collections.singleton(cleftHelix)));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.monarchinitiative.exomiser.core.prioritisers;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.phenotype.*;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModelPhenotypeMatch;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneOrthologModel;
+import org.monarchinitiative.exomiser.core.prioritisers.service.PriorityService;
+import org.monarchinitiative.exomiser.core.prioritisers.service.TestPriorityServiceFactory;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class BestGeneModelFinderTest {
+
+    private final PriorityService priorityService = TestPriorityServiceFactory.TEST_SERVICE;
+
+    private final List<PhenotypeTerm> queryTerms = priorityService.makePhenotypeTermsFromHpoIds(ImmutableList.of("HP:0010055", "HP:0001363", "HP:0001156", "HP:0011304"));
+    private final PhenotypeMatcher humanPhenotypeMatcher = priorityService.getPhenotypeMatcherForOrganism(queryTerms, Organism.HUMAN);
+
+    private PhenodigmModelScorer<GeneModel> makeModelScorer(Organism organism) {
+        PhenotypeMatcher organismPhenotypeMatcher = priorityService.getPhenotypeMatcherForOrganism(queryTerms, organism);
+        return PhenodigmModelScorer.forMultiCrossSpecies(humanPhenotypeMatcher.getQueryPhenotypeMatch(), organismPhenotypeMatcher);
+    }
+
+    private Map<Integer, Double> scoreAllModels(PhenodigmModelScorer<GeneModel> modelScorer, List<GeneModel> models) {
+        Map<Integer, Double> bestScores = new HashMap<>();
+        for (GeneModel model : models) {
+            bestScores.merge(model.getEntrezGeneId(), modelScorer.scoreModel(model).getScore(), Math::max);
+        }
+        return bestScores;
+    }
+
+    private Map<Integer, Double> getScores(Map<Integer, GeneModelPhenotypeMatch> bestModels) {
+        Map<Integer, Double> scores = new HashMap<>();
+        bestModels.forEach((geneId, model) -> scores.put(geneId, model.getScore()));
+        return scores;
+    }
+
+    @Test
+    public void testNoModels() {
+        BestGeneModelFinder instance = new BestGeneModelFinder(makeModelScorer(Organism.MOUSE));
+        assertThat(instance.findBestModels(Collections.emptyList()), equalTo(Collections.emptyMap()));
+    }
+
+    @Test
+    public void testFindsSameBestScoresAsScoringAllModels() {
+        for (Organism organism : Organism.values()) {
+            PhenodigmModelScorer<GeneModel> modelScorer = makeModelScorer(organism);
+            List<GeneModel> models = priorityService.getModelsForOrganism(organism);
+
+            BestGeneModelFinder instance = new BestGeneModelFinder(modelScorer);
+            assertThat(organism.toString(), getScores(instance.findBestModels(models)), equalTo(scoreAllModels(modelScorer, models)));
+        }
+    }
+
+    @Test
+    public void testFindsBestModelAmongManyModelsForGene() {
+        PhenotypeMatcher mousePhenotypeMatcher = priorityService.getPhenotypeMatcherForOrganism(queryTerms, Organism.MOUSE);
+        List<String> bestMousePhenotypes = mousePhenotypeMatcher.getBestPhenotypeMatches().stream()
+                .map(PhenotypeMatch::getMatchPhenotypeId)
+                .distinct()
+                .collect(toList());
+
+        List<GeneModel> models = new ArrayList<>();
+        // a poor model for each of the best phenotypes on their own
+        for (int i = 0; i < bestMousePhenotypes.size(); i++) {
+            models.add(new GeneOrthologModel("MOUSE:" + i, Organism.MOUSE, 2263, "FGFR2", "MGI:95523", "Fgfr2", Collections.singletonList(bestMousePhenotypes.get(i))));
+        }
+        GeneModel bestModel = new GeneOrthologModel("MOUSE:BEST", Organism.MOUSE, 2263, "FGFR2", "MGI:95523", "Fgfr2", bestMousePhenotypes);
+        models.add(bestModel);
+        models.add(new GeneOrthologModel("MOUSE:NONE", Organism.MOUSE, 2263, "FGFR2", "MGI:95523", "Fgfr2", Collections.singletonList("MP:0000000")));
+
+        PhenodigmModelScorer<GeneModel> modelScorer = makeModelScorer(Organism.MOUSE);
+        BestGeneModelFinder instance = new BestGeneModelFinder(modelScorer);
+        Map<Integer, GeneModelPhenotypeMatch> bestModels = instance.findBestModels(models);
+
+        assertThat(bestModels.size(), equalTo(1));
+        assertThat(bestModels.get(2263).getModel(), equalTo(bestModel));
+        assertThat(bestModels.get(2263).getScore(), equalTo(modelScorer.scoreModel(bestModel).getScore()));
+    }
+
+    @Test
+    public void testGeneWithOnlyNonMatchingModelsHasZeroScoringBestModel() {
+        GeneModel nonMatchingModel = new GeneOrthologModel("MOUSE:NONE", Organism.MOUSE, 2263, "FGFR2", "MGI:95523", "Fgfr2", Collections.singletonList("MP:0000000"));
+        BestGeneModelFinder instance = new BestGeneModelFinder(makeModelScorer(Organism.MOUSE));
+        Map<Integer, GeneModelPhenotypeMatch> bestModels = instance.findBestModels(Collections.singletonList(nonMatchingModel));
+        assertThat(bestModels.get(2263).getScore(), equalTo(0.0));
+    }
+}
@@ -32,12 +32,15 @@
 import org.junit.Ignore;
 import org.junit.Test;
 import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
 import org.monarchinitiative.exomiser.core.prioritisers.service.PriorityService;
 import org.monarchinitiative.exomiser.core.prioritisers.service.TestPriorityServiceFactory;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
+import org.monarchinitiative.exomiser.core.prioritisers.util.InMemoryDataMatrix;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import static java.util.stream.Collectors.toList;
@@ -73,7 +76,7 @@ public void setUp() {
         };
         DoubleMatrix doubleMatrix = new DoubleMatrix(ppiMatrix);
 
-        testMatrix = new DataMatrix(doubleMatrix.toFloat(), new HashMap<>());
+        testMatrix = new InMemoryDataMatrix(doubleMatrix.toFloat(), new HashMap<>());
 
     }
 
@@ -188,6 +191,66 @@ public void testPrioritise() {
         results.forEach(checkScores(geneScores));
     }
 
+    @Test
+    public void testPrioritiseSingleThreaded() {
+        HiPhivePriority instance = new HiPhivePriority(HiPhiveOptions.builder()
+                .runParams("human,mouse,fish")
+                .build(), DataMatrix.EMPTY, priorityService);
+        instance.setParallelism(1);
+        List<Gene> genes = getGenes();
+
+        List<HiPhivePriorityResult> results = instance.prioritise(hpoIds, genes)
+                .sorted(Comparator.naturalOrder())
+                .collect(toList());
+
+        assertThat(results.size(), equalTo(genes.size()));
+        results.forEach(checkScores(expectedHumanMouseFishScores()));
+    }
+
+    @Test
+    public void testPrioritiseInSharedPoolDoesNotShutDownPool() {
+        HiPhivePriority instance = new HiPhivePriority(HiPhiveOptions.builder()
+                .runParams("human,mouse,fish")
+                .build(), DataMatrix.EMPTY, priorityService);
+        ForkJoinPool sharedPool = new ForkJoinPool(2);
+        instance.setForkJoinPool(sharedPool);
+        List<Gene> genes = getGenes();
+
+        List<HiPhivePriorityResult> results = instance.prioritise(hpoIds, genes)
+                .sorted(Comparator.naturalOrder())
+                .collect(toList());
+
+        assertThat(results.size(), equalTo(genes.size()));
+        results.forEach(checkScores(expectedHumanMouseFishScores()));
+        assertThat(sharedPool.isShutdown(), equalTo(false));
+        sharedPool.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetParallelismMustBePositive() {
+        HiPhivePriority instance = new HiPhivePriority(HiPhiveOptions.DEFAULT, DataMatrix.EMPTY, priorityService);
+        instance.setParallelism(0);
+    }
+
+    @Test
+    public void testProgressListenerIsNotifiedForEachOrganism() {
+        HiPhivePriority instance = new HiPhivePriority(HiPhiveOptions.builder()
+                .runParams("human,mouse,fish")
+                .build(), DataMatrix.EMPTY, priorityService);
+        Set<Organism> scoredOrganisms = Collections.synchronizedSet(EnumSet.noneOf(Organism.class));
+        List<Integer> progress = Collections.synchronizedList(new ArrayList<>());
+        instance.setProgressListener((organism, numGenesMatched, organismsScored, totalOrganisms) -> {
+            scoredOrganisms.add(organism);
+            progress.add(organismsScored);
+            assertThat(totalOrganisms, equalTo(3));
+        });
+
+        instance.prioritise(hpoIds, getGenes()).collect(toList());
+
+        assertThat(scoredOrganisms, equalTo(EnumSet.of(Organism.HUMAN, Organism.MOUSE, Organism.FISH)));
+        assertThat(progress.stream().sorted().collect(toList()), equalTo(Arrays.asList(1, 2, 3)));
+    }
+
     @Test
     public void testPrioritiseWithUnMappedQueryPhenotype() {
 
@@ -28,6 +28,7 @@
 import org.jblas.FloatMatrix;
 import org.monarchinitiative.exomiser.core.prioritisers.service.TestPriorityServiceFactory;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
+import org.monarchinitiative.exomiser.core.prioritisers.util.InMemoryDataMatrix;
 
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -79,7 +80,7 @@ private DataMatrix makeDataMatrixWithGeneIds(List<Integer> entrezSeedGenes) {
             matrixMap.put(geneId, i);
         }
                     
-        DataMatrix dataMatrix = new DataMatrix(FloatMatrix.zeros(entrezSeedGenes.size(), entrezSeedGenes.size()), matrixMap);
+        DataMatrix dataMatrix = new InMemoryDataMatrix(FloatMatrix.zeros(entrezSeedGenes.size(), entrezSeedGenes.size()), matrixMap);
         
         return dataMatrix;
     }
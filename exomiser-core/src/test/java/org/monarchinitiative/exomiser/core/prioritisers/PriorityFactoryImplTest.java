@@ -25,7 +25,9 @@
  */
 package org.monarchinitiative.exomiser.core.prioritisers;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatchService;
 import org.monarchinitiative.exomiser.core.phenotype.dao.HumanPhenotypeOntologyDao;
@@ -35,15 +37,20 @@
 import org.monarchinitiative.exomiser.core.prioritisers.dao.DefaultDiseaseDao;
 import org.monarchinitiative.exomiser.core.prioritisers.service.ModelServiceImpl;
 import org.monarchinitiative.exomiser.core.prioritisers.service.PriorityService;
+import org.monarchinitiative.exomiser.core.prioritisers.util.ScoreDistributionIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -71,6 +78,9 @@
 })
 public class PriorityFactoryImplTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Autowired
     private PriorityFactoryImpl instance;
 
@@ -137,6 +147,46 @@ public void testmakePrioritiserForPhenixPriorityThrowsRuntimeExceptionDueToMissi
         assertThat(prioritiser.getPriorityType(), equalTo(type));
     }
 
+    private Path phenixDataDirectoryWithScoreDistributions() throws Exception {
+        Path phenixDataDirectory = temporaryFolder.newFolder("phenix").toPath();
+        Files.write(phenixDataDirectory.resolve("1.out"), Arrays.asList(">2263_1000", "0.5-0.9", "1.0-0.5"));
+        return phenixDataDirectory;
+    }
+
+    /**
+     * There is no hp.obo in the PhenIX data directory so the PhenixPriority cannot be made, but the score distributions
+     * are indexed before this is found.
+     */
+    private void tryToMakePhenixPrioritiser(PriorityFactoryImpl priorityFactory) {
+        try {
+            priorityFactory.makePhenixPrioritiser();
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPhenixScoreDistributionIndexIsNotWrittenToPhenixDataDirectory() throws Exception {
+        Path phenixDataDirectory = phenixDataDirectoryWithScoreDistributions();
+        PriorityFactoryImpl priorityFactory = new PriorityFactoryImpl(null, null, phenixDataDirectory);
+
+        tryToMakePhenixPrioritiser(priorityFactory);
+        assertThat(Files.exists(phenixDataDirectory.resolve(ScoreDistributionIndex.DEFAULT_FILE_NAME)), is(false));
+    }
+
+    @Test
+    public void testPhenixScoreDistributionIndexIsWrittenToPhenixCacheDirectory() throws Exception {
+        Path phenixDataDirectory = phenixDataDirectoryWithScoreDistributions();
+        Path phenixCacheDirectory = temporaryFolder.getRoot().toPath().resolve("cache");
+        PriorityFactoryImpl priorityFactory = new PriorityFactoryImpl(null, null, phenixDataDirectory);
+        priorityFactory.setPhenixCacheDirectory(phenixCacheDirectory.toString());
+
+        tryToMakePhenixPrioritiser(priorityFactory);
+        assertThat(Files.exists(phenixDataDirectory.resolve(ScoreDistributionIndex.DEFAULT_FILE_NAME)), is(false));
+        Path indexFile = phenixCacheDirectory.resolve(ScoreDistributionIndex.DEFAULT_FILE_NAME);
+        assertThat(ScoreDistributionIndex.isUpToDate(indexFile, phenixDataDirectory), is(true));
+    }
+
     @Test
     public void testmakePrioritiserNonePriorityReturnsNoneTypePrioritiser() {
         PriorityType type = PriorityType.NONE;
@@ -33,13 +33,14 @@
 import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
 import org.monarchinitiative.exomiser.core.prioritisers.model.InheritanceMode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
+import javax.sql.DataSource;
+import java.util.*;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
@@ -60,6 +61,9 @@ public class DefaultDiseaseDaoTest {
     @Autowired
     DefaultDiseaseDao instance;
 
+    @Autowired
+    DataSource dataSource;
+
     private final Disease disease = Disease.builder()
             .diseaseId("OMIM:101600")
                 .diseaseName("Craniofacial-skeletal-dermatologic dysplasia")
@@ -70,6 +74,16 @@ public class DefaultDiseaseDaoTest {
                 .phenotypeIds(Arrays.asList("HP:0000174, HP:0000194, HP:0000218, HP:0000238, HP:0000244, HP:0000272, HP:0000303, HP:0000316, HP:0000322, HP:0000324, HP:0000327, HP:0000348, HP:0000431, HP:0000452, HP:0000453, HP:0000470, HP:0000486, HP:0000494, HP:0000508, HP:0000586, HP:0000678, HP:0001156, HP:0001249, HP:0002308, HP:0002676, HP:0002780, HP:0003041, HP:0003070, HP:0003196, HP:0003272, HP:0003307, HP:0003795, HP:0004209, HP:0004322, HP:0004440, HP:0005048, HP:0005280, HP:0005347, HP:0006101, HP:0006110, HP:0009602, HP:0009773, HP:0010055, HP:0010669, HP:0011304".split(", ")))
             .build();
 
+    private final Disease pfeifferSyndrome = Disease.builder()
+            .diseaseId("OMIM:101600")
+            .diseaseName("Pfeiffer syndrome")
+            .associatedGeneId(2260)
+            .associatedGeneSymbol("FGFR1")
+            .diseaseType(Disease.DiseaseType.DISEASE)
+            .inheritanceMode(InheritanceMode.AUTOSOMAL_DOMINANT)
+            .phenotypeIds(disease.getPhenotypeIds())
+            .build();
+
     @Test
     public void testGetHpoIdsForDiseaseId() {
         Set<String> omim101600HpoIds = Sets.newTreeSet(disease.getPhenotypeIds());
@@ -81,4 +95,41 @@ public void testGetDiseaseDataAssociatedWithGeneId() {
         List<Disease> expected = Lists.newArrayList(disease) ;
         assertThat(instance.getDiseaseDataAssociatedWithGeneId(2263), equalTo(expected));
     }
+
+    @Test
+    public void testGetDiseaseDataAssociatedWithGeneIds() {
+        Map<Integer, List<Disease>> expected = new HashMap<>();
+        expected.put(2263, Collections.singletonList(disease));
+        expected.put(2260, Collections.singletonList(pfeifferSyndrome));
+        assertThat(instance.getDiseaseDataAssociatedWithGeneIds(Arrays.asList(2263, 2260, 2263, 9999)), equalTo(expected));
+    }
+
+    @Test
+    public void testGetDiseaseDataAssociatedWithGeneIdsSharesDiseasesCache() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("diseases");
+        Cache diseasesCache = cacheManager.getCache("diseases");
+        // as if previously cached by getDiseaseDataAssociatedWithGeneId
+        diseasesCache.put(2263, Collections.emptyList());
+
+        DefaultDiseaseDao cachingInstance = new DefaultDiseaseDao(dataSource);
+        cachingInstance.setCacheManager(cacheManager);
+
+        Map<Integer, List<Disease>> expected = new HashMap<>();
+        expected.put(2260, Collections.singletonList(pfeifferSyndrome));
+        assertThat(cachingInstance.getDiseaseDataAssociatedWithGeneIds(Arrays.asList(2263, 2260, 9999)), equalTo(expected));
+        assertThat(diseasesCache.get(2260).get(), equalTo(Collections.singletonList(pfeifferSyndrome)));
+        assertThat(diseasesCache.get(9999).get(), equalTo(Collections.emptyList()));
+    }
+
+    @Test
+    public void testGetDiseaseDataAssociatedWithGeneIdsEmptyInput() {
+        assertThat(instance.getDiseaseDataAssociatedWithGeneIds(Collections.emptyList()), equalTo(Collections.emptyMap()));
+    }
+
+    @Test
+    public void testProcessAllDiseaseData() {
+        List<Disease> diseases = new ArrayList<>();
+        instance.processAllDiseaseData(diseases::add);
+        assertThat(new HashSet<>(diseases), equalTo(Sets.newHashSet(disease, pfeifferSyndrome)));
+    }
 }
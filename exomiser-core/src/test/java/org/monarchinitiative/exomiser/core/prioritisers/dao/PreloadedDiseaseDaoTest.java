@@ -0,0 +1,128 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.monarchinitiative.exomiser.core.prioritisers.dao;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
+import org.monarchinitiative.exomiser.core.prioritisers.model.InheritanceMode;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class PreloadedDiseaseDaoTest {
+
+    private final Disease craniofacialDysplasia = Disease.builder()
+            .diseaseId("OMIM:101600")
+            .diseaseName("Craniofacial-skeletal-dermatologic dysplasia")
+            .associatedGeneId(2263)
+            .associatedGeneSymbol("FGFR2")
+            .inheritanceMode(InheritanceMode.AUTOSOMAL_DOMINANT)
+            .phenotypeIds(Arrays.asList("HP:0000174", "HP:0000194"))
+            .build();
+
+    private final Disease crouzonSyndrome = Disease.builder()
+            .diseaseId("OMIM:123500")
+            .diseaseName("Crouzon syndrome")
+            .associatedGeneId(2263)
+            .associatedGeneSymbol("FGFR2")
+            .inheritanceMode(InheritanceMode.AUTOSOMAL_DOMINANT)
+            .phenotypeIds(Arrays.asList("HP:0000244", "HP:0000272"))
+            .build();
+
+    private final Disease pfeifferSyndrome = Disease.builder()
+            .diseaseId("OMIM:101600")
+            .diseaseName("Pfeiffer syndrome")
+            .associatedGeneId(2260)
+            .associatedGeneSymbol("FGFR1")
+            .inheritanceMode(InheritanceMode.AUTOSOMAL_DOMINANT)
+            .phenotypeIds(Arrays.asList("HP:0000174", "HP:0000194"))
+            .build();
+
+    private DiseaseDao spyDiseaseDao;
+    private PreloadedDiseaseDao instance;
+
+    @Before
+    public void setUp() {
+        spyDiseaseDao = spy(new TestDiseaseDao(Arrays.asList(craniofacialDysplasia, crouzonSyndrome, pfeifferSyndrome)));
+        instance = new PreloadedDiseaseDao(spyDiseaseDao);
+    }
+
+    @Test
+    public void testGetDiseaseDataAssociatedWithGeneId() {
+        assertThat(instance.getDiseaseDataAssociatedWithGeneId(2263), equalTo(Arrays.asList(craniofacialDysplasia, crouzonSyndrome)));
+        assertThat(instance.getDiseaseDataAssociatedWithGeneId(2260), equalTo(Collections.singletonList(pfeifferSyndrome)));
+    }
+
+    @Test
+    public void testGetDiseaseDataAssociatedWithUnknownGeneIdIsEmpty() {
+        assertThat(instance.getDiseaseDataAssociatedWithGeneId(999999), equalTo(Collections.emptyList()));
+    }
+
+    @Test
+    public void testGetDiseaseDataAssociatedWithGeneIds() {
+        Map<Integer, List<Disease>> expected = new HashMap<>();
+        expected.put(2263, Arrays.asList(craniofacialDysplasia, crouzonSyndrome));
+        expected.put(2260, Collections.singletonList(pfeifferSyndrome));
+
+        assertThat(instance.getDiseaseDataAssociatedWithGeneIds(Arrays.asList(2263, 999999, 2260, 2263)), equalTo(expected));
+    }
+
+    @Test
+    public void testGetHpoIdsForDiseaseIdUsesWrappedDao() {
+        assertThat(instance.getHpoIdsForDiseaseId("OMIM:123500"), equalTo(new HashSet<>(crouzonSyndrome.getPhenotypeIds())));
+        verify(spyDiseaseDao).getHpoIdsForDiseaseId("OMIM:123500");
+    }
+
+    @Test
+    public void testProcessAllDiseaseData() {
+        List<Disease> diseases = new ArrayList<>();
+        instance.processAllDiseaseData(diseases::add);
+        assertThat(diseases, equalTo(Arrays.asList(craniofacialDysplasia, crouzonSyndrome, pfeifferSyndrome)));
+    }
+
+    @Test
+    public void testAssociationsAreLoadedLazilyOnlyOnce() {
+        verify(spyDiseaseDao, never()).processAllDiseaseData(any(Consumer.class));
+
+        instance.getDiseaseDataAssociatedWithGeneId(2263);
+        instance.getDiseaseDataAssociatedWithGeneIds(Arrays.asList(2263, 2260));
+
+        verify(spyDiseaseDao, times(1)).processAllDiseaseData(any(Consumer.class));
+        verify(spyDiseaseDao, never()).getDiseaseDataAssociatedWithGeneId(anyInt());
+    }
+
+    @Test
+    public void testPreload() {
+        instance.preload();
+        verify(spyDiseaseDao, times(1)).processAllDiseaseData(any(Consumer.class));
+    }
+}
@@ -24,6 +24,7 @@
 import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static java.util.stream.Collectors.groupingBy;
 
@@ -52,4 +53,9 @@ public Set<String> getHpoIdsForDiseaseId(String diseaseId) {
     public List<Disease> getDiseaseDataAssociatedWithGeneId(int geneId) {
         return geneDiseaseAssociations.getOrDefault(geneId, Collections.emptyList());
     }
+
+    @Override
+    public void processAllDiseaseData(Consumer<Disease> consumer) {
+        diseases.forEach(consumer);
+    }
 }
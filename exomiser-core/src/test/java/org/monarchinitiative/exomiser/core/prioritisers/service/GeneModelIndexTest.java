@@ -0,0 +1,92 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.monarchinitiative.exomiser.core.prioritisers.service;
+
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneDiseaseModel;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneOrthologModel;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class GeneModelIndexTest {
+
+    private final GeneModel fgfr2MouseModel = new GeneOrthologModel("MGI:95523_115", Organism.MOUSE, 2263, "FGFR2", "MGI:95523", "Fgfr2", Arrays
+            .asList("MP:0000031", "MP:0000035"));
+    private final GeneModel fgfr2OtherMouseModel = new GeneOrthologModel("MGI:95523_116", Organism.MOUSE, 2263, "FGFR2", "MGI:95523", "Fgfr2", Arrays
+            .asList("MP:0009522", "MP:0009525"));
+    private final GeneModel fgfr1MouseModel = new GeneOrthologModel("MGI:95522_117", Organism.MOUSE, 2260, "FGFR1", "MGI:95522", "Fgfr1", Collections
+            .singletonList("MP:0000031"));
+    private final GeneModel fgfr1DiseaseModel = new GeneDiseaseModel("OMIM:101600_2260", Organism.HUMAN, 2260, "FGFR1", "OMIM:101600", "Pfeiffer syndrome", Arrays
+            .asList("HP:0000174", "HP:0000194"));
+
+    private final GeneModelIndex instance = GeneModelIndex.of(Arrays.asList(fgfr2MouseModel, fgfr1MouseModel, fgfr2OtherMouseModel));
+
+    @Test
+    public void testEmpty() {
+        assertThat(GeneModelIndex.EMPTY.numGenes(), equalTo(0));
+        assertThat(GeneModelIndex.EMPTY.numModels(), equalTo(0));
+        assertThat(GeneModelIndex.EMPTY.getModelsForGenes(Arrays.asList(2263, 2260)), equalTo(Collections.emptyList()));
+    }
+
+    @Test
+    public void testSize() {
+        assertThat(instance.numGenes(), equalTo(2));
+        assertThat(instance.numModels(), equalTo(3));
+    }
+
+    @Test
+    public void testGetModelsForGene() {
+        assertThat(instance.getModelsForGene(2263), equalTo(Arrays.asList(fgfr2MouseModel, fgfr2OtherMouseModel)));
+        assertThat(instance.getModelsForGene(2260), equalTo(Collections.singletonList(fgfr1MouseModel)));
+    }
+
+    @Test
+    public void testGetModelsForUnknownGeneIsEmpty() {
+        assertThat(instance.getModelsForGene(999999), equalTo(Collections.emptyList()));
+    }
+
+    @Test
+    public void testGetModelsForGenesInOrderOfGenes() {
+        assertThat(instance.getModelsForGenes(Arrays.asList(2260, 999999, 2263, 2260)), equalTo(Arrays.asList(fgfr1MouseModel, fgfr2MouseModel, fgfr2OtherMouseModel)));
+    }
+
+    @Test
+    public void testGetAllModels() {
+        assertThat(instance.getAllModels(), equalTo(Arrays.asList(fgfr2MouseModel, fgfr2OtherMouseModel, fgfr1MouseModel)));
+    }
+
+    @Test
+    public void testDuplicateModelsAreOnlyIndexedOnce() {
+        GeneModelIndex index = GeneModelIndex.of(Arrays.asList(fgfr1DiseaseModel, fgfr1DiseaseModel));
+        assertThat(index.numModels(), equalTo(1));
+        assertThat(index.getModelsForGene(2260), equalTo(Collections.singletonList(fgfr1DiseaseModel)));
+    }
+}
@@ -30,6 +30,7 @@
 import java.util.Map;
 import java.util.TreeMap;
 
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -79,7 +80,7 @@ public DataMatrix loadMatrix() {
         entrezIdToRowIndex.put(2222, 2);
         entrezIdToRowIndex.put(3333, 3);
 
-        return new DataMatrix(floatMatrix, entrezIdToRowIndex);
+        return new InMemoryDataMatrix(floatMatrix, entrezIdToRowIndex);
     }
 
     @Test
@@ -100,6 +101,18 @@ public void testWriteMatrixWithHeaders() throws Exception {
         assertFileExistsThenDelete(outFile);
     }
 
+    @Test
+    public void testWriteAndLoadSparseDataMatrix() throws Exception {
+        Path outFile = Paths.get("target/testSparseMatrix.bin");
+        SparseDataMatrix sparseDataMatrix = SparseDataMatrix.fromDataMatrix(dataMatrix, 2, 0f);
+        DataMatrixIO.writeSparseDataMatrix(sparseDataMatrix, outFile);
+
+        SparseDataMatrix loaded = DataMatrixIO.loadSparseDataMatrix(outFile);
+        assertThat(loaded, equalTo(sparseDataMatrix));
+        assertThat(loaded.getMaxErrorBound(), equalTo(sparseDataMatrix.getMaxErrorBound()));
+        assertFileExistsThenDelete(outFile);
+    }
+
     private void assertFileExistsThenDelete(Path outFile) throws IOException {
         assertThat(Files.exists(outFile), is(true));
         Files.delete(outFile);
@@ -30,6 +30,8 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -68,7 +70,7 @@ public void setUp() {
         entrezIdToRowIndex.put(2222, 2);
         entrezIdToRowIndex.put(3333, 3);
 
-        instance = new DataMatrix(floatMatrix, entrezIdToRowIndex);
+        instance = new InMemoryDataMatrix(floatMatrix, entrezIdToRowIndex);
     }
 
     @Test
@@ -109,6 +111,13 @@ public void testGetRowIndexForGeneNotInIndex() {
         assertThat(instance.getRowIndexForGene(9999), nullValue());
     }
     
+    @Test
+    public void testForEachValueInColumn() {
+        List<Float> values = new ArrayList<>();
+        instance.forEachValueInColumn(3333, 1, 3, (row, value) -> values.add(value));
+        assertThat(values, equalTo(Arrays.asList(1.3f, 2.3f)));
+    }
+
     @Test
     public void testGetColumnMatrixForGeneInIndex() {
         //expect a new single column matrix with 4 rows
@@ -164,7 +173,7 @@ public void testMakeSubMatrix() {
 
     @Test
     public void testEquals() {
-        DataMatrix identicalMatrix = new DataMatrix(floatMatrix, entrezIdToRowIndex);
+        DataMatrix identicalMatrix = new InMemoryDataMatrix(floatMatrix, entrezIdToRowIndex);
         assertThat(instance, equalTo(identicalMatrix));
     }
     
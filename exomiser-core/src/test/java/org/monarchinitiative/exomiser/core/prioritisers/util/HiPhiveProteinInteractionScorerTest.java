@@ -21,9 +21,19 @@
 package org.monarchinitiative.exomiser.core.prioritisers.util;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import org.jblas.FloatMatrix;
 import org.junit.Test;
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneMatch;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModelPhenotypeMatch;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneOrthologModel;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
@@ -68,4 +78,149 @@ public void testEmptyInputValues() {
         assertThat(instance.getClosestPhenoMatchInNetwork(123), equalTo(GeneMatch.NO_HIT));
     }
 
-}
\ No newline at end of file
+    private DataMatrix makeDataMatrix() {
+        Map<Integer, Integer> entrezIdToRowIndex = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            entrezIdToRowIndex.put(i + 1, i);
+        }
+        return new InMemoryDataMatrix(testMatrix, entrezIdToRowIndex);
+    }
+
+    private GeneModelPhenotypeMatch makeModelMatch(int entrezGeneId, double score) {
+        GeneOrthologModel model = new GeneOrthologModel(entrezGeneId + "_" + score, Organism.MOUSE, entrezGeneId, "GENE" + entrezGeneId, "MGI:" + entrezGeneId, "Gene" + entrezGeneId, Collections.emptyList());
+        return new GeneModelPhenotypeMatch(score, model, Collections.emptyList());
+    }
+
+    private ListMultimap<Integer, GeneModelPhenotypeMatch> makeBestGeneModels() {
+        ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels = ArrayListMultimap.create();
+        bestGeneModels.put(1, makeModelMatch(1, 0.9));
+        bestGeneModels.put(2, makeModelMatch(2, 0.8));
+        //below the cut-off
+        bestGeneModels.put(3, makeModelMatch(3, 0.4));
+        return bestGeneModels;
+    }
+
+    @Test
+    public void testGeneNotInMatrixIsNoHit() {
+        HiPhiveProteinInteractionScorer instance = new HiPhiveProteinInteractionScorer(makeDataMatrix(), makeBestGeneModels(), 0.5);
+        assertThat(instance.getClosestPhenoMatchInNetwork(123), equalTo(GeneMatch.NO_HIT));
+    }
+
+    @Test
+    public void testClosestMatchIsHighestWeightedScore() {
+        HiPhiveProteinInteractionScorer instance = new HiPhiveProteinInteractionScorer(makeDataMatrix(), makeBestGeneModels(), 0.5);
+        GeneMatch result = instance.getClosestPhenoMatchInNetwork(4);
+        // gene1: 3.0 * 0.9 = 2.7, gene2: 3.1 * 0.8 = 2.48
+        assertThat(result.getQueryGeneId(), equalTo(4));
+        assertThat(result.getMatchGeneId(), equalTo(1));
+        assertThat(result.getScore(), equalTo(0.5 + 3.0f * 0.9f));
+    }
+
+    @Test
+    public void testSelfHitsAreExcluded() {
+        HiPhiveProteinInteractionScorer instance = new HiPhiveProteinInteractionScorer(makeDataMatrix(), makeBestGeneModels(), 0.5);
+        GeneMatch result = instance.getClosestPhenoMatchInNetwork(1);
+        // self-hit gene1: 0.7 * 0.9 = 0.63 is ignored, gene2: 0.1 * 0.8 = 0.08
+        assertThat(result.getMatchGeneId(), equalTo(2));
+        assertThat(result.getScore(), equalTo(0.5 + 0.1f * 0.8f));
+    }
+
+    @Test
+    public void testLowQualityGenesAreNotMatched() {
+        HiPhiveProteinInteractionScorer instance = new HiPhiveProteinInteractionScorer(makeDataMatrix(), makeBestGeneModels(), 0.5);
+        GeneMatch result = instance.getClosestPhenoMatchInNetwork(2);
+        // gene3 column would give 1.2 * 0.4 = 0.48, but it is below the cut-off. gene1: 1.0 * 0.9 = 0.9
+        assertThat(result.getMatchGeneId(), equalTo(1));
+        assertThat(result.getScore(), equalTo(0.5 + 1.0f * 0.9f));
+    }
+
+    @Test
+    public void testNoPositiveScoresIsNoHit() {
+        ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels = ArrayListMultimap.create();
+        bestGeneModels.put(1, makeModelMatch(1, 0.9));
+        HiPhiveProteinInteractionScorer instance = new HiPhiveProteinInteractionScorer(makeDataMatrix(), bestGeneModels, 0.5);
+        // the only high quality gene is itself
+        assertThat(instance.getClosestPhenoMatchInNetwork(1), equalTo(GeneMatch.NO_HIT));
+    }
+
+    @Test
+    public void testSparseMatrixGivesSameMatches() {
+        DataMatrix dataMatrix = makeDataMatrix();
+        HiPhiveProteinInteractionScorer dense = new HiPhiveProteinInteractionScorer(dataMatrix, makeBestGeneModels(), 0.5);
+        HiPhiveProteinInteractionScorer sparse = new HiPhiveProteinInteractionScorer(SparseDataMatrix.fromDataMatrix(dataMatrix, 4, 0f), makeBestGeneModels(), 0.5);
+        for (int entrezGeneId = 1; entrezGeneId <= 4; entrezGeneId++) {
+            assertThat(sparse.getClosestPhenoMatchInNetwork(entrezGeneId).getMatchGeneId(), equalTo(dense.getClosestPhenoMatchInNetwork(entrezGeneId).getMatchGeneId()));
+        }
+    }
+
+    @Test
+    public void testParallelMatchesAreSameAsSingleThreaded() {
+        int numGenes = 3000;
+        Random random = new Random(42);
+        FloatMatrix matrix = new FloatMatrix(numGenes, numGenes);
+        for (int row = 0; row < numGenes; row++) {
+            for (int column = 0; column < numGenes; column++) {
+                matrix.put(row, column, random.nextFloat());
+            }
+        }
+        Map<Integer, Integer> entrezIdToRowIndex = new HashMap<>();
+        for (int i = 0; i < numGenes; i++) {
+            entrezIdToRowIndex.put(i + 1, i);
+        }
+        DataMatrix dataMatrix = new InMemoryDataMatrix(matrix, entrezIdToRowIndex);
+
+        ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels = ArrayListMultimap.create();
+        for (int entrezGeneId = 1; entrezGeneId <= numGenes; entrezGeneId += 100) {
+            bestGeneModels.put(entrezGeneId, makeModelMatch(entrezGeneId, 0.5 + random.nextDouble() / 2));
+        }
+
+        HiPhiveProteinInteractionScorer singleThreaded = new HiPhiveProteinInteractionScorer(dataMatrix, bestGeneModels, 0.5, 1);
+        HiPhiveProteinInteractionScorer parallel = new HiPhiveProteinInteractionScorer(dataMatrix, bestGeneModels, 0.5, 4);
+        for (int entrezGeneId = 1; entrezGeneId <= numGenes; entrezGeneId++) {
+            GeneMatch expected = singleThreaded.getClosestPhenoMatchInNetwork(entrezGeneId);
+            GeneMatch actual = parallel.getClosestPhenoMatchInNetwork(entrezGeneId);
+            assertThat(actual.getMatchGeneId(), equalTo(expected.getMatchGeneId()));
+            assertThat(actual.getScore(), equalTo(expected.getScore()));
+        }
+    }
+
+    @Test
+    public void testSharedPoolMatchesAreSameAsSingleThreadedAndPoolIsNotShutDown() {
+        int numGenes = 3000;
+        Random random = new Random(42);
+        FloatMatrix matrix = new FloatMatrix(numGenes, numGenes);
+        for (int row = 0; row < numGenes; row++) {
+            for (int column = 0; column < numGenes; column++) {
+                matrix.put(row, column, random.nextFloat());
+            }
+        }
+        Map<Integer, Integer> entrezIdToRowIndex = new HashMap<>();
+        for (int i = 0; i < numGenes; i++) {
+            entrezIdToRowIndex.put(i + 1, i);
+        }
+        DataMatrix dataMatrix = new InMemoryDataMatrix(matrix, entrezIdToRowIndex);
+
+        ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels = ArrayListMultimap.create();
+        for (int entrezGeneId = 1; entrezGeneId <= numGenes; entrezGeneId += 100) {
+            bestGeneModels.put(entrezGeneId, makeModelMatch(entrezGeneId, 0.5 + random.nextDouble() / 2));
+        }
+
+        ForkJoinPool sharedPool = new ForkJoinPool(4);
+        HiPhiveProteinInteractionScorer singleThreaded = new HiPhiveProteinInteractionScorer(dataMatrix, bestGeneModels, 0.5, 1);
+        HiPhiveProteinInteractionScorer shared = new HiPhiveProteinInteractionScorer(dataMatrix, bestGeneModels, 0.5, sharedPool);
+        for (int entrezGeneId = 1; entrezGeneId <= numGenes; entrezGeneId++) {
+            GeneMatch expected = singleThreaded.getClosestPhenoMatchInNetwork(entrezGeneId);
+            GeneMatch actual = shared.getClosestPhenoMatchInNetwork(entrezGeneId);
+            assertThat(actual.getMatchGeneId(), equalTo(expected.getMatchGeneId()));
+            assertThat(actual.getScore(), equalTo(expected.getScore()));
+        }
+        assertThat(sharedPool.isShutdown(), equalTo(false));
+        sharedPool.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelismMustBePositive() {
+        new HiPhiveProteinInteractionScorer(makeDataMatrix(), makeBestGeneModels(), 0.5, 0);
+    }
+
+}
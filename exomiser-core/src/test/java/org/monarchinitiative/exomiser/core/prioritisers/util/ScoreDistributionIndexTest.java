@@ -0,0 +1,207 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.OptionalDouble;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class ScoreDistributionIndexTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path distributionsDir;
+    private Path indexFile;
+    private ScoreDistributionIndex instance;
+
+    @Before
+    public void setUp() throws Exception {
+        distributionsDir = temporaryFolder.newFolder("phenix").toPath();
+        Files.write(distributionsDir.resolve("1.out"), Arrays.asList(
+                ">2263_1000",
+                "0.5-0.9",
+                "1.0-0.5",
+                "2.5-0.01",
+                ">12345_1000",
+                "0.1-1.0",
+                "0.2-0.4"
+        ));
+        Files.write(distributionsDir.resolve("2.out"), Arrays.asList(
+                ">2263_1000",
+                "0.75-0.8",
+                "1.5-0.2",
+                "3.0-0.001"
+        ));
+        indexFile = temporaryFolder.getRoot().toPath().resolve(ScoreDistributionIndex.DEFAULT_FILE_NAME);
+        ScoreDistributionIndex.writeIndex(distributionsDir, indexFile);
+        instance = ScoreDistributionIndex.open(indexFile);
+    }
+
+    private double containerPvalue(int numQueryTerms, int entrezGeneId, double score) {
+        String folder = distributionsDir.toString() + File.separator;
+        ScoreDistributionContainer container = new ScoreDistributionContainer(folder, false, numQueryTerms);
+        return container.getDistribution(Integer.toString(entrezGeneId)).getPvalue(score, 1000d);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(ScoreDistributionIndex.EMPTY.isEmpty(), is(true));
+        assertThat(ScoreDistributionIndex.EMPTY.getPvalue(false, 1, 2263, 1.0), equalTo(OptionalDouble.empty()));
+    }
+
+    @Test
+    public void testIsNotEmpty() {
+        assertThat(instance.isEmpty(), is(false));
+    }
+
+    @Test
+    public void testUnknownGeneReturnsEmpty() {
+        assertThat(instance.getPvalue(false, 1, 999999, 1.0), equalTo(OptionalDouble.empty()));
+    }
+
+    @Test
+    public void testMissingSymmetricDistributionReturnsEmpty() {
+        assertThat(instance.getPvalue(true, 1, 2263, 1.0), equalTo(OptionalDouble.empty()));
+    }
+
+    @Test
+    public void testPvaluesMatchTextDistributions() {
+        double[] scores = {0.0, 0.4, 0.5, 0.7, 1.0, 1.0004, 2.0, 2.5};
+        for (double score : scores) {
+            double expected = containerPvalue(1, 2263, score);
+            assertThat(instance.getPvalue(false, 1, 2263, score).getAsDouble(), equalTo((double) (float) expected));
+        }
+    }
+
+    @Test
+    public void testScoreHigherThanDistributionReturnsOneOverNumberRandomisations() {
+        assertThat(instance.getPvalue(false, 2, 2263, 10.0).getAsDouble(), equalTo(1d / 1000d));
+    }
+
+    @Test
+    public void testFallsBackToDistributionWithFewerQueryTerms() {
+        assertThat(instance.getPvalue(false, 2, 12345, 0.15).getAsDouble(), equalTo((double) 0.4f));
+    }
+
+    @Test
+    public void testNumberOfQueryTermsIsCappedAtMaximum() {
+        assertThat(instance.getPvalue(false, 25, 2263, 1.5).getAsDouble(), equalTo((double) 0.2f));
+    }
+
+    @Test
+    public void testIsUpToDate() {
+        assertThat(ScoreDistributionIndex.isUpToDate(indexFile, distributionsDir), is(true));
+    }
+
+    @Test
+    public void testIsNotUpToDateWhenIndexIsMissing() throws Exception {
+        Files.delete(indexFile);
+        assertThat(ScoreDistributionIndex.isUpToDate(indexFile, distributionsDir), is(false));
+    }
+
+    @Test
+    public void testIsNotUpToDateWhenDistributionFileModified() throws Exception {
+        Path distributionFile = distributionsDir.resolve("2.out");
+        FileTime lastModified = Files.getLastModifiedTime(distributionFile);
+        Files.setLastModifiedTime(distributionFile, FileTime.fromMillis(lastModified.toMillis() + 10_000));
+        assertThat(ScoreDistributionIndex.isUpToDate(indexFile, distributionsDir), is(false));
+    }
+
+    @Test
+    public void testIsNotUpToDateWhenDistributionFileAdded() throws Exception {
+        Files.write(distributionsDir.resolve("3.out"), Arrays.asList(">2263_1000", "0.75-0.8"));
+        assertThat(ScoreDistributionIndex.isUpToDate(indexFile, distributionsDir), is(false));
+    }
+
+    @Test
+    public void testIsNotUpToDateWhenDistributionFileRemoved() throws Exception {
+        Files.delete(distributionsDir.resolve("2.out"));
+        assertThat(ScoreDistributionIndex.isUpToDate(indexFile, distributionsDir), is(false));
+    }
+
+    @Test
+    public void testIsNotUpToDateWhenIndexIsNotAnIndex() throws Exception {
+        Files.write(indexFile, Arrays.asList("wibble"));
+        assertThat(ScoreDistributionIndex.isUpToDate(indexFile, distributionsDir), is(false));
+    }
+
+    @Test
+    public void testHasDistributionFiles() throws Exception {
+        assertThat(ScoreDistributionIndex.hasDistributionFiles(distributionsDir), is(true));
+        assertThat(ScoreDistributionIndex.hasDistributionFiles(temporaryFolder.newFolder("empty").toPath()), is(false));
+    }
+
+    @Test
+    public void testWriteIndexCreatesMissingDirectories() throws Exception {
+        Path cacheIndexFile = temporaryFolder.getRoot().toPath().resolve("cache/phenix").resolve(ScoreDistributionIndex.DEFAULT_FILE_NAME);
+        ScoreDistributionIndex.writeIndex(distributionsDir, cacheIndexFile);
+        assertThat(ScoreDistributionIndex.isUpToDate(cacheIndexFile, distributionsDir), is(true));
+    }
+
+    @Test
+    public void testWriteIndexLeavesNoTemporaryFiles() throws Exception {
+        Path cacheDir = temporaryFolder.newFolder("cache").toPath();
+        Path cacheIndexFile = cacheDir.resolve(ScoreDistributionIndex.DEFAULT_FILE_NAME);
+        ScoreDistributionIndex.writeIndex(distributionsDir, cacheIndexFile);
+        //re-writing replaces the existing index
+        ScoreDistributionIndex.writeIndex(distributionsDir, cacheIndexFile);
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertThat(files.collect(Collectors.toList()), equalTo(Collections.singletonList(cacheIndexFile)));
+        }
+    }
+
+    @Test(expected = ScoreDistributionIndex.ScoreDistributionIndexException.class)
+    public void testWriteIndexThrowsExceptionWhenNoDistributionFiles() throws Exception {
+        Path emptyDir = temporaryFolder.newFolder("empty").toPath();
+        ScoreDistributionIndex.writeIndex(emptyDir, emptyDir.resolve(ScoreDistributionIndex.DEFAULT_FILE_NAME));
+    }
+
+    @Test
+    public void testNoIndexWrittenWhenNoDistributionFiles() throws Exception {
+        Path emptyDir = temporaryFolder.newFolder("empty").toPath();
+        Path emptyIndex = emptyDir.resolve(ScoreDistributionIndex.DEFAULT_FILE_NAME);
+        try {
+            ScoreDistributionIndex.writeIndex(emptyDir, emptyIndex);
+        } catch (ScoreDistributionIndex.ScoreDistributionIndexException e) {
+            // expected
+        }
+        assertThat(Files.exists(emptyIndex), is(false));
+    }
+}
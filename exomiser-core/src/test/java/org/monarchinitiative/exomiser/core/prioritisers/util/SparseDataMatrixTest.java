@@ -0,0 +1,180 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.jblas.FloatMatrix;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class SparseDataMatrixTest {
+
+    private DataMatrix denseMatrix;
+
+    @Before
+    public void setUp() {
+        float[][] matrix = {
+                {0.50f, 0.10f, 0.00f, 0.30f},
+                {0.10f, 0.40f, 0.20f, 0.01f},
+                {0.00f, 0.20f, 0.60f, 0.05f},
+                {0.30f, 0.01f, 0.05f, 0.70f}
+        };
+
+        Map<Integer, Integer> entrezIdToRowIndex = new TreeMap<>();
+        entrezIdToRowIndex.put(1111, 0);
+        entrezIdToRowIndex.put(2222, 1);
+        entrezIdToRowIndex.put(3333, 2);
+        entrezIdToRowIndex.put(4444, 3);
+
+        denseMatrix = new InMemoryDataMatrix(new FloatMatrix(matrix), entrezIdToRowIndex);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxEntriesPerColumnMustBePositive() {
+        SparseDataMatrix.fromDataMatrix(denseMatrix, 0, 0f);
+    }
+
+    @Test
+    public void testRetainsAllNonZeroValuesWhenNotTruncated() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 4, 0f);
+        assertThat(instance.numRows(), equalTo(4));
+        assertThat(instance.numStoredValues(), equalTo(14));
+        assertThat(instance.getEntrezIdToRowIndex(), equalTo(denseMatrix.getEntrezIdToRowIndex()));
+    }
+
+    @Test
+    public void testKeepsTopValuesPerColumn() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 2, 0f);
+        assertThat(instance.numStoredValues(), equalTo(8));
+        // column 0 keeps 0.5 and 0.3, drops 0.1
+        assertThat(instance.get(1, 0), equalTo(0f));
+        assertTrue(Math.abs(instance.get(0, 0) - 0.5f) <= instance.getColumnErrorBound(0));
+        assertTrue(Math.abs(instance.get(3, 0) - 0.3f) <= instance.getColumnErrorBound(0));
+    }
+
+    @Test
+    public void testMinValueDropsSmallValues() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 4, 0.1f);
+        // 0.01, 0.05 and 0.0 values are dropped
+        assertThat(instance.numStoredValues(), equalTo(10));
+        assertThat(instance.get(3, 1), equalTo(0f));
+        assertThat(instance.get(2, 3), equalTo(0f));
+    }
+
+    @Test
+    public void testErrorBoundIsMaxDroppedValue() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 2, 0f);
+        // column 1 drops 0.1 and 0.01
+        assertTrue(instance.getColumnErrorBound(1) >= 0.1f);
+    }
+
+    @Test
+    public void testMaxAbsoluteErrorIsWithinErrorBound() {
+        for (int maxEntries = 1; maxEntries <= 4; maxEntries++) {
+            SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, maxEntries, 0f);
+            assertTrue(instance.maxAbsoluteError(denseMatrix) <= instance.getMaxErrorBound());
+        }
+    }
+
+    @Test
+    public void testQuantisationErrorIsSmall() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 4, 0f);
+        assertTrue(instance.maxAbsoluteError(denseMatrix) < 0.0001f);
+    }
+
+    @Test
+    public void testGetColumnMatrixForGene() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 4, 0f);
+        FloatMatrix expected = denseMatrix.getColumnMatrixForGene(3333);
+        FloatMatrix column = instance.getColumnMatrixForGene(3333);
+        assertThat(column.getRows(), equalTo(4));
+        assertThat(column.getColumns(), equalTo(1));
+        assertTrue(column.sub(expected).normmax() <= instance.getColumnErrorBound(2));
+    }
+
+    @Test
+    public void testGetColumnSumForGenes() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 4, 0f);
+        FloatMatrix expected = denseMatrix.getColumnSumForGenes(Arrays.asList(1111, 4444, 9999));
+        FloatMatrix actual = instance.getColumnSumForGenes(Arrays.asList(1111, 4444, 9999));
+        float errorBound = instance.getColumnErrorBound(0) + instance.getColumnErrorBound(3);
+        assertTrue(actual.sub(expected).normmax() <= errorBound);
+    }
+
+    @Test
+    public void testGetMatrixIsSameAsGetForAllValues() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 2, 0f);
+        FloatMatrix matrix = instance.getMatrix();
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 4; column++) {
+                assertThat(matrix.get(row, column), equalTo(instance.get(row, column)));
+            }
+        }
+    }
+
+    @Test
+    public void testContainsGene() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 2, 0f);
+        assertThat(instance.containsGene(1111), is(true));
+        assertThat(instance.containsGene(9999), is(false));
+        assertThat(instance.getRowIndexForGene(4444), equalTo(3));
+    }
+
+    @Test
+    public void testForEachValueInColumnOnlyVisitsStoredValuesInRange() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 4, 0f);
+        List<Integer> rows = new ArrayList<>();
+        List<Float> values = new ArrayList<>();
+        // column for 1111 is {0.50, 0.10, 0.00, 0.30}
+        instance.forEachValueInColumn(1111, 1, 4, (row, value) -> {
+            rows.add(row);
+            values.add(value);
+        });
+        assertThat(rows, equalTo(Arrays.asList(1, 3)));
+        assertThat(values, equalTo(Arrays.asList(instance.get(1, 0), instance.get(3, 0))));
+    }
+
+    @Test
+    public void testEqualsIncludesErrorBounds() {
+        SparseDataMatrix instance = SparseDataMatrix.fromDataMatrix(denseMatrix, 2, 0f);
+        SparseDataMatrix same = new SparseDataMatrix(instance.numRows(), instance.getEntrezIdToRowIndex(), instance.getColumnPointers(), instance.getRowIndices(), instance.getQuantisedValues(), instance.getColumnScales(), instance.getColumnErrorBounds().clone());
+        assertThat(same, equalTo(instance));
+        assertThat(same.hashCode(), equalTo(instance.hashCode()));
+
+        float[] otherErrorBounds = instance.getColumnErrorBounds().clone();
+        otherErrorBounds[0] += 0.1f;
+        SparseDataMatrix other = new SparseDataMatrix(instance.numRows(), instance.getEntrezIdToRowIndex(), instance.getColumnPointers(), instance.getRowIndices(), instance.getQuantisedValues(), instance.getColumnScales(), otherErrorBounds);
+        assertThat(other.equals(instance), is(false));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2018 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class TermSimilarityIndexTest {
+
+    /*
+     *          ROOT (0.0)
+     *         /         \
+     *     A (1.0)      B (1.5)
+     *     /    \          \
+     * A1 (2.0) A2 (2.5)  B1 (3.0)
+     */
+    private static final Map<String, List<String>> ANCESTORS = new HashMap<>();
+    private static final Map<String, Double> TERM_IC = new HashMap<>();
+
+    static {
+        ANCESTORS.put("ROOT", Collections.singletonList("ROOT"));
+        ANCESTORS.put("A", Arrays.asList("A", "ROOT"));
+        ANCESTORS.put("B", Arrays.asList("B", "ROOT"));
+        ANCESTORS.put("A1", Arrays.asList("A1", "A", "ROOT"));
+        ANCESTORS.put("A2", Arrays.asList("A2", "A", "ROOT"));
+        ANCESTORS.put("B1", Arrays.asList("B1", "B", "ROOT"));
+
+        TERM_IC.put("ROOT", 0.0);
+        TERM_IC.put("A", 1.0);
+        TERM_IC.put("B", 1.5);
+        TERM_IC.put("A1", 2.0);
+        TERM_IC.put("A2", 2.5);
+        TERM_IC.put("B1", 3.0);
+    }
+
+    private TermSimilarityIndex<String> instance;
+
+    @Before
+    public void setUp() {
+        Map<String, List<String>> geneAnnotations = new HashMap<>();
+        geneAnnotations.put("1", Arrays.asList("A1", "B1"));
+        geneAnnotations.put("2", Collections.singletonList("A2"));
+        instance = new TermSimilarityIndex<>(TERM_IC, ANCESTORS::get, geneAnnotations);
+    }
+
+    @Test
+    public void testContainsObject() {
+        assertThat(instance.containsObject("1"), is(true));
+        assertThat(instance.containsObject("2"), is(true));
+        assertThat(instance.containsObject("3"), is(false));
+    }
+
+    @Test
+    public void testNumAnnotationTerms() {
+        assertThat(instance.numAnnotationTerms(), equalTo(3));
+    }
+
+    @Test
+    public void testTermSimilarityIsIcOfMostInformativeCommonAncestor() {
+        TermSimilarityIndex<String>.QuerySimilarities querySimilarities = instance.querySimilarities(Arrays.asList("A1", "A2", "B"));
+        // A1 vs A1 -> A1
+        assertThat(querySimilarities.getSimilarity(0, "A1"), equalTo(2.0));
+        // A1 vs A2 -> A
+        assertThat(querySimilarities.getSimilarity(0, "A2"), equalTo(1.0));
+        // A1 vs B1 -> ROOT
+        assertThat(querySimilarities.getSimilarity(0, "B1"), equalTo(0.0));
+        // B vs B1 -> B
+        assertThat(querySimilarities.getSimilarity(2, "B1"), equalTo(1.5));
+    }
+
+    @Test
+    public void testUnknownAnnotationTermSimilarityIsZero() {
+        TermSimilarityIndex<String>.QuerySimilarities querySimilarities = instance.querySimilarities(Collections.singletonList("A1"));
+        assertThat(querySimilarities.getSimilarity(0, "B"), equalTo(0.0));
+    }
+
+    @Test
+    public void testAsymmetricObjectSimilarity() {
+        TermSimilarityIndex<String>.QuerySimilarities querySimilarities = instance.querySimilarities(Arrays.asList("A1", "B"));
+        // gene 1: best(A1) = 2.0, best(B) = 1.5
+        assertThat(querySimilarities.objectSimilarity("1", false), equalTo((2.0 + 1.5) / 2));
+        // gene 2: best(A1) = 1.0, best(B) = 0.0
+        assertThat(querySimilarities.objectSimilarity("2", false), equalTo((1.0 + 0.0) / 2));
+    }
+
+    @Test
+    public void testSymmetricObjectSimilarity() {
+        TermSimilarityIndex<String>.QuerySimilarities querySimilarities = instance.querySimilarities(Arrays.asList("A1", "B"));
+        // query->gene = 1.75, gene->query: best(A1) = 2.0, best(B1) = 1.5
+        double expected = (1.75 + (2.0 + 1.5) / 2) / 2;
+        assertThat(querySimilarities.objectSimilarity("1", true), equalTo(expected));
+    }
+
+    @Test
+    public void testUnknownObjectSimilarityIsZero() {
+        TermSimilarityIndex<String>.QuerySimilarities querySimilarities = instance.querySimilarities(Arrays.asList("A1", "B"));
+        assertThat(querySimilarities.objectSimilarity("3", false), equalTo(0.0));
+    }
+}
@@ -44,6 +44,9 @@ public abstract class AbstractGenomeProperties implements GenomeProperties {
     private String remmPath = "";
     private String localFrequencyPath = "";
 
+    //Optional directory for storing annotated variant snapshots
+    private String variantSnapshotDirectory = "";
+
     @Override
     public Path getDataDirectory() {
         return dataDirectory;
@@ -125,4 +128,12 @@ public void setLocalFrequencyPath(String localFrequencyPath) {
         this.localFrequencyPath = localFrequencyPath;
     }
 
+    public String getVariantSnapshotDirectory() {
+        return variantSnapshotDirectory;
+    }
+
+    public void setVariantSnapshotDirectory(String variantSnapshotDirectory) {
+        this.variantSnapshotDirectory = variantSnapshotDirectory;
+    }
+
 }
@@ -36,6 +36,8 @@
 
 import javax.sql.DataSource;
 import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Acts as a manual version of Spring component discovery and DI. This is required as there can be more than one
@@ -69,8 +71,37 @@ public GenomeAnalysisServiceConfigurer(GenomeProperties genomeProperties, Path e
         logger.info("{}", genomeProperties.getDatasource());
     }
 
-    private VariantFactory variantFactory() {
-        return new VariantFactoryImpl(new JannovarVariantAnnotator(genomeProperties.getAssembly(), jannovarData));
+    private VariantFactory variantFactory(VariantDataService variantDataService) {
+        VariantFactory variantFactory = new VariantFactoryImpl(new JannovarVariantAnnotator(genomeProperties.getAssembly(), jannovarData));
+        String variantSnapshotDirectory = genomeProperties.getVariantSnapshotDirectory();
+        if (variantSnapshotDirectory.isEmpty()) {
+            return variantFactory;
+        }
+        //e.g 1710_hg19_ucsc - the snapshots are only valid for the transcripts the variants were annotated against
+        String dataRelease = String.format("%s_%s", genomeData.getVersionAssemblyPrefix(), genomeProperties.getTranscriptSource());
+        Path snapshotDirectory = genomeData.resolveAbsoluteResourcePath(variantSnapshotDirectory);
+        logger.info("Storing annotated variant snapshots for {} in {}", dataRelease, snapshotDirectory);
+        return new SnapshotVariantFactory(variantFactory, snapshotDirectory, dataRelease, variantDataService, snapshotFrequencySources(), snapshotPathogenicitySources());
+    }
+
+    //the snapshots hold the data from all the configured sources, as querying an unconfigured source throws an error
+    private Set<FrequencySource> snapshotFrequencySources() {
+        Set<FrequencySource> frequencySources = EnumSet.copyOf(FrequencySource.ALL_EXTERNAL_FREQ_SOURCES);
+        if (!genomeProperties.getLocalFrequencyPath().isEmpty()) {
+            frequencySources.add(FrequencySource.LOCAL);
+        }
+        return frequencySources;
+    }
+
+    private Set<PathogenicitySource> snapshotPathogenicitySources() {
+        Set<PathogenicitySource> pathogenicitySources = EnumSet.of(PathogenicitySource.POLYPHEN, PathogenicitySource.MUTATION_TASTER, PathogenicitySource.SIFT);
+        if (!genomeProperties.getCaddSnvPath().isEmpty() && !genomeProperties.getCaddInDelPath().isEmpty()) {
+            pathogenicitySources.add(PathogenicitySource.CADD);
+        }
+        if (!genomeProperties.getRemmPath().isEmpty()) {
+            pathogenicitySources.add(PathogenicitySource.REMM);
+        }
+        return pathogenicitySources;
     }
 
     private GenomeDataService genomeDataService() {
@@ -94,7 +125,8 @@ private VariantDataService variantDataService() {
     // Spring can intercept any caching annotations, but otherwise keep the duplicated GenomeAnalysisServices separate from
     // any autowiring and autoconfiguration which will cause name clashes.
     protected GenomeAnalysisService buildGenomeAnalysisService() {
-        return new GenomeAnalysisServiceImpl(genomeProperties.getAssembly(), genomeDataService(), variantDataService(), variantFactory());
+        VariantDataService variantDataService = variantDataService();
+        return new GenomeAnalysisServiceImpl(genomeProperties.getAssembly(), genomeDataService(), variantDataService, variantFactory(variantDataService));
     }
 
     @Override
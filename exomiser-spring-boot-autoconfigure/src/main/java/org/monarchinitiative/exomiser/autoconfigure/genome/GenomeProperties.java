@@ -72,4 +72,9 @@ interface GenomeProperties {
     public String getLocalFrequencyPath();
 
     public void setLocalFrequencyPath(String localFrequencyPath);
+
+    //Optional directory for storing annotated variant snapshots
+    public String getVariantSnapshotDirectory();
+
+    public void setVariantSnapshotDirectory(String variantSnapshotDirectory);
 }
@@ -43,6 +43,16 @@ public class PhenotypeProperties {
     //Random walk matrix for hiPhive and exomeWalker
     private String randomWalkFileName = "rw_string_9_05.gz";
     private String randomWalkIndexFileName = "rw_string_9_05_id2index.gz";
+    //Optional sparse version of the random walk matrix - this will be created from the original if it does not exist
+    private String randomWalkSparseFileName = "";
+    private int randomWalkSparseMaxEntriesPerColumn = 500;
+    private float randomWalkSparseMinValue = 0f;
+
+    //Optionally hold the HP-HP, HP-MP and HP-ZP mappings in memory - either 'lazy' (load on first use) or 'eager' (load on startup)
+    private String preloadPhenotypeMappings = "";
+
+    //Optionally hold all the gene-disease associations in memory - either 'lazy' (load on first use) or 'eager' (load on startup)
+    private String preloadDiseaseAssociations = "";
 
     //Phenix data
     private String phenixDataDir = "phenix";
@@ -89,6 +99,46 @@ public void setRandomWalkIndexFileName(String randomWalkIndexFileName) {
         this.randomWalkIndexFileName = randomWalkIndexFileName;
     }
 
+    public String getRandomWalkSparseFileName() {
+        return randomWalkSparseFileName;
+    }
+
+    public void setRandomWalkSparseFileName(String randomWalkSparseFileName) {
+        this.randomWalkSparseFileName = randomWalkSparseFileName;
+    }
+
+    public int getRandomWalkSparseMaxEntriesPerColumn() {
+        return randomWalkSparseMaxEntriesPerColumn;
+    }
+
+    public void setRandomWalkSparseMaxEntriesPerColumn(int randomWalkSparseMaxEntriesPerColumn) {
+        this.randomWalkSparseMaxEntriesPerColumn = randomWalkSparseMaxEntriesPerColumn;
+    }
+
+    public float getRandomWalkSparseMinValue() {
+        return randomWalkSparseMinValue;
+    }
+
+    public void setRandomWalkSparseMinValue(float randomWalkSparseMinValue) {
+        this.randomWalkSparseMinValue = randomWalkSparseMinValue;
+    }
+
+    public String getPreloadPhenotypeMappings() {
+        return preloadPhenotypeMappings;
+    }
+
+    public void setPreloadPhenotypeMappings(String preloadPhenotypeMappings) {
+        this.preloadPhenotypeMappings = preloadPhenotypeMappings;
+    }
+
+    public String getPreloadDiseaseAssociations() {
+        return preloadDiseaseAssociations;
+    }
+
+    public void setPreloadDiseaseAssociations(String preloadDiseaseAssociations) {
+        this.preloadDiseaseAssociations = preloadDiseaseAssociations;
+    }
+
     public String getPhenixDataDir() {
         return phenixDataDir;
     }
@@ -120,6 +170,11 @@ public String toString() {
                 ", datasource=" + datasource +
                 ", randomWalkFileName='" + randomWalkFileName + '\'' +
                 ", randomWalkIndexFileName='" + randomWalkIndexFileName + '\'' +
+                ", randomWalkSparseFileName='" + randomWalkSparseFileName + '\'' +
+                ", randomWalkSparseMaxEntriesPerColumn=" + randomWalkSparseMaxEntriesPerColumn +
+                ", randomWalkSparseMinValue=" + randomWalkSparseMinValue +
+                ", preloadPhenotypeMappings='" + preloadPhenotypeMappings + '\'' +
+                ", preloadDiseaseAssociations='" + preloadDiseaseAssociations + '\'' +
                 ", phenixDataDir='" + phenixDataDir + '\'' +
                 ", hpoFileName='" + hpoFileName + '\'' +
                 ", hpoAnnotationFile='" + hpoAnnotationFile + '\'' +
@@ -24,12 +24,23 @@
 import com.zaxxer.hikari.HikariDataSource;
 import org.monarchinitiative.exomiser.autoconfigure.DataDirectoryAutoConfiguration;
 import org.monarchinitiative.exomiser.autoconfigure.UndefinedDataDirectoryException;
+import org.monarchinitiative.exomiser.core.phenotype.dao.HumanPhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.MousePhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.ZebraFishPhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.service.AlternateHpoIds;
+import org.monarchinitiative.exomiser.core.phenotype.service.OntologyService;
+import org.monarchinitiative.exomiser.core.phenotype.service.PreloadedOntologyService;
 import org.monarchinitiative.exomiser.core.prioritisers.PriorityFactory;
+import org.monarchinitiative.exomiser.core.prioritisers.dao.DefaultDiseaseDao;
+import org.monarchinitiative.exomiser.core.prioritisers.dao.DiseaseDao;
+import org.monarchinitiative.exomiser.core.prioritisers.dao.PreloadedDiseaseDao;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrixIO;
+import org.monarchinitiative.exomiser.core.prioritisers.util.SparseDataMatrix;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -139,6 +150,21 @@ public Path hpoOboFilePath() {
         return hpoFilePath;
     }
 
+    /**
+     * Alternate and obsolete HPO ids are not in the phenotype database, so these are read from the hp.obo file to
+     * allow the {@link OntologyService} to resolve them to the current terms.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AlternateHpoIds alternateHpoIds() {
+        Path hpoOboFilePath = hpoOboFilePath();
+        if (Files.isReadable(hpoOboFilePath)) {
+            return AlternateHpoIds.parseOboFile(hpoOboFilePath);
+        }
+        logger.info("Unable to read {} - alternate HPO ids will not be recognised", hpoOboFilePath);
+        return AlternateHpoIds.EMPTY;
+    }
+
     @Bean
     @ConditionalOnMissingBean(name = "hpoAnnotationFilePath")
     public Path hpoAnnotationFilePath() {
@@ -164,7 +190,56 @@ public DataMatrix randomWalkMatrix() {
         String randomWalkIndexFileNameValue = phenotypeProperties.getRandomWalkIndexFileName();
         Path randomWalkIndexFilePath = phenotypeDataDirectory().resolve(randomWalkIndexFileNameValue);
 
-        return DataMatrixIO.loadDataMatrix(randomWalkFilePath.toString(), randomWalkIndexFilePath.toString(), true);
+        String randomWalkSparseFileNameValue = phenotypeProperties.getRandomWalkSparseFileName();
+        if (randomWalkSparseFileNameValue.isEmpty()) {
+            return DataMatrixIO.loadDataMatrix(randomWalkFilePath.toString(), randomWalkIndexFilePath.toString(), true);
+        }
+        Path randomWalkSparseFilePath = phenotypeDataDirectory().resolve(randomWalkSparseFileNameValue);
+        if (!Files.exists(randomWalkSparseFilePath)) {
+            logger.info("Creating sparse random walk matrix {}", randomWalkSparseFilePath);
+            DataMatrix dataMatrix = DataMatrixIO.loadDataMatrix(randomWalkFilePath.toString(), randomWalkIndexFilePath.toString(), true);
+            int maxEntriesPerColumn = phenotypeProperties.getRandomWalkSparseMaxEntriesPerColumn();
+            float minValue = phenotypeProperties.getRandomWalkSparseMinValue();
+            SparseDataMatrix sparseDataMatrix = SparseDataMatrix.fromDataMatrix(dataMatrix, maxEntriesPerColumn, minValue);
+            logger.info("Sparse random walk matrix maximum error bound: {}", sparseDataMatrix.getMaxErrorBound());
+            DataMatrixIO.writeSparseDataMatrix(sparseDataMatrix, randomWalkSparseFilePath);
+            return sparseDataMatrix;
+        }
+        return DataMatrixIO.loadSparseDataMatrix(randomWalkSparseFilePath);
+    }
+
+    /**
+     * Replaces the default database-backed {@link OntologyService} with one holding the phenotype mappings in memory
+     * when exomiser.phenotype.preload-phenotype-mappings is set to 'lazy' or 'eager'. Any other value, such as 'false',
+     * leaves the default service in place.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnExpression("'${exomiser.phenotype.preload-phenotype-mappings:}'.matches('(?i)lazy|eager')")
+    public OntologyService preloadedOntologyService(HumanPhenotypeOntologyDao hpoDao, MousePhenotypeOntologyDao mpoDao, ZebraFishPhenotypeOntologyDao zpoDao) {
+        PreloadedOntologyService preloadedOntologyService = new PreloadedOntologyService(hpoDao, mpoDao, zpoDao);
+        if ("eager".equalsIgnoreCase(phenotypeProperties.getPreloadPhenotypeMappings())) {
+            logger.info("Preloading phenotype mappings");
+            preloadedOntologyService.preload();
+        }
+        return preloadedOntologyService;
+    }
+
+    /**
+     * Replaces the default {@link DiseaseDao}, which queries the database once per gene, with one holding all the
+     * gene-disease associations in memory when exomiser.phenotype.preload-disease-associations is set to 'lazy' or
+     * 'eager'. Any other value, such as 'false', leaves the default DiseaseDao in place.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnExpression("'${exomiser.phenotype.preload-disease-associations:}'.matches('(?i)lazy|eager')")
+    public DiseaseDao preloadedDiseaseDao(DataSource phenotypeDataSource) {
+        PreloadedDiseaseDao preloadedDiseaseDao = new PreloadedDiseaseDao(new DefaultDiseaseDao(phenotypeDataSource));
+        if ("eager".equalsIgnoreCase(phenotypeProperties.getPreloadDiseaseAssociations())) {
+            logger.info("Preloading gene-disease associations");
+            preloadedDiseaseDao.preload();
+        }
+        return preloadedDiseaseDao;
     }
 
     @Bean
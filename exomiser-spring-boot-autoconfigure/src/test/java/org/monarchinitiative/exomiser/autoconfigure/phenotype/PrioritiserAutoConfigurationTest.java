@@ -25,6 +25,10 @@
 import org.mockito.Mockito;
 import org.monarchinitiative.exomiser.autoconfigure.AbstractAutoConfigurationTest;
 import org.monarchinitiative.exomiser.autoconfigure.DataDirectoryAutoConfiguration;
+import org.monarchinitiative.exomiser.core.phenotype.service.OntologyService;
+import org.monarchinitiative.exomiser.core.phenotype.service.PreloadedOntologyService;
+import org.monarchinitiative.exomiser.core.prioritisers.dao.DiseaseDao;
+import org.monarchinitiative.exomiser.core.prioritisers.dao.PreloadedDiseaseDao;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
@@ -37,6 +41,7 @@
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.core.IsEqual.equalTo;
@@ -150,6 +155,48 @@ public void randomWalkMatrixCanBeOverriden() {
         assertThat(dataMatrix, not(nullValue()));
     }
 
+    @Test
+    public void ontologyServiceDoesNotPreloadPhenotypeMappingsByDefault() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION);
+        OntologyService ontologyService = context.getBean(OntologyService.class);
+        assertThat(ontologyService, not(instanceOf(PreloadedOntologyService.class)));
+    }
+
+    @Test
+    public void ontologyServiceCanLazilyPreloadPhenotypeMappings() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION, "exomiser.phenotype.preload-phenotype-mappings=lazy");
+        OntologyService ontologyService = context.getBean(OntologyService.class);
+        assertThat(ontologyService, instanceOf(PreloadedOntologyService.class));
+    }
+
+    @Test
+    public void ontologyServiceDoesNotPreloadPhenotypeMappingsWhenFalse() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION, "exomiser.phenotype.preload-phenotype-mappings=false");
+        OntologyService ontologyService = context.getBean(OntologyService.class);
+        assertThat(ontologyService, not(instanceOf(PreloadedOntologyService.class)));
+    }
+
+    @Test
+    public void diseaseDaoDoesNotPreloadDiseaseAssociationsByDefault() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION);
+        DiseaseDao diseaseDao = context.getBean(DiseaseDao.class);
+        assertThat(diseaseDao, not(instanceOf(PreloadedDiseaseDao.class)));
+    }
+
+    @Test
+    public void diseaseDaoDoesNotPreloadDiseaseAssociationsWhenFalse() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION, "exomiser.phenotype.preload-disease-associations=false");
+        DiseaseDao diseaseDao = context.getBean(DiseaseDao.class);
+        assertThat(diseaseDao, not(instanceOf(PreloadedDiseaseDao.class)));
+    }
+
+    @Test
+    public void diseaseDaoCanLazilyPreloadDiseaseAssociations() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION, "exomiser.phenotype.preload-disease-associations=lazy");
+        DiseaseDao diseaseDao = context.getBean(DiseaseDao.class);
+        assertThat(diseaseDao, instanceOf(PreloadedDiseaseDao.class));
+    }
+
     @Configuration
     @ImportAutoConfiguration(PrioritiserAutoConfiguration.class)
     protected static class EmptyConfiguration {
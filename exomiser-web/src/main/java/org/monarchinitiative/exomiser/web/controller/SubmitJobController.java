@@ -30,6 +30,7 @@
 import org.monarchinitiative.exomiser.core.Exomiser;
 import org.monarchinitiative.exomiser.core.analysis.*;
 import org.monarchinitiative.exomiser.core.filters.FilterReport;
+import org.monarchinitiative.exomiser.core.metrics.ExomiserEvents;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.model.GeneticInterval;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
@@ -141,8 +142,17 @@ public String submit(
         }
 
         Analysis analysis = buildAnalysis(vcfPath, pedPath, proband, diseaseId, phenotypes, geneticInterval, minimumQuality, removeDbSnp, keepOffTarget, keepNonPathogenic, modeOfInheritance, frequency, makeGenesToKeep(genesToFilter), prioritiser);
-        AnalysisResults analysisResults = exomiser.run(analysis);
+        //PASS_ONLY analyses never hold variants on disk, so the results can still be rendered once they are closed
+        try (AnalysisResults analysisResults = exomiser.run(analysis)) {
+            writeResults(analysisId, analysis, analysisResults);
+            buildResultsModel(model, analysis, analysisResults);
+        }
+        logger.info("Returning {} results to user", vcfPath.getFileName());
+        cleanUpSampleFiles(vcfPath, pedPath);
+        return "results";
+    }
 
+    private void writeResults(UUID analysisId, Analysis analysis, AnalysisResults analysisResults) {
         Path outputDir = Paths.get(System.getProperty("java.io.tmpdir"), analysisId.toString());
         try {
             Files.createDirectory(outputDir);
@@ -160,13 +170,12 @@ public String submit(
 
         for (OutputFormat outFormat : outputSettings.getOutputFormats()) {
             ResultsWriter resultsWriter = resultsWriterFactory.getResultsWriter(outFormat);
+            ExomiserEvents.Span writeSpan = ExomiserEvents.resultsWriteStarted(analysisResults.getProbandSampleName(), String
+                    .valueOf(analysis.getGenomeAssembly()), outFormat.name());
             resultsWriter.writeFile(analysis, analysisResults, outputSettings);
+            ExomiserEvents.resultsWriteFinished(writeSpan, analysisResults.getGenes().size(), analysisResults.getVariantEvaluations()
+                    .size());
         }
-
-        buildResultsModel(model, analysis, analysisResults);
-        logger.info("Returning {} results to user", vcfPath.getFileName());
-        cleanUpSampleFiles(vcfPath, pedPath);
-        return "results";
     }
 
     private List<String> getDiseasePhenotypes(String diseaseId) {